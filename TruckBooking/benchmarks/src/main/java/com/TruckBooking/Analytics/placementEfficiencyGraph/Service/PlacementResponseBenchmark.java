@@ -0,0 +1,57 @@
+package com.TruckBooking.Analytics.placementEfficiencyGraph.Service;
+
+import com.TruckBooking.Analytics.placementEfficiencyGraph.Entities.PlacementInfo;
+import com.TruckBooking.Analytics.placementEfficiencyGraph.Model.PlacementEfficiencyResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Turning one transporter's stored placement strings into efficiency percentages.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PlacementResponseBenchmark {
+
+    private final PlacementServiceImpl service = new PlacementServiceImpl();
+
+    private PlacementInfo info;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        info = new PlacementInfo();
+        info.setTransporterId("transporter:1");
+        info.setTransporterName("Benchmark Roadways");
+        info.setShipperId("shipper:1");
+        // a year, its twelve months and most of its weeks, as the placement job stores them
+        info.getPlacementMap().put("year: 2023", counts(random));
+        String[] months = {"Jan", "Feb", "Mar", "Apr", "May", "Jun", "Jul", "Aug", "Sep", "Oct", "Nov", "Dec"};
+        for (String month : months)
+            info.getPlacementMap().put("month: " + month, counts(random));
+        for (int week = 1; week <= 48; week++)
+            info.getPlacementMap().put("week: " + week, counts(random));
+    }
+
+    @Benchmark
+    public PlacementEfficiencyResponse setResponse() {
+        return service.setResponse(info);
+    }
+
+    private static String counts(Random random) {
+        return "[" + (40 + random.nextInt(60)) + ", " + random.nextInt(40) + ", " + random.nextInt(40) + ", "
+                + random.nextInt(40) + ", " + random.nextInt(20) + "]";
+    }
+}
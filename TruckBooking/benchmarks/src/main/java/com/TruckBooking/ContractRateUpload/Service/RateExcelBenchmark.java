@@ -0,0 +1,66 @@
+package com.TruckBooking.ContractRateUpload.Service;
+
+import com.TruckBooking.ContractRateUpload.Entity.Rates;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.usermodel.XSSFSheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Parsing an uploaded contract rate sheet of 1000 rows into Rates.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RateExcelBenchmark {
+
+    private final ContractRateService service = new ContractRateService();
+
+    private byte[] workbook;
+
+    @Setup
+    public void setUp() throws IOException {
+        String[] cities = {"Pune", "Nagpur", "Indore", "Surat", "Jaipur", "Lucknow", "Patna", "Raipur"};
+        try (XSSFWorkbook book = new XSSFWorkbook(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            XSSFSheet sheet = book.createSheet("Sheet1");
+            Row header = sheet.createRow(0);
+            String[] columns = {"unloadingPointCity", "weight", "rate", "transporterId", "transporterEmail",
+                    "transporterName", "loadingPointCity"};
+            for (int i = 0; i < columns.length; i++)
+                header.createCell(i).setCellValue(columns[i]);
+            for (int r = 1; r <= 1000; r++) {
+                Row row = sheet.createRow(r);
+                row.createCell(0).setCellValue(cities[r % cities.length]);
+                row.createCell(1).setCellValue(5 + r % 30);
+                row.createCell(2).setCellValue(15000 + 25 * r);
+                row.createCell(3).setCellValue("transporter:" + r % 40);
+                row.createCell(4).setCellValue("transporter" + r % 40 + "@example.com");
+                row.createCell(5).setCellValue("Transporter " + r % 40);
+                row.createCell(6).setCellValue(cities[(r + 3) % cities.length]);
+            }
+            book.write(out);
+            workbook = out.toByteArray();
+        }
+    }
+
+    @Benchmark
+    public List<Rates> extractRateListFromExcel() {
+        return service.extractRateListFromExcel(new ByteArrayInputStream(workbook), "shipper:1");
+    }
+}
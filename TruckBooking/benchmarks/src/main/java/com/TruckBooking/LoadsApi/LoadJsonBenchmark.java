@@ -0,0 +1,86 @@
+package com.TruckBooking.LoadsApi;
+
+import com.TruckBooking.LoadsApi.Entities.Load;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Writing a full GET /load page (pageSize 15) and a large 100-load response with the
+// ObjectMapper Spring MVC would build for the controllers.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoadJsonBenchmark {
+
+    private final ObjectMapper mapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private List<Load> page;
+    private List<Load> large;
+
+    @Setup
+    public void setUp() {
+        large = new ArrayList<>();
+        for (int i = 0; i < 100; i++)
+            large.add(load(i));
+        page = large.subList(0, 15);
+    }
+
+    @Benchmark
+    public byte[] writePage() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] writeLarge() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(large);
+    }
+
+    private static Load load(int i) {
+        Load load = new Load();
+        load.setLoadId("load:" + i);
+        load.setLoadingPoint("Plot " + i + ", MIDC Industrial Area");
+        load.setLoadingPointCity("Pune");
+        load.setLoadingPointState("Maharashtra");
+        load.setLoadingPointLatitude(18.5204 + i / 1000.0);
+        load.setLoadingPointLongitude(73.8567 + i / 1000.0);
+        load.setUnloadingPoint("Sector " + i + ", Noida");
+        load.setUnloadingPointCity("Noida");
+        load.setUnloadingPointState("Uttar Pradesh");
+        load.setPostLoadId("shipper:" + i % 7);
+        load.setProductType("Agriculture and Food");
+        load.setTruckType("OPEN_BODY");
+        load.setWeight(BigDecimal.valueOf(10 + i % 20));
+        load.setNoOfTrucks(1 + i % 4);
+        load.setNoOfTyres(10);
+        load.setLoadingOn(LocalDate.of(2024, 1, 15));
+        load.setPublishMethod("contract");
+        load.setLoadingPointGeoId(new ArrayList<>(Arrays.asList("geo:pune", "geo:mh")));
+        load.setUnloadingPointGeoId(new ArrayList<>(Arrays.asList("geo:noida", "geo:up")));
+        load.setRate(40000L + 100L * i);
+        load.setUnitValue(Load.UnitValue.PER_TRUCK);
+        load.setStatus(Load.Status.PENDING);
+        load.setTimestamp(new Timestamp(1705300000000L + 60000L * i));
+        return load;
+    }
+}
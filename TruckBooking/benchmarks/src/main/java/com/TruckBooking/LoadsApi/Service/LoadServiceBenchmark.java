@@ -0,0 +1,169 @@
+package com.TruckBooking.LoadsApi.Service;
+
+import com.TruckBooking.LoadsApi.Dao.LoadDao;
+import com.TruckBooking.LoadsApi.Dao.TransporterEmailDao;
+import com.TruckBooking.LoadsApi.Entities.Load;
+import com.TruckBooking.LoadsApi.Entities.TransporterEmail;
+import com.TruckBooking.LoadsApi.Mapper.LoadRequestMapper;
+import com.TruckBooking.LoadsApi.Mapper.LoadResponseMapper;
+import com.TruckBooking.LoadsApi.Model.LoadRequest;
+import com.TruckBooking.LoadsApi.Model.TransporterDetail;
+import com.TruckBooking.LoadsApi.Response.CreateLoadResponse;
+import com.TruckBooking.LoadsApi.Response.UpdateLoadResponse;
+import com.TruckBooking.benchmarks.JpaFixture;
+import com.TruckBooking.benchmarks.Stubs;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.mapstruct.factory.Mappers;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+// addLoad/getLoad/updateLoad request -> entity -> response mapping. With backend=stub the repositories are
+// in-memory stand-ins so only the mapping is measured; with backend=h2 the JPA round trip is included.
+// Run with -prof gc and compare gc.alloc.rate.norm (bytes per call) for the garbage each call leaves.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoadServiceBenchmark {
+
+    @Param({"stub", "h2"})
+    public String backend;
+
+    private JpaFixture fixture;
+    private TransactionTemplate transactions;
+    private LoadServiceImpl service;
+    private LoadRequest request;
+    private LoadRequest update;
+    private String loadId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        service = new LoadServiceImpl();
+        service.loadSpatialIndex = new LoadSpatialIndex(new SimpleMeterRegistry());
+        service.loadRequestMapper = Mappers.getMapper(LoadRequestMapper.class);
+        service.loadResponseMapper = Mappers.getMapper(LoadResponseMapper.class);
+        request = request();
+        update = update();
+
+        if ("h2".equals(backend)) {
+            fixture = new JpaFixture();
+            transactions = fixture.transactions();
+            service.loadDao = fixture.bean(LoadDao.class);
+            service.transporterEmailDao = fixture.bean(TransporterEmailDao.class);
+        } else {
+            // the last saved load is what findByLoadId hands back
+            Load[] stored = new Load[1];
+            Map<String, Function<Object[], Object>> loadDao = Map.of(
+                    "save", args -> stored[0] = (Load) args[0],
+                    "findByLoadId", args -> Optional.ofNullable(stored[0]));
+            service.loadDao = Stubs.of(LoadDao.class, loadDao);
+            List<TransporterEmail> transporters = new ArrayList<>();
+            for (TransporterDetail detail : request.getTransporterList())
+                transporters.add(service.loadRequestMapper.toTransporterEmail(detail));
+            service.transporterEmailDao = Stubs.of(TransporterEmailDao.class, Map.of(
+                    "saveAll", args -> args[0],
+                    "findByLoadLoadId", args -> transporters));
+        }
+        loadId = inTransaction(() -> service.addLoad(request)).getLoadId();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (fixture != null)
+            fixture.close();
+    }
+
+    @Benchmark
+    public CreateLoadResponse addLoad() {
+        return inTransaction(() -> service.addLoad(request));
+    }
+
+    @Benchmark
+    public CreateLoadResponse getLoad() {
+        return inTransaction(() -> service.getLoad(loadId));
+    }
+
+    @Benchmark
+    public UpdateLoadResponse updateLoad() {
+        return inTransaction(() -> service.updateLoad(loadId, update));
+    }
+
+    private <T> T inTransaction(Supplier<T> call) {
+        return transactions == null ? call.get() : transactions.execute(status -> call.get());
+    }
+
+    private static LoadRequest request() {
+        LoadRequest request = new LoadRequest();
+        request.setLoadingPoint("Plot 12, MIDC Industrial Area");
+        request.setLoadingPointCity("Pune");
+        request.setLoadingPointState("Maharashtra");
+        request.setUnloadingPoint("Sector 63, Noida");
+        request.setUnloadingPointCity("Noida");
+        request.setUnloadingPointState("Uttar Pradesh");
+        request.setPostLoadId("shipper:1b8a1a38-868a-4113-8749-ff63ac3abb55");
+        request.setProductType("Agriculture and Food");
+        request.setTruckType("OPEN_BODY");
+        request.setWeight("25");
+        request.setNoOfTrucks("2");
+        request.setNoOfTyres("10");
+        request.setLoadingDate("Mon, Jan 15 2024");
+        request.setPublishMethod("contract");
+        request.setLoadingPointLatitude(18.5204);
+        request.setLoadingPointLongitude(73.8567);
+        request.setLoadingPointGeoId(new ArrayList<>(Arrays.asList("geo:pune", "geo:mh")));
+        request.setUnloadingPointGeoId(new ArrayList<>(Arrays.asList("geo:noida", "geo:up")));
+        request.setRate(45000L);
+        request.setUnitValue(LoadRequest.UnitValue.PER_TRUCK);
+        request.setComment("Fragile, keep covered");
+        request.setTransporterList(Arrays.asList(
+                transporter("dispatch@sharmaroadlines.in", "Sharma Roadlines", "9876543210"),
+                transporter("ops@deccancarriers.in", "Deccan Carriers", "9123456780")));
+        return request;
+    }
+
+    // a partial update: only what is set here is applied
+    private static LoadRequest update() {
+        LoadRequest update = new LoadRequest();
+        update.setTruckType("CONTAINER");
+        update.setWeight("27.5");
+        update.setNoOfTrucks("3");
+        update.setLoadingTime("10:30 AM");
+        update.setLoadingPointGeoId(new ArrayList<>(Arrays.asList("geo:pune", "geo:mh")));
+        update.setUnloadingPointGeoId(new ArrayList<>(Arrays.asList("geo:noida", "geo:up")));
+        update.setStatus(Load.Status.PENDING);
+        update.setComment("Fragile, keep covered and dry");
+        return update;
+    }
+
+    private static TransporterDetail transporter(String email, String name, String phoneNo) {
+        TransporterDetail detail = new TransporterDetail();
+        detail.setEmail(email);
+        detail.setName(name);
+        detail.setPhoneNo(phoneNo);
+        detail.setTransporterId("transporter:" + name.toLowerCase().replace(' ', '-'));
+        return detail;
+    }
+}
@@ -0,0 +1,50 @@
+package com.TruckBooking.biddingApi.Service;
+
+import com.TruckBooking.biddingApi.Entities.BiddingData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Ranking a page of bids: grouping by load, sorting by bid and attaching the rank list.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BiddingRankBenchmark {
+
+    private List<BiddingData> bids;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        bids = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            BiddingData bid = new BiddingData();
+            bid.setBidId("bid:" + i);
+            bid.setLoadId("load:" + (i % 50));
+            bid.setTransporterId("transporter:" + i);
+            bid.setTransporterBid(20000 + random.nextInt(30000));
+            bids.add(bid);
+        }
+    }
+
+    @Benchmark
+    public List<BiddingData> calculateRank() {
+        BiddingServiceImpl.calculateRank(bids);
+        return bids;
+    }
+}
@@ -0,0 +1,99 @@
+package com.TruckBooking.loadtest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+
+// Thin HTTP client that times every call into Stats under the given endpoint name.
+public final class Client {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(60);
+
+    private final HttpClient http;
+    private final String baseUrl;
+    private volatile Stats stats;
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    public Client(String baseUrl, Stats stats) {
+        this.http = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(10))
+                .version(HttpClient.Version.HTTP_1_1)
+                .build();
+        this.baseUrl = baseUrl;
+        this.stats = stats;
+    }
+
+    // Switches recording to a fresh Stats, e.g. when the warm-up is over.
+    public void measureInto(Stats stats) {
+        this.stats = stats;
+    }
+
+    public int get(String endpoint, String pathAndQuery) {
+        return send(endpoint, HttpRequest.newBuilder(uri(pathAndQuery)).GET());
+    }
+
+    public int postJson(String endpoint, String path, Object body) {
+        byte[] json;
+        try {
+            json = mapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException(e);
+        }
+        return send(endpoint, HttpRequest.newBuilder(uri(path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(json)));
+    }
+
+    // multipart/form-data with plain text fields and one file part named "file"
+    public int postFile(String endpoint, String path, Map<String, String> fields, String fileName, String contentType,
+                        byte[] content) {
+        String boundary = "----loadtest" + UUID.randomUUID();
+        ByteArrayOutputStream body = new ByteArrayOutputStream(content.length + 512);
+        for (Map.Entry<String, String> field : fields.entrySet()) {
+            write(body, "--" + boundary + "\r\nContent-Disposition: form-data; name=\"" + field.getKey() + "\"\r\n\r\n"
+                    + field.getValue() + "\r\n");
+        }
+        write(body, "--" + boundary + "\r\nContent-Disposition: form-data; name=\"file\"; filename=\"" + fileName
+                + "\"\r\nContent-Type: " + contentType + "\r\n\r\n");
+        body.writeBytes(content);
+        write(body, "\r\n--" + boundary + "--\r\n");
+        return send(endpoint, HttpRequest.newBuilder(uri(path))
+                .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body.toByteArray())));
+    }
+
+    // Returns the status code, or -1 when the request did not get an answer.
+    private int send(String endpoint, HttpRequest.Builder request) {
+        long start = System.nanoTime();
+        int status = -1;
+        try {
+            HttpResponse<Void> response = http.send(request.timeout(TIMEOUT).build(), HttpResponse.BodyHandlers.discarding());
+            status = response.statusCode();
+        } catch (IOException e) {
+            // counted as an error below
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            stats.record(endpoint, System.nanoTime() - start, status < 200 || status >= 400);
+        }
+        return status;
+    }
+
+    private URI uri(String pathAndQuery) {
+        return URI.create(baseUrl + pathAndQuery);
+    }
+
+    private static void write(ByteArrayOutputStream out, String text) {
+        out.writeBytes(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,27 @@
+package com.TruckBooking.loadtest;
+
+import java.util.List;
+
+// Ids and inputs the scenarios draw from; everything here was written by DatasetGenerator.
+public final class Dataset {
+
+    public final List<String> cities;
+    public final List<String> loadIds;
+    // loads whose bidding closes during the run; the bid storm scenario concentrates on these
+    public final List<String> closingLoadIds;
+    public final List<String> shipperIds;
+    public final List<String> transporterIds;
+    public final List<String> imeis;
+    public final byte[] rateSheet;
+
+    public Dataset(List<String> cities, List<String> loadIds, List<String> closingLoadIds, List<String> shipperIds,
+                   List<String> transporterIds, List<String> imeis, byte[] rateSheet) {
+        this.cities = cities;
+        this.loadIds = loadIds;
+        this.closingLoadIds = closingLoadIds;
+        this.shipperIds = shipperIds;
+        this.transporterIds = transporterIds;
+        this.imeis = imeis;
+        this.rateSheet = rateSheet;
+    }
+}
@@ -0,0 +1,258 @@
+package com.TruckBooking.loadtest;
+
+import com.TruckBooking.Booking.Dao.BookingDao;
+import com.TruckBooking.Booking.Entities.BookingData;
+import com.TruckBooking.ContractRateUpload.Dao.ContractRateRepo;
+import com.TruckBooking.ContractRateUpload.Entity.Rates;
+import com.TruckBooking.LoadsApi.Dao.LoadDao;
+import com.TruckBooking.LoadsApi.Entities.Load;
+import com.TruckBooking.biddingApi.Dao.BiddingDao;
+import com.TruckBooking.biddingApi.Entities.BiddingData;
+import com.TruckBooking.routeData.Dao.RoutePointDao;
+import com.TruckBooking.routeData.Entities.Route;
+import com.TruckBooking.routeData.Model.RoutePoint;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.usermodel.XSSFSheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.springframework.context.ApplicationContext;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// Writes a reproducible marketplace into the application's database through its own repositories:
+// the same seed always yields the same loads, bids, bookings, contract rates and GPS history.
+public final class DatasetGenerator {
+
+    private static final int CHUNK = 1000;
+
+    private static final String[][] CITIES = {
+            {"Pune", "Maharashtra"}, {"Nagpur", "Maharashtra"}, {"Mumbai", "Maharashtra"}, {"Indore", "Madhya Pradesh"},
+            {"Bhopal", "Madhya Pradesh"}, {"Surat", "Gujarat"}, {"Ahmedabad", "Gujarat"}, {"Jaipur", "Rajasthan"},
+            {"Lucknow", "Uttar Pradesh"}, {"Noida", "Uttar Pradesh"}, {"Patna", "Bihar"}, {"Raipur", "Chhattisgarh"},
+            {"Hyderabad", "Telangana"}, {"Chennai", "Tamil Nadu"}, {"Bengaluru", "Karnataka"}, {"Kolkata", "West Bengal"}};
+
+    private static final String[] TRUCK_TYPES = {"OPEN_BODY", "CLOSED_BODY", "FLATBED", "TANKER", "CONTAINER"};
+
+    private final ApplicationContext context;
+    private final Random random;
+
+    public DatasetGenerator(ApplicationContext context, long seed) {
+        this.context = context;
+        this.random = new Random(seed);
+    }
+
+    public Dataset generate(int loads, int devices, int pointsPerDevice, boolean routePoints) throws IOException {
+        List<String> cities = new ArrayList<>();
+        for (String[] city : CITIES)
+            cities.add(city[0]);
+        List<String> shipperIds = ids("shipper:", Math.max(1, loads / 200));
+        List<String> transporterIds = ids("transporter:", Math.max(20, loads / 50));
+        List<String> imeis = new ArrayList<>();
+        for (int i = 0; i < devices; i++)
+            imeis.add(String.format("86%013d", i));
+
+        List<String> loadIds = new ArrayList<>();
+        List<String> closingLoadIds = new ArrayList<>();
+        List<Load> loadRows = new ArrayList<>();
+        for (int i = 0; i < loads; i++) {
+            Load load = load(i, shipperIds);
+            loadIds.add(load.getLoadId());
+            // about one load in twenty is still being auctioned
+            if (i % 20 == 0)
+                closingLoadIds.add(load.getLoadId());
+            loadRows.add(load);
+        }
+        saveAll(context.getBean(LoadDao.class), loadRows);
+
+        List<BiddingData> bids = new ArrayList<>();
+        for (String loadId : closingLoadIds) {
+            List<String> bidders = new ArrayList<>(transporterIds);
+            Collections.shuffle(bidders, random);
+            for (String transporterId : bidders.subList(0, 3 + random.nextInt(Math.min(18, bidders.size() - 3)))) {
+                bids.add(bid(loadId, transporterId));
+            }
+        }
+        saveAll(context.getBean(BiddingDao.class), bids);
+
+        List<BookingData> bookings = new ArrayList<>();
+        for (Load load : loadRows) {
+            if (load.getStatus() == Load.Status.ON_GOING || load.getStatus() == Load.Status.COMPLETED)
+                bookings.add(booking(load, transporterIds, imeis));
+        }
+        saveAll(context.getBean(BookingDao.class), bookings);
+
+        List<Rates> rates = new ArrayList<>();
+        for (String shipperId : shipperIds) {
+            for (int i = 0; i < 40; i++)
+                rates.add(rate(shipperId, transporterIds));
+        }
+        saveAll(context.getBean(ContractRateRepo.class), rates);
+
+        if (routePoints) {
+            RoutePointDao routePointDao = context.getBean(RoutePointDao.class);
+            long end = System.currentTimeMillis();
+            for (String imei : imeis) {
+                List<RoutePoint> points = track(imei, pointsPerDevice, end);
+                for (int from = 0; from < points.size(); from += CHUNK)
+                    routePointDao.insertBatch(points.subList(from, Math.min(points.size(), from + CHUNK)));
+            }
+        }
+
+        System.out.println("seeded " + loadRows.size() + " loads, " + bids.size() + " bids, " + bookings.size()
+                + " bookings, " + rates.size() + " rates, " + (routePoints ? imeis.size() * pointsPerDevice : 0)
+                + " route points");
+        return new Dataset(cities, loadIds, closingLoadIds, shipperIds, transporterIds, imeis, rateSheet(200));
+    }
+
+    // The sheet uploaded by the Excel scenario, in the column order ContractRateService reads.
+    public byte[] rateSheet(int rows) throws IOException {
+        try (XSSFWorkbook book = new XSSFWorkbook(); ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            XSSFSheet sheet = book.createSheet("Sheet1");
+            Row header = sheet.createRow(0);
+            String[] columns = {"unloadingPointCity", "weight", "rate", "transporterId", "transporterEmail",
+                    "transporterName", "loadingPointCity"};
+            for (int i = 0; i < columns.length; i++)
+                header.createCell(i).setCellValue(columns[i]);
+            for (int r = 1; r <= rows; r++) {
+                Row row = sheet.createRow(r);
+                row.createCell(0).setCellValue(city()[0]);
+                row.createCell(1).setCellValue(5 + random.nextInt(30));
+                row.createCell(2).setCellValue(15000 + 500 * random.nextInt(80));
+                row.createCell(3).setCellValue("transporter:" + random.nextInt(100));
+                row.createCell(4).setCellValue("transporter" + r + "@example.com");
+                row.createCell(5).setCellValue("Transporter " + r);
+                row.createCell(6).setCellValue(city()[0]);
+            }
+            book.write(out);
+            return out.toByteArray();
+        }
+    }
+
+    private Load load(int i, List<String> shipperIds) {
+        String[] from = city();
+        String[] to = city();
+        Load load = new Load();
+        load.setLoadId("load:" + new UUID(random.nextLong(), random.nextLong()));
+        load.setLoadingPoint("Plot " + (1 + random.nextInt(400)) + ", " + from[0] + " Industrial Area");
+        load.setLoadingPointCity(from[0]);
+        load.setLoadingPointState(from[1]);
+        load.setLoadingPointLatitude(8 + 24 * random.nextDouble());
+        load.setLoadingPointLongitude(70 + 18 * random.nextDouble());
+        load.setUnloadingPoint("Warehouse " + (1 + random.nextInt(90)) + ", " + to[0]);
+        load.setUnloadingPointCity(to[0]);
+        load.setUnloadingPointState(to[1]);
+        load.setPostLoadId(shipperIds.get(random.nextInt(shipperIds.size())));
+        load.setProductType("Agriculture and Food");
+        load.setTruckType(TRUCK_TYPES[random.nextInt(TRUCK_TYPES.length)]);
+        load.setWeight(BigDecimal.valueOf(5 + random.nextInt(30)));
+        load.setNoOfTrucks(1 + random.nextInt(5));
+        load.setNoOfTyres(6 + 2 * random.nextInt(6));
+        load.setLoadingOn(LocalDate.of(2024, 1, 15));
+        load.setPublishMethod(i % 20 == 0 ? "bidding" : "contract");
+        load.setRate(20000L + 500L * random.nextInt(100));
+        load.setUnitValue(random.nextInt(4) == 0 ? Load.UnitValue.PER_TON : Load.UnitValue.PER_TRUCK);
+        load.setLoadingPointGeoId(new ArrayList<>(Arrays.asList("geo:" + from[0].toLowerCase())));
+        load.setUnloadingPointGeoId(new ArrayList<>(Arrays.asList("geo:" + to[0].toLowerCase())));
+        // most of the board is open, the rest spread over the later lifecycle states
+        int state = random.nextInt(100);
+        load.setStatus(state < 70 || i % 20 == 0 ? Load.Status.PENDING
+                : state < 80 ? Load.Status.ON_GOING
+                : state < 90 ? Load.Status.COMPLETED
+                : Load.Status.EXPIRED);
+        return load;
+    }
+
+    private BiddingData bid(String loadId, String transporterId) {
+        BiddingData bid = new BiddingData();
+        bid.setBidId("bid:" + new UUID(random.nextLong(), random.nextLong()));
+        bid.setLoadId(loadId);
+        bid.setTransporterId(transporterId);
+        bid.setTransporterBid(20000 + 250 * random.nextInt(200));
+        bid.setUnitValue(BiddingData.Unit.PER_TRUCK);
+        bid.setTransporterApproval(true);
+        bid.setShipperApproval(false);
+        bid.setBiddingDate("Mon, Jan 15 2024");
+        return bid;
+    }
+
+    private BookingData booking(Load load, List<String> transporterIds, List<String> imeis) {
+        BookingData booking = new BookingData();
+        booking.setBookingId("booking:" + new UUID(random.nextLong(), random.nextLong()));
+        booking.setLoadId(load.getLoadId());
+        booking.setPostLoadId(load.getPostLoadId());
+        booking.setTransporterId(transporterIds.get(random.nextInt(transporterIds.size())));
+        booking.setLoadingPointCity(load.getLoadingPointCity());
+        booking.setUnloadingPointCity(load.getUnloadingPointCity());
+        booking.setTruckNo(String.format("MH%02dAB%04d", 1 + random.nextInt(50), random.nextInt(10000)));
+        booking.setDriverName("Driver " + random.nextInt(1000));
+        booking.setDriverPhoneNum(String.format("9%09d", random.nextInt(1_000_000_000)));
+        booking.setDeviceId(imeis.isEmpty() ? "device:0" : imeis.get(random.nextInt(imeis.size())));
+        booking.setRate(load.getRate());
+        booking.setUnitValue(load.getUnitValue() == Load.UnitValue.PER_TON ? BookingData.Unit.PER_TON : BookingData.Unit.PER_TRUCK);
+        booking.setTruckId(new ArrayList<>(Arrays.asList("truck:" + random.nextInt(100000))));
+        booking.setCancel(false);
+        booking.setCompleted(load.getStatus() == Load.Status.COMPLETED);
+        booking.setBookingDate("15/01/2024");
+        return booking;
+    }
+
+    private Rates rate(String shipperId, List<String> transporterIds) {
+        Rates rate = new Rates();
+        String transporterId = transporterIds.get(random.nextInt(transporterIds.size()));
+        rate.setShipperId(shipperId);
+        rate.setLoadingPointCity(city()[0]);
+        rate.setUnloadingPointCity(city()[0]);
+        rate.setWeight(BigDecimal.valueOf(5 + random.nextInt(30)));
+        rate.setRate(15000 + 500 * random.nextInt(80));
+        rate.setTransporterId(transporterId);
+        rate.setTransporterName("Transporter " + transporterId.substring("transporter:".length()));
+        rate.setTransporterEmail(transporterId.replace(':', '-') + "@example.com");
+        return rate;
+    }
+
+    // A drive sampled every 30 seconds ending at endMillis, with the occasional stop.
+    private List<RoutePoint> track(String imei, int points, long endMillis) {
+        List<RoutePoint> track = new ArrayList<>(points);
+        double latitude = 8 + 24 * random.nextDouble();
+        double longitude = 70 + 18 * random.nextDouble();
+        long start = endMillis - TimeUnit.SECONDS.toMillis(30L * points);
+        for (int i = 0; i < points; i++) {
+            boolean stopped = random.nextInt(50) == 0;
+            if (!stopped) {
+                latitude += (random.nextDouble() - 0.3) * 0.004;
+                longitude += (random.nextDouble() - 0.3) * 0.004;
+            }
+            track.add(new RoutePoint(imei, "device:" + imei, "truck:" + imei, "MH12AB" + imei.substring(imei.length() - 4),
+                    null, latitude, longitude, new Timestamp(start + TimeUnit.SECONDS.toMillis(30L * i)),
+                    stopped ? Route.StopageStatus.Parking : null, stopped ? "10 min" : null));
+        }
+        return track;
+    }
+
+    private String[] city() {
+        return CITIES[random.nextInt(CITIES.length)];
+    }
+
+    private List<String> ids(String prefix, int count) {
+        List<String> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++)
+            ids.add(prefix + new UUID(random.nextLong(), random.nextLong()));
+        return ids;
+    }
+
+    private static <T> void saveAll(JpaRepository<T, ?> repository, List<T> rows) {
+        for (int from = 0; from < rows.size(); from += CHUNK)
+            repository.saveAll(rows.subList(from, Math.min(rows.size(), from + CHUNK)));
+    }
+}
@@ -0,0 +1,136 @@
+package com.TruckBooking.loadtest;
+
+import com.TruckBooking.TruckBookingApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Starts the application on a random port against a throwaway local database, seeds it, runs
+// the marketplace traffic mix for a while and prints per-endpoint throughput and p50/p99 latency.
+//
+//   java -jar target/loadtest.jar --db=postgres --duration=120 --warmup=20 --users=1.0
+//   java -jar target/loadtest.jar --mix=ulip --ulip-users=1000 --virtual=true
+public final class LoadTest {
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = options(args);
+        LocalDatabase.Kind kind = LocalDatabase.Kind.valueOf(options.getOrDefault("db", "postgres").toUpperCase(Locale.ROOT));
+        long seed = Long.parseLong(options.getOrDefault("seed", "42"));
+        long warmupSeconds = Long.parseLong(options.getOrDefault("warmup", "20"));
+        long durationSeconds = Long.parseLong(options.getOrDefault("duration", "120"));
+        double scale = Double.parseDouble(options.getOrDefault("users", "1.0"));
+        int loads = Integer.parseInt(options.getOrDefault("loads", "5000"));
+        int devices = Integer.parseInt(options.getOrDefault("devices", "200"));
+        int points = Integer.parseInt(options.getOrDefault("points", "500"));
+        Path report = Paths.get(options.getOrDefault("report", "target/loadtest-report.csv"));
+        String mix = options.getOrDefault("mix", "marketplace");
+        boolean virtual = Boolean.parseBoolean(options.getOrDefault("virtual", "false"));
+        long ulipDelayMillis = Long.parseLong(options.getOrDefault("ulip-delay-ms", "300"));
+        int ulipUsers = Integer.parseInt(options.getOrDefault("ulip-users", "1000"));
+
+        try (LocalDatabase database = LocalDatabase.start(kind);
+             UlipStub ulip = new UlipStub(ulipDelayMillis);
+             ConfigurableApplicationContext context = start(database, ulip, virtual)) {
+            String port = context.getEnvironment().getProperty("local.server.port");
+            Dataset dataset = new DatasetGenerator(context, seed)
+                    .generate(loads, devices, points, kind == LocalDatabase.Kind.POSTGRES);
+
+            Client client = new Client("http://localhost:" + port, new Stats());
+            List<Scenario> scenarios = "ulip".equals(mix)
+                    ? List.of(Scenarios.ulipLookups(ulipUsers))
+                    : Scenarios.marketplace(dataset, scale);
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(warmupSeconds + durationSeconds);
+            List<Thread> users = start(scenarios, client, seed, deadline);
+
+            System.out.println("warming up for " + warmupSeconds + "s");
+            Thread.sleep(TimeUnit.SECONDS.toMillis(warmupSeconds));
+            Stats stats = new Stats();
+            client.measureInto(stats);
+            long measuredFrom = System.nanoTime();
+            System.out.println("measuring for " + durationSeconds + "s");
+            for (Thread user : users)
+                user.join();
+            long elapsed = System.nanoTime() - measuredFrom;
+
+            System.out.println();
+            System.out.println(kind + ", " + mix + (virtual ? " on virtual threads" : "") + ", " + durationSeconds
+                    + "s, users x" + scale + ", seed " + seed);
+            stats.print(System.out, elapsed);
+            stats.writeCsv(report, elapsed);
+            System.out.println("written to " + report.toAbsolutePath());
+        }
+    }
+
+    private static ConfigurableApplicationContext start(LocalDatabase database, UlipStub ulip, boolean virtual) {
+        Map<String, Object> properties = new HashMap<>(database.properties());
+        properties.put("server.port", "0");
+        properties.put("spring.jpa.show-sql", "false");
+        properties.put("threads.virtual.enabled", String.valueOf(virtual));
+        properties.put("ULIP_LOGIN_URL", ulip.url("/login"));
+        properties.put("ULIP_VAHAN_URL", ulip.url("/vahan"));
+        properties.put("ULIP_FASTAG_URL", ulip.url("/fastag"));
+        properties.put("ULIP_SARATHI_URL", ulip.url("/sarathi"));
+        properties.put("ULIP_USERNAME", "loadtest");
+        properties.put("ULIP_PASSWORD", "loadtest");
+        // the other outbound integrations point nowhere; their scheduled jobs fail fast
+        properties.put("LOAD_URL", "http://localhost:9/load");
+        properties.put("LOAD_IP", "localhost");
+        properties.put("LOAD_PORT", "9");
+        properties.put("spring.mail.host", "localhost");
+        properties.put("spring.mail.port", "9");
+        // passed as command line arguments so they win over application.properties
+        List<String> args = new ArrayList<>();
+        properties.forEach((name, value) -> args.add("--" + name + "=" + value));
+        return new SpringApplicationBuilder(TruckBookingApplication.class).run(args.toArray(new String[0]));
+    }
+
+    // One thread per simulated user, each with its own Random so a seed replays the same choices.
+    private static List<Thread> start(List<Scenario> scenarios, Client client, long seed, long deadline) {
+        List<Thread> threads = new ArrayList<>();
+        int userNo = 0;
+        for (Scenario scenario : scenarios) {
+            for (int i = 0; i < scenario.users; i++) {
+                Random random = new Random(seed + userNo++);
+                Thread thread = new Thread(() -> {
+                    while (System.nanoTime() < deadline) {
+                        try {
+                            scenario.step.run(client, random);
+                            Thread.sleep(scenario.thinkMillis / 2 + random.nextInt((int) Math.max(1, scenario.thinkMillis)));
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            return;
+                        } catch (RuntimeException e) {
+                            System.err.println(scenario.name + ": " + e);
+                        }
+                    }
+                }, scenario.name + "-" + i);
+                thread.setDaemon(true);
+                thread.start();
+                threads.add(thread);
+            }
+        }
+        return threads;
+    }
+
+    private static Map<String, String> options(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("="))
+                throw new IllegalArgumentException("expected --name=value, got " + arg);
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        return options;
+    }
+}
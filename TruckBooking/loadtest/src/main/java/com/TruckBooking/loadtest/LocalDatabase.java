@@ -0,0 +1,65 @@
+package com.TruckBooking.loadtest;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+// The database the application under test runs against. Postgres is the production engine and
+// the only one with the partitioned route_points table; H2 starts faster but GPS writes fail there.
+public final class LocalDatabase implements AutoCloseable {
+
+    public enum Kind {
+        H2, POSTGRES
+    }
+
+    private final Kind kind;
+    private final EmbeddedPostgres postgres;
+    private final Map<String, Object> properties = new HashMap<>();
+
+    private LocalDatabase(Kind kind, EmbeddedPostgres postgres) {
+        this.kind = kind;
+        this.postgres = postgres;
+    }
+
+    public static LocalDatabase start(Kind kind) throws IOException {
+        if (kind == Kind.POSTGRES) {
+            EmbeddedPostgres postgres = EmbeddedPostgres.builder().start();
+            LocalDatabase database = new LocalDatabase(kind, postgres);
+            database.properties.put("spring.datasource.url", postgres.getJdbcUrl("postgres", "postgres"));
+            database.properties.put("spring.datasource.username", "postgres");
+            database.properties.put("spring.datasource.password", "postgres");
+            return database;
+        }
+        LocalDatabase database = new LocalDatabase(kind, null);
+        database.properties.put("spring.datasource.url", "jdbc:h2:mem:loadtest-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        database.properties.put("spring.datasource.username", "sa");
+        database.properties.put("spring.datasource.password", "");
+        database.properties.put("spring.datasource.driverClassName", "org.h2.Driver");
+        database.properties.put("spring.datasource.platform", "h2");
+        database.properties.put("spring.jpa.database", "H2");
+        database.properties.put("spring.jpa.properties.hibernate.dialect", "org.hibernate.dialect.H2Dialect");
+        // the migrations, and with them scheduled_job_lock, are written for Postgres; H2 gets its schema from Hibernate
+        database.properties.put("spring.flyway.enabled", "false");
+        database.properties.put("spring.jpa.hibernate.ddl-auto", "update");
+        database.properties.put("scheduling.lock.enabled", "false");
+        return database;
+    }
+
+    public Kind kind() {
+        return kind;
+    }
+
+    // Spring properties that point the application at this database.
+    public Map<String, Object> properties() {
+        return properties;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (postgres != null)
+            postgres.close();
+    }
+}
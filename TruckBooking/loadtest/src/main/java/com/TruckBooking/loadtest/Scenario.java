@@ -0,0 +1,24 @@
+package com.TruckBooking.loadtest;
+
+import java.util.Random;
+
+// One kind of user: how many of them run at once, how long each pauses between
+// iterations, and what one iteration does.
+public final class Scenario {
+
+    public interface Step {
+        void run(Client client, Random random);
+    }
+
+    public final String name;
+    public final int users;
+    public final long thinkMillis;
+    public final Step step;
+
+    public Scenario(String name, int users, long thinkMillis, Step step) {
+        this.name = name;
+        this.users = users;
+        this.thinkMillis = thinkMillis;
+        this.step = step;
+    }
+}
@@ -0,0 +1,111 @@
+package com.TruckBooking.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// The traffic mix, modelled on what the marketplace sees in production: transporters scrolling
+// the load board, bursts of bids on the few auctions about to close, trucks reporting GPS in
+// batches and shippers now and then uploading a contract rate sheet. scale multiplies the users.
+public final class Scenarios {
+
+    // an auction stays "about to close" for this long before the storm moves to the next one
+    private static final long AUCTION_WINDOW_MILLIS = TimeUnit.SECONDS.toMillis(20);
+
+    private static final int HOT_AUCTIONS = 3;
+
+    private static final int POINTS_PER_BATCH = 30;
+
+    private Scenarios() {
+    }
+
+    public static List<Scenario> marketplace(Dataset dataset, double scale) {
+        List<Scenario> scenarios = new ArrayList<>();
+        scenarios.add(new Scenario("load board", users(40, scale), 300, (client, random) -> loadBoard(dataset, client, random)));
+        scenarios.add(new Scenario("bid storm", users(30, scale), 50, bidStorm(dataset)));
+        scenarios.add(new Scenario("gps ingestion", users(20, scale), 1000, (client, random) -> gps(dataset, client, random)));
+        scenarios.add(new Scenario("excel upload", users(2, scale), 5000, (client, random) -> upload(dataset, client, random)));
+        return scenarios;
+    }
+
+    // Vehicle verification only: every request blocks on one ULIP round trip, so with platform
+    // threads throughput stops growing once Tomcat's worker pool is busy.
+    public static Scenario ulipLookups(int users) {
+        return new Scenario("ulip lookups", users, 100, (client, random) -> client.postJson("POST /Vahan", "/Vahan",
+                Map.of("vehiclenumber", String.format("MH%02dAB%04d", 1 + random.nextInt(50), random.nextInt(10000)))));
+    }
+
+    // Opens the board with a city filter, scrolls a few pages and looks at one load in detail.
+    private static void loadBoard(Dataset dataset, Client client, Random random) {
+        String city = pick(dataset.cities, random);
+        String filter = random.nextInt(4) == 0 ? "" : "&loadingPointCity=" + city;
+        int pages = 1 + random.nextInt(6);
+        for (int page = 0; page < pages; page++)
+            client.get("GET /load", "/load?pageNo=" + page + filter);
+        client.get("GET /load/{loadId}", "/load/" + pick(dataset.loadIds, random));
+    }
+
+    // Every bid is a new (transporter, load) pair, as the table allows one bid per transporter and load.
+    private static Scenario.Step bidStorm(Dataset dataset) {
+        AtomicLong bidders = new AtomicLong();
+        return (client, random) -> {
+            long window = System.currentTimeMillis() / AUCTION_WINDOW_MILLIS;
+            int hot = (int) ((window * HOT_AUCTIONS + random.nextInt(HOT_AUCTIONS)) % dataset.closingLoadIds.size());
+            String loadId = dataset.closingLoadIds.get(hot);
+
+            Map<String, Object> bid = Map.of(
+                    "transporterId", "transporter:storm-" + bidders.incrementAndGet(),
+                    "loadId", loadId,
+                    "transporterBid", 20000 + 250 * random.nextInt(200),
+                    "unitValue", "PER_TRUCK",
+                    "biddingDate", "Mon, Jan 15 2024");
+            client.postJson("POST /bid", "/bid", bid);
+            // the shipper and the other bidders watch the ranking
+            client.get("GET /bid", "/bid?loadId=" + loadId);
+        };
+    }
+
+    // A tracker flushing its last POINTS_PER_BATCH fixes; now and then someone opens its trip history.
+    private static void gps(Dataset dataset, Client client, Random random) {
+        String imei = pick(dataset.imeis, random);
+        long now = System.currentTimeMillis();
+        double latitude = 8 + 24 * random.nextDouble();
+        double longitude = 70 + 18 * random.nextDouble();
+        List<Map<String, Object>> points = new ArrayList<>(POINTS_PER_BATCH);
+        for (int i = 0; i < POINTS_PER_BATCH; i++) {
+            latitude += 0.001 * random.nextDouble();
+            longitude += 0.001 * random.nextDouble();
+            points.add(Map.of(
+                    "timestamp", now - TimeUnit.SECONDS.toMillis(POINTS_PER_BATCH - i),
+                    "latitude", latitude,
+                    "longitude", longitude));
+        }
+        client.postJson("POST /routedata/batch", "/routedata/batch", Map.of(
+                "imei", imei,
+                "deviceId", "device:" + imei,
+                "truckId", "truck:" + imei,
+                "truckNo", "MH12AB" + imei.substring(imei.length() - 4),
+                "points", points));
+        if (random.nextInt(10) == 0) {
+            client.get("GET /routedata/history", "/routedata/history?imei=" + imei
+                    + "&from=" + (now - TimeUnit.HOURS.toMillis(4)) + "&to=" + now + "&limit=1000");
+        }
+    }
+
+    private static void upload(Dataset dataset, Client client, Random random) {
+        client.postFile("POST /ContractRateUpload", "/ContractRateUpload",
+                Map.of("shipperId", pick(dataset.shipperIds, random)), "rates.xlsx",
+                "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", dataset.rateSheet);
+    }
+
+    private static int users(int base, double scale) {
+        return Math.max(1, (int) Math.round(base * scale));
+    }
+
+    private static <T> T pick(List<T> values, Random random) {
+        return values.get(random.nextInt(values.size()));
+    }
+}
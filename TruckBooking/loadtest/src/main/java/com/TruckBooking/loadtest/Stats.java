@@ -0,0 +1,70 @@
+package com.TruckBooking.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Latency histograms and error counts per endpoint, keyed by method and path template
+// (e.g. "GET /load/{loadId}") so that ids do not spread one endpoint over many rows.
+public final class Stats {
+
+    private static final class Endpoint {
+        // microseconds, up to one minute at three significant digits
+        private final Histogram latency = new ConcurrentHistogram(TimeUnit.MINUTES.toMicros(1), 3);
+        private final LongAdder errors = new LongAdder();
+    }
+
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+
+    public void record(String endpoint, long nanos, boolean error) {
+        Endpoint stats = endpoints.computeIfAbsent(endpoint, key -> new Endpoint());
+        stats.latency.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(nanos), stats.latency.getHighestTrackableValue()));
+        if (error)
+            stats.errors.increment();
+    }
+
+    public void print(PrintStream out, long elapsedNanos) {
+        double seconds = elapsedNanos / 1e9;
+        out.println(String.format("%-34s %9s %7s %9s %9s %9s %9s", "endpoint", "requests", "errors", "req/s",
+                "p50 ms", "p99 ms", "max ms"));
+        for (Map.Entry<String, Endpoint> entry : sorted().entrySet()) {
+            Histogram latency = entry.getValue().latency;
+            out.println(String.format(Locale.ROOT, "%-34s %9d %7d %9.1f %9.2f %9.2f %9.2f", entry.getKey(), latency.getTotalCount(),
+                    entry.getValue().errors.sum(), latency.getTotalCount() / seconds,
+                    latency.getValueAtPercentile(50) / 1000.0, latency.getValueAtPercentile(99) / 1000.0,
+                    latency.getMaxValue() / 1000.0));
+        }
+    }
+
+    public void writeCsv(Path file, long elapsedNanos) throws IOException {
+        double seconds = elapsedNanos / 1e9;
+        if (file.getParent() != null)
+            Files.createDirectories(file.getParent());
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("endpoint,requests,errors,throughputPerSecond,p50Millis,p99Millis,maxMillis\n");
+            for (Map.Entry<String, Endpoint> entry : sorted().entrySet()) {
+                Histogram latency = entry.getValue().latency;
+                writer.write(String.format(Locale.ROOT, "\"%s\",%d,%d,%.2f,%.3f,%.3f,%.3f\n", entry.getKey(), latency.getTotalCount(),
+                        entry.getValue().errors.sum(), latency.getTotalCount() / seconds,
+                        latency.getValueAtPercentile(50) / 1000.0, latency.getValueAtPercentile(99) / 1000.0,
+                        latency.getMaxValue() / 1000.0));
+            }
+        }
+    }
+
+    private Map<String, Endpoint> sorted() {
+        return new TreeMap<>(endpoints);
+    }
+}
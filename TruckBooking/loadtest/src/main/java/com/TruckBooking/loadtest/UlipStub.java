@@ -0,0 +1,61 @@
+package com.TruckBooking.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Stands in for ULIP: logins succeed at once, Vahan/Fastag/Sarathi lookups answer after a fixed
+// delay. It has an unbounded pool so the stub is never what limits a run.
+public final class UlipStub implements AutoCloseable {
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    public UlipStub(long delayMillis) throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 1024);
+        executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "ulip-stub");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext("/login", exchange -> respond(exchange, "{\"response\":{\"id\":\"stub-token\"}}"));
+        for (String lookup : new String[]{"/vahan", "/fastag", "/sarathi"}) {
+            server.createContext(lookup, exchange -> {
+                try {
+                    Thread.sleep(delayMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                respond(exchange, "{\"response\":[{\"responseStatus\":\"SUCCESS\",\"response\":\"stub\"}]}");
+            });
+        }
+        server.start();
+    }
+
+    public String url(String path) {
+        return "http://localhost:" + server.getAddress().getPort() + path;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private static void respond(HttpExchange exchange, String json) throws IOException {
+        exchange.getRequestBody().readAllBytes();
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
@@ -1,14 +1,22 @@
 package com.TruckBooking.Analytics.placementEfficiencyGraph.Dao;
 
 import com.TruckBooking.Analytics.placementEfficiencyGraph.Entities.PlacementInfo;
+import com.TruckBooking.cache.CacheRegions;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+
+import javax.persistence.QueryHint;
 import java.util.List;
 import java.util.Optional;
 
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.QueryHints.HINT_CACHE_REGION;
+
 @Repository
 public interface PlacementDao extends JpaRepository<PlacementInfo, String> {
 
+    @QueryHints({@QueryHint(name = HINT_CACHEABLE, value = "true"), @QueryHint(name = HINT_CACHE_REGION, value = CacheRegions.PLACEMENT_QUERIES)})
     Optional<List<PlacementInfo>> findByShipperId(String shipperId);
 
 }
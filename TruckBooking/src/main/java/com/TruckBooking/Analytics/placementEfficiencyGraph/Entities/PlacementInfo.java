@@ -1,12 +1,17 @@
 package com.TruckBooking.Analytics.placementEfficiencyGraph.Entities;
 
+import com.TruckBooking.cache.CacheRegions;
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
 import java.util.HashMap;
 import java.util.Map;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.PLACEMENT_INFO)
 @Data
 public class PlacementInfo {
     @Id
@@ -16,6 +21,7 @@ public class PlacementInfo {
     private String shipperId;
 
     @ElementCollection(fetch = FetchType.EAGER)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.PLACEMENT_MAP)
     @CollectionTable(name = "placement_map", joinColumns = @JoinColumn(name = "transporter_id"))
     @MapKeyColumn(name = "placement_map_key")
     @Column(name = "placement_map_value")
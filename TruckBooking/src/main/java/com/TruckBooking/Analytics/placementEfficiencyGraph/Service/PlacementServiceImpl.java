@@ -9,9 +9,13 @@ import com.TruckBooking.ContractRateUpload.Dao.ContractRateRepo;
 import com.TruckBooking.ContractRateUpload.Dao.IndentDao;
 import com.TruckBooking.ContractRateUpload.Entity.Indent;
 import com.TruckBooking.ContractRateUpload.Entity.Rates;
+import com.TruckBooking.metrics.MethodMetricsAspect;
+import com.TruckBooking.scheduling.JobLock;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.sql.Timestamp;
 import java.time.Instant;
@@ -34,6 +38,9 @@ public class PlacementServiceImpl implements PlacementService{
     @Autowired
     private ContractRateRepo contractRateRepo;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @Override
     public Object getPlacementData(String id){
         if (id.charAt(0) == 't'){ //checking if id given is transporterId or shipperId  since ids begin with the respective id name
@@ -94,10 +101,13 @@ public class PlacementServiceImpl implements PlacementService{
         return response;
     }
 
+    @JobLock(lockAtMostFor = "PT30M", lockAtLeastFor = "PT95M")
     @Scheduled(fixedDelay = 6000000)   // every 10 mins
+    @Transactional(rollbackFor = Exception.class)
     public void FindPlacement() {
         List<BookingData> bookingDataList = bookingDao.findByTimestampIsAfter(lastSchedulerTimestamp);
         lastSchedulerTimestamp = Timestamp.from(Instant.now());
+        MethodMetricsAspect.rows(meterRegistry, "PlacementServiceImpl.FindPlacement", bookingDataList.size());
 
         if (!bookingDataList.isEmpty()) {
             //System.out.println("Bookings are Found");
@@ -10,6 +10,7 @@ import javax.persistence.Id;
 import javax.persistence.Table;
 import javax.persistence.UniqueConstraint;
 
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.validator.constraints.NotBlank;
 import org.hibernate.validator.constraints.NotEmpty;
@@ -60,8 +61,10 @@ public @Data class BookingData {
 	private Integer damage;        // optional
 	private String companyName;   // optional
 
+	// loaded by the service before the session closes, up to 100 bookings' trucks per query
 	@Column(name = "truckIds")
 	@ElementCollection(targetClass = String.class)
+	@BatchSize(size = 100)
 	@NotEmpty
 	private List<String> truckId;
 
@@ -8,6 +8,7 @@ import java.util.List;
 import java.util.UUID;
 
 
+import org.hibernate.Hibernate;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.PageRequest;
@@ -144,6 +145,7 @@ public class BookingServiceImpl implements BookingService {
 
 	
 	//cancel = false, complete true
+	@Transactional
 	@Override
 	public BookingPutResponse updateBooking(String bookingId, BookingPutRequest request) {
 		
@@ -159,6 +161,8 @@ public class BookingServiceImpl implements BookingService {
 			log.error(String.valueOf(ex));
 			throw ex;
 		}
+		// the response carries the trucks past the end of the transaction
+		Hibernate.initialize(data.getTruckId());
 
 		if (request.getTruckId() != null && request.getTruckId().size() == 0) {
 			log.error(BookingConstants.uTruckIdIsNull);
@@ -328,6 +332,7 @@ public class BookingServiceImpl implements BookingService {
 
 	}
 
+	@Transactional(readOnly = true)
 	@Override
 	public BookingData getDataById(String Id) {
 
@@ -337,6 +342,7 @@ public class BookingServiceImpl implements BookingService {
 			log.error(String.valueOf(ex));
 			throw ex;
 		}
+		Hibernate.initialize(bookingData.getTruckId());
 
 		try {
 			log.info("Booking Data returned");
@@ -349,10 +355,27 @@ public class BookingServiceImpl implements BookingService {
 
 	}
 
+	@Transactional(readOnly = true)
 	@Override
 	public List<BookingData> getDataById(Integer pageNo, Boolean cancel, Boolean completed, String transporterId,
 			String postLoadId, String loadingPointCity, String unloadingPointCity, String truckNo, String driverName,
             String driverPhoneNum, String deviceId) {
+		return initializeTruckIds(findBookings(pageNo, cancel, completed, transporterId, postLoadId, loadingPointCity,
+				unloadingPointCity, truckNo, driverName, driverPhoneNum, deviceId));
+	}
+
+	// Loads the trucks while the session is still open; the bookings are serialised after the
+	// transaction, and @BatchSize fetches them for up to 100 bookings per query.
+	private static List<BookingData> initializeTruckIds(List<BookingData> bookings) {
+		for (BookingData booking : bookings) {
+			Hibernate.initialize(booking.getTruckId());
+		}
+		return bookings;
+	}
+
+	private List<BookingData> findBookings(Integer pageNo, Boolean cancel, Boolean completed, String transporterId,
+			String postLoadId, String loadingPointCity, String unloadingPointCity, String truckNo, String driverName,
+            String driverPhoneNum, String deviceId) {
 
 		if (pageNo == null) {
 			pageNo = 0;
@@ -509,6 +532,7 @@ public class BookingServiceImpl implements BookingService {
 
 	}
 
+	@Transactional
 	@Override
 	public BookingDeleteResponse deleteBooking(String bookingId) {
 
@@ -1,18 +1,35 @@
 package com.TruckBooking.ContractRateUpload.Dao;
+
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.QueryHints.HINT_CACHE_REGION;
+
+import java.math.BigDecimal;
 import java.util.List;
 
+import javax.persistence.QueryHint;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 import org.springframework.web.bind.annotation.PathVariable;
 
 import com.TruckBooking.ContractRateUpload.Entity.Rates;
+import com.TruckBooking.cache.CacheRegions;
 
 @Repository
 public interface ContractRateRepo extends JpaRepository<Rates,Long> {
 
+    @QueryHints({@QueryHint(name = HINT_CACHEABLE, value = "true"), @QueryHint(name = HINT_CACHE_REGION, value = CacheRegions.RATES_QUERIES)})
     List<Rates> findByShipperId(@PathVariable("shipperId") String shipperId);
-    List<Rates> findByLoadingPointCityAndUnloadingPointCityAndWeightOrderByRateAsc(@PathVariable("loadingPointCity") String loadingPoint, @PathVariable("unloadingPointCity") String unLoadingPoint, @PathVariable("weight") String weight);
+    // Rates of the lightest weight band on the lane that still carries the given weight, cheapest first.
+    @QueryHints({@QueryHint(name = HINT_CACHEABLE, value = "true"), @QueryHint(name = HINT_CACHE_REGION, value = CacheRegions.RATES_QUERIES)})
+    @Query("select r from Rates r where r.loadingPointCity = :loadingPointCity and r.unloadingPointCity = :unloadingPointCity"
+            + " and r.weight = (select min(b.weight) from Rates b where b.loadingPointCity = :loadingPointCity"
+            + " and b.unloadingPointCity = :unloadingPointCity and b.weight >= :weight) order by r.rate asc")
+    List<Rates> findBandRates(String loadingPointCity, String unloadingPointCity, BigDecimal weight);
 
+    @QueryHints({@QueryHint(name = HINT_CACHEABLE, value = "true"), @QueryHint(name = HINT_CACHE_REGION, value = CacheRegions.RATES_QUERIES)})
     Rates findByTransporterId(@PathVariable("transporterId") String transporterId);
     //old ->  List<Rates> findByUnloadingPointAndWeightOrderByRateAsc(@PathVariable("unloadingPoint") String unLoadingPoint,@PathVariable("weight") String weight);
 } 
\ No newline at end of file
@@ -2,18 +2,26 @@ package com.TruckBooking.ContractRateUpload.Dao;
 
 
 import com.TruckBooking.LoadsApi.Entities.Load;
+import com.TruckBooking.cache.CacheRegions;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import com.TruckBooking.ContractRateUpload.Entity.Indent;
 
 import java.util.List;
 
+import javax.persistence.QueryHint;
+
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.QueryHints.HINT_CACHE_REGION;
+
 
 @Repository
 public interface IndentDao extends JpaRepository<Indent,Long>{
 
     List<Indent> findByStatus( Load.Status status);
+    @QueryHints({@QueryHint(name = HINT_CACHEABLE, value = "true"), @QueryHint(name = HINT_CACHE_REGION, value = CacheRegions.INDENT_QUERIES)})
     Indent findByLoadId(String loadId);
 
 }
\ No newline at end of file
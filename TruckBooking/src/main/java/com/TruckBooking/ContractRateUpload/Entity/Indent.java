@@ -1,12 +1,15 @@
 package com.TruckBooking.ContractRateUpload.Entity;
 
 import com.TruckBooking.LoadsApi.Entities.Load;
+import com.TruckBooking.cache.CacheRegions;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.NonNull;
 
 import javax.persistence.*;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.sql.Timestamp;
@@ -14,6 +17,8 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.INDENT)
 @Data
 @NoArgsConstructor
 //@RequiredArgsConstructor
@@ -28,6 +33,7 @@ public class Indent {
     private String loadId;
 
     @ElementCollection
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.INDENT_TRANSPORTER_IDS)
     @CollectionTable(name = "transporter_ids", joinColumns = @JoinColumn(name = "indent_id"))
     @Column(name = "transporter_id")
     private List<String> transporterIdList = new ArrayList<>(); // Initialize the list
@@ -35,6 +41,7 @@ public class Indent {
 
     @NonNull
     @ElementCollection(fetch = FetchType.EAGER)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.INDENT_TRANSPORTER_EMAILS)
     @Column(name = "Email")
     private List<String> transporterEmail = new ArrayList<>();
     // Email List of all the transporters, so we do not have to make connection to database again and again for address of each.
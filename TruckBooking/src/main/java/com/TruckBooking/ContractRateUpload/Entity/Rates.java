@@ -1,19 +1,32 @@
 package com.TruckBooking.ContractRateUpload.Entity;
 
+import java.math.BigDecimal;
+
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.Table;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+import com.TruckBooking.cache.CacheRegions;
+import com.fasterxml.jackson.annotation.JsonFormat;
+
 import lombok.Data;
 
 @Data
 @Entity
-@Table(name="Contract_Rates")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.RATES)
+@Table(name="Contract_Rates", indexes = @Index(name = "idx_contract_rates_lane_weight",
+        columnList = "loadingPointCity, unloadingPointCity, weight"))
 public class Rates {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -25,8 +38,11 @@ public class Rates {
     @NotBlank(message = "UnLoading Point Cannot Be Empty")
     private String unloadingPointCity;
 
+    // upper bound of the weight band in tonnes; a load takes the rates of the smallest band that fits it
     @NotNull(message = "Weight Cannot Be Empty")
-    private String weight;
+    @Column(columnDefinition = "numeric")
+    @JsonFormat(shape = JsonFormat.Shape.STRING)
+    private BigDecimal weight;
     private Integer rate;               //optional
     private String transporterId;       //optional
     private String shipperId;
@@ -1,11 +1,18 @@
 package com.TruckBooking.ContractRateUpload.Service;
 
 import java.io.InputStream;
+import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import com.TruckBooking.ContractRateUpload.EmailSender.SendEmail;
+import com.TruckBooking.metrics.MethodMetricsAspect;
+import com.TruckBooking.scheduling.JobLock;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.xssf.usermodel.XSSFSheet;
@@ -13,6 +20,9 @@ import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
 import com.TruckBooking.ContractRateUpload.Dao.ContractRateRepo;
@@ -23,6 +33,7 @@ import com.TruckBooking.LoadsApi.Dao.LoadDao;
 import com.TruckBooking.LoadsApi.Dao.TransporterEmailDao;
 import com.TruckBooking.LoadsApi.Entities.Load;
 import com.TruckBooking.LoadsApi.Entities.Load.Status;
+import com.TruckBooking.LoadsApi.Model.LoadNumbers;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -45,6 +56,12 @@ public class ContractRateService {
     @Autowired
     private SendEmail email;
 
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
     // check that file is of excel type or not
     public boolean isExcelFile(MultipartFile file) {
 
@@ -108,7 +125,7 @@ public class ContractRateService {
                                 rates.setUnloadingPointCity(cell.toString());
                                 break;
                             case 1:
-                                rates.setWeight(String.valueOf((int) cell.getNumericCellValue()));
+                                rates.setWeight(LoadNumbers.normalize(BigDecimal.valueOf(cell.getNumericCellValue())));
                                 break;
                             case 2:
                                 rates.setRate((int) cell.getNumericCellValue());
@@ -155,9 +172,16 @@ public class ContractRateService {
     }
 
     // Find the ranks for particular LoadId and arrange them in ascending order in Indent Table
+    @JobLock(lockAtLeastFor = "PT55S")
     @Scheduled(fixedRate = 60000)
     public void findRank(){
+        primary().executeWithoutResult(status -> rankLoads());
+        triggerMail();
+    }
+
+    private void rankLoads(){
         List<Load> loads = loadDao.findByPublishMethodAndStatus("contract",Status.PENDING);
+        MethodMetricsAspect.rows(meterRegistry, "ContractRateService.findRank", loads.size());
 
         // Instanced for storing in Indent Table
         List<String> transporterId;
@@ -167,7 +191,9 @@ public class ContractRateService {
         Indent indentTable;
 
         for (Load x : loads){
-            rateList = contractRateRepo.findByLoadingPointCityAndUnloadingPointCityAndWeightOrderByRateAsc(x.getLoadingPointCity(),x.getUnloadingPointCity(),x.getWeight());
+            if (x.getWeight() == null)
+                continue;
+            rateList = contractRateRepo.findBandRates(x.getLoadingPointCity(),x.getUnloadingPointCity(),x.getWeight());
             if (!rateList.isEmpty()){
                 transporterId = new ArrayList<>();
                 transporterEmail = new ArrayList<>();
@@ -181,19 +207,28 @@ public class ContractRateService {
                 indentDao.save(indentTable);
             }
         }
-        triggerMail();
     }
 
-    // Function for sending mails
+    // Function for sending mails. The mails go out outside any transaction and each indent's new
+    // status commits on its own right after its mail, so a later failure cannot undo it and send
+    // the mail again.
     public void triggerMail()  {
-        List<Indent> responses = this.indentDao.findAll();
+        List<Indent> responses = primary().execute(status -> this.indentDao.findByStatus(Status.NOT_ASSIGNED));
+        // the loads of all pending indents in one query rather than one per indent
+        Map<String, Load> loads = primary().execute(status -> loadDao.findAllById(responses.stream().map(Indent::getLoadId).collect(Collectors.toSet()))
+                .stream().collect(Collectors.toMap(Load::getLoadId, Function.identity())));
+        TransactionTemplate row = perRow();
         for (Indent it : responses) {
             if ((it.getStatus()) == Status.NOT_ASSIGNED) {
                 List<String> list = it.getTransporterEmail();
-                Load load = loadDao.findByLoadId(it.getLoadId()).get();
+                Load load = loads.get(it.getLoadId());
+                if (load == null) {
+                    log.error("Indent " + it.getId() + " refers to missing load " + it.getLoadId());
+                    continue;
+                }
 
                 // subject format "indent for 25MT from ambala to delhi"
-                String subject = "Indent for "+load.getWeight()+" from "+ load.getLoadingPointCity() +" to "+ load.getUnloadingPointCity();
+                String subject = "Indent for "+LoadNumbers.format(load.getWeight())+"MT from "+ load.getLoadingPointCity() +" to "+ load.getUnloadingPointCity();
 
                 // body format  //Asian Paint has posted a load
                 //Loading Point: Mumbai,Mumbai,Maharashtra, India
@@ -211,7 +246,7 @@ public class ContractRateService {
                         "Requirements\n" +
                         "Truck Type: " + load.getTruckType() +"\n" +
                         "Tyre : " + load.getNoOfTyres() + "\n" +
-                        "Weight : " + load.getWeight() + "\n" +
+                        "Weight : " + LoadNumbers.format(load.getWeight()) + "\n" +
                         "Product Type : " + load.getProductType();
 
 //              address = new SendEmail(it.getTransporterEmail().get(it.getPosition()), body, subject);
@@ -229,15 +264,22 @@ public class ContractRateService {
                         it.setStatus(Status.TRANSPORTER_REJECTED);// To look here
                     }
                 }
-                indentDao.save(it);
+                row.executeWithoutResult(status -> indentDao.save(it));
             }
         }
     }
 
     // Scheduler to reassign indent if it's been rejected by the Transporter
+    @JobLock(lockAtLeastFor = "PT115S")
     @Scheduled(fixedRate = 120000)
     public void checkRejected(){
+        primary().executeWithoutResult(status -> reassignRejected());
+        triggerMail();
+    }
+
+    private void reassignRejected(){
         List<Indent> rejectedIndents = indentDao.findByStatus(Status.TRANSPORTER_REJECTED);
+        MethodMetricsAspect.rows(meterRegistry, "ContractRateService.checkRejected", rejectedIndents.size());
         if (!rejectedIndents.isEmpty()){
             for (Indent indent: rejectedIndents){
                 if (indent.getPosition()+1<indent.getTransporterEmail().size()){
@@ -250,14 +292,20 @@ public class ContractRateService {
                 indentDao.save(indent);
             }
         }
-        triggerMail();
     }
 
     // Scheduler to automatically assign the load to next indent after a
     // certain interval of time i.e. after 2-2:30 hrs indent will be assigned to the next Transporter
+    @JobLock(lockAtLeastFor = "PT29M")
     @Scheduled(fixedRate = 1800000)
     public void checkUnassigned(){
+        primary().executeWithoutResult(status -> reassignUnanswered());
+        triggerMail();
+    }
+
+    private void reassignUnanswered(){
         List<Indent> unassignedIndents = indentDao.findByStatus(Status.INDENT_ASSIGNED);
+        MethodMetricsAspect.rows(meterRegistry, "ContractRateService.checkUnassigned", unassignedIndents.size());
         if (!unassignedIndents.isEmpty()){
             // For Getting current time
             Date date = new Date();
@@ -278,10 +326,21 @@ public class ContractRateService {
                 indentDao.save(indent);
             }
         }
-        triggerMail();
     }
 
     public List<Rates> getRates(String shipperId){
         return contractRateRepo.findByShipperId(shipperId);
     }
+
+    // Read-write, so the jobs read the primary rather than a replica that may be behind their own
+    // earlier updates.
+    private TransactionTemplate primary(){
+        return new TransactionTemplate(transactionManager);
+    }
+
+    private TransactionTemplate perRow(){
+        TransactionTemplate row = new TransactionTemplate(transactionManager);
+        row.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        return row;
+    }
 }
\ No newline at end of file
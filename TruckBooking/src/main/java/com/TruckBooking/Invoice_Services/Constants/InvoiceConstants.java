@@ -0,0 +1,23 @@
+package com.TruckBooking.Invoice_Services.Constants;
+
+public class InvoiceConstants {
+
+    public static int pageSize = 15;
+
+    public static int maxPageSize = 500;
+
+    // invoices in any other status count as outstanding
+    public static String paidStatus = "paid";
+
+    // formats accepted in dueDate; the parsed day is kept in dueOn for the overdue totals
+    public static String[] dueDateFormats = {"yyyy-MM-dd", "dd-MM-yyyy", "dd/MM/yyyy"};
+
+    // status given to invoices created by the batch invoicing job
+    public static String generatedStatus = "pending";
+
+    public static String jobAlreadyRunning = ": An invoice generation job is already running.";
+
+    public static String bookingIdConstraint = "uk_invoice_booking_id_booking";
+
+    public static String bookingAlreadyInvoiced = ": A booking in bookingId is already on an invoice.";
+}
@@ -1,7 +1,11 @@
 package com.TruckBooking.Invoice_Services.Controller;
 
+import com.TruckBooking.Invoice_Services.Dao.InvoiceSummaryDao;
 import com.TruckBooking.Invoice_Services.Entity.Invoice;
 import com.TruckBooking.Invoice_Services.Model.InvoiceRequest;
+import com.TruckBooking.Invoice_Services.Response.InvoiceSummaryResponse;
+import com.TruckBooking.Invoice_Services.Response.InvoiceGenerationResponse;
+import com.TruckBooking.Invoice_Services.Services.InvoiceGenerationService;
 import com.TruckBooking.Invoice_Services.Services.InvoiceService;
 
 
@@ -22,6 +26,9 @@ import java.util.List;
 @Slf4j
 public class InvoiceController {
     private InvoiceService invoiceService;
+
+    @Autowired
+    private InvoiceGenerationService invoiceGenerationService;
     @Autowired
     public InvoiceController(InvoiceService invoiceService){
         this.invoiceService =invoiceService;
@@ -35,6 +42,19 @@ public class InvoiceController {
 
     }
 
+    // starts a background run that invoices every completed, uninvoiced booking (optionally for one shipper)
+    @PostMapping("/invoice/generate")
+    public ResponseEntity<InvoiceGenerationResponse> generateInvoices(@RequestParam(name = "postLoadId", required = false) String postLoadId) {
+        log.info("generateInvoices started");
+        return new ResponseEntity<>(invoiceGenerationService.start(postLoadId), HttpStatus.ACCEPTED);
+    }
+
+    @GetMapping("/invoice/generate/{jobId}")
+    public ResponseEntity<InvoiceGenerationResponse> getInvoiceGeneration(@PathVariable String jobId) {
+        log.info("getInvoiceGeneration started");
+        return new ResponseEntity<>(invoiceGenerationService.getJob(jobId), HttpStatus.OK);
+    }
+
     @GetMapping("/invoice/{invoiceId}")
     public ResponseEntity<Object>getInvoiceById(@PathVariable String invoiceId){
         log.info("getInvoiceServiceBYinvoiceID started sucessfully");
@@ -42,13 +62,39 @@ public class InvoiceController {
     }
 
     @GetMapping("/invoice")
-    public ResponseEntity<List<Invoice>> findinvoiceService(@RequestParam(name="transporterId",required = false)String transporterId,
+    public ResponseEntity<List<Invoice>> findinvoiceService(@RequestParam(name = "pageNo", required = false) Integer pageNo,
+          @RequestParam(name="transporterId",required = false)String transporterId,
           @RequestParam(name="shipperId",required = false)String shipperId,
         @RequestParam(name = "fromTimestamp") Timestamp fromTimestamp,
         @RequestParam(name = "toTimestamp") Timestamp toTimestamp){
 
-        return new ResponseEntity<>(invoiceService.getInvoice(transporterId,shipperId,fromTimestamp,toTimestamp), HttpStatus.OK);
+        return new ResponseEntity<>(invoiceService.getInvoice(pageNo,transporterId,shipperId,fromTimestamp,toTimestamp), HttpStatus.OK);
+
+    }
+
+    @GetMapping("/invoice/scroll")
+    public ResponseEntity<List<Invoice>> scrollInvoices(@RequestParam(name = "transporterId", required = false) String transporterId,
+          @RequestParam(name = "shipperId", required = false) String shipperId,
+          @RequestParam(name = "fromTimestamp") Timestamp fromTimestamp,
+          @RequestParam(name = "toTimestamp") Timestamp toTimestamp,
+          @RequestParam(name = "afterTimestamp", required = false) Long afterTimestamp,
+          @RequestParam(name = "afterId", required = false) String afterId,
+          @RequestParam(name = "limit", required = false) Integer limit){
+        log.info("scrollInvoices started");
+        return new ResponseEntity<>(invoiceService.getInvoicesAfter(transporterId, shipperId, fromTimestamp, toTimestamp,
+                afterTimestamp, afterId, limit), HttpStatus.OK);
+    }
 
+    @GetMapping("/invoice/summary")
+    public ResponseEntity<List<InvoiceSummaryResponse>> invoiceSummary(
+          @RequestParam(name = "groupBy", required = false) InvoiceSummaryDao.GroupBy groupBy,
+          @RequestParam(name = "transporterId", required = false) String transporterId,
+          @RequestParam(name = "shipperId", required = false) String shipperId,
+          @RequestParam(name = "fromTimestamp") Timestamp fromTimestamp,
+          @RequestParam(name = "toTimestamp") Timestamp toTimestamp){
+        log.info("invoiceSummary started");
+        return new ResponseEntity<>(invoiceService.getInvoiceSummary(groupBy, transporterId, shipperId, fromTimestamp,
+                toTimestamp), HttpStatus.OK);
     }
     @PutMapping("/invoice/{invoiceId}")
     public ResponseEntity<Object> updateInvoice(@PathVariable String invoiceId , @RequestBody InvoiceRequest invoiceModel){
@@ -1,7 +1,9 @@
 package com.TruckBooking.Invoice_Services.Dao;
 
 import com.TruckBooking.Invoice_Services.Entity.Invoice;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.sql.Timestamp;
@@ -20,6 +22,28 @@ public interface InvoiceDao extends JpaRepository<Invoice,String> {
     List<Invoice> findByTransporterIdAndInvoiceTimestampBetween(String transporterId, Timestamp fromTimestamp, Timestamp toTimestamp);
 
     List<Invoice> findByShipperIdAndInvoiceTimestampBetween(String shipperId, Timestamp fromTimestamp, Timestamp toTimestamp);
+
+    List<Invoice> findByTransporterIdAndInvoiceTimestampBetween(String transporterId, Timestamp fromTimestamp, Timestamp toTimestamp, Pageable pageable);
+
+    List<Invoice> findByShipperIdAndInvoiceTimestampBetween(String shipperId, Timestamp fromTimestamp, Timestamp toTimestamp, Pageable pageable);
+
+    // keyset pages, newest first: everything in the range strictly older than the
+    // (invoiceTimestamp, invoiceId) of the last row seen, read along the party/timestamp indexes
+    @Query("select i from Invoice i where i.transporterId = :transporterId"
+            + " and i.invoiceTimestamp >= :fromTimestamp and i.invoiceTimestamp <= :toTimestamp"
+            + " and (i.invoiceTimestamp < :afterTimestamp"
+            + " or (i.invoiceTimestamp = :afterTimestamp and i.invoiceId < :afterId))"
+            + " order by i.invoiceTimestamp desc, i.invoiceId desc")
+    List<Invoice> findTransporterPageBefore(String transporterId, Timestamp fromTimestamp, Timestamp toTimestamp,
+                                            Timestamp afterTimestamp, String afterId, Pageable pageable);
+
+    @Query("select i from Invoice i where i.shipperId = :shipperId"
+            + " and i.invoiceTimestamp >= :fromTimestamp and i.invoiceTimestamp <= :toTimestamp"
+            + " and (i.invoiceTimestamp < :afterTimestamp"
+            + " or (i.invoiceTimestamp = :afterTimestamp and i.invoiceId < :afterId))"
+            + " order by i.invoiceTimestamp desc, i.invoiceId desc")
+    List<Invoice> findShipperPageBefore(String shipperId, Timestamp fromTimestamp, Timestamp toTimestamp,
+                                        Timestamp afterTimestamp, String afterId, Pageable pageable);
 }
 
 
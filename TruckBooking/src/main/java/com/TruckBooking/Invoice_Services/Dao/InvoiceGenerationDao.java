@@ -0,0 +1,174 @@
+package com.TruckBooking.Invoice_Services.Dao;
+
+import com.TruckBooking.Booking.Entities.BookingData;
+import com.TruckBooking.Invoice_Services.Entity.Invoice;
+import com.TruckBooking.Invoice_Services.Model.UninvoicedBooking;
+import com.TruckBooking.Invoice_Services.Response.InvoiceGenerationResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import javax.annotation.PostConstruct;
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+// JDBC access for the batch invoicing job: a forward-only cursor over completed bookings that are
+// not invoiced yet, batched inserts of the generated invoices, and the job checkpoint.
+@Repository
+public class InvoiceGenerationDao {
+
+    private static final String INSERT_INVOICE_SQL = "INSERT INTO invoice_services (invoice_id, transporter_id,"
+            + " shipper_id, invoice_amount, invoice_status, invoice_date, invoice_timestamp) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_BOOKING_SQL = "INSERT INTO invoice_booking_id (invoice_invoice_id, booking_id)"
+            + " VALUES (?, ?)";
+
+    private static final String INSERT_CHECKPOINT_SQL = "INSERT INTO invoice_job_checkpoint (job_id, post_load_id,"
+            + " status, last_post_load_id, last_transporter_id, invoices_created, bookings_invoiced, bookings_skipped,"
+            + " started_at, updated_at, owner, heartbeat_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // only the node that owns the job may move its checkpoint
+    private static final String UPDATE_CHECKPOINT_SQL = "UPDATE invoice_job_checkpoint SET status = ?,"
+            + " last_post_load_id = ?, last_transporter_id = ?, invoices_created = ?, bookings_invoiced = ?,"
+            + " bookings_skipped = ?, updated_at = ?, heartbeat_at = ? WHERE job_id = ? AND owner = ?";
+
+    private static final String HEARTBEAT_SQL = "UPDATE invoice_job_checkpoint SET heartbeat_at = ?"
+            + " WHERE job_id = ? AND owner = ? AND status = 'RUNNING'";
+
+    // rows written before owners were recorded have no heartbeat and count as stale
+    private static final String STALE = "status = 'RUNNING' AND (heartbeat_at IS NULL OR heartbeat_at < ?)";
+
+    private static final String CLAIM_SQL = "UPDATE invoice_job_checkpoint SET owner = ?, heartbeat_at = ?"
+            + " WHERE job_id = ? AND " + STALE;
+
+    private static final RowMapper<UninvoicedBooking> BOOKING_MAPPER = (rs, rowNum) -> {
+        // unitValue is stored as the enum ordinal
+        Integer unit = rs.getObject("unit_value", Integer.class);
+        return new UninvoicedBooking(rs.getString("booking_id"), rs.getString("post_load_id"),
+                rs.getString("transporter_id"), rs.getObject("rate", Long.class),
+                unit == null ? null : BookingData.Unit.values()[unit], rs.getBigDecimal("weight"), rs.getInt("truck_count"));
+    };
+
+    private static final RowMapper<InvoiceGenerationResponse> CHECKPOINT_MAPPER = (rs, rowNum) -> {
+        InvoiceGenerationResponse checkpoint = new InvoiceGenerationResponse();
+        checkpoint.setJobId(rs.getString("job_id"));
+        checkpoint.setPostLoadId(rs.getString("post_load_id"));
+        checkpoint.setStatus(rs.getString("status"));
+        checkpoint.setLastPostLoadId(rs.getString("last_post_load_id"));
+        checkpoint.setLastTransporterId(rs.getString("last_transporter_id"));
+        checkpoint.setInvoicesCreated(rs.getLong("invoices_created"));
+        checkpoint.setBookingsInvoiced(rs.getLong("bookings_invoiced"));
+        checkpoint.setBookingsSkipped(rs.getLong("bookings_skipped"));
+        checkpoint.setStartedAt(rs.getTimestamp("started_at"));
+        checkpoint.setUpdatedAt(rs.getTimestamp("updated_at"));
+        checkpoint.setOwner(rs.getString("owner"));
+        checkpoint.setHeartbeatAt(rs.getTimestamp("heartbeat_at"));
+        return checkpoint;
+    };
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    DataSource dataSource;
+
+    @Value("${invoice.generation.fetch-size:1000}")
+    int fetchSize;
+
+    // separate template so the fetch size only applies to the cursor read
+    private JdbcTemplate cursorTemplate;
+
+    @PostConstruct
+    public void init() {
+        cursorTemplate = new JdbcTemplate(dataSource);
+        cursorTemplate.setFetchSize(fetchSize);
+    }
+
+    // Streams the bookings in (postLoadId, transporterId, bookingId) order, starting after the given group.
+    // Postgres only uses a cursor when autocommit is off, so call this inside a transaction.
+    public void streamUninvoiced(String postLoadId, String afterPostLoadId, String afterTransporterId,
+                                 Consumer<UninvoicedBooking> consumer) {
+        StringBuilder sql = new StringBuilder("SELECT b.booking_id, b.post_load_id, b.transporter_id, b.rate,"
+                + " b.unit_value, l.weight,"
+                + " (SELECT count(*) FROM booking_data_truck_id t WHERE t.booking_data_booking_id = b.booking_id) AS truck_count"
+                + " FROM booking_data b LEFT JOIN load l ON l.load_id = b.load_id"
+                + " WHERE b.completed AND b.cancel IS NOT TRUE AND b.post_load_id IS NOT NULL"
+                + " AND NOT EXISTS (SELECT 1 FROM invoice_booking_id i WHERE i.booking_id = b.booking_id)");
+        List<Object> args = new ArrayList<>();
+        if (postLoadId != null) {
+            sql.append(" AND b.post_load_id = ?");
+            args.add(postLoadId);
+        }
+        if (afterPostLoadId != null) {
+            sql.append(" AND (b.post_load_id, b.transporter_id) > (?, ?)");
+            args.add(afterPostLoadId);
+            args.add(afterTransporterId);
+        }
+        sql.append(" ORDER BY b.post_load_id, b.transporter_id, b.booking_id");
+        cursorTemplate.query(sql.toString(), (RowCallbackHandler) rs -> consumer.accept(BOOKING_MAPPER.mapRow(rs, 0)),
+                args.toArray());
+    }
+
+    public void insertInvoices(List<Invoice> invoices) {
+        jdbcTemplate.batchUpdate(INSERT_INVOICE_SQL, invoices, invoices.size(), (ps, invoice) -> {
+            ps.setString(1, invoice.getInvoiceId());
+            ps.setString(2, invoice.getTransporterId());
+            ps.setString(3, invoice.getShipperId());
+            ps.setBigDecimal(4, invoice.getInvoiceAmount());
+            ps.setString(5, invoice.getInvoiceStatus());
+            ps.setString(6, invoice.getInvoiceDate());
+            ps.setTimestamp(7, invoice.getInvoiceTimestamp());
+        });
+        List<String[]> links = new ArrayList<>();
+        for (Invoice invoice : invoices) {
+            for (String bookingId : invoice.getBookingId()) {
+                links.add(new String[]{invoice.getInvoiceId(), bookingId});
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_BOOKING_SQL, links, links.size(), (ps, link) -> {
+            ps.setString(1, link[0]);
+            ps.setString(2, link[1]);
+        });
+    }
+
+    // Fails with a DuplicateKeyException while another job is RUNNING anywhere in the cluster.
+    public void insertCheckpoint(InvoiceGenerationResponse checkpoint) {
+        jdbcTemplate.update(INSERT_CHECKPOINT_SQL, checkpoint.getJobId(), checkpoint.getPostLoadId(),
+                checkpoint.getStatus(), checkpoint.getLastPostLoadId(), checkpoint.getLastTransporterId(),
+                checkpoint.getInvoicesCreated(), checkpoint.getBookingsInvoiced(), checkpoint.getBookingsSkipped(),
+                checkpoint.getStartedAt(), checkpoint.getUpdatedAt(), checkpoint.getOwner(), checkpoint.getHeartbeatAt());
+    }
+
+    // Returns false when the job is no longer owned by checkpoint.owner.
+    public boolean updateCheckpoint(InvoiceGenerationResponse checkpoint) {
+        return jdbcTemplate.update(UPDATE_CHECKPOINT_SQL, checkpoint.getStatus(), checkpoint.getLastPostLoadId(),
+                checkpoint.getLastTransporterId(), checkpoint.getInvoicesCreated(), checkpoint.getBookingsInvoiced(),
+                checkpoint.getBookingsSkipped(), checkpoint.getUpdatedAt(), checkpoint.getUpdatedAt(),
+                checkpoint.getJobId(), checkpoint.getOwner()) == 1;
+    }
+
+    public boolean heartbeat(String jobId, String owner, Timestamp now) {
+        return jdbcTemplate.update(HEARTBEAT_SQL, now, jobId, owner) == 1;
+    }
+
+    // Takes a RUNNING job over from a node that stopped reporting before staleBefore. Of several
+    // nodes claiming the same job only one updates the row.
+    public boolean claim(String jobId, String owner, Timestamp now, Timestamp staleBefore) {
+        return jdbcTemplate.update(CLAIM_SQL, owner, now, jobId, staleBefore) == 1;
+    }
+
+    public List<InvoiceGenerationResponse> findStale(Timestamp staleBefore) {
+        return jdbcTemplate.query("SELECT * FROM invoice_job_checkpoint WHERE " + STALE + " ORDER BY started_at",
+                CHECKPOINT_MAPPER, staleBefore);
+    }
+
+    public List<InvoiceGenerationResponse> findCheckpoint(String jobId) {
+        return jdbcTemplate.query("SELECT * FROM invoice_job_checkpoint WHERE job_id = ?", CHECKPOINT_MAPPER, jobId);
+    }
+}
@@ -0,0 +1,74 @@
+package com.TruckBooking.Invoice_Services.Dao;
+
+import com.TruckBooking.Invoice_Services.Constants.InvoiceConstants;
+import com.TruckBooking.Invoice_Services.Response.InvoiceSummaryResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+// Invoice totals per shipper or transporter, computed by the database in a single GROUP BY
+// so only one row per party is read instead of every invoice.
+@Repository
+public class InvoiceSummaryDao {
+
+    public enum GroupBy {
+        shipper("shipper_id"), transporter("transporter_id");
+
+        private final String column;
+
+        GroupBy(String column) {
+            this.column = column;
+        }
+    }
+
+    private static final RowMapper<InvoiceSummaryResponse> SUMMARY_MAPPER = (rs, rowNum) ->
+            new InvoiceSummaryResponse(rs.getString("party_id"), rs.getLong("invoice_count"),
+                    rs.getBigDecimal("total_amount"), rs.getLong("outstanding_count"),
+                    rs.getBigDecimal("outstanding_amount"), rs.getLong("overdue_count"),
+                    rs.getBigDecimal("overdue_amount"));
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    public List<InvoiceSummaryResponse> summarize(GroupBy groupBy, String transporterId, String shipperId,
+                                                  Timestamp fromTimestamp, Timestamp toTimestamp, LocalDate today) {
+        String outstanding = "coalesce(lower(invoice_status), '') <> ?";
+        String overdue = outstanding + " AND due_on < ?";
+        StringBuilder sql = new StringBuilder("SELECT ").append(groupBy.column).append(" AS party_id,")
+                .append(" count(*) AS invoice_count,")
+                .append(" coalesce(sum(invoice_amount), 0) AS total_amount,")
+                .append(" count(CASE WHEN ").append(outstanding).append(" THEN 1 END) AS outstanding_count,")
+                .append(" coalesce(sum(CASE WHEN ").append(outstanding).append(" THEN invoice_amount END), 0) AS outstanding_amount,")
+                .append(" count(CASE WHEN ").append(overdue).append(" THEN 1 END) AS overdue_count,")
+                .append(" coalesce(sum(CASE WHEN ").append(overdue).append(" THEN invoice_amount END), 0) AS overdue_amount")
+                .append(" FROM invoice_services WHERE invoice_timestamp >= ? AND invoice_timestamp <= ?");
+
+        Date dueBefore = Date.valueOf(today);
+        List<Object> args = new ArrayList<>();
+        args.add(InvoiceConstants.paidStatus);
+        args.add(InvoiceConstants.paidStatus);
+        args.add(InvoiceConstants.paidStatus);
+        args.add(dueBefore);
+        args.add(InvoiceConstants.paidStatus);
+        args.add(dueBefore);
+        args.add(fromTimestamp);
+        args.add(toTimestamp);
+        if (transporterId != null) {
+            sql.append(" AND transporter_id = ?");
+            args.add(transporterId);
+        }
+        if (shipperId != null) {
+            sql.append(" AND shipper_id = ?");
+            args.add(shipperId);
+        }
+        sql.append(" GROUP BY ").append(groupBy.column).append(" ORDER BY total_amount DESC");
+        return jdbcTemplate.query(sql.toString(), SUMMARY_MAPPER, args.toArray());
+    }
+}
@@ -1,14 +1,21 @@
 package com.TruckBooking.Invoice_Services.Entity;
 
+import com.fasterxml.jackson.annotation.JsonFormat;
 import lombok.Data;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.CreationTimestamp;
 
 import javax.persistence.*;
 import javax.validation.constraints.NotBlank;
+import java.math.BigDecimal;
 import java.sql.Timestamp;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
-@Table(name = "InvoiceServices")
+@Table(name = "InvoiceServices", indexes = {
+        @Index(name = "idx_invoice_transporter_timestamp", columnList = "transporterId, invoiceTimestamp"),
+        @Index(name = "idx_invoice_shipper_timestamp", columnList = "shipperId, invoiceTimestamp")
+})
 @Data
 @Entity
 
@@ -19,7 +26,10 @@ public class Invoice {
     @NotBlank(message = "transporterId can not be null")
     public String transporterId;
     public String transporterName;//optional
-    @ElementCollection(fetch = FetchType.EAGER)
+    // loaded on demand, up to 100 invoices' booking ids per query; a booking is on one invoice only
+    @ElementCollection(fetch = FetchType.LAZY)
+    @CollectionTable(uniqueConstraints = @UniqueConstraint(name = "uk_invoice_booking_id_booking", columnNames = "bookingId"))
+    @BatchSize(size = 100)
     @Column(name="bookingId")
     private List<String>bookingId=new ArrayList<>();
     @CreationTimestamp
@@ -33,12 +43,18 @@ public class Invoice {
 
     public String invoiceNo; //optional
 
-    public String invoiceAmount; //optional
+    // still rendered as a string in the JSON for existing clients
+    @Column(precision = 14, scale = 2)
+    @JsonFormat(shape = JsonFormat.Shape.STRING)
+    public BigDecimal invoiceAmount; //optional
 
     public String partyName; //optional
 
     public String dueDate; //optional
 
+    // dueDate as a date, when it could be parsed
+    public LocalDate dueOn;
+
 
 
     public String invoiceStatus;
@@ -8,7 +8,9 @@ import org.hibernate.annotations.CreationTimestamp;
 import javax.persistence.Column;
 import javax.persistence.ElementCollection;
 import javax.persistence.FetchType;
+import javax.validation.constraints.DecimalMin;
 import javax.validation.constraints.NotBlank;
+import java.math.BigDecimal;
 import java.sql.Timestamp;
 import java.util.List;
 
@@ -36,7 +38,8 @@ public class InvoiceRequest {
 
     public String invoiceNo;
 
-    public String invoiceAmount;
+    @DecimalMin(value = "0", message = "invoiceAmount can not be negative")
+    public BigDecimal invoiceAmount;
 
     public String partyName;
 
@@ -0,0 +1,22 @@
+package com.TruckBooking.Invoice_Services.Model;
+
+import com.TruckBooking.Booking.Entities.BookingData;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+// A completed booking that is not on any invoice yet, with what is needed to price it.
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class UninvoicedBooking {
+    public String bookingId;
+    public String postLoadId;
+    public String transporterId;
+    public Long rate;
+    public BookingData.Unit unitValue;
+    public BigDecimal weight;
+    public int truckCount;
+}
@@ -0,0 +1,22 @@
+package com.TruckBooking.Invoice_Services.Response;
+
+import lombok.Data;
+
+import java.sql.Timestamp;
+
+@Data
+public class InvoiceGenerationResponse {
+    public String jobId;
+    public String postLoadId;
+    public String status;
+    public String lastPostLoadId;
+    public String lastTransporterId;
+    public long invoicesCreated;
+    public long bookingsInvoiced;
+    public long bookingsSkipped;
+    public Timestamp startedAt;
+    public Timestamp updatedAt;
+    // node running the job and when it last reported in
+    public String owner;
+    public Timestamp heartbeatAt;
+}
@@ -0,0 +1,27 @@
+package com.TruckBooking.Invoice_Services.Response;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+// Totals for one shipper or transporter. Outstanding invoices are those not marked paid;
+// overdue ones are outstanding invoices whose due date has passed.
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class InvoiceSummaryResponse {
+    public String partyId;
+    public long invoiceCount;
+    // amounts are strings in the JSON, like invoiceAmount
+    @JsonFormat(shape = JsonFormat.Shape.STRING)
+    public BigDecimal totalAmount;
+    public long outstandingCount;
+    @JsonFormat(shape = JsonFormat.Shape.STRING)
+    public BigDecimal outstandingAmount;
+    public long overdueCount;
+    @JsonFormat(shape = JsonFormat.Shape.STRING)
+    public BigDecimal overdueAmount;
+}
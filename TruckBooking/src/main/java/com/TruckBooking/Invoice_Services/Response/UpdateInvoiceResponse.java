@@ -1,11 +1,13 @@
 package com.TruckBooking.Invoice_Services.Response;
 
+import com.fasterxml.jackson.annotation.JsonFormat;
 import lombok.Data;
 import org.hibernate.annotations.CreationTimestamp;
 
 import javax.persistence.Column;
 import javax.persistence.ElementCollection;
 import javax.persistence.FetchType;
+import java.math.BigDecimal;
 import java.sql.Timestamp;
 import java.util.List;
 
@@ -24,7 +26,8 @@ public class UpdateInvoiceResponse {
     public String shipperId;
     public String invoiceDate;
     public String invoiceNo;
-    public String invoiceAmount;
+    @JsonFormat(shape = JsonFormat.Shape.STRING)
+    public BigDecimal invoiceAmount;
     public String partyName;
     public String dueDate;
 
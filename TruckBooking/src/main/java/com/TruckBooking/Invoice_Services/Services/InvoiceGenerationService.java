@@ -0,0 +1,324 @@
+package com.TruckBooking.Invoice_Services.Services;
+
+import com.TruckBooking.Booking.Entities.BookingData;
+import com.TruckBooking.Invoice_Services.Constants.InvoiceConstants;
+import com.TruckBooking.Invoice_Services.Dao.InvoiceGenerationDao;
+import com.TruckBooking.Invoice_Services.Entity.Invoice;
+import com.TruckBooking.Invoice_Services.Model.UninvoicedBooking;
+import com.TruckBooking.Invoice_Services.Response.InvoiceGenerationResponse;
+import com.TruckBooking.LoadsApi.Exception.BusinessException;
+import com.TruckBooking.LoadsApi.Exception.EntityNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Month-end billing: creates one invoice per (shipper, transporter) for all completed bookings that
+// are not invoiced yet. Bookings are read through a single database cursor in group order; every
+// batch of invoices is inserted together with the checkpoint in one transaction, so a job that
+// dies part way resumes after the last committed group without creating any invoice twice.
+// One job runs in the whole cluster at a time: its checkpoint row names the owning node, which
+// keeps a heartbeat on it, and a job whose owner stops reporting is claimed by another node.
+@Slf4j
+@Service
+public class InvoiceGenerationService {
+
+    public static final String RUNNING = "RUNNING";
+    public static final String COMPLETED = "COMPLETED";
+    public static final String FAILED = "FAILED";
+
+    @Autowired
+    InvoiceGenerationDao invoiceGenerationDao;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    // invoices committed per transaction
+    @Value("${invoice.generation.batch-size:500}")
+    int batchSize;
+
+    // how long a RUNNING job may go without a heartbeat before another node takes it over
+    @Value("${invoice.generation.stale-after-seconds:120}")
+    long staleAfterSeconds;
+
+    // owner recorded on the jobs this node runs
+    String nodeName = ManagementFactory.getRuntimeMXBean().getName() + ":" + UUID.randomUUID().toString().substring(0, 8);
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "invoice-generation");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AtomicReference<String> runningJob = new AtomicReference<>();
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Scheduled(fixedDelayString = "${invoice.generation.heartbeat-ms:30000}")
+    public void heartbeat() {
+        String jobId = runningJob.get();
+        if (jobId == null)
+            return;
+        try {
+            if (!invoiceGenerationDao.heartbeat(jobId, nodeName, now()))
+                log.error("invoice generation job " + jobId + " is no longer owned by " + nodeName);
+        } catch (RuntimeException e) {
+            log.error("Could not record the invoice generation heartbeat: " + e.getMessage());
+        }
+    }
+
+    // Resumes a job whose owner stopped reporting, whether it crashed, was stopped mid-run or is
+    // this node before a restart. Runs on every node; claim() lets only one of them have it.
+    @Scheduled(fixedDelayString = "${invoice.generation.heartbeat-ms:30000}")
+    public void resumeStale() {
+        try {
+            Timestamp now = now();
+            Timestamp staleBefore = new Timestamp(now.getTime() - staleAfterSeconds * 1000);
+            for (InvoiceGenerationResponse stale : invoiceGenerationDao.findStale(staleBefore)) {
+                if (!runningJob.compareAndSet(null, stale.getJobId()))
+                    return;
+                boolean claimed = false;
+                try {
+                    claimed = invoiceGenerationDao.claim(stale.getJobId(), nodeName, now, staleBefore);
+                } finally {
+                    if (!claimed)
+                        runningJob.set(null);
+                }
+                if (claimed) {
+                    log.info("resuming invoice generation job " + stale.getJobId() + " last run by " + stale.getOwner());
+                    InvoiceGenerationResponse checkpoint = invoiceGenerationDao.findCheckpoint(stale.getJobId()).get(0);
+                    executor.submit(() -> run(checkpoint));
+                    return;
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error("Could not look for stale invoice generation jobs: " + e.getMessage());
+        }
+    }
+
+    public InvoiceGenerationResponse start(String postLoadId) {
+        log.info("start invoice generation service started");
+        String jobId = "invoiceJob:" + UUID.randomUUID();
+        if (!runningJob.compareAndSet(null, jobId))
+            throw new BusinessException(InvoiceConstants.jobAlreadyRunning);
+
+        Timestamp now = now();
+        InvoiceGenerationResponse checkpoint = new InvoiceGenerationResponse();
+        checkpoint.setJobId(jobId);
+        checkpoint.setPostLoadId(postLoadId);
+        checkpoint.setStatus(RUNNING);
+        checkpoint.setStartedAt(now);
+        checkpoint.setUpdatedAt(now);
+        checkpoint.setOwner(nodeName);
+        checkpoint.setHeartbeatAt(now);
+        try {
+            invoiceGenerationDao.insertCheckpoint(checkpoint);
+        } catch (DuplicateKeyException e) {
+            // another node is running one
+            runningJob.set(null);
+            throw new BusinessException(InvoiceConstants.jobAlreadyRunning);
+        } catch (RuntimeException e) {
+            runningJob.set(null);
+            throw e;
+        }
+        InvoiceGenerationResponse response = copy(checkpoint);
+        executor.submit(() -> run(checkpoint));
+        return response;
+    }
+
+    public InvoiceGenerationResponse getJob(String jobId) {
+        List<InvoiceGenerationResponse> checkpoint = invoiceGenerationDao.findCheckpoint(jobId);
+        if (checkpoint.isEmpty())
+            throw new EntityNotFoundException(InvoiceGenerationResponse.class, "jobId", jobId);
+        return checkpoint.get(0);
+    }
+
+    // runningJob must already hold this job's id and the checkpoint must be owned by this node;
+    // runningJob is cleared when the run ends
+    private void run(InvoiceGenerationResponse checkpoint) {
+        long start = System.nanoTime();
+        long invoicesBefore = checkpoint.getInvoicesCreated();
+        try {
+            // read-write so the cursor stays on the primary: a replica can cancel a query this long on
+            // a replication conflict and may not have the latest completed bookings yet
+            TransactionTemplate read = new TransactionTemplate(transactionManager);
+            TransactionTemplate write = new TransactionTemplate(transactionManager);
+            write.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+            Batch batch = new Batch(checkpoint, write);
+            read.executeWithoutResult(status -> invoiceGenerationDao.streamUninvoiced(checkpoint.getPostLoadId(),
+                    checkpoint.getLastPostLoadId(), checkpoint.getLastTransporterId(), batch::add));
+            batch.closeGroup();
+            checkpoint.setStatus(COMPLETED);
+            batch.flush();
+
+            double seconds = (System.nanoTime() - start) / 1e9;
+            log.info("invoice generation job " + checkpoint.getJobId() + " completed: "
+                    + (checkpoint.getInvoicesCreated() - invoicesBefore) + " invoices in " + String.format("%.1f", seconds) + "s");
+        } catch (RuntimeException e) {
+            log.error("invoice generation job " + checkpoint.getJobId() + " failed: " + e.getMessage());
+            try {
+                List<InvoiceGenerationResponse> committed = invoiceGenerationDao.findCheckpoint(checkpoint.getJobId());
+                if (!committed.isEmpty()) {
+                    InvoiceGenerationResponse failed = committed.get(0);
+                    failed.setStatus(FAILED);
+                    failed.setUpdatedAt(now());
+                    // left alone if another node has taken the job over
+                    failed.setOwner(nodeName);
+                    invoiceGenerationDao.updateCheckpoint(failed);
+                }
+            } catch (RuntimeException checkpointError) {
+                log.error("Could not mark invoice generation job as failed: " + checkpointError.getMessage());
+            }
+        } finally {
+            runningJob.set(null);
+        }
+    }
+
+    // Collects the bookings of the current group and the invoices not committed yet.
+    private class Batch {
+        private final InvoiceGenerationResponse checkpoint;
+        private final TransactionTemplate write;
+        private final List<UninvoicedBooking> group = new ArrayList<>();
+        private final List<Invoice> pending = new ArrayList<>();
+        private String closedPostLoadId;
+        private String closedTransporterId;
+        private long pendingBookings;
+        private long pendingSkipped;
+
+        private Batch(InvoiceGenerationResponse checkpoint, TransactionTemplate write) {
+            this.checkpoint = checkpoint;
+            this.write = write;
+        }
+
+        private void add(UninvoicedBooking booking) {
+            if (!group.isEmpty() && !(Objects.equals(group.get(0).getPostLoadId(), booking.getPostLoadId())
+                    && Objects.equals(group.get(0).getTransporterId(), booking.getTransporterId()))) {
+                closeGroup();
+                if (pending.size() >= batchSize)
+                    flush();
+            }
+            group.add(booking);
+        }
+
+        private void closeGroup() {
+            if (group.isEmpty())
+                return;
+            UninvoicedBooking first = group.get(0);
+            List<String> bookingIds = new ArrayList<>();
+            BigDecimal total = BigDecimal.ZERO;
+            for (UninvoicedBooking booking : group) {
+                BigDecimal amount = price(booking);
+                if (amount == null) {
+                    // left uninvoiced so a later run picks it up once rate or weight is filled in
+                    pendingSkipped++;
+                    continue;
+                }
+                bookingIds.add(booking.getBookingId());
+                total = total.add(amount);
+            }
+            if (!bookingIds.isEmpty()) {
+                Invoice invoice = new Invoice();
+                invoice.setInvoiceId("invoice:" + UUID.randomUUID());
+                invoice.setTransporterId(first.getTransporterId());
+                invoice.setShipperId(first.getPostLoadId());
+                invoice.setInvoiceAmount(total.setScale(2, RoundingMode.HALF_UP));
+                invoice.setInvoiceStatus(InvoiceConstants.generatedStatus);
+                invoice.setInvoiceDate(LocalDate.now().toString());
+                invoice.setInvoiceTimestamp(new Timestamp(System.currentTimeMillis()));
+                invoice.setBookingId(bookingIds);
+                pending.add(invoice);
+                pendingBookings += bookingIds.size();
+            }
+            closedPostLoadId = first.getPostLoadId();
+            closedTransporterId = first.getTransporterId();
+            group.clear();
+        }
+
+        // commits the pending invoices and moves the checkpoint past the last closed group
+        private void flush() {
+            write.executeWithoutResult(status -> {
+                if (!pending.isEmpty())
+                    invoiceGenerationDao.insertInvoices(pending);
+                InvoiceGenerationResponse next = copy(checkpoint);
+                if (closedPostLoadId != null) {
+                    next.setLastPostLoadId(closedPostLoadId);
+                    next.setLastTransporterId(closedTransporterId);
+                }
+                next.setInvoicesCreated(checkpoint.getInvoicesCreated() + pending.size());
+                next.setBookingsInvoiced(checkpoint.getBookingsInvoiced() + pendingBookings);
+                next.setBookingsSkipped(checkpoint.getBookingsSkipped() + pendingSkipped);
+                next.setUpdatedAt(now());
+                // rolls the invoices back if another node took the job over meanwhile
+                if (!invoiceGenerationDao.updateCheckpoint(next))
+                    throw new IllegalStateException("job was taken over by another node");
+
+                checkpoint.setLastPostLoadId(next.getLastPostLoadId());
+                checkpoint.setLastTransporterId(next.getLastTransporterId());
+                checkpoint.setInvoicesCreated(next.getInvoicesCreated());
+                checkpoint.setBookingsInvoiced(next.getBookingsInvoiced());
+                checkpoint.setBookingsSkipped(next.getBookingsSkipped());
+                checkpoint.setUpdatedAt(next.getUpdatedAt());
+                checkpoint.setHeartbeatAt(next.getUpdatedAt());
+            });
+            pending.clear();
+            pendingBookings = 0;
+            pendingSkipped = 0;
+        }
+    }
+
+    // PER_TON bookings are priced on the load's weight, PER_TRUCK ones on the number of trucks.
+    // Returns null when there is not enough information to price the booking.
+    static BigDecimal price(UninvoicedBooking booking) {
+        if (booking.getRate() == null)
+            return null;
+        BigDecimal rate = BigDecimal.valueOf(booking.getRate());
+        if (booking.getUnitValue() == BookingData.Unit.PER_TON) {
+            return booking.getWeight() == null ? null : rate.multiply(booking.getWeight());
+        }
+        return rate.multiply(BigDecimal.valueOf(Math.max(1, booking.getTruckCount())));
+    }
+
+    private static InvoiceGenerationResponse copy(InvoiceGenerationResponse checkpoint) {
+        InvoiceGenerationResponse copy = new InvoiceGenerationResponse();
+        copy.setJobId(checkpoint.getJobId());
+        copy.setPostLoadId(checkpoint.getPostLoadId());
+        copy.setStatus(checkpoint.getStatus());
+        copy.setLastPostLoadId(checkpoint.getLastPostLoadId());
+        copy.setLastTransporterId(checkpoint.getLastTransporterId());
+        copy.setInvoicesCreated(checkpoint.getInvoicesCreated());
+        copy.setBookingsInvoiced(checkpoint.getBookingsInvoiced());
+        copy.setBookingsSkipped(checkpoint.getBookingsSkipped());
+        copy.setStartedAt(checkpoint.getStartedAt());
+        copy.setUpdatedAt(checkpoint.getUpdatedAt());
+        copy.setOwner(checkpoint.getOwner());
+        copy.setHeartbeatAt(checkpoint.getHeartbeatAt());
+        return copy;
+    }
+
+    private static Timestamp now() {
+        return new Timestamp(System.currentTimeMillis());
+    }
+}
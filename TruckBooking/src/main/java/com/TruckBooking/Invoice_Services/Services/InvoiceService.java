@@ -2,7 +2,9 @@ package com.TruckBooking.Invoice_Services.Services;
 
 import com.TruckBooking.Invoice_Services.Entity.Invoice;
 import com.TruckBooking.Invoice_Services.Model.InvoiceRequest;
+import com.TruckBooking.Invoice_Services.Dao.InvoiceSummaryDao;
 import com.TruckBooking.Invoice_Services.Response.CreateInvoiceResponse;
+import com.TruckBooking.Invoice_Services.Response.InvoiceSummaryResponse;
 import com.TruckBooking.Invoice_Services.Response.UpdateInvoiceResponse;
 
 import java.sql.Timestamp;
@@ -11,7 +13,11 @@ import java.util.List;
 
 public interface InvoiceService {
     public CreateInvoiceResponse addInvoice(InvoiceRequest invoiceModel);
-    public List<Invoice> getInvoice(String transporterId, String shipperId, Timestamp fromTimestamp, Timestamp toTimestamp);
+    public List<Invoice> getInvoice(Integer pageNo, String transporterId, String shipperId, Timestamp fromTimestamp, Timestamp toTimestamp);
+    public List<Invoice> getInvoicesAfter(String transporterId, String shipperId, Timestamp fromTimestamp, Timestamp toTimestamp,
+                                          Long afterTimestamp, String afterId, Integer limit);
+    public List<InvoiceSummaryResponse> getInvoiceSummary(InvoiceSummaryDao.GroupBy groupBy, String transporterId, String shipperId,
+                                                          Timestamp fromTimestamp, Timestamp toTimestamp);
     public UpdateInvoiceResponse updateInvoice(String invoiceId, InvoiceRequest invoiceModel);
     public CreateInvoiceResponse getInvoiceById(String invoiceId);
     public void deleteInvoice(String invoiceId);
@@ -1,19 +1,35 @@
 package com.TruckBooking.Invoice_Services.Services;
 
+import com.TruckBooking.Invoice_Services.Constants.InvoiceConstants;
 import com.TruckBooking.Invoice_Services.Dao.InvoiceDao;
+import com.TruckBooking.Invoice_Services.Dao.InvoiceSummaryDao;
 import com.TruckBooking.Invoice_Services.Entity.Invoice;
 import com.TruckBooking.Invoice_Services.Model.InvoiceRequest;
 import com.TruckBooking.Invoice_Services.Response.CreateInvoiceResponse;
+import com.TruckBooking.Invoice_Services.Response.InvoiceSummaryResponse;
 import com.TruckBooking.Invoice_Services.Response.UpdateInvoiceResponse;
+import com.TruckBooking.LoadsApi.Exception.BusinessException;
+import com.TruckBooking.LoadsApi.Exception.ConstraintViolations;
 import com.TruckBooking.LoadsApi.Exception.EntityNotFoundException;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
+import org.hibernate.Hibernate;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
 import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -25,6 +41,9 @@ public class InvoiceServiceImplementation implements InvoiceService {
 
     InvoiceDao invoiceDao;
 
+    @Autowired
+    InvoiceSummaryDao invoiceSummaryDao;
+
     @Autowired
     public InvoiceServiceImplementation(InvoiceDao invoiceDao) {
         this.invoiceDao = invoiceDao;
@@ -53,6 +72,7 @@ public class InvoiceServiceImplementation implements InvoiceService {
         temp = invoiceRequest.getDueDate();
         if (StringUtils.isNotBlank(temp)) {
             invoice.setDueDate(temp);
+            invoice.setDueOn(parseDueDate(temp));
             response.setDueDate(temp);
         }
        List<String>ansList= invoiceRequest.getBookingId();
@@ -77,10 +97,10 @@ public class InvoiceServiceImplementation implements InvoiceService {
             invoice.setInvoiceDate(temp);
             response.setInvoiceDate(temp);
         }
-        temp = invoiceRequest.getInvoiceAmount();
-        if (StringUtils.isNotBlank(temp)) {
-            invoice.setInvoiceAmount(temp);
-            response.setInvoiceAmount(temp);
+        BigDecimal amount = invoiceRequest.getInvoiceAmount();
+        if (amount != null) {
+            invoice.setInvoiceAmount(amount);
+            response.setInvoiceAmount(amount);
         }
         temp=invoiceRequest.getTransporterName();
         if(StringUtils.isNotBlank(temp)){
@@ -105,7 +125,7 @@ public class InvoiceServiceImplementation implements InvoiceService {
         }
 
    //saving the value in database
-         invoiceDao.save(invoice);
+         saveAndFlush(invoice);
 
 
         return response;
@@ -131,7 +151,7 @@ public class InvoiceServiceImplementation implements InvoiceService {
         response.setPartyName(invoiceAns.getPartyName());
         response.setTransporterName(invoiceAns.getTransporterName());
         response.setInvoiceStatus(invoiceAns.getInvoiceStatus());
-        response.setBookingId(invoiceAns.getBookingId());
+        response.setBookingId(new ArrayList<>(invoiceAns.getBookingId()));
 
         response.setDueDate(invoiceAns.getDueDate());
         //returning the response
@@ -143,23 +163,100 @@ public class InvoiceServiceImplementation implements InvoiceService {
 
     @Transactional(readOnly = true, rollbackFor = Exception.class)
     @Override
-    public List<Invoice> getInvoice(String transporterId, String shipperId, Timestamp fromTimestamp, Timestamp toTimestamp) {
+    public List<Invoice> getInvoice(Integer pageNo, String transporterId, String shipperId, Timestamp fromTimestamp, Timestamp toTimestamp) {
 
         log.info("getInvoice services with params started");
+        if (pageNo == null)
+            pageNo = 0;
+        Pageable page = PageRequest.of(pageNo, InvoiceConstants.pageSize, Sort.Direction.DESC, "invoiceTimestamp");
         List<Invoice> listans = null;
         //getting the value for a transporterdId
         if(transporterId!=null) {
-            listans = invoiceDao.findByTransporterIdAndInvoiceTimestampBetween(transporterId ,fromTimestamp,  toTimestamp);
-            return listans;
+            listans = invoiceDao.findByTransporterIdAndInvoiceTimestampBetween(transporterId ,fromTimestamp,  toTimestamp, page);
+            return initializeBookingIds(listans);
         }
         //getting the value for a shipperId
         if(shipperId!=null){
-           listans = invoiceDao. findByShipperIdAndInvoiceTimestampBetween(shipperId,fromTimestamp,toTimestamp);
-            return listans;
+           listans = invoiceDao. findByShipperIdAndInvoiceTimestampBetween(shipperId,fromTimestamp,toTimestamp, page);
+            return initializeBookingIds(listans);
         }
         log.info("getInvoice service response is returned");
         return  listans ;
     }
+
+    @Transactional(readOnly = true, rollbackFor = Exception.class)
+    @Override
+    public List<Invoice> getInvoicesAfter(String transporterId, String shipperId, Timestamp fromTimestamp, Timestamp toTimestamp,
+                                          Long afterTimestamp, String afterId, Integer limit) {
+        log.info("getInvoicesAfter service started");
+        int size = limit == null ? InvoiceConstants.pageSize : limit;
+        if (size < 1 || size > InvoiceConstants.maxPageSize)
+            throw new BusinessException(": limit must be between 1 and " + InvoiceConstants.maxPageSize + ".");
+        if ((transporterId == null) == (shipperId == null))
+            throw new BusinessException(": exactly one of transporterId and shipperId must be given.");
+        Pageable page = PageRequest.of(0, size, Sort.by(Sort.Direction.DESC, "invoiceTimestamp", "invoiceId"));
+
+        List<Invoice> invoices;
+        if (afterTimestamp == null) {
+            invoices = transporterId != null
+                    ? invoiceDao.findByTransporterIdAndInvoiceTimestampBetween(transporterId, fromTimestamp, toTimestamp, page)
+                    : invoiceDao.findByShipperIdAndInvoiceTimestampBetween(shipperId, fromTimestamp, toTimestamp, page);
+        } else {
+            if (StringUtils.isBlank(afterId))
+                throw new BusinessException(": afterId must be given with afterTimestamp.");
+            Timestamp after = new Timestamp(afterTimestamp);
+            invoices = transporterId != null
+                    ? invoiceDao.findTransporterPageBefore(transporterId, fromTimestamp, toTimestamp, after, afterId, page)
+                    : invoiceDao.findShipperPageBefore(shipperId, fromTimestamp, toTimestamp, after, afterId, page);
+        }
+        return initializeBookingIds(invoices);
+    }
+
+    @Transactional(readOnly = true, rollbackFor = Exception.class)
+    @Override
+    public List<InvoiceSummaryResponse> getInvoiceSummary(InvoiceSummaryDao.GroupBy groupBy, String transporterId, String shipperId,
+                                                          Timestamp fromTimestamp, Timestamp toTimestamp) {
+        log.info("getInvoiceSummary service started");
+        if (groupBy == null)
+            groupBy = transporterId != null ? InvoiceSummaryDao.GroupBy.shipper : InvoiceSummaryDao.GroupBy.transporter;
+        List<InvoiceSummaryResponse> summary = invoiceSummaryDao.summarize(groupBy, transporterId, shipperId,
+                fromTimestamp, toTimestamp, LocalDate.now(ZoneOffset.UTC));
+        log.info("getInvoiceSummary service response is returned");
+        return summary;
+    }
+
+    // Loads the booking ids while the session is still open; @BatchSize fetches them for
+    // up to 100 invoices per query instead of one query per invoice.
+    private static List<Invoice> initializeBookingIds(List<Invoice> invoices) {
+        for (Invoice invoice : invoices) {
+            Hibernate.initialize(invoice.getBookingId());
+        }
+        return invoices;
+    }
+
+    // Returns null for due dates in a format we do not recognise; such invoices are never overdue.
+    static LocalDate parseDueDate(String dueDate) {
+        for (String format : InvoiceConstants.dueDateFormats) {
+            try {
+                return LocalDate.parse(dueDate.trim(), DateTimeFormatter.ofPattern(format));
+            } catch (DateTimeParseException e) {
+                // try the next format
+            }
+        }
+        return null;
+    }
+
+    // Flushes so a booking that is already on another invoice surfaces here as a constraint
+    // violation instead of at commit.
+    private Invoice saveAndFlush(Invoice invoice) {
+        try {
+            return invoiceDao.saveAndFlush(invoice);
+        } catch (DataIntegrityViolationException e) {
+            if (InvoiceConstants.bookingIdConstraint.equals(ConstraintViolations.name(e)))
+                throw new BusinessException(InvoiceConstants.bookingAlreadyInvoiced);
+            throw e;
+        }
+    }
     @Transactional(rollbackFor = Exception.class)
     @Override
 
@@ -182,9 +279,9 @@ public class InvoiceServiceImplementation implements InvoiceService {
         if (StringUtils.isNotBlank(temp)) {
             invoice.setInvoiceDate(temp);
         }
-        temp = invoiceRequest.getInvoiceAmount();
-        if (StringUtils.isNotBlank(temp)) {
-            invoice.setInvoiceAmount(temp);
+        BigDecimal amount = invoiceRequest.getInvoiceAmount();
+        if (amount != null) {
+            invoice.setInvoiceAmount(amount);
             response.setInvoiceAmount(invoice.getInvoiceAmount());
         }
 
@@ -198,6 +295,7 @@ public class InvoiceServiceImplementation implements InvoiceService {
         temp = invoiceRequest.getDueDate();
         if (StringUtils.isNotBlank(temp)) {
             invoice.setDueDate(temp);
+            invoice.setDueOn(parseDueDate(temp));
 
         }
         temp=invoiceRequest.getInvoiceStatus();
@@ -219,9 +317,9 @@ public class InvoiceServiceImplementation implements InvoiceService {
         response.setInvoiceId(invoiceId);
 
        //getting the non updated value from database and setting them in response
-        Invoice i = invoiceDao.save(invoice);
+        Invoice i = saveAndFlush(invoice);
         response.setTransporterId(i.getTransporterId());
-        response.setBookingId(i.getBookingId());
+        response.setBookingId(new ArrayList<>(i.getBookingId()));
         response.setInvoiceId(i.getInvoiceId());
         response.setTransporterName(i.getTransporterName());
         response.setInvoiceStatus(i.getInvoiceStatus());
@@ -235,7 +333,7 @@ public class InvoiceServiceImplementation implements InvoiceService {
 
     }
     //This request retrievs data from the database
-    @Transactional(readOnly = true, rollbackFor = Exception.class)
+    @Transactional(rollbackFor = Exception.class)
     @Override
     public void deleteInvoice(String invoiceId){
         log.info("deleteInvoice service is started");
@@ -35,6 +35,20 @@ public class CommonConstants {
 	public static String emptypostloadid = "Empty postLoadId";
 	public static String emptycomment = "Empty comment";
 
+	// load dates are stored typed and rendered back in the legacy formats at the API
+	public static String zone = "Asia/Kolkata";
+	public static String dateDisplayFormat = "E, MMM dd yyyy";
+	public static String timeDisplayFormat = "hh:mm a";
+	public static String[] dateFormats = {"E, MMM dd yyyy", "yyyy-MM-dd", "dd-MM-yyyy", "dd/MM/yyyy", "dd/MM/yy"};
+	public static String[] timeFormats = {"hh:mm a", "h:mm a", "HH:mm", "H:mm"};
+	public static String invalidDate = "Invalid date, expected a format like \"Mon, Jan 15 2024\" or 2024-01-15: ";
+	public static String invalidTime = "Invalid time, expected a format like \"09:30 AM\" or 21:30: ";
+	public static String timeWithoutDate = "A time can't be set without its date";
+	public static String invalidDateRange = "loadingDateFrom can't be after loadingDateTo";
+	public static String invalidWeight = "Invalid weight, expected tonnes like 25 or 25.5: ";
+	public static String invalidCount = " must be a whole number: ";
+	public static String invalidWeightRange = "weightMin can't be more than weightMax";
+
 	// for testing
 	public static String URI = "/load";
 	public static String LOADID_URI = "/load/loadid:1";
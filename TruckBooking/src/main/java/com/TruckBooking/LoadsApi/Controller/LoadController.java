@@ -18,7 +18,9 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.TruckBooking.LoadsApi.Entities.Load;
+import com.TruckBooking.LoadsApi.Model.LoadFilter;
 import com.TruckBooking.LoadsApi.Model.LoadRequest;
+import com.TruckBooking.LoadsApi.Response.NearbyLoadResponse;
 import com.TruckBooking.LoadsApi.Service.LoadServiceImpl;
 import org.springframework.web.bind.annotation.*;
 
@@ -54,16 +56,25 @@ public class LoadController {
 			 @RequestParam (name="startTimestamp", required=false)Timestamp startTimestamp,
 				@RequestParam(name="unloadingPointGeoId",required = false) List<String> unloadingPointGeoId,
 				@RequestParam(name="loadingPointGeoId",required = false)List<String>loadingPointGeoId,
-		        @RequestParam (name="endTimestamp", required=false) Timestamp endTimestamp) {
+		        @RequestParam (name="endTimestamp", required=false) Timestamp endTimestamp,
+			LoadFilter filter) {
 
 		log.info("Get with Params Controller Started");
 
 		return new ResponseEntity<>(loadService.getLoads(pageNo, loadingPointCity, unloadingPointCity, postLoadId,
-				truckType,suggestedLoads, transporterId, startTimestamp, endTimestamp), HttpStatus.OK);
+				truckType,suggestedLoads, transporterId, startTimestamp, endTimestamp, filter), HttpStatus.OK);
 	}
 	
 	
 
+	@GetMapping("/load/nearby")
+	public ResponseEntity<List<NearbyLoadResponse>> findNearbyLoads(@RequestParam(name = "imei") String imei,
+			@RequestParam(name = "radiusKm", defaultValue = "50") double radiusKm,
+			@RequestParam(name = "limit", defaultValue = "50") int limit) {
+		log.info("Get nearby loads Controller Started");
+		return new ResponseEntity<>(loadService.getNearbyLoads(imei, radiusKm, limit), HttpStatus.OK);
+	}
+
 	@GetMapping("/load/{loadId}")
 	public ResponseEntity<Object> findLoad(@PathVariable String loadId) {
 		log.info("Get by loadId Controller Started");
@@ -1,6 +1,8 @@
 package com.TruckBooking.LoadsApi.Dao;
 
+import java.math.BigDecimal;
 import java.sql.Timestamp;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
@@ -41,7 +43,29 @@ public interface LoadDao extends JpaRepository<Load, String> {
 	List<Load> findByPostLoadIdAndTimestampBetween(String postLoadId, Timestamp startTimestamp, Timestamp endTimestamp); //method to get data by the filters passed in the method
 
 	List<Load> findByStatus(Status status, Pageable pageable);
+
+	// GET /load with range filters; a null argument leaves that filter out. Served by the
+	// (status, loading_on), (status, weight) and (status, no_of_tyres) indexes. The date and number
+	// null checks cast their parameter: a null one is bound untyped, and Postgres cannot infer the
+	// type of a bare "? is null".
+	@Query("select l from Load l where l.status in :statuses"
+			+ " and (:postLoadId is null or l.postLoadId = :postLoadId)"
+			+ " and (:truckType is null or l.truckType = :truckType)"
+			+ " and (:loadingPointCity is null or l.loadingPointCity = :loadingPointCity)"
+			+ " and (:unloadingPointCity is null or l.unloadingPointCity = :unloadingPointCity)"
+			+ " and (cast(:loadingDateFrom as date) is null or l.loadingOn >= :loadingDateFrom)"
+			+ " and (cast(:loadingDateTo as date) is null or l.loadingOn <= :loadingDateTo)"
+			+ " and (cast(:weightMin as big_decimal) is null or l.weight >= :weightMin)"
+			+ " and (cast(:weightMax as big_decimal) is null or l.weight <= :weightMax)"
+			+ " and (cast(:noOfTyres as integer) is null or l.noOfTyres = :noOfTyres)")
+	List<Load> searchByStatus(List<Status> statuses, String postLoadId, String truckType, String loadingPointCity,
+			String unloadingPointCity, LocalDate loadingDateFrom, LocalDate loadingDateTo, BigDecimal weightMin,
+			BigDecimal weightMax, Integer noOfTyres, Pageable pageable);
 	
 	List<Load> findByPublishMethodAndStatus(String publishMethod, Status status);
 
+	@Query("select l.loadId, l.loadingPointLatitude, l.loadingPointLongitude from Load l where l.status = :status"
+			+ " and l.loadingPointLatitude is not null and l.loadingPointLongitude is not null")
+	List<Object[]> findCoordinatesByStatus(Status status);
+
 }
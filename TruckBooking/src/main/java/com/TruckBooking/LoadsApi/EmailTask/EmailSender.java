@@ -3,12 +3,19 @@ package com.TruckBooking.LoadsApi.EmailTask;
 import com.TruckBooking.LoadsApi.Dao.TransporterEmailDao;
 import com.TruckBooking.LoadsApi.Entities.Load;
 import com.TruckBooking.LoadsApi.Entities.TransporterEmail;
+import com.TruckBooking.LoadsApi.Model.LoadNumbers;
+import com.TruckBooking.metrics.MethodMetricsAspect;
+import com.TruckBooking.scheduling.JobLock;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import javax.mail.MessagingException;
 import javax.mail.internet.MimeMessage;
@@ -26,10 +33,22 @@ public class EmailSender {
     private TransporterEmailDao transporterEmailDao;
     @Autowired
     private EntityManager entityManager;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
 
+    @JobLock(lockAtLeastFor = "PT55S")
     @Scheduled(fixedRate = 60000)
     public void sendEmail() throws MessagingException {
-        List<TransporterEmail> emailList=transporterEmailDao.findByStatus("not-sent");
+        // read on the primary (read-write), which has every status this job committed before
+        List<TransporterEmail> emailList=new TransactionTemplate(transactionManager)
+                .execute(status -> transporterEmailDao.findByStatus("not-sent"));
+        // the mails go out outside any transaction; each status commits on its own right after its
+        // mail, so a later failure cannot undo it and have the next run send the mail again
+        TransactionTemplate row = new TransactionTemplate(transactionManager);
+        row.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        MethodMetricsAspect.rows(meterRegistry, "EmailSender.sendEmail", emailList.size());
         for(TransporterEmail transporterEmail:emailList){
 
             MimeMessage message = javaMailSender.createMimeMessage();
@@ -37,7 +56,7 @@ public class EmailSender {
             Load load=transporterEmail.getLoad();
 
             String companyName = load.getCompanyName();
-            String subject="RFQ for "+load.getWeight()+"MT "+"from " +load.getLoadingPointCity()+" to "+load.getUnloadingPointCity();
+            String subject="RFQ for "+LoadNumbers.format(load.getWeight())+"MT "+"from " +load.getLoadingPointCity()+" to "+load.getUnloadingPointCity();
             String body="<h2>Load Details</h2>"+
                     "This company has posted a load: "+companyName+"<br>"
                     +load.getLoadingPoint()+","+load.getLoadingPointCity()+","+load.getLoadingPointState()
@@ -46,7 +65,7 @@ public class EmailSender {
                     "<h3>Requirements</h3>"+
                     "Truck Type: "+load.getTruckType()+"<br>"+
                     "Tyre :"+load.getNoOfTyres()+"<br>"+
-                    "Weight :"+load.getWeight()+"<br>"+
+                    "Weight :"+LoadNumbers.format(load.getWeight())+"<br>"+
                     "Product Type :"+load.getProductType();
             try{
                 helper.setTo(transporterEmail.getEmail());
@@ -56,7 +75,7 @@ public class EmailSender {
             catch (Exception e){
                 log.info(String.valueOf(e));
                 transporterEmail.setStatus("wrong email");
-                transporterEmailDao.save(transporterEmail);
+                row.executeWithoutResult(status -> transporterEmailDao.save(transporterEmail));
                 continue;
             }
             try{
@@ -67,7 +86,7 @@ public class EmailSender {
                 continue;
             }
             transporterEmail.setStatus("sent");
-            transporterEmailDao.save(transporterEmail);
+            row.executeWithoutResult(status -> transporterEmailDao.save(transporterEmail));
         }
     }
 }
@@ -1,19 +1,33 @@
 package com.TruckBooking.LoadsApi.Entities;
 
+import java.math.BigDecimal;
 import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 
 import javax.persistence.*;
 import javax.validation.constraints.NotBlank;
 
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.CreationTimestamp;
 
+import com.TruckBooking.LoadsApi.Model.LoadDates;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
 import lombok.Data;
 
 @Entity
-@Table(name = "load")
+@Table(name = "load", indexes = {
+		@Index(name = "idx_load_status_loading_on", columnList = "status, loadingOn"),
+		@Index(name = "idx_load_loading_on", columnList = "loadingOn"),
+		@Index(name = "idx_load_status_weight", columnList = "status, weight"),
+		@Index(name = "idx_load_status_no_of_tyres", columnList = "status, noOfTyres") })
 @Data
+@JsonIgnoreProperties(value = { "postLoadDate", "loadingDate", "loadingTime", "biddingEndDate",
+		"biddingEndTime" }, allowGetters = true)
 public class Load {
 	@Id
 	private String loadId;
@@ -23,6 +37,8 @@ public class Load {
 	private String loadingPointCity;
 	@NotBlank(message = "Loading Point State Cannot Be Empty")
 	private String loadingPointState;
+	private Double loadingPointLatitude;	//optional
+	private Double loadingPointLongitude;	//optional
 
 	@NotBlank(message = "Unloading Point Cannot Be Empty")
 	private String unloadingPoint;
@@ -34,8 +50,11 @@ public class Load {
 	private String postLoadId;       // optional
 	private String productType;      // optional
 	private String truckType;        // optional
-	private String weight;           // optional
-	private String postLoadDate;     // optional
+	// tonnes; the numbers are still rendered as strings in the JSON for existing clients
+	@Column(columnDefinition = "numeric")
+	@JsonFormat(shape = JsonFormat.Shape.STRING)
+	private BigDecimal weight;       // optional
+	private LocalDate postedOn;
 	private String companyName;
 
 	@CreationTimestamp
@@ -49,26 +68,30 @@ public class Load {
 	private String unloadingPointState2; //optional
 
 	
-	private String noOfTrucks;
-	private String noOfTyres;
+	@JsonFormat(shape = JsonFormat.Shape.STRING)
+	private Integer noOfTrucks;
+	@JsonFormat(shape = JsonFormat.Shape.STRING)
+	private Integer noOfTyres;
 	private String LR; // optional
 	private String comment; // this should be an optional
 
 	
-	private String loadingDate;
+	private LocalDate loadingOn;
 	private String publishMethod;
-	private String loadingTime;
+	private Instant loadingAt;		// optional, only set when a loading time was given
 
 	
 	private Long rate; // optional
 	
-	private String biddingEndDate;  //optional
-	private String biddingEndTime; //optional
+	private Instant biddingEndsAt;  //optional
+	// loaded by the service before the session closes, up to 100 loads' geo ids per query
 	@ElementCollection(fetch = FetchType.LAZY)
+	@BatchSize(size = 100)
 	@Column(name="unloadingPointGeoId")
 	private List<String> unloadingPointGeoId=new ArrayList<>(); //optional
 
 	@ElementCollection(fetch = FetchType.LAZY)
+	@BatchSize(size = 100)
 	@Column(name="loadingPointGeoId")
 	private List<String> loadingPointGeoId=new ArrayList<>(); //optional
 
@@ -78,6 +101,28 @@ public class Load {
 	@Enumerated(EnumType.STRING)
 	public Status status;
 
+	// legacy string renderings, kept in the JSON for existing clients
+
+	public String getPostLoadDate() {
+		return LoadDates.formatDate(postedOn);
+	}
+
+	public String getLoadingDate() {
+		return LoadDates.formatDate(loadingOn);
+	}
+
+	public String getLoadingTime() {
+		return LoadDates.formatTime(loadingAt);
+	}
+
+	public String getBiddingEndDate() {
+		return LoadDates.formatDate(biddingEndsAt);
+	}
+
+	public String getBiddingEndTime() {
+		return LoadDates.formatTime(biddingEndsAt);
+	}
+
 	public enum UnitValue {
 		PER_TON, PER_TRUCK
 	}
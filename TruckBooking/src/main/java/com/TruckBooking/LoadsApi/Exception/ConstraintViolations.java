@@ -0,0 +1,31 @@
+package com.TruckBooking.LoadsApi.Exception;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.Locale;
+
+public class ConstraintViolations {
+
+	// Name of the constraint the database reported, as Hibernate extracted it for the dialect.
+	// Postgres gives the bare name; H2 gives the backing unique index followed by the table and
+	// values ("PUBLIC.UK_HARDWARE_IMEI_INDEX_3 ON PUBLIC.HARDWARE(IMEI) VALUES 4"), so that is
+	// cut down to the constraint name.
+	public static String name(DataIntegrityViolationException e) {
+		for (Throwable t = e; t != null; t = t.getCause()) {
+			if (t instanceof ConstraintViolationException) {
+				String name = ((ConstraintViolationException) t).getConstraintName();
+				if (name == null)
+					return null;
+				name = name.replace("\"", "").trim().toLowerCase(Locale.ROOT);
+				int space = name.indexOf(' ');
+				if (space >= 0)
+					name = name.substring(0, space);
+				name = name.substring(name.lastIndexOf('.') + 1);
+				int index = name.indexOf("_index_");
+				return index < 0 ? name : name.substring(0, index);
+			}
+		}
+		return null;
+	}
+}
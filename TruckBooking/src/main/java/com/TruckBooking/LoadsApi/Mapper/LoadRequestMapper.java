@@ -0,0 +1,48 @@
+package com.TruckBooking.LoadsApi.Mapper;
+
+import org.apache.commons.lang3.StringUtils;
+import org.mapstruct.Condition;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingTarget;
+import org.mapstruct.NullValuePropertyMappingStrategy;
+import org.mapstruct.ReportingPolicy;
+
+import com.TruckBooking.LoadsApi.Entities.Load;
+import com.TruckBooking.LoadsApi.Entities.TransporterEmail;
+import com.TruckBooking.LoadsApi.Model.LoadRequest;
+import com.TruckBooking.LoadsApi.Model.TransporterDetail;
+
+// Copies a LoadRequest onto a Load in one pass; the implementation is generated at compile time.
+// Blank text fields are skipped and the rest trimmed once. Weight, counts and dates are parsed by
+// LoadServiceImpl, which also validates the request before it gets here.
+@Mapper(componentModel = "spring", unmappedTargetPolicy = ReportingPolicy.IGNORE,
+		nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
+public interface LoadRequestMapper {
+
+	@Mapping(target = "weight", ignore = true)
+	@Mapping(target = "noOfTrucks", ignore = true)
+	@Mapping(target = "noOfTyres", ignore = true)
+	@Mapping(target = "status", ignore = true)
+	Load toLoad(LoadRequest request);
+
+	// comment and LR can be cleared with an empty string, so the service copies them itself
+	@Mapping(target = "loadId", ignore = true)
+	@Mapping(target = "weight", ignore = true)
+	@Mapping(target = "noOfTrucks", ignore = true)
+	@Mapping(target = "noOfTyres", ignore = true)
+	@Mapping(target = "comment", ignore = true)
+	@Mapping(target = "LR", ignore = true)
+	void update(LoadRequest request, @MappingTarget Load load);
+
+	TransporterEmail toTransporterEmail(TransporterDetail detail);
+
+	@Condition
+	default boolean isNotBlank(String value) {
+		return StringUtils.isNotBlank(value);
+	}
+
+	default String trim(String value) {
+		return value.trim();
+	}
+}
@@ -0,0 +1,47 @@
+package com.TruckBooking.LoadsApi.Mapper;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.ReportingPolicy;
+
+import com.TruckBooking.LoadsApi.Entities.Load;
+import com.TruckBooking.LoadsApi.Entities.TransporterEmail;
+import com.TruckBooking.LoadsApi.Model.LoadNumbers;
+import com.TruckBooking.LoadsApi.Model.TransporterDetail;
+import com.TruckBooking.LoadsApi.Response.CreateLoadResponse;
+import com.TruckBooking.LoadsApi.Response.UpdateLoadResponse;
+
+// Renders a Load as the add, get and update responses; the implementation is generated at compile time.
+// The dates come from the entity's legacy string getters and the geo id lists are copied, so the
+// response does not hold on to the entity's lazy collections.
+@Mapper(componentModel = "spring", unmappedTargetPolicy = ReportingPolicy.IGNORE)
+public interface LoadResponseMapper {
+
+	@Mapping(target = "transporterList", ignore = true)
+	CreateLoadResponse toCreateResponse(Load load);
+
+	// GET /load/{loadId} has never returned the bidding end date and time
+	@Mapping(target = "transporterList", ignore = true)
+	@Mapping(target = "biddingEndDate", ignore = true)
+	@Mapping(target = "biddingEndTime", ignore = true)
+	CreateLoadResponse toGetResponse(Load load);
+
+	// nor has the update response carried the company name
+	@Mapping(target = "companyName", ignore = true)
+	UpdateLoadResponse toUpdateResponse(Load load);
+
+	TransporterDetail toDetail(TransporterEmail transporterEmail);
+
+	List<TransporterDetail> toDetails(List<TransporterEmail> transporterEmails);
+
+	default String format(BigDecimal value) {
+		return LoadNumbers.format(value);
+	}
+
+	default String format(Integer value) {
+		return LoadNumbers.format(value);
+	}
+}
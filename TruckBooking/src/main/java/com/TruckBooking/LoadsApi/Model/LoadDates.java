@@ -0,0 +1,108 @@
+package com.TruckBooking.LoadsApi.Model;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+
+import com.TruckBooking.LoadsApi.Constants.CommonConstants;
+import com.TruckBooking.LoadsApi.Exception.BusinessException;
+
+// Conversions between the typed load date columns and the strings clients send and receive.
+// Dates and times are Indian local time, as they were when stored as text.
+public final class LoadDates {
+
+	public static final ZoneId ZONE = ZoneId.of(CommonConstants.zone);
+
+	private static final DateTimeFormatter DATE_DISPLAY = DateTimeFormatter.ofPattern(CommonConstants.dateDisplayFormat, Locale.ENGLISH);
+	private static final DateTimeFormatter TIME_DISPLAY = DateTimeFormatter.ofPattern(CommonConstants.timeDisplayFormat, Locale.ENGLISH);
+	private static final DateTimeFormatter[] DATE_FORMATS = formatters(CommonConstants.dateFormats);
+	private static final DateTimeFormatter[] TIME_FORMATS = formatters(CommonConstants.timeFormats);
+
+	// bidding that was given a date only closes at the end of that day
+	private static final LocalTime END_OF_DAY = LocalTime.of(23, 59);
+
+	private LoadDates() {
+	}
+
+	public static LocalDate parseDate(String text) {
+		if (text == null || text.trim().isEmpty())
+			return null;
+		for (DateTimeFormatter format : DATE_FORMATS) {
+			try {
+				return LocalDate.parse(text.trim(), format);
+			} catch (DateTimeParseException e) {
+				// try the next format
+			}
+		}
+		throw new BusinessException(CommonConstants.invalidDate + text);
+	}
+
+	public static LocalTime parseTime(String text) {
+		if (text == null || text.trim().isEmpty())
+			return null;
+		for (DateTimeFormatter format : TIME_FORMATS) {
+			try {
+				return LocalTime.parse(text.trim(), format);
+			} catch (DateTimeParseException e) {
+				// try the next format
+			}
+		}
+		throw new BusinessException(CommonConstants.invalidTime + text);
+	}
+
+	public static LocalDate today() {
+		return LocalDate.now(ZONE);
+	}
+
+	// The instant a load is picked up; null unless both the date and the time are known.
+	public static Instant loadingAt(LocalDate date, LocalTime time) {
+		if (time == null)
+			return null;
+		if (date == null)
+			throw new BusinessException(CommonConstants.timeWithoutDate);
+		return date.atTime(time).atZone(ZONE).toInstant();
+	}
+
+	public static Instant biddingEndsAt(LocalDate date, LocalTime time) {
+		if (date == null) {
+			if (time != null)
+				throw new BusinessException(CommonConstants.timeWithoutDate);
+			return null;
+		}
+		return date.atTime(time == null ? END_OF_DAY : time).atZone(ZONE).toInstant();
+	}
+
+	public static LocalDate dateOf(Instant instant) {
+		return instant == null ? null : instant.atZone(ZONE).toLocalDate();
+	}
+
+	public static LocalTime timeOf(Instant instant) {
+		return instant == null ? null : instant.atZone(ZONE).toLocalTime();
+	}
+
+	public static String formatDate(LocalDate date) {
+		return date == null ? null : DATE_DISPLAY.format(date);
+	}
+
+	public static String formatDate(Instant instant) {
+		return formatDate(dateOf(instant));
+	}
+
+	public static String formatTime(Instant instant) {
+		return instant == null ? null : TIME_DISPLAY.format(timeOf(instant));
+	}
+
+	private static DateTimeFormatter[] formatters(String[] patterns) {
+		DateTimeFormatter[] formatters = new DateTimeFormatter[patterns.length];
+		for (int i = 0; i < patterns.length; i++) {
+			formatters[i] = new DateTimeFormatterBuilder().parseCaseInsensitive().appendPattern(patterns[i])
+					.toFormatter(Locale.ENGLISH);
+		}
+		return formatters;
+	}
+}
@@ -0,0 +1,43 @@
+package com.TruckBooking.LoadsApi.Model;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import org.springframework.format.annotation.DateTimeFormat;
+
+import com.TruckBooking.LoadsApi.Entities.Load;
+
+import lombok.Data;
+
+// Optional range filters for GET /load, bound from the query string. Every bound is inclusive
+// and may be left out.
+@Data
+public class LoadFilter {
+
+	@DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+	private LocalDate loadingDateFrom;
+	@DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+	private LocalDate loadingDateTo;
+
+	private BigDecimal weightMin;	// tonnes
+	private BigDecimal weightMax;	// tonnes
+
+	private Integer noOfTyres;
+
+	public boolean isPresent() {
+		return loadingDateFrom != null || loadingDateTo != null || weightMin != null || weightMax != null
+				|| noOfTyres != null;
+	}
+
+	// The same filters for the listings that are read whole instead of a page at a time. A load
+	// without the value a bound is set on does not match, as in the query.
+	public boolean matches(Load load) {
+		LocalDate loadingOn = load.getLoadingOn();
+		BigDecimal weight = load.getWeight();
+		return (loadingDateFrom == null || loadingOn != null && !loadingOn.isBefore(loadingDateFrom))
+				&& (loadingDateTo == null || loadingOn != null && !loadingOn.isAfter(loadingDateTo))
+				&& (weightMin == null || weight != null && weight.compareTo(weightMin) >= 0)
+				&& (weightMax == null || weight != null && weight.compareTo(weightMax) <= 0)
+				&& (noOfTyres == null || noOfTyres.equals(load.getNoOfTyres()));
+	}
+}
@@ -0,0 +1,56 @@
+package com.TruckBooking.LoadsApi.Model;
+
+import java.math.BigDecimal;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.TruckBooking.LoadsApi.Constants.CommonConstants;
+import com.TruckBooking.LoadsApi.Exception.BusinessException;
+
+// Parses the weight and count fields that clients still send as text, e.g. "25", "25.0" or "25 MT".
+public final class LoadNumbers {
+
+	private static final Pattern NUMBER = Pattern.compile("^\\s*(\\d+(\\.\\d+)?)\\s*(mt|t|tons?|tonnes?)?\\s*$",
+			Pattern.CASE_INSENSITIVE);
+
+	private LoadNumbers() {
+	}
+
+	// Weights are in tonnes. Trailing zeros are dropped so 25 and 25.0 store and render the same.
+	public static BigDecimal parseWeight(String text) {
+		if (text == null || text.trim().isEmpty())
+			return null;
+		Matcher matcher = NUMBER.matcher(text);
+		if (!matcher.matches())
+			throw new BusinessException(CommonConstants.invalidWeight + text);
+		return normalize(new BigDecimal(matcher.group(1)));
+	}
+
+	public static Integer parseCount(String text, String field) {
+		if (text == null || text.trim().isEmpty())
+			return null;
+		try {
+			int count = Integer.parseInt(text.trim());
+			if (count >= 0)
+				return count;
+		} catch (NumberFormatException e) {
+			// reported below
+		}
+		throw new BusinessException(field + CommonConstants.invalidCount + text);
+	}
+
+	public static BigDecimal normalize(BigDecimal value) {
+		if (value == null)
+			return null;
+		BigDecimal stripped = value.stripTrailingZeros();
+		return stripped.scale() < 0 ? stripped.setScale(0) : stripped;
+	}
+
+	public static String format(Number value) {
+		if (value == null)
+			return null;
+		if (value instanceof BigDecimal)
+			return normalize((BigDecimal) value).toPlainString();
+		return value.toString();
+	}
+}
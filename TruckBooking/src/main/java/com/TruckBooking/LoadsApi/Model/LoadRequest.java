@@ -20,6 +20,8 @@ public class LoadRequest {
 	private String loadingPointCity;
 	@NotBlank(message = "Loading Point State Cannot Be Empty")
 	private String loadingPointState;
+	private Double loadingPointLatitude;	//optional
+	private Double loadingPointLongitude;	//optional
 	@NotBlank(message = "Unloading Point Cannot Be Empty")
 	private String unloadingPoint;
 	@NotBlank(message = "Unloading Point City Cannot Be Empty")
@@ -40,7 +42,7 @@ public class LoadRequest {
 	private String unloadingPoint2;		//optional
 	private String unloadingPointCity2;  //optional
 	private String unloadingPointState2; //optional
-	private ArrayList<ArrayList<String>> transporterList;
+	private List<TransporterDetail> transporterList;
 
 	private String noOfTrucks;
 	private String noOfTyres;
@@ -0,0 +1,21 @@
+package com.TruckBooking.LoadsApi.Model;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+import lombok.Data;
+
+// One entry of a load's transporterList. Still sent and returned as [email, name, phoneNo, transporterId]
+// for existing clients.
+@Data
+@JsonFormat(shape = JsonFormat.Shape.ARRAY)
+@JsonPropertyOrder({ "email", "name", "phoneNo", "transporterId" })
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class TransporterDetail {
+
+	private String email;
+	private String name;
+	private String phoneNo;
+	private String transporterId;
+}
@@ -7,6 +7,7 @@ import java.util.List;
 import javax.persistence.*;
 
 import com.TruckBooking.LoadsApi.Entities.Load.Status;
+import com.TruckBooking.LoadsApi.Model.TransporterDetail;
 
 import lombok.Data;
 
@@ -17,6 +18,8 @@ public class CreateLoadResponse {
 	private String loadingPoint;
 	private String loadingPointCity;
 	private String loadingPointState;
+	private Double loadingPointLatitude;	//optional
+	private Double loadingPointLongitude;	//optional
 	private String unloadingPoint;
 	private String unloadingPointCity;
 	private String unloadingPointState;
@@ -36,7 +39,7 @@ public class CreateLoadResponse {
 	private String unloadingPointCity2;  //optional
 	private String unloadingPointState2; //optional
 
-	private ArrayList<ArrayList<String>> transporterList;
+	private List<TransporterDetail> transporterList;
 	private String noOfTrucks;
 	private String noOfTyres;
 	private String loadingDate;
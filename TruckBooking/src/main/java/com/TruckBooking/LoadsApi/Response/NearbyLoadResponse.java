@@ -0,0 +1,16 @@
+package com.TruckBooking.LoadsApi.Response;
+
+import com.TruckBooking.LoadsApi.Entities.Load;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NearbyLoadResponse {
+
+	private double distanceKm;
+	private Load load;
+}
@@ -17,6 +17,8 @@ public class UpdateLoadResponse {
 	private String loadingPoint;
 	private String loadingPointCity;
 	private String loadingPointState;
+	private Double loadingPointLatitude;	//optional
+	private Double loadingPointLongitude;	//optional
 	private String unloadingPoint;
 	private String unloadingPointCity;
 	private String unloadingPointState;
@@ -4,15 +4,18 @@ import java.sql.Timestamp;
 import java.util.List;
 
 import com.TruckBooking.LoadsApi.Entities.Load;
+import com.TruckBooking.LoadsApi.Model.LoadFilter;
 import com.TruckBooking.LoadsApi.Model.LoadRequest;
 import com.TruckBooking.LoadsApi.Response.CreateLoadResponse;
+import com.TruckBooking.LoadsApi.Response.NearbyLoadResponse;
 import com.TruckBooking.LoadsApi.Response.UpdateLoadResponse;
 
 public interface LoadService {
 	public CreateLoadResponse addLoad(LoadRequest load);
 
 	public List<Load> getLoads(Integer pageNo, String loadingPointCity, String unloadingPointCity, String shipperId,
-			String truckType, boolean suggestedLoads, String transporterId, Timestamp startTimestamp, Timestamp endTimestamp);
+			String truckType, boolean suggestedLoads, String transporterId, Timestamp startTimestamp, Timestamp endTimestamp,
+			LoadFilter filter);
 	
 	
 	public UpdateLoadResponse updateLoad(String loadId, LoadRequest loadrequest);
@@ -21,4 +24,6 @@ public interface LoadService {
 
 	public void deleteLoad(String loadId);
 
+	public List<NearbyLoadResponse> getNearbyLoads(String imei, double radiusKm, int limit);
+
 }
@@ -1,19 +1,26 @@
 package com.TruckBooking.LoadsApi.Service;
 
+import java.math.BigDecimal;
 import java.sql.Timestamp;
-import java.time.ZoneId;
-import java.time.ZonedDateTime;
-import java.time.format.DateTimeFormatter;
+import java.time.LocalDate;
+import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
+
+import org.hibernate.Hibernate;
 
 import com.TruckBooking.LoadsApi.Dao.TransporterEmailDao;
 import com.TruckBooking.LoadsApi.Entities.TransporterEmail;
-import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
@@ -26,9 +33,19 @@ import com.TruckBooking.LoadsApi.Entities.Load;
 //import com.LoadsApi.LoadsApi.Entities.Load.Publish;
 import com.TruckBooking.LoadsApi.Exception.BusinessException;
 import com.TruckBooking.LoadsApi.Exception.EntityNotFoundException;
+import com.TruckBooking.LoadsApi.Mapper.LoadRequestMapper;
+import com.TruckBooking.LoadsApi.Mapper.LoadResponseMapper;
+import com.TruckBooking.LoadsApi.Model.LoadDates;
+import com.TruckBooking.LoadsApi.Model.LoadFilter;
+import com.TruckBooking.LoadsApi.Model.LoadNumbers;
 import com.TruckBooking.LoadsApi.Model.LoadRequest;
+import com.TruckBooking.LoadsApi.Model.TransporterDetail;
 import com.TruckBooking.LoadsApi.Response.CreateLoadResponse;
+import com.TruckBooking.LoadsApi.Response.NearbyLoadResponse;
 import com.TruckBooking.LoadsApi.Response.UpdateLoadResponse;
+import com.TruckBooking.routeData.Entities.Route;
+import com.TruckBooking.routeData.Geo.GeoGridIndex;
+import com.TruckBooking.routeData.Service.TruckPositionIndex;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -42,247 +59,113 @@ public class LoadServiceImpl implements LoadService {
 	@Autowired
 	TransporterEmailDao transporterEmailDao;
 
-	@Transactional(rollbackFor = Exception.class)
-	@Override
-	public CreateLoadResponse addLoad(LoadRequest loadrequest) {
-		log.info("addLoad service is started");
-
-		String temp = "";
-		Load load = new Load();
-		CreateLoadResponse response = new CreateLoadResponse();
-
-		temp = "load:" + UUID.randomUUID();
-		load.setLoadId(temp);
-		response.setLoadId(temp);
-
-		temp = loadrequest.getLoadingPoint().trim();
-		load.setLoadingPoint(temp);
-		response.setLoadingPoint(temp);
-
-		temp = loadrequest.getLoadingPointCity().trim();
-		load.setLoadingPointCity(temp);
-		response.setLoadingPointCity(temp);
-
-		temp = loadrequest.getLoadingPointState().trim();
-		load.setLoadingPointState(temp);
-		response.setLoadingPointState(temp);
-
-		temp = loadrequest.getUnloadingPoint().trim();
-		load.setUnloadingPoint(temp);
-		response.setUnloadingPoint(temp);
-
-		temp = loadrequest.getUnloadingPointCity().trim();
-		load.setUnloadingPointCity(temp);
-		response.setUnloadingPointCity(temp);
-
-		temp = loadrequest.getUnloadingPointState().trim();
-		load.setUnloadingPointState(temp);
-		response.setUnloadingPointState(temp);
-
-		temp = loadrequest.getCompanyName();
-		if (StringUtils.isNotBlank(temp)){
-			load.setCompanyName(temp);
-			response.setCompanyName(temp);
-		}
-
-		temp = loadrequest.getLoadingPoint2();
-		if(StringUtils.isNotBlank(temp)){
-			load.setLoadingPoint2(temp.trim());
-			response.setLoadingPoint2(temp.trim());
-		}
-
-		temp = loadrequest.getLoadingPointCity2();
-		if(StringUtils.isNotBlank(temp)) {
-			load.setLoadingPointCity2(temp.trim());
-			response.setLoadingPointCity2(temp.trim());
-		}
+	@Autowired
+	LoadSpatialIndex loadSpatialIndex;
 
-		temp = loadrequest.getLoadingPointState2();
-		if(StringUtils.isNotBlank(temp)) {
-			load.setLoadingPointState2(temp.trim());
-			response.setLoadingPointState2(temp.trim());
-		}
+	@Autowired
+	LoadRequestMapper loadRequestMapper;
 
-		temp = loadrequest.getUnloadingPoint2();
-		if(StringUtils.isNotBlank(temp)) {
-			load.setUnloadingPoint2(temp.trim());
-			response.setUnloadingPoint2(temp.trim());
-		}
+	@Autowired
+	LoadResponseMapper loadResponseMapper;
 
-		temp = loadrequest.getUnloadingPointCity2();
-		if(StringUtils.isNotBlank(temp)) {
-			load.setUnloadingPointCity2(temp.trim());
-			response.setUnloadingPointCity2(temp.trim());
-		}
+	@Autowired
+	TruckPositionIndex truckPositionIndex;
 
-		temp = loadrequest.getUnloadingPointState2();
-		if(StringUtils.isNotBlank(temp)) {
-			load.setUnloadingPointState2(temp.trim());
-			response.setUnloadingPointState2(temp.trim());
-		}
+	private static final List<Load.Status> PENDING = Arrays.asList(Load.Status.PENDING);
+	private static final List<Load.Status> PENDING_OR_EXPIRED = Arrays.asList(Load.Status.PENDING, Load.Status.EXPIRED);
 
-		temp = loadrequest.getPostLoadId();
-		if (StringUtils.isNotBlank(temp)){
-			load.setPostLoadId(temp.trim());
-			response.setPostLoadId(temp.trim());
-		}
+	// a load can only be moved between these through updateLoad; the indent states belong to the contract flow
+	private static final Set<Load.Status> UPDATABLE_STATUSES = EnumSet.of(Load.Status.PENDING, Load.Status.ON_GOING,
+			Load.Status.COMPLETED, Load.Status.EXPIRED);
 
-		temp = loadrequest.getProductType();
-		if (StringUtils.isNotBlank(temp)){
-			load.setProductType(temp.trim());
-			response.setProductType(temp.trim());
-		}
+	@Value("${load.nearby.max-radius-km:500}")
+	double nearbyMaxRadiusKm;
 
-		temp = loadrequest.getTruckType();
-		if (StringUtils.isNotBlank(temp)){
-			load.setTruckType(temp.trim());
-			response.setTruckType(temp.trim());
-		}
+	@Value("${load.nearby.max-limit:500}")
+	int nearbyMaxLimit;
 
-		temp = loadrequest.getWeight();
-		if (StringUtils.isNotBlank(temp)){
-			load.setWeight(temp.trim());
-			response.setWeight(temp.trim());
-		}
+	@Transactional(rollbackFor = Exception.class)
+	@Override
+	public CreateLoadResponse addLoad(LoadRequest loadrequest) {
+		log.info("addLoad service is started");
 
-		temp=ZonedDateTime.now(ZoneId.of("Asia/Kolkata")).format(DateTimeFormatter.ofPattern("E, MMM dd yyyy"));
-		if (StringUtils.isNotBlank(temp)){
-			load.setPostLoadDate(temp);
-			response.setPostLoadDate(temp);
-		}
+		validateRate(loadrequest);
+		if (loadrequest.getLoadingPointLatitude() != null || loadrequest.getLoadingPointLongitude() != null)
+			validateCoordinates(loadrequest.getLoadingPointLatitude(), loadrequest.getLoadingPointLongitude());
 
-		temp=null;
-		temp = loadrequest.getNoOfTrucks();
-		if(temp==null) {
-			temp="1";
-		}
-		load.setNoOfTrucks(temp);
-		response.setNoOfTrucks(temp);
-		
-		temp = loadrequest.getNoOfTyres();
-		if (StringUtils.isNotBlank(temp)) {
-			load.setNoOfTyres(temp.trim());
-			response.setNoOfTyres(temp.trim());
-		}
+		Load load = loadRequestMapper.toLoad(loadrequest);
+		load.setLoadId("load:" + UUID.randomUUID());
 
-		temp = loadrequest.getLR();
-		if(StringUtils.isNotBlank(temp)) {
-			load.setLR(temp.trim());
-			response.setLR(temp.trim());
-		}
-		
-		temp = loadrequest.getBiddingEndDate();
-		if(StringUtils.isNotBlank(temp)) {
-			load.setBiddingEndDate(temp.trim());
-			response.setBiddingEndDate(temp.trim());
-		}
-		
-		temp = loadrequest.getBiddingEndTime();
-		if(StringUtils.isNotBlank(temp)) {
-			load.setBiddingEndTime(temp.trim());
-			response.setBiddingEndTime(temp.trim());
-		}
+		load.setWeight(LoadNumbers.parseWeight(loadrequest.getWeight()));
+		Integer noOfTrucks = LoadNumbers.parseCount(loadrequest.getNoOfTrucks(), "noOfTrucks");
+		load.setNoOfTrucks(noOfTrucks == null ? 1 : noOfTrucks);
+		load.setNoOfTyres(LoadNumbers.parseCount(loadrequest.getNoOfTyres(), "noOfTyres"));
 
-		temp = loadrequest.getLoadingDate();
-		if(StringUtils.isNotBlank(temp)) {
-			load.setLoadingDate(temp.trim());
-			response.setLoadingDate(temp.trim());
-		}
-		
-		temp = loadrequest.getPublishMethod();
-		if(StringUtils.isNotBlank(temp)) {
-			load.setPublishMethod(temp.trim());
-			response.setPublishMethod(temp.trim());
-		}
-		List<String>ansList=loadrequest.getLoadingPointGeoId();
-		if(ansList!=null){
-			load.setLoadingPointGeoId(ansList);
-			response.setLoadingPointGeoId(ansList);
-		}
-		List<String>ansList2=loadrequest.getUnloadingPointGeoId();
-		if(ansList2!=null){
-			load.setUnloadingPointGeoId(ansList2);
-			response.setUnloadingPointGeoId(ansList2);
-		}
-		
-		temp = loadrequest.getLoadingTime();
-		if(StringUtils.isNotBlank(temp)) {
-			load.setLoadingTime(temp.trim());
-			response.setLoadingTime(temp.trim());
-		}
+		LocalDate loadingOn = LoadDates.parseDate(loadrequest.getLoadingDate());
+		load.setLoadingOn(loadingOn);
+		load.setLoadingAt(LoadDates.loadingAt(loadingOn, LoadDates.parseTime(loadrequest.getLoadingTime())));
+		load.setBiddingEndsAt(LoadDates.biddingEndsAt(LoadDates.parseDate(loadrequest.getBiddingEndDate()),
+				LoadDates.parseTime(loadrequest.getBiddingEndTime())));
+		load.setPostedOn(LoadDates.today());
 
-		
-		temp=ZonedDateTime.now(ZoneId.of("Asia/Kolkata")).format(DateTimeFormatter.ofPattern("E, MMM dd yyyy"));
-		if (StringUtils.isNotBlank(temp)){
-			load.setPostLoadDate(temp);
-			response.setPostLoadDate(temp);
-		}
-		
 		load.setStatus(Load.Status.PENDING);
-		response.setStatus(Load.Status.PENDING);
-
-		temp = loadrequest.getComment();
-		if (StringUtils.isNotBlank(temp)) {
-			load.setComment(temp.trim());
-			response.setComment(temp.trim());
-		}
-
-		if (loadrequest.getRate() != null) {
-			load.setRate(loadrequest.getRate());
-			response.setRate(loadrequest.getRate());
-			if (loadrequest.getUnitValue() == null)
-				throw new BusinessException("UnitValue can't be null when the rate is provided");
-
-			temp = String.valueOf(loadrequest.getUnitValue());
-			if ("PER_TON".equals(temp)) {
-				load.setUnitValue(Load.UnitValue.PER_TON);
-				response.setUnitValue(CreateLoadResponse.UnitValue.PER_TON);
-			} else if ("PER_TRUCK".equals(temp)) {
-				load.setUnitValue(Load.UnitValue.PER_TRUCK);
-				response.setUnitValue(CreateLoadResponse.UnitValue.PER_TRUCK);
-			}
-		} else if (loadrequest.getUnitValue() != null) {
-			throw new BusinessException("UnitValue can't be set when the rate is not provided");
-		}
 
 		loadDao.save(load);
-		if(loadrequest.getTransporterList()!=null) {
-			for (ArrayList<String> detail : loadrequest.getTransporterList()) {
-				TransporterEmail transporterEmail = new TransporterEmail();
-				transporterEmail.setEmail(detail.get(0));
-				transporterEmail.setName(detail.get(1));
-				transporterEmail.setPhoneNo(detail.get(2));
-				transporterEmail.setTransporterId(detail.get(3));
+		loadSpatialIndex.update(load);
+		if (loadrequest.getTransporterList() != null) {
+			List<TransporterEmail> transporterEmails = new ArrayList<>(loadrequest.getTransporterList().size());
+			for (TransporterDetail detail : loadrequest.getTransporterList()) {
+				TransporterEmail transporterEmail = loadRequestMapper.toTransporterEmail(detail);
 				transporterEmail.setLoad(load);
-				transporterEmailDao.save(transporterEmail);
+				transporterEmails.add(transporterEmail);
 			}
-			response.setTransporterList(loadrequest.getTransporterList());
+			transporterEmailDao.saveAll(transporterEmails);
 		}
 		log.info("load is saved to the database");
-		log.info("addLoad service response is returned");
-		response.setTimestamp(load.getTimestamp());
 
+		// the dates are echoed back in the legacy formats whatever format they were sent in
+		CreateLoadResponse response = loadResponseMapper.toCreateResponse(load);
+		response.setTransporterList(loadrequest.getTransporterList());
+		log.info("addLoad service response is returned");
 		return response;
 	}
 
-	@SuppressWarnings("unused")
 	@Transactional(readOnly = true, rollbackFor = Exception.class)
 	@Override
 	public List<Load> getLoads(Integer pageNo, String loadingPointCity, String unloadingPointCity, String postLoadId,
-			String truckType, boolean suggestedLoads, String transporterId, Timestamp startTimestamp, Timestamp endTimestamp) {
+			String truckType, boolean suggestedLoads, String transporterId, Timestamp startTimestamp, Timestamp endTimestamp,
+			LoadFilter filter) {
 		log.info("getLoads service with params started");
+		return initializeGeoIds(findLoads(pageNo, loadingPointCity, unloadingPointCity, postLoadId, truckType,
+				suggestedLoads, transporterId, startTimestamp, endTimestamp, filter));
+	}
+
+	@SuppressWarnings("unused")
+	private List<Load> findLoads(Integer pageNo, String loadingPointCity, String unloadingPointCity, String postLoadId,
+			String truckType, boolean suggestedLoads, String transporterId, Timestamp startTimestamp, Timestamp endTimestamp,
+			LoadFilter filter) {
 
 		if (pageNo == null)
 			pageNo = 0;
 
 		Pageable currentPage = PageRequest.of(pageNo, CommonConstants.pagesize, Sort.Direction.DESC, "timestamp");
 
+		// the range filters narrow every listing below
+		boolean filtered = filter != null && filter.isPresent();
+		if (filtered)
+			validateFilter(filter);
+
 		if (suggestedLoads) {
 			//List<Load> load = new ArrayList<>(loadDao.findAll(currentPage).getContent());
 			// Collections.reverse(load);
+			if (filtered)
+				return search(PENDING, null, null, null, null, filter, currentPage);
 			return loadDao.findByStatus(Load.Status.PENDING,currentPage);
 		}
 
+		if (filtered && (loadingPointCity != null || unloadingPointCity != null))
+			return search(PENDING, null, null, loadingPointCity, unloadingPointCity, filter, currentPage);
+
 		if (loadingPointCity != null) {
 			if (unloadingPointCity != null) {
 				List<Load> load = loadDao.findByLoadingPointCityAndUnloadingPointCityAndStatus(loadingPointCity,
@@ -305,15 +188,19 @@ public class LoadServiceImpl implements LoadService {
 			if(startTimestamp!=null && endTimestamp!=null)
 			{
 				List<Load> load=loadDao.findByPostLoadIdAndTimestampBetween(postLoadId, startTimestamp, endTimestamp);
-				return load;
+				return filtered ? matching(load, filter) : load;
 			} //refering to method to sort data by filters of postloadid and date range
 			
+			if (filtered)
+				return search(PENDING_OR_EXPIRED, postLoadId, null, null, null, filter, currentPage);
 			List<Load> load = loadDao.findByPostLoadIdAndStatus(postLoadId, Arrays.asList(Load.Status.PENDING, Load.Status.EXPIRED),currentPage);
 			// Collections.reverse(load);
 			return load;
 		}
 
 		if (truckType != null) {
+			if (filtered)
+				return search(PENDING, null, truckType, null, null, filter, currentPage);
 			List<Load> load = loadDao.findByTruckTypeAndStatus(truckType, Load.Status.PENDING,currentPage);
 			// Collections.reverse(load);
 			return load;
@@ -322,20 +209,53 @@ public class LoadServiceImpl implements LoadService {
 
 		if(transporterId!=null){
 			List<Load> load=transporterEmailDao.findLoadsByTransporterId(transporterId);
-			return load;
+			return filtered ? matching(load, filter) : load;
 		}
 		
 		if(startTimestamp!=null && endTimestamp!=null){
 			List<Load> load=loadDao.findByTimestampBetween(startTimestamp, endTimestamp);
-			return load;
+			return filtered ? matching(load, filter) : load;
 		}
 		
 		
 
 		log.info("getLoads service response is returned");
+		if (filtered)
+			return search(PENDING, null, null, null, null, filter, currentPage);
 		return loadDao.findByStatus(Load.Status.PENDING, currentPage);
 	}
 
+	private List<Load> search(List<Load.Status> statuses, String postLoadId, String truckType,
+			String loadingPointCity, String unloadingPointCity, LoadFilter filter, Pageable currentPage) {
+		return loadDao.searchByStatus(statuses, postLoadId, truckType, loadingPointCity, unloadingPointCity,
+				filter.getLoadingDateFrom(), filter.getLoadingDateTo(), filter.getWeightMin(), filter.getWeightMax(),
+				filter.getNoOfTyres(), currentPage);
+	}
+
+	// Loads the geo ids while the session is still open; the loads are serialised after the
+	// transaction, and @BatchSize fetches them for up to 100 loads per query.
+	private static List<Load> initializeGeoIds(List<Load> loads) {
+		for (Load load : loads) {
+			Hibernate.initialize(load.getLoadingPointGeoId());
+			Hibernate.initialize(load.getUnloadingPointGeoId());
+		}
+		return loads;
+	}
+
+	// the listings that are not paged are filtered as they are read
+	private static List<Load> matching(List<Load> loads, LoadFilter filter) {
+		return loads.stream().filter(filter::matches).collect(Collectors.toList());
+	}
+
+	private void validateFilter(LoadFilter filter) {
+		if (filter.getLoadingDateFrom() != null && filter.getLoadingDateTo() != null
+				&& filter.getLoadingDateFrom().isAfter(filter.getLoadingDateTo()))
+			throw new BusinessException(CommonConstants.invalidDateRange);
+		if (filter.getWeightMin() != null && filter.getWeightMax() != null
+				&& filter.getWeightMin().compareTo(filter.getWeightMax()) > 0)
+			throw new BusinessException(CommonConstants.invalidWeightRange);
+	}
+
 	
 	
 	@Transactional(readOnly = true, rollbackFor = Exception.class)
@@ -345,71 +265,10 @@ public class LoadServiceImpl implements LoadService {
 		Optional<Load> load = loadDao.findByLoadId(loadId);
 		if (load.isEmpty())
 			throw new EntityNotFoundException(Load.class, "id", loadId);
-		log.info("getLoad service response is returned");
-		CreateLoadResponse response=new CreateLoadResponse();
-
-//		Getting List of all Transporter Associated with load
-		List<TransporterEmail> list=transporterEmailDao.findByLoadLoadId(loadId);
-
-//		Setting up the transporter List for response
-		ArrayList<ArrayList<String>> emailList=new ArrayList<>();
-		for(TransporterEmail transporterEmail:list){
-			ArrayList<String> temp=new ArrayList<>();
-			temp.add(transporterEmail.getEmail());
-			temp.add(transporterEmail.getName());
-			temp.add(transporterEmail.getPhoneNo());
-			temp.add(transporterEmail.getTransporterId());
-			emailList.add(temp);
-		}
-//		Setting all the of load fields for the response
-		response.setLoadId(load.get().getLoadId());
-
-		response.setLoadingPoint(load.get().getLoadingPoint());
-		response.setLoadingPointCity(load.get().getLoadingPointCity());
-		response.setLoadingPointState(load.get().getLoadingPointState());
-
-		response.setUnloadingPoint(load.get().getUnloadingPoint());
-		response.setUnloadingPointCity(load.get().getUnloadingPointCity());
-		response.setUnloadingPointState(load.get().getUnloadingPointState());
-
-		response.setCompanyName(load.get().getCompanyName());
-
-		response.setLoadingPoint2(load.get().getLoadingPoint2());
-		response.setLoadingPointCity2(load.get().getLoadingPointCity2());
-		response.setLoadingPointState2(load.get().getLoadingPointState2());
-		response.setLoadingPointGeoId(load.get().getLoadingPointGeoId());
-		response.setUnloadingPointGeoId(load.get().getUnloadingPointGeoId());
-
-		response.setUnloadingPoint2(load.get().getUnloadingPoint2());
-		response.setUnloadingPointCity2(load.get().getUnloadingPointCity2());
-		response.setUnloadingPointState2(load.get().getUnloadingPointState2());
-
-		response.setPostLoadId(load.get().getPostLoadId());
-		response.setProductType(load.get().getProductType());
-		response.setTruckType(load.get().getTruckType());
-		response.setNoOfTrucks(load.get().getNoOfTrucks());
-		response.setNoOfTyres(load.get().getNoOfTyres());
-		response.setWeight(load.get().getWeight());
-		response.setLoadingDate(load.get().getLoadingDate());
-		response.setPublishMethod(load.get().getPublishMethod());
-		response.setLoadingTime(load.get().getLoadingTime());
-		response.setPostLoadDate(load.get().getPostLoadDate());
-		response.setStatus(load.get().getStatus());
-		response.setLR(load.get().getLR());
-		response.setComment(load.get().getComment());
-		response.setRate(load.get().getRate());
-		String temp = String.valueOf(load.get().getUnitValue());
-		if ("PER_TON".equals(temp)) {
-			response.setUnitValue(CreateLoadResponse.UnitValue.PER_TON);
-		}
-		else if ("PER_TRUCK".equals(temp)) {
-			response.setUnitValue(CreateLoadResponse.UnitValue.PER_TRUCK);
-		}
-		response.setTimestamp(load.get().getTimestamp());
-
-		response.setTransporterList(emailList);
 
-//		Sending the response
+		CreateLoadResponse response = loadResponseMapper.toGetResponse(load.get());
+		response.setTransporterList(loadResponseMapper.toDetails(transporterEmailDao.findByLoadLoadId(loadId)));
+		log.info("getLoad service response is returned");
 		return response;
 	}
 
@@ -422,220 +281,62 @@ public class LoadServiceImpl implements LoadService {
 		if (Id.isEmpty())
 			throw new EntityNotFoundException(Load.class, "id", loadId.toString());
 
-		String temp = "";
-		Load load = Id.get();
-
-		temp = updateLoad.getLoadingPoint();
-		if (StringUtils.isNotBlank(temp)) {
-			load.setLoadingPoint(temp.trim());
-		}
-		List<String>loadingPointGeoId=updateLoad.getLoadingPointGeoId();
-		if(loadingPointGeoId!=null){
-			load.setLoadingPointGeoId(loadingPointGeoId);
-		}
-		List<String>unloadingPointGeoId=updateLoad.getUnloadingPointGeoId();
-		if(unloadingPointGeoId!=null){
-			load.setUnloadingPointGeoId(unloadingPointGeoId);
-		}
-
-		temp = updateLoad.getLoadingPointCity();
-		if (StringUtils.isNotBlank(temp)) {
-			load.setLoadingPointCity(temp.trim());
-		}
-
-		temp = updateLoad.getLoadingPointState();
-		if (StringUtils.isNotBlank(temp)) {
-			load.setLoadingPointState(temp.trim());
-		}
-
-		temp = updateLoad.getUnloadingPoint();
-		if (StringUtils.isNotBlank(temp)) {
-			load.setUnloadingPoint(temp.trim());
-		}
-
-		temp = updateLoad.getUnloadingPointCity();
-		if (StringUtils.isNotBlank(temp)) {
-			load.setUnloadingPointCity(temp.trim());
-		}
-
-		temp = updateLoad.getUnloadingPointState();
-		if (StringUtils.isNotBlank(temp)) {
-			load.setUnloadingPointState(temp.trim());
-		}
-
-		temp = updateLoad.getCompanyName();
-		if (StringUtils.isNotBlank(temp)){
-			load.setCompanyName(temp.trim());
-		}
-
-		temp = updateLoad.getLoadingPoint2();
-		if (StringUtils.isNotBlank(temp)) {
-			load.setLoadingPoint2(temp.trim());
-		}
-
-		temp = updateLoad.getLoadingPointCity2();
-		if (StringUtils.isNotBlank(temp)) {
-			load.setLoadingPointCity2(temp.trim());
-		}
-
-		temp = updateLoad.getLoadingPointState2();
-		if (StringUtils.isNotBlank(temp)) {
-			load.setLoadingPointState2(temp.trim());
-		}
-
-		temp = updateLoad.getUnloadingPoint2();
-		if (StringUtils.isNotBlank(temp)) {
-			load.setUnloadingPoint2(temp.trim());
-		}
-
-		temp = updateLoad.getUnloadingPointCity2();
-		if (StringUtils.isNotBlank(temp)) {
-			load.setUnloadingPointCity2(temp.trim());
-		}
-
-		temp = updateLoad.getUnloadingPointState2();
-		if (StringUtils.isNotBlank(temp)) {
-			load.setUnloadingPointState2(temp.trim());
-		}
-
-		temp = updateLoad.getNoOfTrucks();
-		if (StringUtils.isNotBlank(temp)) {
-			load.setNoOfTrucks(temp.trim());
-		}
-
-		temp = updateLoad.getNoOfTyres();
-		if (StringUtils.isNotBlank(temp)) {
-			load.setNoOfTyres(temp.trim());
-		}
-		
-		temp = updateLoad.getTruckType();
-		if (StringUtils.isNotBlank(temp)) {
-			load.setTruckType(temp.trim());
-		}
-
-		temp = updateLoad.getProductType();
-		if (StringUtils.isNotBlank(temp)) {
-			load.setProductType(temp.trim());
-		}
-
-		temp = updateLoad.getWeight();
-		if (StringUtils.isNotBlank(temp)) {
-			load.setWeight(temp.trim());
-		}
-
-		temp = updateLoad.getLoadingDate();
-		if (StringUtils.isNotBlank(temp)) {
-			load.setLoadingDate(temp.trim());
-		}
-		
-		temp = updateLoad.getPublishMethod();
-		if (StringUtils.isNotBlank(temp)) {
-			load.setPublishMethod(temp.trim());
-		}
-		
-		temp = updateLoad.getLoadingTime();
-		if (StringUtils.isNotBlank(temp)) {
-			load.setLoadingTime(temp.trim());
-		}
+		if (updateLoad.getStatus() != null && !UPDATABLE_STATUSES.contains(updateLoad.getStatus()))
+			throw new BusinessException("Unknown status");
+		validateRate(updateLoad);
+		if (updateLoad.getLoadingPointLatitude() != null || updateLoad.getLoadingPointLongitude() != null)
+			validateCoordinates(updateLoad.getLoadingPointLatitude(), updateLoad.getLoadingPointLongitude());
 
-		temp = updateLoad.getPostLoadId();
-		if (StringUtils.isNotBlank(temp)) {
-			load.setPostLoadId(temp);
-		}
+		Load load = Id.get();
+		loadRequestMapper.update(updateLoad, load);
 
 		if (updateLoad.getComment() != null) {
 			load.setComment(updateLoad.getComment());
 		}
 
-		if(updateLoad.getLR() != null) {
+		if (updateLoad.getLR() != null) {
 			load.setLR(updateLoad.getLR());
 		}
-		
-		temp = updateLoad.getBiddingEndDate();
-		if (StringUtils.isNotBlank(temp)) {
-			load.setBiddingEndDate(temp.trim());
-		}
-		
-		temp = updateLoad.getBiddingEndTime();
-		if (StringUtils.isNotBlank(temp)) {
-			load.setBiddingEndTime(temp.trim());
-		}
-		
-
-		if (updateLoad.getStatus() != null) {
-
-			if (String.valueOf(updateLoad.getStatus()).equals("PENDING")) {
-				load.setStatus(Load.Status.PENDING);
-			} else if (String.valueOf(updateLoad.getStatus()).equals("ON_GOING")) {
-				load.setStatus(Load.Status.ON_GOING);
-			} else if (String.valueOf(updateLoad.getStatus()).equals("COMPLETED")) {
-				load.setStatus(Load.Status.COMPLETED);
-			} else if (String.valueOf(updateLoad.getStatus()).equals("EXPIRED")) {
-				load.setStatus(Load.Status.EXPIRED);
-			} else {
-				throw new BusinessException("Unknown status");
 
-			}
+		Integer count = LoadNumbers.parseCount(updateLoad.getNoOfTrucks(), "noOfTrucks");
+		if (count != null) {
+			load.setNoOfTrucks(count);
 		}
 
-		if (updateLoad.getRate() != null) {
-			load.setRate(updateLoad.getRate());
-			if (updateLoad.getUnitValue() == null)
-				throw new BusinessException("UnitValue can't be null when the rate is provided");
+		count = LoadNumbers.parseCount(updateLoad.getNoOfTyres(), "noOfTyres");
+		if (count != null) {
+			load.setNoOfTyres(count);
+		}
 
-			temp = String.valueOf(updateLoad.getUnitValue());
+		BigDecimal weight = LoadNumbers.parseWeight(updateLoad.getWeight());
+		if (weight != null) {
+			load.setWeight(weight);
+		}
 
-			if ("PER_TON".equals(temp)) {
-				load.setUnitValue(Load.UnitValue.PER_TON);
-			} else if ("PER_TRUCK".equals(temp)) {
-				load.setUnitValue(Load.UnitValue.PER_TRUCK);
-			}
-		} else if (updateLoad.getUnitValue() != null) {
-			throw new BusinessException("UnitValue can't be set when the rate is not provided");
+		LocalDate loadingOn = LoadDates.parseDate(updateLoad.getLoadingDate());
+		LocalTime loadingTime = LoadDates.parseTime(updateLoad.getLoadingTime());
+		if (loadingOn != null || loadingTime != null) {
+			// whichever half was not sent is kept from the stored value
+			if (loadingOn == null)
+				loadingOn = load.getLoadingOn();
+			if (loadingTime == null)
+				loadingTime = LoadDates.timeOf(load.getLoadingAt());
+			load.setLoadingOn(loadingOn);
+			load.setLoadingAt(LoadDates.loadingAt(loadingOn, loadingTime));
 		}
 
-		UpdateLoadResponse response = new UpdateLoadResponse();
-		response.setLoadId(loadId);
-		response.setLoadingPoint(load.getLoadingPoint());
-		response.setLoadingPointCity(load.getLoadingPointCity());
-		response.setLoadingPointState(load.getLoadingPointState());
-		response.setUnloadingPoint(load.getUnloadingPoint());
-		response.setUnloadingPointCity(load.getUnloadingPointCity());
-		response.setUnloadingPointState(load.getUnloadingPointState());
-		response.setLoadingPoint2(load.getLoadingPoint2());
-		response.setLoadingPointCity2(load.getLoadingPointCity2());
-		response.setLoadingPointState2(load.getLoadingPointState2());
-		response.setUnloadingPoint2(load.getUnloadingPoint2());
-		response.setUnloadingPointCity2(load.getUnloadingPointCity2());
-		response.setUnloadingPointState2(load.getUnloadingPointState2());
-		response.setPostLoadId(load.getPostLoadId());
-		response.setProductType(load.getProductType());
-		response.setTruckType(load.getTruckType());
-		response.setNoOfTrucks(load.getNoOfTrucks());
-		response.setNoOfTyres(load.getNoOfTyres());
-		response.setWeight(load.getWeight());
-		response.setLoadingDate(load.getLoadingDate());
-		response.setPostLoadDate(load.getPostLoadDate());
-		response.setComment(load.getComment());
-		response.setLR(load.getLR());
-		response.setBiddingEndDate(load.getBiddingEndDate());
-		response.setBiddingEndTime(load.getBiddingEndTime());
-		response.setPublishMethod(load.getPublishMethod());
-		response.setLoadingTime(load.getLoadingTime());
-		response.setStatus(load.getStatus());
-		response.setRate(load.getRate());
-		response.setTimestamp(load.getTimestamp());
-		response.setLoadingPointGeoId(load.getLoadingPointGeoId());
-		response.setUnloadingPointGeoId(load.getUnloadingPointGeoId());
-
-		temp = String.valueOf(load.getUnitValue());
-		if ("PER_TON".equals(temp)) {
-			response.setUnitValue(UpdateLoadResponse.UnitValue.PER_TON);
-		} else if ("PER_TRUCK".equals(temp)) {
-			response.setUnitValue(UpdateLoadResponse.UnitValue.PER_TRUCK);
+		LocalDate biddingEndDate = LoadDates.parseDate(updateLoad.getBiddingEndDate());
+		LocalTime biddingEndTime = LoadDates.parseTime(updateLoad.getBiddingEndTime());
+		if (biddingEndDate != null || biddingEndTime != null) {
+			if (biddingEndDate == null)
+				biddingEndDate = LoadDates.dateOf(load.getBiddingEndsAt());
+			load.setBiddingEndsAt(LoadDates.biddingEndsAt(biddingEndDate, biddingEndTime));
 		}
 
+		UpdateLoadResponse response = loadResponseMapper.toUpdateResponse(load);
+
 		loadDao.save(load);
+		loadSpatialIndex.update(load);
 		log.info("load is updated in the database");
 		log.info("updateLoad service response is returned");
 		return response;
@@ -649,8 +350,58 @@ public class LoadServiceImpl implements LoadService {
 		if (L.isEmpty())
 			throw new EntityNotFoundException(Load.class, "id", loadId.toString());
 		loadDao.delete(L.get());
+		loadSpatialIndex.remove(loadId);
 		log.info("load is deleted successfully");
 	}
 
-	
+	@Transactional(readOnly = true, rollbackFor = Exception.class)
+	@Override
+	public List<NearbyLoadResponse> getNearbyLoads(String imei, double radiusKm, int limit) {
+		log.info("getNearbyLoads service is started");
+		if (radiusKm <= 0 || radiusKm > nearbyMaxRadiusKm)
+			throw new BusinessException(": radiusKm must be between 0 and " + nearbyMaxRadiusKm + ".");
+		if (limit < 1 || limit > nearbyMaxLimit)
+			throw new BusinessException(": limit must be between 1 and " + nearbyMaxLimit + ".");
+
+		GeoGridIndex.Hit<String> truck = truckPositionIndex.position(imei);
+		if (truck == null)
+			throw new EntityNotFoundException(Route.class, "imei", imei);
+
+		List<GeoGridIndex.Hit<String>> hits = loadSpatialIndex.nearby(truck.getLatitude(), truck.getLongitude(), radiusKm, limit);
+		List<String> loadIds = new ArrayList<>(hits.size());
+		for (GeoGridIndex.Hit<String> hit : hits) {
+			loadIds.add(hit.getKey());
+		}
+		Map<String, Load> loads = new HashMap<>();
+		for (Load load : initializeGeoIds(loadDao.findAllById(loadIds))) {
+			loads.put(load.getLoadId(), load);
+		}
+
+		List<NearbyLoadResponse> response = new ArrayList<>(hits.size());
+		for (GeoGridIndex.Hit<String> hit : hits) {
+			Load load = loads.get(hit.getKey());
+			// the index can trail status changes made outside this service; trust the database. The
+			// entry is left to the next rebuild, which reads the primary: this read may come from a
+			// replica that has not seen a load the index already holds.
+			if (load == null || load.getStatus() != Load.Status.PENDING)
+				continue;
+			response.add(new NearbyLoadResponse(hit.getDistanceKm(), load));
+		}
+		log.info("getNearbyLoads service response is returned");
+		return response;
+	}
+
+	private static void validateRate(LoadRequest request) {
+		if (request.getRate() != null && request.getUnitValue() == null)
+			throw new BusinessException("UnitValue can't be null when the rate is provided");
+		if (request.getRate() == null && request.getUnitValue() != null)
+			throw new BusinessException("UnitValue can't be set when the rate is not provided");
+	}
+
+	private static void validateCoordinates(Double latitude, Double longitude) {
+		if (latitude == null || longitude == null)
+			throw new BusinessException(": loadingPointLatitude and loadingPointLongitude must be given together.");
+		if (latitude < -90 || latitude > 90 || longitude < -180 || longitude > 180)
+			throw new BusinessException(": loadingPointLatitude/loadingPointLongitude is not a valid position.");
+	}
 }
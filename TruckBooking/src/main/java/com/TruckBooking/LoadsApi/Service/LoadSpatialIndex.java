@@ -0,0 +1,125 @@
+package com.TruckBooking.LoadsApi.Service;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.TruckBooking.LoadsApi.Dao.LoadDao;
+import com.TruckBooking.LoadsApi.Entities.Load;
+import com.TruckBooking.metrics.MethodMetricsAspect;
+import com.TruckBooking.routeData.Geo.GeoGridIndex;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+// Pickup coordinates of PENDING loads on a lat/lng grid. Kept current by LoadServiceImpl and
+// rebuilt from the database periodically to pick up status changes made elsewhere. Changes made
+// here are applied once their transaction commits and stamped, so a rebuild whose snapshot started
+// before a change cannot undo it.
+@Slf4j
+@Component
+public class LoadSpatialIndex {
+
+	@Autowired
+	LoadDao loadDao;
+
+	private final GeoGridIndex<String> grid = new GeoGridIndex<>(0.1);
+
+	private final AtomicLong clock = new AtomicLong();
+
+	// load id -> clock value of the last change applied through update/remove
+	private final Map<String, Long> changedAt = new ConcurrentHashMap<>();
+
+	private final MeterRegistry meterRegistry;
+
+	@Autowired
+	public LoadSpatialIndex(MeterRegistry meterRegistry) {
+		this.meterRegistry = meterRegistry;
+		Gauge.builder("load.spatial.indexed", grid, GeoGridIndex::size).register(meterRegistry);
+	}
+
+	// Read-write so the snapshot comes from the primary rather than a replica that may not have
+	// the latest loads yet.
+	@EventListener(ApplicationReadyEvent.class)
+	@Scheduled(fixedDelayString = "${load.spatial-index.rebuild-ms:600000}", initialDelayString = "${load.spatial-index.rebuild-ms:600000}")
+	@Transactional(rollbackFor = Exception.class)
+	public void rebuild() {
+		long snapshot = clock.get();
+		List<Object[]> rows = loadDao.findCoordinatesByStatus(Load.Status.PENDING);
+		Set<String> pending = new HashSet<>();
+		for (Object[] row : rows) {
+			String loadId = (String) row[0];
+			pending.add(loadId);
+			applyUnlessChangedSince(snapshot, loadId, () -> grid.put(loadId, (Double) row[1], (Double) row[2]));
+		}
+		for (String loadId : grid.keys()) {
+			if (!pending.contains(loadId))
+				applyUnlessChangedSince(snapshot, loadId, () -> grid.remove(loadId));
+		}
+		// the snapshot already reflects every change stamped before it
+		changedAt.values().removeIf(stamp -> stamp <= snapshot);
+		MethodMetricsAspect.rows(meterRegistry, "LoadSpatialIndex.rebuild", rows.size());
+		log.info("load spatial index rebuilt with " + rows.size() + " pending loads");
+	}
+
+	public void update(Load load) {
+		String loadId = load.getLoadId();
+		if (load.getStatus() == Load.Status.PENDING && load.getLoadingPointLatitude() != null
+				&& load.getLoadingPointLongitude() != null) {
+			double latitude = load.getLoadingPointLatitude();
+			double longitude = load.getLoadingPointLongitude();
+			afterCommit(loadId, () -> grid.put(loadId, latitude, longitude));
+		} else {
+			afterCommit(loadId, () -> grid.remove(loadId));
+		}
+	}
+
+	public void remove(String loadId) {
+		afterCommit(loadId, () -> grid.remove(loadId));
+	}
+
+	public List<GeoGridIndex.Hit<String>> nearby(double latitude, double longitude, double radiusKm, int limit) {
+		return grid.within(latitude, longitude, radiusKm, limit);
+	}
+
+	private void afterCommit(String loadId, Runnable change) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			apply(loadId, change);
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				apply(loadId, change);
+			}
+		});
+	}
+
+	private void apply(String loadId, Runnable change) {
+		changedAt.compute(loadId, (k, stamp) -> {
+			change.run();
+			return clock.incrementAndGet();
+		});
+	}
+
+	private void applyUnlessChangedSince(long snapshot, String loadId, Runnable change) {
+		changedAt.compute(loadId, (k, stamp) -> {
+			if (stamp == null || stamp <= snapshot)
+				change.run();
+			return stamp;
+		});
+	}
+}
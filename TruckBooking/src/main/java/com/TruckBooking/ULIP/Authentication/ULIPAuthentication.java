@@ -5,20 +5,53 @@ import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.net.HttpURLConnection;
-import java.net.URISyntaxException;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.json.JSONException;
 import org.json.JSONObject;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+// Holds the ULIP bearer token. Reads are lock free; logins are single-flight so that
+// concurrent callers that find the token missing, expired or rejected share one login.
+@Slf4j
 @Component
-@Configuration
 public class ULIPAuthentication {
 
-    private String id;
+    private static final class Token {
+        private final String id;
+        private final long expiresAtMillis;
+
+        private Token(String id, long expiresAtMillis) {
+            this.id = id;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+
+        private boolean isExpired() {
+            return System.currentTimeMillis() >= expiresAtMillis;
+        }
+    }
+
+    private final AtomicReference<Token> token = new AtomicReference<>();
+
+    private final ReentrantLock refreshLock = new ReentrantLock();
+
+    private final Timer refreshTimer;
+
+    private final Counter refreshFailures;
 
     @Value ("${ULIP_USERNAME}") 
     String username;
@@ -29,17 +62,94 @@ public class ULIPAuthentication {
     @Value ("${ULIP_LOGIN_URL}") 
     String loginUrl;
    
+    // used when the login response does not carry a JWT "exp" claim
+    @Value ("${ULIP_TOKEN_TTL_SECONDS:1800}")
+    long defaultTtlSeconds;
    
+    @Value ("${ULIP_TOKEN_REFRESH_AHEAD_SECONDS:300}")
+    long refreshAheadSeconds;
+
+    @Autowired
+    public ULIPAuthentication(MeterRegistry meterRegistry) {
+        this.refreshTimer = Timer.builder("ulip.token.refresh")
+                .description("Time taken to log in to ULIP and obtain a new token")
+                .register(meterRegistry);
+        this.refreshFailures = Counter.builder("ulip.token.refresh.failures")
+                .description("Failed ULIP logins")
+                .register(meterRegistry);
+        Gauge.builder("ulip.token.ttl.remaining", token, ULIPAuthentication::remainingSeconds)
+                .description("Seconds until the current ULIP token expires")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    // Checked every minute; logs in again once the token is inside the refresh-ahead window.
+    @Scheduled(fixedDelay = 60000)
+    public void generateToken() {
+        Token current = token.get();
+        long refreshAt = current == null ? 0 : current.expiresAtMillis - TimeUnit.SECONDS.toMillis(refreshAheadSeconds);
+        if (System.currentTimeMillis() < refreshAt) {
+            return;
+        }
+        try {
+            refresh(current);
+        } catch (IOException e) {
+            log.error("ULIP token refresh failed: " + e.getMessage());
+        }
+    }
 
-    // 30 minutes
-    @Scheduled(fixedRate = 1800000)
-    public  void generateToken() throws URISyntaxException, IOException{
+    // Returns a usable token, logging in first if there is none yet or it has expired.
+    public String getId() throws IOException {
+        Token current = token.get();
+        if (current == null || current.isExpired()) {
+            current = refresh(current);
+        }
+        return current.id;
+    }
+
+    // Called when ULIP answers 401 for rejectedId. Only the first caller logs in again,
+    // the others pick up the token it obtained.
+    public String refreshAfterUnauthorized(String rejectedId) throws IOException {
+        Token current = token.get();
+        if (current != null && !current.id.equals(rejectedId) && !current.isExpired()) {
+            return current.id;
+        }
+        return refresh(current).id;
+    }
+
+    private Token refresh(Token seen) throws IOException {
+        refreshLock.lock();
+        try {
+            Token current = token.get();
+            if (current != null && current != seen && !current.isExpired()) {
+                return current;
+            }
+            long start = System.nanoTime();
+            try {
+                Token fresh = login();
+                token.set(fresh);
+                log.info("ULIP token refreshed, valid for " + remainingSeconds(token) + "s");
+                return fresh;
+            } catch (IOException | RuntimeException e) {
+                refreshFailures.increment();
+                throw e;
+            } finally {
+                refreshTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    private Token login() throws IOException {
 
         URL weburl=new URL(loginUrl);
         HttpURLConnection webConnection = (HttpURLConnection) weburl.openConnection();
         webConnection.setRequestMethod("POST");
         webConnection.setRequestProperty("accept", "application/json");
         webConnection.setRequestProperty("Content-Type", "application/json");
+        webConnection.setConnectTimeout(10000);
+        webConnection.setReadTimeout(30000);
         webConnection.setDoOutput(true);
 
          JSONObject jsonData = new JSONObject();
@@ -58,10 +168,33 @@ public class ULIPAuthentication {
             }    
             JSONObject respJson = new JSONObject(resp.toString());  
             
-            this.id=respJson.getJSONObject("response").getString("id");
+            String id = respJson.getJSONObject("response").getString("id");
+            return new Token(id, expiresAt(id));
+        }
+    }
+
+    // ULIP issues JWTs; use their "exp" claim when present, otherwise the configured TTL.
+    private long expiresAt(String id) {
+        String[] parts = id.split("\\.");
+        if (parts.length == 3) {
+            try {
+                String payload = new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8);
+                JSONObject claims = new JSONObject(payload);
+                if (claims.has("exp")) {
+                    return TimeUnit.SECONDS.toMillis(claims.getLong("exp"));
+                }
+            } catch (IllegalArgumentException | JSONException e) {
+                log.warn("ULIP token is not a readable JWT, using the default TTL");
+            }
         }
+        return System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(defaultTtlSeconds);
     }
-    public String getId(){
-        return id;
+
+    private static double remainingSeconds(AtomicReference<Token> holder) {
+        Token current = holder.get();
+        if (current == null) {
+            return 0;
+        }
+        return Math.max(0, (current.expiresAtMillis - System.currentTimeMillis()) / 1000.0);
     }
-} 
+}
@@ -7,11 +7,15 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.TruckBooking.ULIP.Entity.BulkVehicleEntity;
 import com.TruckBooking.ULIP.Entity.FastagEntity;
 import com.TruckBooking.ULIP.Entity.SarathiEntity;
 import com.TruckBooking.ULIP.Entity.VahanEntity;
+import com.TruckBooking.ULIP.Service.ULIPBulkService;
 import com.TruckBooking.ULIP.Service.ULIPService;
 
 
@@ -22,6 +26,9 @@ public class ULIPController {
 	
 	@Autowired
     public ULIPService service;
+
+	@Autowired
+    public ULIPBulkService bulkService;
 	
 
     @PostMapping("/Vahan")
@@ -36,6 +43,19 @@ public class ULIPController {
         return new ResponseEntity<>(service.getfastagApi(entity), HttpStatus.OK);
     }
     
+    // Streams one NDJSON line per vehicle as each lookup completes
+    @PostMapping(value = "/Vahan/bulk", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> vahanBulkApi(@Valid @RequestBody BulkVehicleEntity entity) {
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON)
+                .body(bulkService.verify(ULIPBulkService.Check.VAHAN, entity.getVehiclenumbers()));
+    }
+
+    @PostMapping(value = "/Fastag/bulk", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> fastagBulkApi(@Valid @RequestBody BulkVehicleEntity entity) {
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON)
+                .body(bulkService.verify(ULIPBulkService.Check.FASTAG, entity.getVehiclenumbers()));
+    }
+
     @PostMapping("/Sarathi")
     public ResponseEntity<Object> sarathiApi(@Valid @RequestBody SarathiEntity entity) 
     throws IOException{
@@ -0,0 +1,17 @@
+package com.TruckBooking.ULIP.Entity;
+import java.util.List;
+
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Size;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class BulkVehicleEntity {
+    @NotEmpty
+    @Size(max = 1000, message = "At most 1000 vehicles can be verified in one request")
+    private List<@NotBlank String> vehiclenumbers;
+}
@@ -0,0 +1,232 @@
+package com.TruckBooking.ULIP.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PreDestroy;
+
+import org.json.JSONObject;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import lombok.extern.slf4j.Slf4j;
+
+// Verifies many vehicles against Vahan/Fastag at once. Lookups run on a fixed pool so a
+// large fleet never opens more than ULIP_BULK_PARALLELISM connections to ULIP, and results
+// are shared through a short-lived cache so repeated vehicle numbers cost one ULIP call.
+// The pool queues at most ULIP_BULK_QUEUE_CAPACITY lookups; beyond that the request's own
+// thread does the lookup, which holds it back until the pool catches up.
+@Slf4j
+@Service
+public class ULIPBulkService {
+
+    public enum Check {
+        VAHAN, FASTAG
+    }
+
+    private static final class CachedLookup {
+        private final CompletableFuture<JSONObject> result;
+        private final long createdAtMillis;
+
+        private CachedLookup(CompletableFuture<JSONObject> result) {
+            this.result = result;
+            this.createdAtMillis = System.currentTimeMillis();
+        }
+    }
+
+    @Autowired
+    ULIPService ulipService;
+
+    @Value("${ULIP_BULK_CACHE_TTL_SECONDS:900}")
+    long cacheTtlSeconds;
+
+    @Value("${ULIP_BULK_CACHE_MAX_ENTRIES:50000}")
+    int cacheMaxEntries;
+
+    @Value("${ULIP_BULK_TIMEOUT_SECONDS:150}")
+    long bulkTimeoutSeconds;
+
+    private final ThreadPoolExecutor executor;
+
+    private final Map<String, CachedLookup> cache = new ConcurrentHashMap<>();
+
+    public ULIPBulkService(@Value("${ULIP_BULK_PARALLELISM:16}") int parallelism,
+                           @Value("${ULIP_BULK_QUEUE_CAPACITY:1000}") int queueCapacity) {
+        AtomicInteger threadNo = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(parallelism, parallelism, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "ulip-bulk-" + threadNo.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, (runnable, pool) -> {
+                    if (pool.isShutdown())
+                        throw new RejectedExecutionException("ULIP bulk verification is shutting down");
+                    runnable.run();
+                });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // Returns a body that writes one NDJSON line per distinct vehicle number, in completion order.
+    public StreamingResponseBody verify(Check check, List<String> vehiclenumbers) {
+        Set<String> distinct = new LinkedHashSet<>();
+        for (String vehiclenumber : vehiclenumbers) {
+            distinct.add(normalize(vehiclenumber));
+        }
+        log.info("ULIP bulk " + check + " started for " + distinct.size() + " vehicles");
+
+        return outputStream -> {
+            BlockingQueue<JSONObject> completed = new LinkedBlockingQueue<>();
+            Set<String> pending = ConcurrentHashMap.newKeySet();
+            pending.addAll(distinct);
+            for (String vehiclenumber : distinct) {
+                boolean[] cached = {true};
+                CompletableFuture<JSONObject> lookup = lookup(check, vehiclenumber, cached);
+                lookup.whenComplete((response, error) -> {
+                    if (pending.remove(vehiclenumber)) {
+                        completed.add(line(vehiclenumber, response, error, cached[0]));
+                    }
+                });
+            }
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(bulkTimeoutSeconds);
+            for (int written = 0; written < distinct.size(); written++) {
+                JSONObject next;
+                try {
+                    next = completed.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    next = null;
+                }
+                if (next == null) {
+                    break;
+                }
+                write(outputStream, next);
+            }
+
+            // anything still outstanding has timed out; report it rather than leaving the client waiting
+            for (Iterator<String> it = pending.iterator(); it.hasNext(); ) {
+                String vehiclenumber = it.next();
+                it.remove();
+                write(outputStream, line(vehiclenumber, null, new IOException("ULIP did not answer in time"), false));
+            }
+            while (!completed.isEmpty()) {
+                write(outputStream, completed.poll());
+            }
+            log.info("ULIP bulk " + check + " response is returned");
+        };
+    }
+
+    private CompletableFuture<JSONObject> lookup(Check check, String vehiclenumber, boolean[] cached) {
+        String key = check + ":" + vehiclenumber;
+        long now = System.currentTimeMillis();
+        CachedLookup entry = cache.compute(key, (k, existing) -> {
+            if (existing != null && now - existing.createdAtMillis < TimeUnit.SECONDS.toMillis(cacheTtlSeconds)) {
+                return existing;
+            }
+            cached[0] = false;
+            return new CachedLookup(new CompletableFuture<>());
+        });
+        if (!cached[0]) {
+            // submitted outside compute(): when the queue is full the lookup runs right here
+            try {
+                executor.execute(() -> {
+                    try {
+                        entry.result.complete(call(check, vehiclenumber));
+                    } catch (RuntimeException e) {
+                        entry.result.completeExceptionally(e);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                entry.result.completeExceptionally(e);
+            }
+            // failures are not worth remembering; the next request should try ULIP again
+            entry.result.whenComplete((response, error) -> {
+                if (error != null) {
+                    cache.remove(key, entry);
+                }
+            });
+            evictIfFull(now);
+        }
+        return entry.result;
+    }
+
+    private JSONObject call(Check check, String vehiclenumber) {
+        try {
+            return check == Check.VAHAN ? ulipService.vahanLookup(vehiclenumber) : ulipService.fastagLookup(vehiclenumber);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Drops expired and failed entries, then the oldest ones, until the cache is back to 90% of
+    // its limit so that a full cache is not scanned again on every new vehicle.
+    private void evictIfFull(long now) {
+        if (cache.size() <= cacheMaxEntries) {
+            return;
+        }
+        long ttlMillis = TimeUnit.SECONDS.toMillis(cacheTtlSeconds);
+        cache.values().removeIf(entry -> now - entry.createdAtMillis >= ttlMillis || entry.result.isCompletedExceptionally());
+        int excess = cache.size() - cacheMaxEntries * 9 / 10;
+        if (excess <= 0) {
+            return;
+        }
+        List<Map.Entry<String, CachedLookup>> oldest = new ArrayList<>(cache.entrySet());
+        oldest.sort(Comparator.comparingLong(e -> e.getValue().createdAtMillis));
+        for (Map.Entry<String, CachedLookup> e : oldest.subList(0, Math.min(excess, oldest.size()))) {
+            cache.remove(e.getKey(), e.getValue());
+        }
+    }
+
+    private static JSONObject line(String vehiclenumber, JSONObject response, Throwable error, boolean cached) {
+        JSONObject line = new JSONObject();
+        line.put("vehiclenumber", vehiclenumber);
+        if (error == null) {
+            line.put("status", "OK");
+            line.put("cached", cached);
+            line.put("response", response);
+        } else {
+            Throwable cause = error;
+            while ((cause instanceof CompletionException || cause instanceof UncheckedIOException) && cause.getCause() != null) {
+                cause = cause.getCause();
+            }
+            line.put("status", "ERROR");
+            line.put("error", String.valueOf(cause.getMessage()));
+        }
+        return line;
+    }
+
+    private static void write(OutputStream outputStream, JSONObject line) throws IOException {
+        outputStream.write(line.toString().getBytes(StandardCharsets.UTF_8));
+        outputStream.write('\n');
+        outputStream.flush();
+    }
+
+    private static String normalize(String vehiclenumber) {
+        return vehiclenumber.replaceAll("\\s+", "").toUpperCase();
+    }
+}
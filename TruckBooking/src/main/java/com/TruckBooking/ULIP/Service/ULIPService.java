@@ -9,6 +9,7 @@ import org.springframework.stereotype.Service;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
 import org.json.JSONObject;
 
 import com.TruckBooking.ULIP.Authentication.ULIPAuthentication;
@@ -16,12 +17,18 @@ import com.TruckBooking.ULIP.Entity.FastagEntity;
 import com.TruckBooking.ULIP.Entity.SarathiEntity;
 import com.TruckBooking.ULIP.Entity.VahanEntity;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
 
 @Service
 public class ULIPService {
 	
 	 @Autowired
      public ULIPAuthentication authentication;
+
+	 @Autowired
+	 MeterRegistry meterRegistry;
 	 
 	 @Value("${ULIP_VAHAN_URL}") 
 	    String vahanUrl;
@@ -35,58 +42,47 @@ public class ULIPService {
 
 	public  String getvahanApi(VahanEntity vahanEntity) throws IOException
 	{
+             return vahanLookup(vahanEntity.getVehiclenumber()).toString(4);
+    }
 			
-			 String vehiclenumber=vahanEntity.getVehiclenumber();
+	public  String getfastagApi(FastagEntity fastagEntity) throws IOException
+	{
+             return fastagLookup(fastagEntity.getVehiclenumber()).toString(4);
+    }
+
+	public JSONObject vahanLookup(String vehiclenumber) throws IOException
+	{
 	         JSONObject jsonData1 = new JSONObject();
-	         HttpURLConnection webConnection=null;
+             jsonData1.put("vehiclenumber", vehiclenumber);
+             return callUlip(vahanUrl, jsonData1);
+    }
 		
-			 URL weburl1=new URL(vahanUrl);
-             webConnection = (HttpURLConnection) weburl1.openConnection();
-             webConnection.setRequestMethod("POST");
-             webConnection.setRequestProperty("accept", "application/json");
-             webConnection.setRequestProperty("Content-Type", "application/json");
-             webConnection.setRequestProperty("authorization", "Bearer "+authentication.getId());
-             webConnection.setDoOutput(true);
+	public JSONObject fastagLookup(String vehiclenumber) throws IOException
+	{
+	         JSONObject jsonData2 = new JSONObject();
+             jsonData2.put("vehiclenumber", vehiclenumber);
+             return callUlip(fastagUrl, jsonData2);
+    }
 
-             jsonData1.put("vehiclenumber", vehiclenumber);
-             try (OutputStream outStream = webConnection.getOutputStream())
+	public  String getsarathiApi(SarathiEntity sarathiEntity) throws IOException
              {
-                    byte[] reqBody = jsonData1.toString().getBytes(StandardCharsets.UTF_8);
-                    outStream.write(reqBody, 0, reqBody.length);
-             }
+	         JSONObject jsonData3 = new JSONObject();
+             jsonData3.put("dlnumber", sarathiEntity.getDlnumber());
+             jsonData3.put("dob", sarathiEntity.getDob());
+             return callUlip(sarathiUrl, jsonData3).toString(4);
+    }
 
-             try (BufferedReader br = new BufferedReader(new InputStreamReader(webConnection.getInputStream(), StandardCharsets.UTF_8))) 
-             {
-                StringBuilder resp = new StringBuilder();
-                String respLine = null;
-                while ((respLine = br.readLine()) != null) {
-                    resp.append(respLine.trim());
-             }            
-             JSONObject response= new JSONObject(resp.toString());
-             return response.toString(4);
-            }
-    }       
-	
-	public  String getfastagApi(FastagEntity fastagEntity) throws IOException
+	// Posts the request with the current token. A 401 means the token was revoked or expired
+	// early, so the token is refreshed once (shared with any concurrent callers) and the call retried.
+	private JSONObject callUlip(String url, JSONObject requestBody) throws IOException
 	{
-			
-			 String vehiclenumber=fastagEntity.getVehiclenumber();
-	         JSONObject jsonData2 = new JSONObject();
-	         HttpURLConnection webConnection=null;
-		
-			 URL weburl2=new URL(fastagUrl);
-             webConnection = (HttpURLConnection) weburl2.openConnection();
-             webConnection.setRequestMethod("POST");
-             webConnection.setRequestProperty("accept", "application/json");
-             webConnection.setRequestProperty("Content-Type", "application/json");
-             webConnection.setRequestProperty("authorization", "Bearer "+authentication.getId());
-             webConnection.setDoOutput(true);
-
-             jsonData2.put("vehiclenumber", vehiclenumber);
-             try (OutputStream outStream = webConnection.getOutputStream())
+             String tokenId = authentication.getId();
+             HttpURLConnection webConnection = post(url, requestBody, tokenId);
+             if (webConnection.getResponseCode() == HttpURLConnection.HTTP_UNAUTHORIZED)
              {
-                    byte[] reqBody = jsonData2.toString().getBytes(StandardCharsets.UTF_8);
-                    outStream.write(reqBody, 0, reqBody.length);
+                    webConnection.disconnect();
+                    tokenId = authentication.refreshAfterUnauthorized(tokenId);
+                    webConnection = post(url, requestBody, tokenId);
              }
 
              try (BufferedReader br = new BufferedReader(new InputStreamReader(webConnection.getInputStream(), StandardCharsets.UTF_8))) 
@@ -96,50 +92,50 @@ public class ULIPService {
                 while ((respLine = br.readLine()) != null) {
                     resp.append(respLine.trim());
              }            
-             JSONObject response= new JSONObject(resp.toString());
-             return response.toString(4);
+             return new JSONObject(resp.toString());
             }
-    }     
+    }       
 	
-	public  String getsarathiApi(SarathiEntity sarathiEntity) throws IOException
+	// Sends the request and waits for the status line, recording the round trip as http.client.requests.
+	private HttpURLConnection post(String url, JSONObject requestBody, String tokenId) throws IOException
 	{
+			 URL weburl=new URL(url);
+			 long start = System.nanoTime();
+			 String status = "IO_ERROR";
+			 try
+			 {
+				HttpURLConnection webConnection = send(weburl, requestBody, tokenId);
+				status = String.valueOf(webConnection.getResponseCode());
+				return webConnection;
+			 }
+			 finally
+			 {
+				Timer.builder("http.client.requests")
+						.tag("clientName", "ulip")
+						.tag("method", "POST")
+						.tag("uri", weburl.getPath())
+						.tag("status", status)
+						.register(meterRegistry)
+						.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+			 }
+	}
 			
-			 String dlnumber=sarathiEntity.getDlnumber();
-			 String dob=sarathiEntity.getDob();
-	         JSONObject jsonData3 = new JSONObject();
-	         HttpURLConnection webConnection=null;
-		
-			 URL weburl3=new URL(sarathiUrl);
-             webConnection = (HttpURLConnection) weburl3.openConnection();
+	private HttpURLConnection send(URL weburl, JSONObject requestBody, String tokenId) throws IOException
+	{
+             HttpURLConnection webConnection = (HttpURLConnection) weburl.openConnection();
              webConnection.setRequestMethod("POST");
              webConnection.setRequestProperty("accept", "application/json");
              webConnection.setRequestProperty("Content-Type", "application/json");
-             webConnection.setRequestProperty("authorization", "Bearer "+authentication.getId());
+             webConnection.setRequestProperty("authorization", "Bearer "+tokenId);
+             webConnection.setConnectTimeout(10000);
+             webConnection.setReadTimeout(30000);
              webConnection.setDoOutput(true);
 
-             jsonData3.put("dlnumber", dlnumber);
-             jsonData3.put("dob", dob);
              try (OutputStream outStream = webConnection.getOutputStream())
              {
-                    byte[] reqBody = jsonData3.toString().getBytes(StandardCharsets.UTF_8);
+                    byte[] reqBody = requestBody.toString().getBytes(StandardCharsets.UTF_8);
                     outStream.write(reqBody, 0, reqBody.length);
              }
-
-             try (BufferedReader br = new BufferedReader(new InputStreamReader(webConnection.getInputStream(), StandardCharsets.UTF_8))) 
-             {
-                StringBuilder resp = new StringBuilder();
-                String respLine = null;
-                while ((respLine = br.readLine()) != null) {
-                    resp.append(respLine.trim());
-             }            
-             JSONObject response= new JSONObject(resp.toString());
-             return response.toString(4);
-            }
-    }     
-              
-           
-	
-
-
+             return webConnection;
+    }
 }
-
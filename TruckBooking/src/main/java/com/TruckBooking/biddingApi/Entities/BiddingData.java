@@ -13,6 +13,7 @@ import javax.persistence.Table;
 import javax.persistence.UniqueConstraint;
 import javax.validation.constraints.NotNull;
 
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.validator.constraints.NotBlank;
 
@@ -47,8 +48,10 @@ public @Data class BiddingData {
 		PER_TON, PER_TRUCK
 	}
 
+	// loaded by the service before the session closes, up to 100 bids' trucks per query
 	@Column(name = "truckId")
 	@ElementCollection(targetClass = String.class)
+	@BatchSize(size = 100)
 	private List<String> truckId;
 
 	private Boolean transporterApproval;
@@ -62,6 +65,7 @@ public @Data class BiddingData {
 
 	@Column(name = "transporterId")
 	@ElementCollection(targetClass = String.class)
+	@BatchSize(size = 100)
 	private List<String> rank;
 
 
@@ -0,0 +1,30 @@
+package com.TruckBooking.cache;
+
+// Hibernate second-level cache regions. Each one is a Caffeine cache configured in application.conf,
+// where the names are config keys and so must not contain dots.
+public final class CacheRegions {
+
+    public static final String RATES = "rates";
+    public static final String HARDWARE = "hardware";
+    public static final String PLACEMENT_INFO = "placementInfo";
+    public static final String PLACEMENT_MAP = "placementMap";
+    public static final String INDENT = "indent";
+    public static final String INDENT_TRANSPORTER_IDS = "indentTransporterIds";
+    public static final String INDENT_TRANSPORTER_EMAILS = "indentTransporterEmails";
+
+    // query results, invalidated by Hibernate whenever the tables they read are written through it
+    public static final String RATES_QUERIES = "rateQueries";
+    public static final String HARDWARE_QUERIES = "hardwareQueries";
+    public static final String PLACEMENT_QUERIES = "placementInfoQueries";
+    public static final String INDENT_QUERIES = "indentQueries";
+
+    // Hibernate's own region recording when each table was last written
+    public static final String UPDATE_TIMESTAMPS = "default-update-timestamps-region";
+
+    public static final String[] ALL = {RATES, HARDWARE, PLACEMENT_INFO, PLACEMENT_MAP, INDENT, INDENT_TRANSPORTER_IDS,
+            INDENT_TRANSPORTER_EMAILS, RATES_QUERIES, HARDWARE_QUERIES, PLACEMENT_QUERIES, INDENT_QUERIES,
+            UPDATE_TIMESTAMPS};
+
+    private CacheRegions() {
+    }
+}
@@ -0,0 +1,85 @@
+package com.TruckBooking.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.function.ToDoubleFunction;
+
+// Hibernate keeps the second-level cache in step with writes made through JPA. Writes that go
+// around it, such as JDBC batch inserts, call evictAfterCommit for the regions they make stale.
+// Also reports requests and the hit ratio of every region as hibernate.cache.region.*.
+@Slf4j
+@Component
+public class SecondLevelCache implements MeterBinder {
+
+    // lazy because meter binders are bound while the DataSource the factory needs is still being created
+    @Lazy
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    // Empties the given regions once the surrounding transaction has committed, or straight away
+    // when there is none.
+    public void evictAfterCommit(String... regions) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evict(regions);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evict(regions);
+            }
+        });
+    }
+
+    private void evict(String... regions) {
+        org.hibernate.Cache cache = sessionFactory().getCache();
+        for (String region : regions) {
+            cache.evictRegion(region);
+        }
+        log.debug("evicted second-level cache regions " + String.join(", ", regions));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (String region : CacheRegions.ALL) {
+            FunctionCounter.builder("hibernate.cache.region.requests", this, cache -> cache.count(region, true))
+                    .tag("region", region).tag("result", "hit").register(registry);
+            FunctionCounter.builder("hibernate.cache.region.requests", this, cache -> cache.count(region, false))
+                    .tag("region", region).tag("result", "miss").register(registry);
+            Gauge.builder("hibernate.cache.region.hit.ratio", this, hitRatio(region))
+                    .tag("region", region).register(registry);
+        }
+    }
+
+    private static ToDoubleFunction<SecondLevelCache> hitRatio(String region) {
+        return cache -> {
+            double hits = cache.count(region, true);
+            double requests = hits + cache.count(region, false);
+            return requests == 0 ? Double.NaN : hits / requests;
+        };
+    }
+
+    // Query regions only exist once a query has used them; until then they count nothing.
+    private double count(String region, boolean hits) {
+        CacheRegionStatistics statistics = sessionFactory().getStatistics().getCacheRegionStatistics(region);
+        if (statistics == null)
+            return 0;
+        return hits ? statistics.getHitCount() : statistics.getMissCount();
+    }
+
+    private SessionFactory sessionFactory() {
+        return entityManagerFactory.unwrap(SessionFactory.class);
+    }
+}
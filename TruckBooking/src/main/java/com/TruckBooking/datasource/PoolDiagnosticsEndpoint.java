@@ -0,0 +1,172 @@
+package com.TruckBooking.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.QueryStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// GET /actuator/pools: how busy each Hikari pool has been since startup, how long callers waited
+// for and held connections, and the slowest queries, with a suggested maximum pool size for each
+// pool. Peaks come from sampling the pools once a second; timings from the hikaricp.* meters and
+// slow queries from Hibernate's statistics, so JdbcTemplate statements are not among them.
+@Component
+@Endpoint(id = "pools")
+public class PoolDiagnosticsEndpoint {
+
+    private static final int MAX_SLOW_QUERIES = 20;
+
+    // a pool saturated in more than this share of samples, or that timed out, is too small
+    private static final double SATURATED_SHARE_LIMIT = 0.05;
+
+    // samples needed before suggesting a smaller pool: ten minutes
+    private static final long SAMPLES_BEFORE_SHRINKING = 600;
+
+    private static final class Peaks {
+        private volatile int active;
+        private volatile int pending;
+        private volatile long samples;
+        private volatile long saturatedSamples;
+    }
+
+    @Autowired
+    ObjectProvider<HikariDataSource> pools;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Value("${pools.slow-query-ms:500}")
+    long slowQueryMs;
+
+    private final Instant since = Instant.now();
+
+    private final Map<String, Peaks> peaks = new ConcurrentHashMap<>();
+
+    // only this job writes to the peaks
+    @Scheduled(fixedRate = 1000)
+    public void sample() {
+        pools.orderedStream().forEach(pool -> {
+            HikariPoolMXBean bean = pool.getHikariPoolMXBean();
+            if (bean == null)
+                return;
+            Peaks peak = peaks.computeIfAbsent(pool.getPoolName(), name -> new Peaks());
+            int active = bean.getActiveConnections();
+            peak.active = Math.max(peak.active, active);
+            peak.pending = Math.max(peak.pending, bean.getThreadsAwaitingConnection());
+            peak.samples++;
+            if (active >= pool.getMaximumPoolSize())
+                peak.saturatedSamples++;
+        });
+    }
+
+    @ReadOperation
+    public PoolReport report() {
+        PoolReport report = new PoolReport();
+        report.setSince(since);
+        pools.orderedStream().forEach(pool -> report.getPools().add(pool(pool)));
+        slowQueries(report);
+        return report;
+    }
+
+    private PoolReport.Pool pool(HikariDataSource dataSource) {
+        PoolReport.Pool pool = new PoolReport.Pool();
+        String name = dataSource.getPoolName();
+        pool.setName(name);
+        pool.setMaximumPoolSize(dataSource.getMaximumPoolSize());
+        pool.setMinimumIdle(dataSource.getMinimumIdle());
+        pool.setConnectionTimeoutMs(dataSource.getConnectionTimeout());
+
+        HikariPoolMXBean bean = dataSource.getHikariPoolMXBean();
+        pool.setStarted(bean != null);
+        if (bean != null) {
+            pool.setActive(bean.getActiveConnections());
+            pool.setIdle(bean.getIdleConnections());
+            pool.setTotal(bean.getTotalConnections());
+            pool.setPending(bean.getThreadsAwaitingConnection());
+        }
+        Peaks peak = peaks.getOrDefault(name, new Peaks());
+        pool.setPeakActive(peak.active);
+        pool.setPeakPending(peak.pending);
+        pool.setSaturatedShare(peak.samples == 0 ? 0 : (double) peak.saturatedSamples / peak.samples);
+
+        Counter timeouts = meterRegistry.find("hikaricp.connections.timeout").tag("pool", name).counter();
+        pool.setTimeouts(timeouts == null ? 0 : (long) timeouts.count());
+        timings(pool.getAcquireMs(), meterRegistry.find("hikaricp.connections.acquire").tag("pool", name).timer());
+        timings(pool.getUsageMs(), meterRegistry.find("hikaricp.connections.usage").tag("pool", name).timer());
+
+        advise(pool, peak.samples);
+        return pool;
+    }
+
+    private static void timings(Map<String, Double> into, Timer timer) {
+        if (timer == null)
+            return;
+        into.put("count", (double) timer.count());
+        into.put("mean", timer.mean(TimeUnit.MILLISECONDS));
+        into.put("max", timer.max(TimeUnit.MILLISECONDS));
+        for (ValueAtPercentile percentile : timer.takeSnapshot().percentileValues()) {
+            into.put("p" + Math.round(percentile.percentile() * 100), percentile.value(TimeUnit.MILLISECONDS));
+        }
+    }
+
+    // Grows a pool that ran out of connections to cover the peak demand seen (busy plus waiting),
+    // shrinks one whose peak stayed well under its size, and otherwise leaves it alone. The total
+    // across nodes still has to fit the database's max_connections.
+    private static void advise(PoolReport.Pool pool, long samples) {
+        int size = pool.getMaximumPoolSize();
+        int demand = pool.getPeakActive() + pool.getPeakPending();
+        if (pool.getTimeouts() > 0 || pool.getSaturatedShare() > SATURATED_SHARE_LIMIT) {
+            pool.setSuggestedMaximumPoolSize(Math.max(demand, size + Math.max(1, size / 4)));
+            pool.setAdvice("saturated: callers waited for connections" + (pool.getTimeouts() > 0 ? " and timed out" : "")
+                    + "; raise maximum-pool-size if the database has headroom, or shorten the transactions holding connections");
+        } else if (samples >= SAMPLES_BEFORE_SHRINKING && pool.getPeakActive() < size / 2) {
+            pool.setSuggestedMaximumPoolSize(Math.max(2, (int) Math.ceil(pool.getPeakActive() * 1.5)));
+            pool.setAdvice("oversized: at most " + pool.getPeakActive() + " of " + size + " connections were ever in use");
+        } else {
+            pool.setSuggestedMaximumPoolSize(size);
+            pool.setAdvice(samples < SAMPLES_BEFORE_SHRINKING ? "not enough traffic seen yet" : "sized to the load seen");
+        }
+    }
+
+    private void slowQueries(PoolReport report) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        if (!statistics.isStatisticsEnabled())
+            return;
+        for (String query : statistics.getQueries()) {
+            QueryStatistics queryStatistics = statistics.getQueryStatistics(query);
+            if (queryStatistics.getExecutionMaxTime() < slowQueryMs)
+                continue;
+            PoolReport.SlowQuery slow = new PoolReport.SlowQuery();
+            slow.setQuery(query);
+            slow.setExecutions(queryStatistics.getExecutionCount());
+            slow.setAverageMs(queryStatistics.getExecutionAvgTime());
+            slow.setMaxMs(queryStatistics.getExecutionMaxTime());
+            slow.setRows(queryStatistics.getExecutionRowCount());
+            report.getSlowQueries().add(slow);
+        }
+        report.getSlowQueries().sort(Comparator.comparingLong(PoolReport.SlowQuery::getMaxMs).reversed());
+        if (report.getSlowQueries().size() > MAX_SLOW_QUERIES)
+            report.getSlowQueries().subList(MAX_SLOW_QUERIES, report.getSlowQueries().size()).clear();
+    }
+}
@@ -0,0 +1,60 @@
+package com.TruckBooking.datasource;
+
+import lombok.Data;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Body of GET /actuator/pools.
+@Data
+public class PoolReport {
+
+    // start of the period the peaks, timings and slow queries cover
+    private Instant since;
+
+    private List<Pool> pools = new ArrayList<>();
+
+    private List<SlowQuery> slowQueries = new ArrayList<>();
+
+    @Data
+    public static class Pool {
+        private String name;
+        // Hikari opens a pool on its first connection request
+        private boolean started;
+
+        private int maximumPoolSize;
+        private int minimumIdle;
+        private long connectionTimeoutMs;
+
+        private int active;
+        private int idle;
+        private int total;
+        private int pending;
+
+        // sampled once a second
+        private int peakActive;
+        private int peakPending;
+        // share of samples in which every connection was in use
+        private double saturatedShare;
+        private long timeouts;
+
+        // waiting for a connection, and holding one: count, mean, max and percentiles in ms
+        private Map<String, Double> acquireMs = new LinkedHashMap<>();
+        private Map<String, Double> usageMs = new LinkedHashMap<>();
+
+        private int suggestedMaximumPoolSize;
+        private String advice;
+    }
+
+    @Data
+    public static class SlowQuery {
+        private String query;
+        private long executions;
+        private long averageMs;
+        private long maxMs;
+        private long rows;
+    }
+}
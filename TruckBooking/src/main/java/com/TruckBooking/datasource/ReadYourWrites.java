@@ -0,0 +1,72 @@
+package com.TruckBooking.datasource;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Remembers when each client last committed a read-write transaction so that its reads stay on the
+// primary until the replica has had time to replay the write. The client of a request is set by
+// ReplicaClientFilter; work outside requests, such as scheduled jobs, is keyed by its thread.
+// Kept per node, so a client whose next request lands on another node is not covered.
+public class ReadYourWrites {
+
+    private static final ThreadLocal<String> CLIENT = new ThreadLocal<>();
+
+    private static final int MAX_CLIENTS = 10000;
+
+    private final long stickyMillis;
+
+    private final Map<String, Long> stickyUntil = new ConcurrentHashMap<>();
+
+    public ReadYourWrites(long stickyMillis) {
+        this.stickyMillis = stickyMillis;
+    }
+
+    public static void setClient(String client) {
+        CLIENT.set(client);
+    }
+
+    public static void clearClient() {
+        CLIENT.remove();
+    }
+
+    // Called when a read-write transaction takes its connection; the window starts once it commits.
+    public void recordWrite() {
+        String client = client();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            stick(client);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                stick(client);
+            }
+        });
+    }
+
+    public boolean isSticky() {
+        String client = client();
+        Long until = stickyUntil.get(client);
+        if (until == null)
+            return false;
+        if (until > System.currentTimeMillis())
+            return true;
+        stickyUntil.remove(client, until);
+        return false;
+    }
+
+    private void stick(String client) {
+        long now = System.currentTimeMillis();
+        if (stickyUntil.size() > MAX_CLIENTS)
+            stickyUntil.values().removeIf(until -> until <= now);
+        stickyUntil.put(client, now + stickyMillis);
+    }
+
+    private static String client() {
+        String client = CLIENT.get();
+        return client != null ? client : "thread:" + Thread.currentThread().getId();
+    }
+}
@@ -0,0 +1,38 @@
+package com.TruckBooking.datasource;
+
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+// Names the client of each request for ReadYourWrites: the X-Client-Id header when the caller
+// sends one, otherwise the originating address.
+public class ReplicaClientFilter extends OncePerRequestFilter {
+
+    public static final String CLIENT_HEADER = "X-Client-Id";
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        ReadYourWrites.setClient(client(request));
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            ReadYourWrites.clearClient();
+        }
+    }
+
+    private static String client(HttpServletRequest request) {
+        String client = request.getHeader(CLIENT_HEADER);
+        if (StringUtils.isNotBlank(client))
+            return "client:" + client.trim();
+        String forwardedFor = request.getHeader("X-Forwarded-For");
+        if (StringUtils.isNotBlank(forwardedFor))
+            return "addr:" + forwardedFor.split(",")[0].trim();
+        return "addr:" + request.getRemoteAddr();
+    }
+}
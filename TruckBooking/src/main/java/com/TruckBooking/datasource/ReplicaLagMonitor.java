@@ -0,0 +1,66 @@
+package com.TruckBooking.datasource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+
+// Polls how far the replica is behind the primary. Reads use the replica only while the last check
+// succeeded and found it within maxLagMillis; until the first check, and whenever it is unreachable
+// or falls behind, they go to the primary. Reports "datasource.replica.lag" (seconds) and
+// "datasource.replica.usable".
+@Slf4j
+public class ReplicaLagMonitor {
+
+    // Seconds since the last replayed transaction, or 0 once everything received has been replayed,
+    // so an idle primary does not look like lag.
+    public static final String POSTGRES_LAG_QUERY = "SELECT CASE WHEN NOT pg_is_in_recovery()"
+            + " OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0"
+            + " ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) END";
+
+    private final JdbcTemplate replica;
+
+    private final String lagQuery;
+
+    private final long maxLagMillis;
+
+    private volatile boolean usable;
+
+    private volatile double lagSeconds = Double.NaN;
+
+    public ReplicaLagMonitor(DataSource replica, String lagQuery, long maxLagMillis, MeterRegistry meterRegistry) {
+        this.replica = new JdbcTemplate(replica);
+        this.replica.setQueryTimeout(5);
+        this.lagQuery = lagQuery;
+        this.maxLagMillis = maxLagMillis;
+        Gauge.builder("datasource.replica.lag", this, monitor -> monitor.lagSeconds).register(meterRegistry);
+        Gauge.builder("datasource.replica.usable", this, monitor -> monitor.usable ? 1 : 0).register(meterRegistry);
+    }
+
+    public boolean isReplicaUsable() {
+        return usable;
+    }
+
+    @Scheduled(fixedDelayString = "${datasource.replica.lag-check-ms:5000}")
+    public void check() {
+        boolean wasUsable = usable;
+        try {
+            Double lag = replica.queryForObject(lagQuery, Double.class);
+            lagSeconds = lag == null ? 0 : lag;
+            usable = lagSeconds * 1000 <= maxLagMillis;
+            if (wasUsable && !usable)
+                log.warn("replica is " + lagSeconds + "s behind, reading from the primary");
+        } catch (DataAccessException e) {
+            lagSeconds = Double.NaN;
+            usable = false;
+            if (wasUsable)
+                log.warn("replica lag check failed, reading from the primary: " + e.getMessage());
+        }
+        if (!wasUsable && usable)
+            log.info("replica is " + lagSeconds + "s behind, reading from it again");
+    }
+}
@@ -0,0 +1,95 @@
+package com.TruckBooking.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+// Opt-in (datasource.replica.enabled=true): transactions marked @Transactional(readOnly = true)
+// read from the replica at datasource.replica.url, everything else, Flyway included, uses the
+// primary configured under spring.datasource. See ReplicaRoutingDataSource for when reads fall
+// back to the primary.
+//
+// Only readOnly methods are safe on the replica. Spring Data repository reads are readOnly by
+// default, so a service method or job that reads and then writes has to do its reads in a
+// read-write transaction: usually one @Transactional around the method, or a read-write
+// TransactionTemplate around just the reads when the job must not hold a transaction across slow
+// work such as sending mail. Otherwise they come from the replica and may be stale, and the writes
+// are based on them.
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "datasource.replica.enabled", havingValue = "true")
+public class ReplicaRoutingConfiguration {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(@Value("${datasource.replica.url}") String url,
+                                              @Value("${datasource.replica.username:}") String username,
+                                              @Value("${datasource.replica.password:}") String password) {
+        HikariDataSource dataSource = DataSourceBuilder.create().type(HikariDataSource.class)
+                .url(url).username(username).password(password).build();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        log.info("read-only transactions are routed to the replica at " + url);
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(@Qualifier("replicaDataSource") DataSource replica,
+                                               @Value("${datasource.replica.lag-query:}") String lagQuery,
+                                               @Value("${datasource.replica.max-lag-ms:2000}") long maxLagMillis,
+                                               MeterRegistry meterRegistry) {
+        return new ReplicaLagMonitor(replica, StringUtils.isBlank(lagQuery) ? ReplicaLagMonitor.POSTGRES_LAG_QUERY : lagQuery,
+                maxLagMillis, meterRegistry);
+    }
+
+    @Bean
+    public ReadYourWrites readYourWrites(@Value("${datasource.replica.sticky-ms:5000}") long stickyMillis) {
+        return new ReadYourWrites(stickyMillis);
+    }
+
+    @Bean
+    public ReplicaClientFilter replicaClientFilter() {
+        return new ReplicaClientFilter();
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 @Qualifier("replicaDataSource") DataSource replica,
+                                 ReplicaLagMonitor lagMonitor, ReadYourWrites readYourWrites, MeterRegistry meterRegistry) {
+        return new LazyConnectionDataSourceProxy(
+                new ReplicaRoutingDataSource(primary, replica, lagMonitor, readYourWrites, meterRegistry));
+    }
+
+    // Hibernate otherwise holds a session's connection until the session closes, and with open-in-view
+    // that is the whole request: a replica connection taken by a read could then be reused for a write.
+    @Bean
+    public HibernatePropertiesCustomizer releaseConnectionsAfterTransaction() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+}
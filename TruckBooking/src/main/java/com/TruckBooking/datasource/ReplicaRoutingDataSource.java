@@ -0,0 +1,61 @@
+package com.TruckBooking.datasource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+// Sends connections taken inside read-only transactions to the replica and everything else to the
+// primary. Reads still go to the primary while the replica is lagging or unreachable, and for a
+// client that has just written (see ReadYourWrites). Every choice is counted as "datasource.route".
+// Has to sit behind a LazyConnectionDataSourceProxy: transaction managers open their connection
+// before they mark the transaction read-only, and the proxy defers that to the first statement.
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Target {
+        PRIMARY, REPLICA
+    }
+
+    private final ReplicaLagMonitor lagMonitor;
+
+    private final ReadYourWrites readYourWrites;
+
+    private final MeterRegistry meterRegistry;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, ReplicaLagMonitor lagMonitor,
+                                    ReadYourWrites readYourWrites, MeterRegistry meterRegistry) {
+        this.lagMonitor = lagMonitor;
+        this.readYourWrites = readYourWrites;
+        this.meterRegistry = meterRegistry;
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(Target.PRIMARY, primary);
+        targets.put(Target.REPLICA, replica);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (!TransactionSynchronizationManager.isActualTransactionActive())
+                return route(Target.PRIMARY, "no-transaction");
+            readYourWrites.recordWrite();
+            return route(Target.PRIMARY, "write");
+        }
+        if (readYourWrites.isSticky())
+            return route(Target.PRIMARY, "sticky");
+        if (!lagMonitor.isReplicaUsable())
+            return route(Target.PRIMARY, "replica-unavailable");
+        return route(Target.REPLICA, "read");
+    }
+
+    private Target route(Target target, String reason) {
+        meterRegistry.counter("datasource.route", "target", target.name().toLowerCase(), "reason", reason).increment();
+        return target;
+    }
+}
@@ -0,0 +1,21 @@
+package com.TruckBooking.export.Constants;
+
+public enum ExportFormat {
+    NDJSON("ndjson", "application/x-ndjson"), CSV("csv", "text/csv");
+
+    private final String extension;
+    private final String contentType;
+
+    ExportFormat(String extension, String contentType) {
+        this.extension = extension;
+        this.contentType = contentType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+}
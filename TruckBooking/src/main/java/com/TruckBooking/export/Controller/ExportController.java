@@ -0,0 +1,116 @@
+package com.TruckBooking.export.Controller;
+
+import com.TruckBooking.LoadsApi.Entities.Load;
+import com.TruckBooking.export.Constants.ExportFormat;
+import com.TruckBooking.export.Service.ExportService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import javax.servlet.http.HttpServletRequest;
+import java.sql.Timestamp;
+import java.util.concurrent.Callable;
+
+// Bulk report downloads. Unlike the paged list endpoints these return every matching row,
+// streamed as NDJSON (default) or CSV, optionally gzipped.
+@CrossOrigin
+@RestController
+@Slf4j
+public class ExportController {
+
+    @Autowired
+    ExportService exportService;
+
+    @Value("${export.request-timeout-ms:1800000}")
+    long requestTimeoutMs;
+
+    @GetMapping("/load/export")
+    public ResponseEntity<StreamingResponseBody> exportLoads(
+            @RequestParam(name = "postLoadId", required = false) String postLoadId,
+            @RequestParam(name = "status", required = false) Load.Status status,
+            @RequestParam(name = "fromTimestamp", required = false) Timestamp fromTimestamp,
+            @RequestParam(name = "toTimestamp", required = false) Timestamp toTimestamp,
+            @RequestParam(name = "format", defaultValue = "ndjson") ExportFormat format,
+            @RequestParam(name = "gzip", defaultValue = "false") boolean gzip,
+            HttpServletRequest request) {
+        log.info("exportLoads Controller Started");
+        return response(request, "loads", format, gzip, exportService.exportLoads(postLoadId,
+                status == null ? null : status.name(), fromTimestamp, toTimestamp, format, gzip));
+    }
+
+    @GetMapping("/booking/export")
+    public ResponseEntity<StreamingResponseBody> exportBookings(
+            @RequestParam(name = "transporterId", required = false) String transporterId,
+            @RequestParam(name = "postLoadId", required = false) String postLoadId,
+            @RequestParam(name = "completed", required = false) Boolean completed,
+            @RequestParam(name = "cancel", required = false) Boolean cancel,
+            @RequestParam(name = "fromTimestamp", required = false) Timestamp fromTimestamp,
+            @RequestParam(name = "toTimestamp", required = false) Timestamp toTimestamp,
+            @RequestParam(name = "format", defaultValue = "ndjson") ExportFormat format,
+            @RequestParam(name = "gzip", defaultValue = "false") boolean gzip,
+            HttpServletRequest request) {
+        log.info("exportBookings Controller Started");
+        return response(request, "bookings", format, gzip, exportService.exportBookings(transporterId, postLoadId, completed,
+                cancel, fromTimestamp, toTimestamp, format, gzip));
+    }
+
+    @GetMapping("/invoice/export")
+    public ResponseEntity<StreamingResponseBody> exportInvoices(
+            @RequestParam(name = "transporterId", required = false) String transporterId,
+            @RequestParam(name = "shipperId", required = false) String shipperId,
+            @RequestParam(name = "fromTimestamp", required = false) Timestamp fromTimestamp,
+            @RequestParam(name = "toTimestamp", required = false) Timestamp toTimestamp,
+            @RequestParam(name = "format", defaultValue = "ndjson") ExportFormat format,
+            @RequestParam(name = "gzip", defaultValue = "false") boolean gzip,
+            HttpServletRequest request) {
+        log.info("exportInvoices Controller Started");
+        return response(request, "invoices", format, gzip, exportService.exportInvoices(transporterId, shipperId,
+                fromTimestamp, toTimestamp, format, gzip));
+    }
+
+    @GetMapping("/routedata/export")
+    public ResponseEntity<StreamingResponseBody> exportRoutes(
+            @RequestParam(name = "imei", required = false) String imei,
+            @RequestParam(name = "truckId", required = false) String truckId,
+            @RequestParam(name = "truckNo", required = false) String truckNo,
+            @RequestParam(name = "transporterId", required = false) String transporterId,
+            @RequestParam(name = "deviceId", required = false) String deviceId,
+            @RequestParam(name = "fromTimestamp", required = false) Timestamp fromTimestamp,
+            @RequestParam(name = "toTimestamp", required = false) Timestamp toTimestamp,
+            @RequestParam(name = "format", defaultValue = "ndjson") ExportFormat format,
+            @RequestParam(name = "gzip", defaultValue = "false") boolean gzip,
+            HttpServletRequest request) {
+        log.info("exportRoutes Controller Started");
+        return response(request, "routes", format, gzip, exportService.exportRoutes(imei, truckId, truckNo, transporterId,
+                deviceId, fromTimestamp, toTimestamp, format, gzip));
+    }
+
+    private ResponseEntity<StreamingResponseBody> response(HttpServletRequest request, String name, ExportFormat format,
+                                                           boolean gzip, StreamingResponseBody body) {
+        // a large export outlasts spring.mvc.async.request-timeout, so it gets its own limit
+        WebAsyncUtils.getAsyncManager(request).registerCallableInterceptor(ExportController.class,
+                new CallableProcessingInterceptor() {
+                    @Override
+                    public <T> void beforeConcurrentHandling(NativeWebRequest asyncRequest, Callable<T> task) {
+                        ((AsyncWebRequest) asyncRequest).setTimeout(requestTimeoutMs);
+                    }
+                });
+        String filename = name + "." + format.getExtension() + (gzip ? ".gz" : "");
+        return ResponseEntity.status(HttpStatus.OK)
+                .header(HttpHeaders.CONTENT_TYPE, gzip ? "application/gzip" : format.getContentType() + ";charset=UTF-8")
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .body(body);
+    }
+}
@@ -0,0 +1,17 @@
+package com.TruckBooking.export.Converter;
+
+import com.TruckBooking.export.Constants.ExportFormat;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+
+// Lets the format request parameter be given in any case, e.g. format=csv.
+@Component
+public class ExportFormatConverter implements Converter<String, ExportFormat> {
+
+    @Override
+    public ExportFormat convert(String source) {
+        return ExportFormat.valueOf(source.trim().toUpperCase(Locale.ROOT));
+    }
+}
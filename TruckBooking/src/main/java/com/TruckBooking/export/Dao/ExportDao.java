@@ -0,0 +1,168 @@
+package com.TruckBooking.export.Dao;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Repository;
+
+import javax.annotation.PostConstruct;
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Report queries that are read through a JDBC cursor. Postgres only streams with a cursor when
+// autocommit is off, so every method here must run inside a (read-only) transaction.
+// The columns are listed one by one: they are the export's CSV/NDJSON fields, so a column added to
+// a table only shows up in the exports once it is added here.
+@Repository
+public class ExportDao {
+
+    static final String LOAD_COLUMNS = "load_id, loading_point, loading_point_city, loading_point_state,"
+            + " loading_point_latitude, loading_point_longitude, unloading_point, unloading_point_city,"
+            + " unloading_point_state, loading_point2, loading_point_city2, loading_point_state2, unloading_point2,"
+            + " unloading_point_city2, unloading_point_state2, post_load_id, product_type, truck_type, weight,"
+            + " unit_value, rate, no_of_trucks, no_of_tyres, lr, comment, company_name, publish_method, status,"
+            + " posted_on, loading_on, loading_at, bidding_ends_at, timestamp";
+
+    static final String BOOKING_COLUMNS = "b.booking_id, b.transporter_id, b.load_id, b.post_load_id,"
+            + " b.loading_point_city, b.unloading_point_city, b.truck_no, b.driver_name, b.driver_phone_num,"
+            + " b.device_id, b.rate,"
+            // unitValue is stored as the enum ordinal
+            + " CASE b.unit_value WHEN 0 THEN 'PER_TON' WHEN 1 THEN 'PER_TRUCK' END AS unit_value,"
+            + " b.lr, b.remarks, b.damage, b.company_name, b.cancel, b.completed, b.booking_date,"
+            + " b.completed_date, b.timestamp,"
+            + " (SELECT string_agg(t.truck_ids, ' ') FROM booking_data_truck_id t"
+            + " WHERE t.booking_data_booking_id = b.booking_id) AS truck_id";
+
+    static final String INVOICE_COLUMNS = "i.invoice_id, i.invoice_no, i.transporter_id, i.transporter_name,"
+            + " i.shipper_id, i.party_name, i.invoice_amount, i.invoice_status, i.invoice_date, i.due_date, i.due_on,"
+            + " i.invoice_timestamp,"
+            + " (SELECT string_agg(bi.booking_id, ' ') FROM invoice_booking_id bi"
+            + " WHERE bi.invoice_invoice_id = i.invoice_id) AS booking_id";
+
+    // GPS fixes live in route_points; POST /routedata also keeps its row in the legacy routes table,
+    // which is the only place the route id and stopage address are kept
+    static final String ROUTE_POINT_COLUMNS = "r.route_data_id, p.imei, p.device_id, p.truck_id, p.truck_no,"
+            + " p.transporter_id, p.latitude, p.longitude, r.stopage_address, p.stopage_status, p.duration,"
+            + " p.recorded_at AS timestamp";
+
+    static final String ROUTE_COLUMNS = "r.route_data_id, r.imei, r.device_id, r.truck_id, r.truck_no, r.transporter_id,"
+            + " r.latitude, r.longitude, r.stopage_address, r.stopage_status, r.duration, r.timestamp";
+
+    @Autowired
+    DataSource dataSource;
+
+    @Value("${export.fetch-size:1000}")
+    int fetchSize;
+
+    private JdbcTemplate cursorTemplate;
+
+    @PostConstruct
+    public void init() {
+        cursorTemplate = new JdbcTemplate(dataSource);
+        cursorTemplate.setFetchSize(fetchSize);
+    }
+
+    public <T> T streamLoads(String postLoadId, String status, Timestamp fromTimestamp, Timestamp toTimestamp,
+                             ResultSetExtractor<T> extractor) {
+        Where where = new Where()
+                .eq("post_load_id", postLoadId)
+                .eq("status", status)
+                .range("timestamp", fromTimestamp, toTimestamp);
+        return cursorTemplate.query("SELECT " + LOAD_COLUMNS + " FROM load" + where + " ORDER BY timestamp",
+                extractor, where.args());
+    }
+
+    public <T> T streamBookings(String transporterId, String postLoadId, Boolean completed, Boolean cancel,
+                                Timestamp fromTimestamp, Timestamp toTimestamp, ResultSetExtractor<T> extractor) {
+        Where where = new Where()
+                .eq("b.transporter_id", transporterId)
+                .eq("b.post_load_id", postLoadId)
+                .eq("b.completed", completed)
+                .eq("b.cancel", cancel)
+                .range("b.timestamp", fromTimestamp, toTimestamp);
+        String sql = "SELECT " + BOOKING_COLUMNS + " FROM booking_data b" + where + " ORDER BY b.timestamp";
+        return cursorTemplate.query(sql, extractor, where.args());
+    }
+
+    public <T> T streamInvoices(String transporterId, String shipperId, Timestamp fromTimestamp, Timestamp toTimestamp,
+                                ResultSetExtractor<T> extractor) {
+        Where where = new Where()
+                .eq("i.transporter_id", transporterId)
+                .eq("i.shipper_id", shipperId)
+                .range("i.invoice_timestamp", fromTimestamp, toTimestamp);
+        String sql = "SELECT " + INVOICE_COLUMNS + " FROM invoice_services i" + where + " ORDER BY i.invoice_timestamp";
+        return cursorTemplate.query(sql, extractor, where.args());
+    }
+
+    // Every fix in route_points, plus the routes rows that never made it there: those written before
+    // route_points existed and those the ingestion buffer turned away.
+    public <T> T streamRoutes(String imei, String truckId, String truckNo, String transporterId, String deviceId,
+                              Timestamp fromTimestamp, Timestamp toTimestamp, ResultSetExtractor<T> extractor) {
+        Where points = new Where()
+                .eq("p.imei", imei)
+                .eq("p.truck_id", truckId)
+                .eq("p.truck_no", truckNo)
+                .eq("p.transporter_id", transporterId)
+                .eq("p.device_id", deviceId)
+                .range("p.recorded_at", fromTimestamp, toTimestamp);
+        Where legacy = new Where()
+                .eq("r.imei", imei)
+                .eq("r.truck_id", truckId)
+                .eq("r.truck_no", truckNo)
+                .eq("r.transporter_id", transporterId)
+                .eq("r.device_id", deviceId)
+                .range("r.timestamp", fromTimestamp, toTimestamp)
+                .and("NOT EXISTS (SELECT 1 FROM route_points p WHERE p.imei = r.imei AND p.recorded_at = r.timestamp)");
+        String sql = "SELECT " + ROUTE_POINT_COLUMNS + " FROM route_points p"
+                + " LEFT JOIN routes r ON r.imei = p.imei AND r.timestamp = p.recorded_at" + points
+                + " UNION ALL SELECT " + ROUTE_COLUMNS + " FROM routes r" + legacy + " ORDER BY timestamp";
+        List<Object> args = new ArrayList<>(Arrays.asList(points.args()));
+        args.addAll(Arrays.asList(legacy.args()));
+        return cursorTemplate.query(sql, extractor, args.toArray());
+    }
+
+    // WHERE clause built from the filters that were given; column names are never user input
+    private static class Where {
+        private final StringBuilder sql = new StringBuilder();
+        private final List<Object> args = new ArrayList<>();
+
+        private Where eq(String column, Object value) {
+            if (value != null) {
+                sql.append(sql.length() == 0 ? " WHERE " : " AND ").append(column).append(" = ?");
+                args.add(value);
+            }
+            return this;
+        }
+
+        private Where and(String condition) {
+            sql.append(sql.length() == 0 ? " WHERE " : " AND ").append(condition);
+            return this;
+        }
+
+        // both ends included, like the Between finders behind the list endpoints
+        private Where range(String column, Timestamp from, Timestamp to) {
+            if (from != null) {
+                sql.append(sql.length() == 0 ? " WHERE " : " AND ").append(column).append(" >= ?");
+                args.add(from);
+            }
+            if (to != null) {
+                sql.append(sql.length() == 0 ? " WHERE " : " AND ").append(column).append(" <= ?");
+                args.add(to);
+            }
+            return this;
+        }
+
+        private Object[] args() {
+            return args.toArray();
+        }
+
+        @Override
+        public String toString() {
+            return sql.toString();
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.TruckBooking.export.Service;
+
+import com.TruckBooking.export.Constants.ExportFormat;
+import com.TruckBooking.export.Dao.ExportDao;
+import lombok.extern.slf4j.Slf4j;
+import org.json.JSONObject;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Locale;
+import java.util.function.Function;
+import java.util.zip.GZIPOutputStream;
+
+// Writes report rows to the response as they come off the database cursor, so memory use does
+// not depend on how many rows are exported. Column names are turned into the camelCase field
+// names the JSON API uses.
+@Slf4j
+@Service
+public class ExportService {
+
+    @Autowired
+    ExportDao exportDao;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    public StreamingResponseBody exportLoads(String postLoadId, String status, Timestamp fromTimestamp,
+                                             Timestamp toTimestamp, ExportFormat format, boolean gzip) {
+        return body("loads", format, gzip,
+                extractor -> exportDao.streamLoads(postLoadId, status, fromTimestamp, toTimestamp, extractor));
+    }
+
+    public StreamingResponseBody exportBookings(String transporterId, String postLoadId, Boolean completed, Boolean cancel,
+                                                Timestamp fromTimestamp, Timestamp toTimestamp, ExportFormat format,
+                                                boolean gzip) {
+        return body("bookings", format, gzip, extractor -> exportDao.streamBookings(transporterId, postLoadId,
+                completed, cancel, fromTimestamp, toTimestamp, extractor));
+    }
+
+    public StreamingResponseBody exportInvoices(String transporterId, String shipperId, Timestamp fromTimestamp,
+                                                Timestamp toTimestamp, ExportFormat format, boolean gzip) {
+        return body("invoices", format, gzip,
+                extractor -> exportDao.streamInvoices(transporterId, shipperId, fromTimestamp, toTimestamp, extractor));
+    }
+
+    public StreamingResponseBody exportRoutes(String imei, String truckId, String truckNo, String transporterId,
+                                              String deviceId, Timestamp fromTimestamp, Timestamp toTimestamp,
+                                              ExportFormat format, boolean gzip) {
+        return body("routes", format, gzip, extractor -> exportDao.streamRoutes(imei, truckId, truckNo, transporterId,
+                deviceId, fromTimestamp, toTimestamp, extractor));
+    }
+
+    private StreamingResponseBody body(String name, ExportFormat format, boolean gzip,
+                                       Function<ResultSetExtractor<Long>, Long> query) {
+        log.info("export of " + name + " as " + format.getExtension() + (gzip ? ".gz" : "") + " started");
+        return outputStream -> {
+            long start = System.nanoTime();
+            GZIPOutputStream zipped = gzip ? new GZIPOutputStream(outputStream, 8192) : null;
+            Writer writer = new BufferedWriter(new OutputStreamWriter(zipped != null ? zipped : outputStream,
+                    StandardCharsets.UTF_8), 64 * 1024);
+
+            TransactionTemplate read = new TransactionTemplate(transactionManager);
+            read.setReadOnly(true);
+            Long rows;
+            try {
+                rows = read.execute(status -> query.apply(rs -> write(rs, format, writer)));
+            } catch (UncheckedIOException e) {
+                // usually the client went away; the cursor and transaction are closed by now
+                log.info("export of " + name + " aborted: " + e.getCause().getMessage());
+                throw e.getCause();
+            }
+            writer.flush();
+            if (zipped != null)
+                zipped.finish();
+            log.info("export of " + name + " finished: " + rows + " rows in "
+                    + (System.nanoTime() - start) / 1_000_000 + " ms");
+        };
+    }
+
+    private static long write(ResultSet rs, ExportFormat format, Writer writer) throws SQLException {
+        ResultSetMetaData meta = rs.getMetaData();
+        String[] names = new String[meta.getColumnCount()];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = camelCase(meta.getColumnLabel(i + 1));
+        }
+        long rows = 0;
+        try {
+            if (format == ExportFormat.CSV)
+                writeCsvLine(writer, names);
+            Object[] values = new Object[names.length];
+            while (rs.next()) {
+                for (int i = 0; i < names.length; i++) {
+                    values[i] = value(rs.getObject(i + 1));
+                }
+                if (format == ExportFormat.CSV) {
+                    writeCsvLine(writer, values);
+                } else {
+                    JSONObject line = new JSONObject();
+                    for (int i = 0; i < names.length; i++) {
+                        line.put(names[i], values[i] == null ? JSONObject.NULL : values[i]);
+                    }
+                    writer.write(line.toString());
+                    writer.write('\n');
+                }
+                rows++;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return rows;
+    }
+
+    // timestamps and dates as ISO-8601 text, everything else as the driver returns it
+    private static Object value(Object value) {
+        if (value instanceof Timestamp)
+            return ((Timestamp) value).toInstant().toString();
+        if (value instanceof java.sql.Date)
+            return ((java.sql.Date) value).toLocalDate().toString();
+        if (value instanceof Number || value instanceof Boolean || value == null)
+            return value;
+        return value.toString();
+    }
+
+    private static void writeCsvLine(Writer writer, Object[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0)
+                writer.write(',');
+            if (values[i] == null)
+                continue;
+            String text = values[i].toString();
+            if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+                writer.write('"');
+                writer.write(text.replace("\"", "\"\""));
+                writer.write('"');
+            } else {
+                writer.write(text);
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    // some databases report the labels in upper case
+    static String camelCase(String column) {
+        StringBuilder name = new StringBuilder(column.length());
+        boolean upper = false;
+        for (char c : column.toLowerCase(Locale.ROOT).toCharArray()) {
+            if (c == '_') {
+                upper = name.length() > 0;
+            } else {
+                name.append(upper ? Character.toUpperCase(c) : c);
+                upper = false;
+            }
+        }
+        return name.toString();
+    }
+}
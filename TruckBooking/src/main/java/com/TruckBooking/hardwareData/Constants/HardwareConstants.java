@@ -0,0 +1,14 @@
+package com.TruckBooking.hardwareData.Constants;
+
+public class HardwareConstants {
+
+	public static String imeiExists = ": This imei already exists.";
+	public static String deviceIdExists = ": This deviceId already exists.";
+	public static String phoneNoLength = ": The Phone No. must be of 13 digits.";
+
+	// names of the unique constraints on the hardware table
+	public static String imeiConstraint = "uk_hardware_imei";
+	public static String deviceIdConstraint = "uk_hardware_device_id";
+
+	public static int pageSize = 15;
+}
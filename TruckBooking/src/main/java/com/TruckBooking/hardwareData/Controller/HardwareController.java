@@ -1,13 +1,24 @@
 package com.TruckBooking.hardwareData.Controller;
 
 import com.TruckBooking.hardwareData.Model.HardwareDataRequest;
+import com.TruckBooking.hardwareData.Response.BulkHardwareImportResponse;
+import com.TruckBooking.hardwareData.Service.HardwareBulkImportService;
 import com.TruckBooking.hardwareData.Service.HardwareDataServiceImpl;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
 import javax.validation.Valid;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 @CrossOrigin
 @Slf4j
 @RestController
@@ -16,6 +27,9 @@ public class HardwareController {
     @Autowired
     public HardwareDataServiceImpl hardwareDataService;
 
+    @Autowired
+    public HardwareBulkImportService hardwareBulkImportService;
+
     @GetMapping("/hardwareHome")
     public String home(){
         return "Hardware service is working.";
@@ -27,6 +41,27 @@ public class HardwareController {
         return new ResponseEntity<>(hardwareDataService.addHardwareData(hardwareDataRequest), HttpStatus.CREATED);
     }
 
+    @PostMapping(value = "/hardwaredata/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<BulkHardwareImportResponse> bulkHardware(
+            @RequestBody List<HardwareDataRequest> hardwareDataRequests){
+        log.info("Post bulk Controller Started");
+        return new ResponseEntity<>(hardwareBulkImportService.importRows(hardwareDataRequests), HttpStatus.OK);
+    }
+
+    @PostMapping(value = "/hardwaredata/bulk", consumes = "text/csv")
+    public ResponseEntity<BulkHardwareImportResponse> bulkHardwareCsv(@RequestBody String csv) throws IOException {
+        log.info("Post bulk csv Controller Started");
+        return new ResponseEntity<>(hardwareBulkImportService.importCsv(new StringReader(csv)), HttpStatus.OK);
+    }
+
+    @PostMapping(value = "/hardwaredata/bulk", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<BulkHardwareImportResponse> bulkHardwareFile(@RequestParam("file") MultipartFile file) throws IOException {
+        log.info("Post bulk file Controller Started");
+        try (Reader reader = new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8)) {
+            return new ResponseEntity<>(hardwareBulkImportService.importCsv(reader), HttpStatus.OK);
+        }
+    }
+
     @GetMapping("/hardwaredata/{hardwareDataId}")
     public ResponseEntity<Object> findHardwareData(@PathVariable String hardwareDataId){
         log.info("Get by imei Controller Started");
@@ -35,11 +70,12 @@ public class HardwareController {
 
     @GetMapping("/hardwaredata")
     public ResponseEntity<Object> findSpecificHardwareData(
+            @RequestParam(name = "pageNo", required = false) Integer pageNo,
             @RequestParam(name = "imei", required = false) String imei,
             @RequestParam(name = "deviceId", required = false) String deviceId
     ){
         log.info("Get All hardware Data Controller Started");
-        return new ResponseEntity<>(hardwareDataService.getSpecificHardwareData(imei, deviceId), HttpStatus.OK);
+        return new ResponseEntity<>(hardwareDataService.getSpecificHardwareData(pageNo, imei, deviceId), HttpStatus.OK);
     }
 
     @PutMapping("/hardwaredata/{imei}")
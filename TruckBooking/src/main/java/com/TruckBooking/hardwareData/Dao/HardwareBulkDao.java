@@ -0,0 +1,67 @@
+package com.TruckBooking.hardwareData.Dao;
+
+import com.TruckBooking.hardwareData.Entities.Hardware;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Array;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+// JDBC access for provisioning many devices at once.
+@Repository
+public class HardwareBulkDao {
+
+    private static final String INSERT_SQL = "INSERT INTO hardware (hardware_data_id, timestamp, imei, device_id,"
+            + " sim_number, phone_no, truck_id, truck_no) VALUES (?, ?, ?, ?, ?, ?, ?, ?) ON CONFLICT DO NOTHING";
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    // Registered devices matching any of the given imeis or deviceIds, in one round trip.
+    // Only imei and deviceId are filled in.
+    public List<Hardware> findExisting(Collection<String> imeis, Collection<String> deviceIds) {
+        return jdbcTemplate.query("SELECT imei, device_id FROM hardware WHERE imei = ANY (?) OR device_id = ANY (?)",
+                ps -> {
+                    Array imeiArray = ps.getConnection().createArrayOf("varchar", imeis.toArray());
+                    Array deviceIdArray = ps.getConnection().createArrayOf("varchar", deviceIds.toArray());
+                    ps.setArray(1, imeiArray);
+                    ps.setArray(2, deviceIdArray);
+                },
+                (rs, rowNum) -> {
+                    Hardware hardware = new Hardware();
+                    hardware.setImei(rs.getString("imei"));
+                    hardware.setDeviceId(rs.getString("device_id"));
+                    return hardware;
+                });
+    }
+
+    // Which of the given rows are present in the table, by hardwareDataId.
+    public Set<String> findIds(List<Hardware> hardware) {
+        Set<String> ids = new HashSet<>();
+        jdbcTemplate.query("SELECT hardware_data_id FROM hardware WHERE hardware_data_id = ANY (?)",
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("varchar",
+                        hardware.stream().map(Hardware::getHardwareDataId).toArray())),
+                rs -> {
+                    ids.add(rs.getString("hardware_data_id"));
+                });
+        return ids;
+    }
+
+    // Returns the per-row update counts; 0 means the row lost a race with a concurrent insert.
+    public int[][] insertBatch(List<Hardware> hardware, int batchSize) {
+        return jdbcTemplate.batchUpdate(INSERT_SQL, hardware, batchSize, (ps, h) -> {
+            ps.setString(1, h.getHardwareDataId());
+            ps.setTimestamp(2, h.getTimestamp());
+            ps.setString(3, h.getImei());
+            ps.setString(4, h.getDeviceId());
+            ps.setString(5, h.getSimNumber());
+            ps.setString(6, h.getPhoneNo());
+            ps.setString(7, h.getTruckId());
+            ps.setString(8, h.getTruckNo());
+        });
+    }
+}
@@ -1,12 +1,28 @@
 package com.TruckBooking.hardwareData.Dao;
 
+import com.TruckBooking.cache.CacheRegions;
 import com.TruckBooking.hardwareData.Entities.Hardware;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+
+import javax.persistence.QueryHint;
 import java.util.List;
 
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.QueryHints.HINT_CACHE_REGION;
+
 @Repository
 public interface HardwareDataDao extends JpaRepository<Hardware, String> {
+    @QueryHints({@QueryHint(name = HINT_CACHEABLE, value = "true"), @QueryHint(name = HINT_CACHE_REGION, value = CacheRegions.HARDWARE_QUERIES)})
     List<Hardware> findByImei(String imei);
+    @QueryHints({@QueryHint(name = HINT_CACHEABLE, value = "true"), @QueryHint(name = HINT_CACHE_REGION, value = CacheRegions.HARDWARE_QUERIES)})
     List<Hardware> findByDeviceId(String deviceId);
+    // Uncached, for HardwareRegistry: the query cache is per node and would hide another node's
+    // writes for as long again as the registry's own TTL.
+    @Query("select h from Hardware h where h.imei = ?1")
+    List<Hardware> findCurrentByImei(String imei);
+    @Query("select h from Hardware h where h.deviceId = ?1")
+    List<Hardware> findCurrentByDeviceId(String deviceId);
 }
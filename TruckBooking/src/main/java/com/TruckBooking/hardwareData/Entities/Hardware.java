@@ -1,16 +1,26 @@
 package com.TruckBooking.hardwareData.Entities;
 
+import com.TruckBooking.cache.CacheRegions;
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Entity;
 import javax.persistence.Id;
 import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
 import javax.validation.constraints.NotBlank;
 import java.sql.Timestamp;
 
 @Entity
-@Table(name= "hardware")
+@Table(name= "hardware", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_hardware_imei", columnNames = "imei"),
+        @UniqueConstraint(name = "uk_hardware_device_id", columnNames = "deviceId")
+})
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.HARDWARE)
 @Data
 public class Hardware {
 
@@ -32,4 +42,10 @@ public class Hardware {
     @NotBlank(message = "phoneNo can't be left blank.")
     private String phoneNo;
 
+    //Optional, the truck the device is installed in
+    private String truckId;
+
+    //Optional
+    private String truckNo;
+
 }
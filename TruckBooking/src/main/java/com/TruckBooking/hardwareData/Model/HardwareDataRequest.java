@@ -19,4 +19,10 @@ public class HardwareDataRequest {
     @NotBlank(message = "phoneNo can't be left blank.")
     private String phoneNo;
 
+    //Optional, the truck the device is installed in
+    private String truckId;
+
+    //Optional
+    private String truckNo;
+
 }
@@ -0,0 +1,14 @@
+package com.TruckBooking.hardwareData.Response;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BulkHardwareImportResponse {
+    private int total;
+    private int created;
+    private int invalid;
+    private int duplicate;
+    private List<HardwareImportRowResult> rows;
+}
@@ -12,4 +12,6 @@ public class CreateHardwareDataResponse {
     private String deviceId;
     private String simNumber;
     private String phoneNo;
+    private String truckId;
+    private String truckNo;
 }
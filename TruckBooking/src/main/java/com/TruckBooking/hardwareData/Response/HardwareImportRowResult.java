@@ -0,0 +1,21 @@
+package com.TruckBooking.hardwareData.Response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HardwareImportRowResult {
+    // 1-based position of the row in the upload (data rows only, header excluded)
+    private int row;
+    private String imei;
+    private Status status;
+    private String hardwareDataId;
+    private String message;
+
+    public enum Status {
+        CREATED, INVALID, DUPLICATE
+    }
+}
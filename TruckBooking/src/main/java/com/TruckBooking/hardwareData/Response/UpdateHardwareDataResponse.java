@@ -11,4 +11,6 @@ public class UpdateHardwareDataResponse {
     private String deviceId;
     private String simNumber;
     private String phoneNo;
+    private String truckId;
+    private String truckNo;
 }
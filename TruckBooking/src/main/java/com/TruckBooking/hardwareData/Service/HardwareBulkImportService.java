@@ -0,0 +1,308 @@
+package com.TruckBooking.hardwareData.Service;
+
+import com.TruckBooking.LoadsApi.Exception.BusinessException;
+import com.TruckBooking.cache.CacheRegions;
+import com.TruckBooking.cache.SecondLevelCache;
+import com.TruckBooking.hardwareData.Dao.HardwareBulkDao;
+import com.TruckBooking.hardwareData.Entities.Hardware;
+import com.TruckBooking.hardwareData.Model.HardwareDataRequest;
+import com.TruckBooking.hardwareData.Response.BulkHardwareImportResponse;
+import com.TruckBooking.hardwareData.Response.HardwareImportRowResult;
+import com.TruckBooking.hardwareData.Response.HardwareImportRowResult.Status;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+// Provisions many devices in one call: rows are validated in memory, checked against the
+// database with a single query and inserted with JDBC batching inside one transaction.
+@Slf4j
+@Service
+public class HardwareBulkImportService {
+
+    // the first REQUIRED_CSV_COLUMNS are needed on every row; a device fitted later has no truck yet
+    private static final String[] CSV_COLUMNS = {"imei", "deviceId", "simNumber", "phoneNo", "truckId", "truckNo"};
+    private static final int REQUIRED_CSV_COLUMNS = 4;
+
+    @Autowired
+    HardwareBulkDao hardwareBulkDao;
+
+    @Autowired
+    HardwareRegistry hardwareRegistry;
+
+    @Autowired
+    SecondLevelCache secondLevelCache;
+
+    @Value("${hardware.bulk.max-rows:10000}")
+    int maxRows;
+
+    @Value("${hardware.bulk.batch-size:1000}")
+    int batchSize;
+
+    @Transactional(rollbackFor = Exception.class)
+    public BulkHardwareImportResponse importRows(List<HardwareDataRequest> requests) {
+        log.info("bulk hardware import started for " + requests.size() + " rows");
+        return importRows(requests, new HashMap<>());
+    }
+
+    // Expects a header row naming the columns imei, deviceId, simNumber and phoneNo, optionally
+    // followed by truckId and truckNo, in any order; without a header the columns are taken in that
+    // order and a row has either the first four or all six.
+    @Transactional(rollbackFor = Exception.class)
+    public BulkHardwareImportResponse importCsv(Reader csv) throws IOException {
+        List<HardwareDataRequest> requests = new ArrayList<>();
+        Map<Integer, String> parseErrors = new HashMap<>();
+        int[] order = {0, 1, 2, 3, 4, 5};
+        // cells per row as named by the header; 0 without one
+        int width = 0;
+
+        BufferedReader reader = new BufferedReader(csv);
+        boolean first = true;
+        for (String line; (line = reader.readLine()) != null; ) {
+            if (StringUtils.isBlank(line))
+                continue;
+            String[] cells = splitCsvLine(line);
+            if (first) {
+                first = false;
+                if (isHeader(cells)) {
+                    order = columnOrder(cells);
+                    width = cells.length;
+                    continue;
+                }
+            }
+            if (requests.size() == maxRows)
+                throw new BusinessException(": At most " + maxRows + " devices can be imported at once.");
+            if (width > 0 ? cells.length != width
+                    : cells.length != REQUIRED_CSV_COLUMNS && cells.length != CSV_COLUMNS.length) {
+                parseErrors.put(requests.size(), "expected " + (width > 0 ? String.valueOf(width)
+                        : REQUIRED_CSV_COLUMNS + " or " + CSV_COLUMNS.length) + " columns but found " + cells.length);
+                requests.add(new HardwareDataRequest());
+                continue;
+            }
+            HardwareDataRequest request = new HardwareDataRequest();
+            request.setImei(cells[order[0]]);
+            request.setDeviceId(cells[order[1]]);
+            request.setSimNumber(cells[order[2]]);
+            request.setPhoneNo(cells[order[3]]);
+            request.setTruckId(cell(cells, order[4]));
+            request.setTruckNo(cell(cells, order[5]));
+            requests.add(request);
+        }
+        log.info("bulk hardware csv import started for " + requests.size() + " rows");
+        return importRows(requests, parseErrors);
+    }
+
+    private BulkHardwareImportResponse importRows(List<HardwareDataRequest> requests, Map<Integer, String> parseErrors) {
+        if (requests.isEmpty())
+            throw new BusinessException(": No devices to import.");
+        if (requests.size() > maxRows)
+            throw new BusinessException(": At most " + maxRows + " devices can be imported at once.");
+
+        List<HardwareImportRowResult> results = new ArrayList<>(requests.size());
+        List<Hardware> candidates = new ArrayList<>();
+        List<HardwareImportRowResult> candidateResults = new ArrayList<>();
+        Set<String> imeis = new HashSet<>();
+        Set<String> deviceIds = new HashSet<>();
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+
+        // 1. validate every row in memory, including duplicates within the upload itself
+        for (int i = 0; i < requests.size(); i++) {
+            HardwareDataRequest request = requests.get(i);
+            HardwareImportRowResult result = new HardwareImportRowResult(i + 1, trim(request.getImei()), null, null, null);
+            results.add(result);
+
+            String error = parseErrors.containsKey(i) ? parseErrors.get(i) : validate(request);
+            if (error != null) {
+                result.setStatus(Status.INVALID);
+                result.setMessage(error);
+                continue;
+            }
+            String imei = trim(request.getImei());
+            String deviceId = trim(request.getDeviceId());
+            if (!imeis.add(imei)) {
+                result.setStatus(Status.DUPLICATE);
+                result.setMessage("imei appears more than once in the upload");
+                continue;
+            }
+            if (!deviceIds.add(deviceId)) {
+                result.setStatus(Status.DUPLICATE);
+                result.setMessage("deviceId appears more than once in the upload");
+                continue;
+            }
+
+            Hardware hardware = new Hardware();
+            hardware.setHardwareDataId("hardwareDataID:" + UUID.randomUUID());
+            hardware.setTimestamp(now);
+            hardware.setImei(imei);
+            hardware.setDeviceId(deviceId);
+            hardware.setSimNumber(trim(request.getSimNumber()));
+            hardware.setPhoneNo(trim(request.getPhoneNo()));
+            hardware.setTruckId(StringUtils.trimToNull(request.getTruckId()));
+            hardware.setTruckNo(StringUtils.trimToNull(request.getTruckNo()));
+            candidates.add(hardware);
+            candidateResults.add(result);
+        }
+
+        // 2. one set-based query for everything that is already registered
+        Set<String> existingImeis = new HashSet<>();
+        Set<String> existingDeviceIds = new HashSet<>();
+        if (!candidates.isEmpty()) {
+            for (Hardware existing : hardwareBulkDao.findExisting(imeis, deviceIds)) {
+                existingImeis.add(existing.getImei());
+                existingDeviceIds.add(existing.getDeviceId());
+            }
+        }
+
+        List<Hardware> toInsert = new ArrayList<>(candidates.size());
+        List<HardwareImportRowResult> insertResults = new ArrayList<>(candidates.size());
+        for (int i = 0; i < candidates.size(); i++) {
+            Hardware hardware = candidates.get(i);
+            HardwareImportRowResult result = candidateResults.get(i);
+            if (existingImeis.contains(hardware.getImei())) {
+                result.setStatus(Status.DUPLICATE);
+                result.setMessage("This imei already exists.");
+            } else if (existingDeviceIds.contains(hardware.getDeviceId())) {
+                result.setStatus(Status.DUPLICATE);
+                result.setMessage("This deviceId already exists.");
+            } else {
+                toInsert.add(hardware);
+                insertResults.add(result);
+            }
+        }
+
+        // 3. batched insert; ON CONFLICT skips rows registered concurrently since the check above
+        if (!toInsert.isEmpty()) {
+            int[][] counts = hardwareBulkDao.insertBatch(toInsert, batchSize);
+            // the insert bypasses Hibernate, so cached lookups that found nothing for these devices would stay stale
+            secondLevelCache.evictAfterCommit(CacheRegions.HARDWARE_QUERIES);
+            Set<String> inserted = null;
+            int i = 0;
+            for (int[] batch : counts) {
+                for (int count : batch) {
+                    Hardware hardware = toInsert.get(i);
+                    HardwareImportRowResult result = insertResults.get(i++);
+                    if (count == Statement.SUCCESS_NO_INFO) {
+                        // rewritten batches do not report per-row counts; ask the table instead
+                        if (inserted == null)
+                            inserted = hardwareBulkDao.findIds(toInsert);
+                        count = inserted.contains(hardware.getHardwareDataId()) ? 1 : 0;
+                    }
+                    if (count == 0) {
+                        result.setStatus(Status.DUPLICATE);
+                        result.setMessage("imei or deviceId was registered concurrently");
+                    } else {
+                        result.setStatus(Status.CREATED);
+                        result.setHardwareDataId(hardware.getHardwareDataId());
+                        hardwareRegistry.putAfterCommit(hardware);
+                    }
+                }
+            }
+        }
+
+        BulkHardwareImportResponse response = new BulkHardwareImportResponse();
+        response.setTotal(results.size());
+        for (HardwareImportRowResult result : results) {
+            if (result.getStatus() == Status.CREATED)
+                response.setCreated(response.getCreated() + 1);
+            else if (result.getStatus() == Status.DUPLICATE)
+                response.setDuplicate(response.getDuplicate() + 1);
+            else
+                response.setInvalid(response.getInvalid() + 1);
+        }
+        response.setRows(results);
+        log.info("bulk hardware import created " + response.getCreated() + " of " + response.getTotal() + " devices");
+        return response;
+    }
+
+    private static String validate(HardwareDataRequest request) {
+        if (StringUtils.isBlank(request.getImei()))
+            return "imei can't be left blank.";
+        if (StringUtils.isBlank(request.getDeviceId()))
+            return "deviceId can't be left blank.";
+        if (StringUtils.isBlank(request.getSimNumber()))
+            return "simNumber can't be left blank.";
+        if (StringUtils.isBlank(request.getPhoneNo()))
+            return "phoneNo can't be left blank.";
+        if (request.getPhoneNo().trim().length() != 13)
+            return "The Phone No. must be of 13 digits.";
+        return null;
+    }
+
+    private static String trim(String value) {
+        return value == null ? null : value.trim();
+    }
+
+    private static boolean isHeader(String[] cells) {
+        for (String cell : cells) {
+            if ("imei".equalsIgnoreCase(cell))
+                return true;
+        }
+        return false;
+    }
+
+    // Position of each of CSV_COLUMNS in the header, -1 for an optional column it leaves out.
+    private static int[] columnOrder(String[] header) {
+        int[] order = new int[CSV_COLUMNS.length];
+        int found = 0;
+        for (int c = 0; c < CSV_COLUMNS.length; c++) {
+            order[c] = -1;
+            for (int h = 0; h < header.length; h++) {
+                if (CSV_COLUMNS[c].equalsIgnoreCase(header[h]))
+                    order[c] = h;
+            }
+            if (order[c] >= 0)
+                found++;
+            else if (c < REQUIRED_CSV_COLUMNS)
+                throw new BusinessException(": CSV header is missing the " + CSV_COLUMNS[c] + " column.");
+        }
+        if (header.length != found)
+            throw new BusinessException(": CSV may only have the columns imei, deviceId, simNumber, phoneNo, truckId"
+                    + " and truckNo, each once.");
+        return order;
+    }
+
+    // The cell at index, or null for a column the row does not have.
+    private static String cell(String[] cells, int index) {
+        return index >= 0 && index < cells.length ? cells[index] : null;
+    }
+
+    // Splits one CSV line, honouring double quotes around values.
+    private static String[] splitCsvLine(String line) {
+        List<String> cells = new ArrayList<>();
+        StringBuilder cell = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char ch = line.charAt(i);
+            if (ch == '"') {
+                if (quoted && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    cell.append('"');
+                    i++;
+                } else {
+                    quoted = !quoted;
+                }
+            } else if (ch == ',' && !quoted) {
+                cells.add(cell.toString().trim());
+                cell.setLength(0);
+            } else {
+                cell.append(ch);
+            }
+        }
+        cells.add(cell.toString().trim());
+        return cells.toArray(new String[0]);
+    }
+}
@@ -15,7 +15,7 @@ public interface HardwareDataService {
 
     public Optional<Hardware> getHardwareData(String hardwareDataId);
 
-    public List<Hardware> getSpecificHardwareData(String imei, String deviceId);
+    public List<Hardware> getSpecificHardwareData(Integer pageNo, String imei, String deviceId);
 
     public UpdateHardwareDataResponse updateHardwareDataResponse(String imei, HardwareDataRequest hardwareDataRequest);
 }
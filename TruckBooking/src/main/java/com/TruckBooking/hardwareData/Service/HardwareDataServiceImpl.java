@@ -1,7 +1,9 @@
 package com.TruckBooking.hardwareData.Service;
 
 import com.TruckBooking.LoadsApi.Exception.BusinessException;
+import com.TruckBooking.LoadsApi.Exception.ConstraintViolations;
 import com.TruckBooking.LoadsApi.Exception.EntityNotFoundException;
+import com.TruckBooking.hardwareData.Constants.HardwareConstants;
 import com.TruckBooking.hardwareData.Dao.HardwareDataDao;
 import com.TruckBooking.hardwareData.Entities.Hardware;
 import com.TruckBooking.hardwareData.Model.HardwareDataRequest;
@@ -10,6 +12,10 @@ import com.TruckBooking.hardwareData.Response.UpdateHardwareDataResponse;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -24,18 +30,21 @@ public class HardwareDataServiceImpl implements HardwareDataService{
     @Autowired
     HardwareDataDao hardwareDataDao;
 
+    @Autowired
+    HardwareRegistry hardwareRegistry;
+
     @Transactional(rollbackFor = Exception.class)
     @Override
     public CreateHardwareDataResponse addHardwareData(HardwareDataRequest hardwareDataRequest) {
 
-        List<Hardware> hardwareList = hardwareDataDao.findByImei(hardwareDataRequest.getImei().trim());
-        if (!hardwareList.isEmpty()) {
-            throw new BusinessException(": This imei already exists.");
+        // cheap early answer for the common duplicate; the unique constraint below is what actually guarantees it
+        if (hardwareRegistry.findByImei(hardwareDataRequest.getImei().trim()) != null) {
+            throw new BusinessException(HardwareConstants.imeiExists);
         }
 
         else {
             if(hardwareDataRequest.getPhoneNo().trim().length() != 13){
-                throw new BusinessException(": The Phone No. must be of 13 digits.");
+                throw new BusinessException(HardwareConstants.phoneNoLength);
             }
 
             else {
@@ -63,7 +72,19 @@ public class HardwareDataServiceImpl implements HardwareDataService{
                 hardware.setPhoneNo(temp);
                 response.setPhoneNo(temp);
 
-                hardwareDataDao.save(hardware);
+                temp = hardwareDataRequest.getTruckId();
+                if (StringUtils.isNotBlank(temp)) {
+                    hardware.setTruckId(temp.trim());
+                    response.setTruckId(temp.trim());
+                }
+
+                temp = hardwareDataRequest.getTruckNo();
+                if (StringUtils.isNotBlank(temp)) {
+                    hardware.setTruckNo(temp.trim());
+                    response.setTruckNo(temp.trim());
+                }
+
+                saveAndFlush(hardware);
                 log.info("hardwareData is saved to the database");
                 log.info("addHardwareData service response is returned");
 
@@ -88,27 +109,30 @@ public class HardwareDataServiceImpl implements HardwareDataService{
 
     @Transactional(readOnly = true, rollbackFor = Exception.class)
     @Override
-    public List<Hardware> getSpecificHardwareData(String imei, String deviceId) {
+    public List<Hardware> getSpecificHardwareData(Integer pageNo, String imei, String deviceId) {
 
         if(imei != null){
-            List<Hardware> hardwareDataList = hardwareDataDao.findByImei(imei);
+            Hardware hardware = hardwareRegistry.findByImei(imei);
 
-            if(hardwareDataList.isEmpty())
+            if(hardware == null)
                 throw new EntityNotFoundException(Hardware.class, "imei", imei);
             else
-                return hardwareDataList;
+                return List.of(hardware);
         }
 
         if(deviceId != null){
-            List<Hardware> hardwareDataList = hardwareDataDao.findByDeviceId(deviceId);
+            Hardware hardware = hardwareRegistry.findByDeviceId(deviceId);
 
-            if(hardwareDataList.isEmpty())
+            if(hardware == null)
                 throw new EntityNotFoundException(Hardware.class, "deviceId", deviceId);
             else
-                return hardwareDataList;
+                return List.of(hardware);
         }
 
-        return hardwareDataDao.findAll();
+        if (pageNo == null)
+            pageNo = 0;
+        Pageable page = PageRequest.of(pageNo, HardwareConstants.pageSize, Sort.Direction.DESC, "timestamp");
+        return hardwareDataDao.findAll(page).getContent();
     }
 
     @Transactional(rollbackFor = Exception.class)
@@ -121,7 +145,7 @@ public class HardwareDataServiceImpl implements HardwareDataService{
             throw new EntityNotFoundException(Hardware.class, "imei", imei);
 
         if(updateHardwareDataRequest.getPhoneNo().trim().length() != 13)
-            throw new BusinessException(": The Phone No. must be of 13 digits.");
+            throw new BusinessException(HardwareConstants.phoneNoLength);
 
         String temp = "";
         Hardware hardware = hardwareList.get(0);
@@ -151,9 +175,36 @@ public class HardwareDataServiceImpl implements HardwareDataService{
             response.setPhoneNo(temp.trim());
         }
 
-        hardwareDataDao.save(hardware);
+        temp = updateHardwareDataRequest.getTruckId();
+        if(StringUtils.isNotBlank(temp)) {
+            hardware.setTruckId(temp.trim());
+            response.setTruckId(temp.trim());
+        }
+
+        temp = updateHardwareDataRequest.getTruckNo();
+        if(StringUtils.isNotBlank(temp)) {
+            hardware.setTruckNo(temp.trim());
+            response.setTruckNo(temp.trim());
+        }
+
+        saveAndFlush(hardware);
         log.info("Hardware Data is updated in the database");
         log.info("updateHardwareData service response is returned");
         return response;
     }
+
+    // Flushes so a duplicate imei/deviceId surfaces here as a constraint violation instead of at commit.
+    private void saveAndFlush(Hardware hardware) {
+        try {
+            hardwareDataDao.saveAndFlush(hardware);
+        } catch (DataIntegrityViolationException e) {
+            String constraint = ConstraintViolations.name(e);
+            if (HardwareConstants.deviceIdConstraint.equals(constraint))
+                throw new BusinessException(HardwareConstants.deviceIdExists);
+            if (HardwareConstants.imeiConstraint.equals(constraint))
+                throw new BusinessException(HardwareConstants.imeiExists);
+            throw e;
+        }
+        hardwareRegistry.putAfterCommit(hardware);
+    }
 }
@@ -0,0 +1,148 @@
+package com.TruckBooking.hardwareData.Service;
+
+import com.TruckBooking.hardwareData.Dao.HardwareDataDao;
+import com.TruckBooking.hardwareData.Entities.Hardware;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// Read-through cache of registered devices by imei and by deviceId. The hardware table is small,
+// so it is loaded whole at startup; route ingestion then resolves devices without touching the
+// database. Unknown imeis are remembered for a short while so a misconfigured device cannot
+// turn every point into a query. Each node only sees its own writes, so known devices are read
+// again after a few minutes, which bounds how long another node's reassignment goes unnoticed.
+@Slf4j
+@Component
+public class HardwareRegistry {
+
+    @Autowired
+    HardwareDataDao hardwareDataDao;
+
+    @Value("${hardware.cache.ttl-seconds:300}")
+    long ttlSeconds;
+
+    @Value("${hardware.cache.negative-ttl-seconds:60}")
+    long negativeTtlSeconds;
+
+    private static final class Entry {
+        private final Hardware hardware;
+        private final long expiresAt;
+
+        private Entry(Hardware hardware, long expiresAt) {
+            this.hardware = hardware;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private final Map<String, Entry> byImei = new ConcurrentHashMap<>();
+
+    private final Map<String, Entry> byDeviceId = new ConcurrentHashMap<>();
+
+    private final Map<String, Long> unknownImeiUntil = new ConcurrentHashMap<>();
+
+    private final Counter hits;
+    private final Counter misses;
+
+    @Autowired
+    public HardwareRegistry(MeterRegistry meterRegistry) {
+        hits = meterRegistry.counter("hardware.cache.lookups", "result", "hit");
+        misses = meterRegistry.counter("hardware.cache.lookups", "result", "miss");
+        Gauge.builder("hardware.cache.size", byImei, Map::size).register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        List<Hardware> all = hardwareDataDao.findAll();
+        for (Hardware hardware : all) {
+            put(hardware);
+        }
+        log.info("hardware registry loaded with " + all.size() + " devices");
+    }
+
+    public Hardware findByImei(String imei) {
+        Entry entry = byImei.get(imei);
+        if (entry != null && entry.expiresAt > System.currentTimeMillis()) {
+            hits.increment();
+            return entry.hardware;
+        }
+        Long until = unknownImeiUntil.get(imei);
+        if (until != null && until > System.currentTimeMillis()) {
+            hits.increment();
+            return null;
+        }
+        misses.increment();
+        List<Hardware> found = hardwareDataDao.findCurrentByImei(imei);
+        if (found.isEmpty()) {
+            if (entry != null)
+                evict(entry);
+            if (unknownImeiUntil.size() > 10000)
+                unknownImeiUntil.values().removeIf(expiry -> expiry <= System.currentTimeMillis());
+            unknownImeiUntil.put(imei, System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(negativeTtlSeconds));
+            return null;
+        }
+        put(found.get(0));
+        return found.get(0);
+    }
+
+    public Hardware findByDeviceId(String deviceId) {
+        Entry entry = byDeviceId.get(deviceId);
+        if (entry != null && entry.expiresAt > System.currentTimeMillis()) {
+            hits.increment();
+            return entry.hardware;
+        }
+        misses.increment();
+        List<Hardware> found = hardwareDataDao.findCurrentByDeviceId(deviceId);
+        if (found.isEmpty()) {
+            if (entry != null)
+                evict(entry);
+            return null;
+        }
+        put(found.get(0));
+        return found.get(0);
+    }
+
+    // Updates the cache once the surrounding transaction has committed, or straight away
+    // when there is none.
+    public void putAfterCommit(Hardware hardware) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            put(hardware);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                put(hardware);
+            }
+        });
+    }
+
+    private void put(Hardware hardware) {
+        Entry entry = new Entry(hardware, System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(ttlSeconds));
+        Entry previous = byImei.put(hardware.getImei(), entry);
+        if (previous != null && previous.hardware.getDeviceId() != null
+                && !previous.hardware.getDeviceId().equals(hardware.getDeviceId()))
+            byDeviceId.remove(previous.hardware.getDeviceId(), previous);
+        if (hardware.getDeviceId() != null)
+            byDeviceId.put(hardware.getDeviceId(), entry);
+        unknownImeiUntil.remove(hardware.getImei());
+    }
+
+    private void evict(Entry entry) {
+        byImei.remove(entry.hardware.getImei(), entry);
+        if (entry.hardware.getDeviceId() != null)
+            byDeviceId.remove(entry.hardware.getDeviceId(), entry);
+    }
+}
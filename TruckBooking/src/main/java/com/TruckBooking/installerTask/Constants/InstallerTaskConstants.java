@@ -0,0 +1,13 @@
+package com.TruckBooking.installerTask.Constants;
+
+public class InstallerTaskConstants {
+
+    public static String vehicleNoExists = ": This vehicleNo already exists.";
+
+    // name of the unique constraint on installer_task.vehicle_no
+    public static String vehicleNoConstraint = "uk_installer_task_vehicle_no";
+
+    public static int pageSize = 15;
+
+    public static int maxPageSize = 500;
+}
@@ -33,15 +33,36 @@ public class InstallerTaskController {
 
     @GetMapping("/installerTask")
     public ResponseEntity<List<InstallerTask>> findSpecificInstallerTask(
+            @RequestParam(name = "pageNo", required = false) Integer pageNo,
             @RequestParam(name = "vehicleNo", required = false) String vehicleNo,
-            @RequestParam(name = "gpsInstallerId", required = false) String gpsInstallerId
+            @RequestParam(name = "gpsInstallerId", required = false) String gpsInstallerId,
+            @RequestParam(name = "installerTaskStatus", required = false) InstallerTask.InstallerTaskStatus installerTaskStatus
             )
     {
         log.info("Get Controller with params Started");
-        return new ResponseEntity<>(installerTaskService.getSpecifiedInstallerTasks(vehicleNo, gpsInstallerId),
+        return new ResponseEntity<>(installerTaskService.getSpecifiedInstallerTasks(pageNo, vehicleNo, gpsInstallerId,
+                installerTaskStatus), HttpStatus.OK);
+    }
+
+    @GetMapping("/installerTask/scroll")
+    public ResponseEntity<List<InstallerTask>> scrollInstallerTasks(
+            @RequestParam(name = "afterTimestamp", required = false) Long afterTimestamp,
+            @RequestParam(name = "afterId", required = false) String afterId,
+            @RequestParam(name = "limit", required = false) Integer limit)
+    {
+        log.info("Get scroll Controller Started");
+        return new ResponseEntity<>(installerTaskService.getInstallerTasksAfter(afterTimestamp, afterId, limit),
                 HttpStatus.OK);
     }
 
+    @PostMapping("/installerTask/claim")
+    public ResponseEntity<InstallerTask> claimInstallerTask(@RequestParam(name = "gpsInstallerId") String gpsInstallerId){
+        log.info("Post claim Controller Started");
+        return installerTaskService.claimNextInstallerTask(gpsInstallerId)
+                .map(installerTask -> new ResponseEntity<>(installerTask, HttpStatus.OK))
+                .orElseGet(() -> new ResponseEntity<>(HttpStatus.NO_CONTENT));
+    }
+
     @GetMapping("/installerTask/{installerTaskId}")
     public ResponseEntity<Object> findInstallerTask(@PathVariable String installerTaskId) {
         log.info("Get by installerTaskId Controller Started");
@@ -2,12 +2,34 @@ package com.TruckBooking.installerTask.Dao;
 
 
 import com.TruckBooking.installerTask.Entities.InstallerTask;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
+import java.sql.Timestamp;
 import java.util.List;
+import java.util.Optional;
 
 public interface InstallerTaskDao extends JpaRepository<InstallerTask, String>  {
     List<InstallerTask> findByVehicleNo(String vehicleNo);
 
-    List<InstallerTask> findByGpsInstallerId(String gpsInstallerId);
+    List<InstallerTask> findByGpsInstallerId(String gpsInstallerId, Pageable pageable);
+
+    List<InstallerTask> findByInstallerTaskStatus(InstallerTask.InstallerTaskStatus installerTaskStatus, Pageable pageable);
+
+    // keyset page: everything strictly older than the (timestamp, installerTaskId) of the last row seen
+    @Query("select t from InstallerTask t where t.timestamp < :timestamp"
+            + " or (t.timestamp = :timestamp and t.installerTaskId < :installerTaskId)"
+            + " order by t.timestamp desc, t.installerTaskId desc")
+    List<InstallerTask> findPageBefore(Timestamp timestamp, String installerTaskId, Pageable pageable);
+
+    @Query("select t from InstallerTask t order by t.timestamp desc, t.installerTaskId desc")
+    List<InstallerTask> findFirstPage(Pageable pageable);
+
+    // Locks the oldest Pending task this installer may take. Rows already locked by another
+    // claim are skipped rather than waited on, so concurrent installers never get the same task.
+    @Query(value = "SELECT * FROM installer_task WHERE installer_task_status = 'Pending'"
+            + " AND (gps_installer_id IS NULL OR gps_installer_id = :gpsInstallerId)"
+            + " ORDER BY timestamp LIMIT 1 FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    Optional<InstallerTask> lockNextPending(String gpsInstallerId);
 }
@@ -9,7 +9,13 @@ import java.sql.Timestamp;
 
 
 @Entity
-@Table(name= "installer_task")
+@Table(name= "installer_task",
+        uniqueConstraints = @UniqueConstraint(name = "uk_installer_task_vehicle_no", columnNames = "vehicleNo"),
+        indexes = {
+                @Index(name = "idx_installer_task_gps_installer_id", columnList = "gpsInstallerId, timestamp"),
+                @Index(name = "idx_installer_task_status_timestamp", columnList = "installerTaskStatus, timestamp"),
+                @Index(name = "idx_installer_task_timestamp", columnList = "timestamp, installerTaskId")
+        })
 @Data
 public class InstallerTask {
 
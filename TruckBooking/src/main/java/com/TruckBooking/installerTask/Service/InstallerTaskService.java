@@ -6,12 +6,18 @@ import com.TruckBooking.installerTask.Response.CreateInstallerTaskResponse;
 import com.TruckBooking.installerTask.Response.UpdateInstallerTaskResponse;
 
 import java.util.List;
+import java.util.Optional;
 
 public interface InstallerTaskService {
 
     public CreateInstallerTaskResponse addInstallerTask(InstallerTaskRequest installerTaskRequest);
 
-    public List<InstallerTask> getSpecifiedInstallerTasks(String vehicleNo, String gpsInstallerId);
+    public List<InstallerTask> getSpecifiedInstallerTasks(Integer pageNo, String vehicleNo, String gpsInstallerId,
+                                                          InstallerTask.InstallerTaskStatus installerTaskStatus);
+
+    public List<InstallerTask> getInstallerTasksAfter(Long afterTimestamp, String afterId, Integer limit);
+
+    public Optional<InstallerTask> claimNextInstallerTask(String gpsInstallerId);
 
     public InstallerTask getInstallerTask(String installerTaskId);
 
@@ -1,7 +1,9 @@
 package com.TruckBooking.installerTask.Service;
 
 import com.TruckBooking.LoadsApi.Exception.BusinessException;
+import com.TruckBooking.LoadsApi.Exception.ConstraintViolations;
 import com.TruckBooking.LoadsApi.Exception.EntityNotFoundException;
+import com.TruckBooking.installerTask.Constants.InstallerTaskConstants;
 import com.TruckBooking.installerTask.Dao.InstallerTaskDao;
 import com.TruckBooking.installerTask.Entities.InstallerTask;
 import com.TruckBooking.installerTask.Model.InstallerTaskRequest;
@@ -10,9 +12,14 @@ import com.TruckBooking.installerTask.Response.UpdateInstallerTaskResponse;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Timestamp;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -28,9 +35,9 @@ public class InstallerTaskServiceImpl implements InstallerTaskService {
     @Override
     public CreateInstallerTaskResponse addInstallerTask(InstallerTaskRequest installerTaskRequest) {
 
-        List<InstallerTask> installerTaskList = installerTaskDao.findByVehicleNo(installerTaskRequest.getVehicleNo());
+        List<InstallerTask> installerTaskList = installerTaskDao.findByVehicleNo(installerTaskRequest.getVehicleNo().trim());
         if (!installerTaskList.isEmpty()) {
-            throw new BusinessException(": This vehicleNo already exists.");
+            throw new BusinessException(InstallerTaskConstants.vehicleNoExists);
         }
         else {
             String temp = "";
@@ -99,7 +106,14 @@ public class InstallerTaskServiceImpl implements InstallerTaskService {
 
 
 
-            installerTaskDao.save(installerTask);
+            try {
+                // flush so a concurrent insert of the same vehicleNo fails here on the unique constraint
+                installerTaskDao.saveAndFlush(installerTask);
+            } catch (DataIntegrityViolationException e) {
+                if (InstallerTaskConstants.vehicleNoConstraint.equals(ConstraintViolations.name(e)))
+                    throw new BusinessException(InstallerTaskConstants.vehicleNoExists);
+                throw e;
+            }
             log.info("installer Task Data is saved to the database");
             log.info("addInstallerTask service response is returned");
             return response;
@@ -110,9 +124,14 @@ public class InstallerTaskServiceImpl implements InstallerTaskService {
 
     @Transactional(readOnly = true, rollbackFor = Exception.class)
     @Override
-    public List<InstallerTask> getSpecifiedInstallerTasks(String vehicleNo, String gpsInstallerId) {
+    public List<InstallerTask> getSpecifiedInstallerTasks(Integer pageNo, String vehicleNo, String gpsInstallerId,
+                                                          InstallerTask.InstallerTaskStatus installerTaskStatus) {
         log.info("getSpecifiedInstallerTasks service with params started");
 
+        if (pageNo == null)
+            pageNo = 0;
+        Pageable page = PageRequest.of(pageNo, InstallerTaskConstants.pageSize, Sort.Direction.DESC, "timestamp");
+
         if(vehicleNo != null){
             List<InstallerTask> installerTaskList = installerTaskDao.findByVehicleNo(vehicleNo);
 
@@ -123,7 +142,7 @@ public class InstallerTaskServiceImpl implements InstallerTaskService {
         }
 
         if(gpsInstallerId != null){
-            List<InstallerTask> installerTaskList = installerTaskDao.findByGpsInstallerId(gpsInstallerId);
+            List<InstallerTask> installerTaskList = installerTaskDao.findByGpsInstallerId(gpsInstallerId, page);
 
             if(installerTaskList.isEmpty())
                 throw new EntityNotFoundException(InstallerTask.class, "GpsInstallerId", gpsInstallerId);
@@ -131,8 +150,47 @@ public class InstallerTaskServiceImpl implements InstallerTaskService {
                 return installerTaskList;
         }
 
+        if (installerTaskStatus != null)
+            return installerTaskDao.findByInstallerTaskStatus(installerTaskStatus, page);
+
         log.info("getSpecifiedInstallerTasks service response is returned");
-        return installerTaskDao.findAll();
+        return installerTaskDao.findAll(page).getContent();
+    }
+
+    @Transactional(readOnly = true, rollbackFor = Exception.class)
+    @Override
+    public List<InstallerTask> getInstallerTasksAfter(Long afterTimestamp, String afterId, Integer limit) {
+        log.info("getInstallerTasksAfter service started");
+        int size = limit == null ? InstallerTaskConstants.pageSize : limit;
+        if (size < 1 || size > InstallerTaskConstants.maxPageSize)
+            throw new BusinessException(": limit must be between 1 and " + InstallerTaskConstants.maxPageSize + ".");
+        Pageable page = PageRequest.of(0, size);
+
+        if (afterTimestamp == null)
+            return installerTaskDao.findFirstPage(page);
+        if (StringUtils.isBlank(afterId))
+            throw new BusinessException(": afterId must be given with afterTimestamp.");
+        return installerTaskDao.findPageBefore(new Timestamp(afterTimestamp), afterId, page);
+    }
+
+    @Transactional(rollbackFor = Exception.class)
+    @Override
+    public Optional<InstallerTask> claimNextInstallerTask(String gpsInstallerId) {
+        log.info("claimNextInstallerTask service started");
+        if (StringUtils.isBlank(gpsInstallerId))
+            throw new BusinessException(": gpsInstallerId can't be left blank.");
+
+        Optional<InstallerTask> next = installerTaskDao.lockNextPending(gpsInstallerId.trim());
+        if (next.isEmpty()) {
+            log.info("no Pending installer task left to claim");
+            return next;
+        }
+        InstallerTask installerTask = next.get();
+        installerTask.setGpsInstallerId(gpsInstallerId.trim());
+        installerTask.setInstallerTaskStatus(InstallerTask.InstallerTaskStatus.Assigned);
+        installerTaskDao.save(installerTask);
+        log.info("installer task " + installerTask.getInstallerTaskId() + " claimed by " + gpsInstallerId);
+        return next;
     }
 
     @Transactional(readOnly = true, rollbackFor = Exception.class)
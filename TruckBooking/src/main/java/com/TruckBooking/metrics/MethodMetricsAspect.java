@@ -0,0 +1,68 @@
+package com.TruckBooking.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+// Times every public method of the application's @Service beans ("service.method"), every
+// @Scheduled job ("scheduled.job") and every mail sent ("mail.send"). Controller timings come
+// from Spring Boot's own http.server.requests. Calls a bean makes to itself are not proxied and
+// so are only counted as part of the outer call.
+@Aspect
+@Component
+public class MethodMetricsAspect {
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Around("within(com.TruckBooking..*) && @within(org.springframework.stereotype.Service)"
+            + " && execution(public * *(..))"
+            + " && !@annotation(org.springframework.scheduling.annotation.Scheduled)")
+    public Object timeService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time("service.method", joinPoint, "class", joinPoint.getSignature().getDeclaringType().getSimpleName(),
+                "method", joinPoint.getSignature().getName());
+    }
+
+    @Around("within(com.TruckBooking..*) && @annotation(org.springframework.scheduling.annotation.Scheduled)")
+    public Object timeScheduled(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time("scheduled.job", joinPoint, "job", jobName(joinPoint));
+    }
+
+    @Around("execution(* org.springframework.mail.javamail.JavaMailSender.send(..))")
+    public Object timeMail(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time("mail.send", joinPoint);
+    }
+
+    // Rows a scheduled job handled in one run, reported by the job itself as "scheduled.job.rows".
+    public static void rows(MeterRegistry meterRegistry, String job, long rows) {
+        Counter.builder("scheduled.job.rows").tag("job", job).register(meterRegistry).increment(rows);
+    }
+
+    private Object time(String name, ProceedingJoinPoint joinPoint, String... tags) throws Throwable {
+        long start = System.nanoTime();
+        String exception = "none";
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            Timer.builder(name)
+                    .tags(tags)
+                    .tag("exception", exception)
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static String jobName(ProceedingJoinPoint joinPoint) {
+        return joinPoint.getSignature().getDeclaringType().getSimpleName() + "." + joinPoint.getSignature().getName();
+    }
+}
@@ -2,7 +2,14 @@ package com.TruckBooking.routeData.Controller;
 
 
 import com.TruckBooking.routeData.Entities.Route;
+import com.TruckBooking.routeData.Entities.Stoppage;
+import com.TruckBooking.routeData.Entities.TruckLatestPosition;
+import com.TruckBooking.routeData.Model.LatestPositionRequest;
 import com.TruckBooking.routeData.Model.RouteDataRequest;
+import com.TruckBooking.routeData.Model.RoutePointBatchRequest;
+import com.TruckBooking.routeData.Response.NearbyTruckResponse;
+import com.TruckBooking.routeData.Response.RouteHistoryResponse;
+import com.TruckBooking.routeData.Response.RoutePointBatchResponse;
 import com.TruckBooking.routeData.Service.RouteDataServiceImpl;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -31,6 +38,79 @@ public class RouteController {
         return new ResponseEntity<>(routeDataService.addRouteData(routeDataRequest), HttpStatus.CREATED);
     }
 
+    @PostMapping("/routedata/batch")
+    public ResponseEntity<RoutePointBatchResponse> routePoints(@Valid @RequestBody RoutePointBatchRequest routePointBatchRequest){
+        log.info("Post batch Controller Started");
+        RoutePointBatchResponse response = routeDataService.addRoutePoints(routePointBatchRequest);
+        if (!response.isQueued())
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header("Retry-After", "1").body(response);
+        return new ResponseEntity<>(response, HttpStatus.ACCEPTED);
+    }
+
+    @GetMapping("/routedata/history")
+    public ResponseEntity<RouteHistoryResponse> findRouteHistory(
+            @RequestParam(name = "imei") String imei,
+            @RequestParam(name = "from", required = false) Long from,
+            @RequestParam(name = "to", required = false) Long to,
+            @RequestParam(name = "after", required = false) Long after,
+            @RequestParam(name = "limit", required = false) Integer limit)
+    {
+        log.info("Get history Controller Started");
+        return new ResponseEntity<>(routeDataService.getRouteHistory(imei, from, to, after, limit), HttpStatus.OK);
+    }
+
+    @GetMapping("/routedata/summary")
+    public ResponseEntity<RouteHistoryResponse> findRouteSummary(
+            @RequestParam(name = "imei") String imei,
+            @RequestParam(name = "from", required = false) Long from,
+            @RequestParam(name = "to", required = false) Long to,
+            @RequestParam(name = "maxPoints", required = false) Integer maxPoints)
+    {
+        log.info("Get summary Controller Started");
+        return new ResponseEntity<>(routeDataService.getRouteSummary(imei, from, to, maxPoints), HttpStatus.OK);
+    }
+
+    @PostMapping("/routedata/latest")
+    public ResponseEntity<List<TruckLatestPosition>> findLatestPositions(@Valid @RequestBody LatestPositionRequest latestPositionRequest){
+        log.info("Post latest positions Controller Started");
+        return new ResponseEntity<>(routeDataService.getLatestPositions(latestPositionRequest), HttpStatus.OK);
+    }
+
+    @GetMapping("/routedata/latest")
+    public ResponseEntity<List<TruckLatestPosition>> findLatestPositions(@RequestParam(name = "transporterId") String transporterId){
+        log.info("Get latest positions Controller Started");
+        return new ResponseEntity<>(routeDataService.getLatestPositions(transporterId), HttpStatus.OK);
+    }
+
+    @GetMapping("/routedata/stoppages")
+    public ResponseEntity<List<Stoppage>> findStoppages(
+            @RequestParam(name = "pageNo", required = false) Integer pageNo,
+            @RequestParam(name = "imei", required = false) String imei,
+            @RequestParam(name = "transporterId", required = false) String transporterId,
+            @RequestParam(name = "from", required = false) Long from,
+            @RequestParam(name = "to", required = false) Long to)
+    {
+        log.info("Get stoppages Controller Started");
+        return new ResponseEntity<>(routeDataService.getStoppages(pageNo, imei, transporterId, from, to), HttpStatus.OK);
+    }
+
+    @GetMapping("/routedata/stoppages/current")
+    public ResponseEntity<Stoppage> findCurrentStoppage(@RequestParam(name = "imei") String imei){
+        log.info("Get current stoppage Controller Started");
+        return new ResponseEntity<>(routeDataService.getCurrentStoppage(imei), HttpStatus.OK);
+    }
+
+    @GetMapping("/routedata/nearby")
+    public ResponseEntity<List<NearbyTruckResponse>> findNearbyTrucks(
+            @RequestParam(name = "latitude") double latitude,
+            @RequestParam(name = "longitude") double longitude,
+            @RequestParam(name = "radiusKm", defaultValue = "50") double radiusKm,
+            @RequestParam(name = "limit", required = false) Integer limit)
+    {
+        log.info("Get nearby trucks Controller Started");
+        return new ResponseEntity<>(routeDataService.getNearbyTrucks(latitude, longitude, radiusKm, limit), HttpStatus.OK);
+    }
+
     @GetMapping("/routedata/{routedataId}")
     public ResponseEntity<Object> findRouteData(@PathVariable String routedataId){
         log.info("Get by routeDataId Controller Started");
@@ -43,12 +123,13 @@ public class RouteController {
             @RequestParam(name = "truckId", required = false) String truckId,
             @RequestParam(name = "truckNo", required = false) String trucNo,
             @RequestParam(name = "transporterId", required = false) String transporterId,
-            @RequestParam(name= "deviceId", required = false) String deviceId)
+            @RequestParam(name= "deviceId", required = false) String deviceId,
+            @RequestParam(name = "pageNo", required = false) Integer pageNo)
     {
         log.info("Get with Params Controller Started");
         return new ResponseEntity<>(
                 routeDataService
-                        .getRelevantRoutesData(imei, truckId, trucNo, transporterId, deviceId), HttpStatus.OK);
+                        .getRelevantRoutesData(imei, truckId, trucNo, transporterId, deviceId, pageNo), HttpStatus.OK);
     }
 
 
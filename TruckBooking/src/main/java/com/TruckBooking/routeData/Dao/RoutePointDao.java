@@ -0,0 +1,158 @@
+package com.TruckBooking.routeData.Dao;
+
+import com.TruckBooking.routeData.Entities.Route;
+import com.TruckBooking.routeData.Entities.TruckLatestPosition;
+import com.TruckBooking.routeData.Model.RoutePoint;
+import com.TruckBooking.routeData.Response.RouteHistoryPoint;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import javax.annotation.PostConstruct;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+// Plain JDBC access to the route_points time series. Points are written in JDBC batches
+// into a table range-partitioned by month on recorded_at, so no JPA entity is created per point.
+@Slf4j
+@Repository
+public class RoutePointDao {
+
+    private static final String INSERT_SQL = "INSERT INTO route_points (imei, recorded_at, device_id, truck_id, truck_no,"
+            + " transporter_id, latitude, longitude, stopage_status, duration)"
+            + " VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?) ON CONFLICT DO NOTHING";
+
+    private static final String HISTORY_COLUMNS = "recorded_at, latitude, longitude, stopage_status, duration";
+
+    private static final RowMapper<RouteHistoryPoint> HISTORY_MAPPER = (rs, rowNum) -> {
+        String status = rs.getString("stopage_status");
+        return new RouteHistoryPoint(rs.getTimestamp("recorded_at").getTime(), rs.getDouble("latitude"),
+                rs.getDouble("longitude"), status == null ? null : Route.StopageStatus.valueOf(status),
+                rs.getString("duration"));
+    };
+
+    // the WHERE clause keeps the stored row from going back in time when points arrive out of order
+    private static final String UPSERT_LATEST_SQL = "INSERT INTO truck_latest_position (imei, device_id, truck_id,"
+            + " truck_no, transporter_id, latitude, longitude, recorded_at, stopage_status, duration)"
+            + " VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)"
+            + " ON CONFLICT (imei) DO UPDATE SET device_id = excluded.device_id, truck_id = excluded.truck_id,"
+            + " truck_no = excluded.truck_no, transporter_id = excluded.transporter_id, latitude = excluded.latitude,"
+            + " longitude = excluded.longitude, recorded_at = excluded.recorded_at,"
+            + " stopage_status = excluded.stopage_status, duration = excluded.duration"
+            + " WHERE truck_latest_position.recorded_at IS NULL OR truck_latest_position.recorded_at < excluded.recorded_at";
+
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    // route_points itself comes from the V7 migration; only the monthly partitions are made here
+    @PostConstruct
+    public void createCurrentPartitions() {
+        createPartitions(LocalDate.now(ZoneOffset.UTC));
+    }
+
+    // Makes sure the partitions for the given month and the next one exist. Errors are only logged:
+    // databases without route_points (H2 in tests) simply go without it.
+    public void createPartitions(LocalDate today) {
+        LocalDate month = today.withDayOfMonth(1);
+        for (int i = 0; i < 2; i++) {
+            LocalDate from = month.plusMonths(i);
+            LocalDate to = from.plusMonths(1);
+            String sql = "CREATE TABLE IF NOT EXISTS route_points_" + from.format(PARTITION_SUFFIX)
+                    + " PARTITION OF route_points FOR VALUES FROM ('" + from + "') TO ('" + to + "')";
+            try {
+                jdbcTemplate.execute(sql);
+            } catch (RuntimeException e) {
+                log.error("Could not create route_points partition for " + from + ": " + e.getMessage());
+            }
+        }
+    }
+
+    public int[][] insertBatch(List<RoutePoint> points) {
+        return jdbcTemplate.batchUpdate(INSERT_SQL, points, points.size(), RoutePointDao::bindInsert);
+    }
+
+    public int[][] upsertLatest(List<TruckLatestPosition> positions) {
+        return jdbcTemplate.batchUpdate(UPSERT_LATEST_SQL, positions, positions.size(), (ps, position) -> {
+            ps.setString(1, position.getImei());
+            ps.setString(2, position.getDeviceId());
+            ps.setString(3, position.getTruckId());
+            ps.setString(4, position.getTruckNo());
+            ps.setString(5, position.getTransporterId());
+            ps.setDouble(6, position.getLatitude());
+            ps.setDouble(7, position.getLongitude());
+            ps.setTimestamp(8, position.getRecordedAt());
+            if (position.getStopageStatus() != null)
+                ps.setString(9, position.getStopageStatus().name());
+            else
+                ps.setNull(9, Types.VARCHAR);
+            ps.setString(10, position.getDuration());
+        });
+    }
+
+    private static void bindInsert(PreparedStatement ps, RoutePoint point) throws SQLException {
+        ps.setString(1, point.getImei());
+        ps.setTimestamp(2, point.getRecordedAt());
+        ps.setString(3, point.getDeviceId());
+        ps.setString(4, point.getTruckId());
+        ps.setString(5, point.getTruckNo());
+        ps.setString(6, point.getTransporterId());
+        ps.setDouble(7, point.getLatitude());
+        ps.setDouble(8, point.getLongitude());
+        if (point.getStopageStatus() != null)
+            ps.setString(9, point.getStopageStatus().name());
+        else
+            ps.setNull(9, Types.VARCHAR);
+        ps.setString(10, point.getDuration());
+    }
+
+    // One page of history in time order, served straight from the (imei, recorded_at) primary key.
+    // afterMillis is exclusive so the last timestamp of a page can be used as the cursor for the next.
+    public List<RouteHistoryPoint> findPage(String imei, long fromMillis, long toMillis, Long afterMillis, int limit) {
+        boolean resume = afterMillis != null && afterMillis >= fromMillis;
+        String sql = "SELECT " + HISTORY_COLUMNS + " FROM route_points"
+                + " WHERE imei = ? AND recorded_at " + (resume ? ">" : ">=") + " ? AND recorded_at < ?"
+                + " ORDER BY recorded_at LIMIT ?";
+        Timestamp start = new Timestamp(resume ? afterMillis : fromMillis);
+        return jdbcTemplate.query(sql, HISTORY_MAPPER, imei, start, new Timestamp(toMillis), limit);
+    }
+
+    public List<RouteHistoryPoint> findLatest(String imei) {
+        return jdbcTemplate.query("SELECT " + HISTORY_COLUMNS + " FROM route_points WHERE imei = ?"
+                + " ORDER BY recorded_at DESC LIMIT 1", HISTORY_MAPPER, imei);
+    }
+
+    // Downsamples the range to at most buckets + 1 points by splitting it into equal time buckets and
+    // keeping one point per bucket, preferring points that carry a stoppage status. Postgres does the
+    // bucketing while walking the primary key, so only the reduced result crosses the wire.
+    public List<RouteHistoryPoint> findBucketed(String imei, long fromMillis, long toMillis, int buckets) {
+        long bucketMillis = Math.max(1, (toMillis - fromMillis + buckets - 1) / buckets);
+        String sql = "SELECT " + HISTORY_COLUMNS + " FROM ("
+                + " SELECT DISTINCT ON (bucket) bucket, " + HISTORY_COLUMNS + " FROM ("
+                + "  SELECT floor((extract(epoch FROM recorded_at) * 1000 - ?) / ?) AS bucket, " + HISTORY_COLUMNS
+                + "  FROM route_points WHERE imei = ? AND recorded_at >= ? AND recorded_at < ?) p"
+                + " ORDER BY bucket, stopage_status IS NULL, recorded_at) b"
+                + " ORDER BY recorded_at";
+        List<RouteHistoryPoint> points = jdbcTemplate.query(sql, HISTORY_MAPPER, fromMillis, bucketMillis, imei,
+                new Timestamp(fromMillis), new Timestamp(toMillis));
+
+        // always end the trip where the truck actually is
+        List<RouteHistoryPoint> last = jdbcTemplate.query("SELECT " + HISTORY_COLUMNS + " FROM route_points"
+                        + " WHERE imei = ? AND recorded_at >= ? AND recorded_at < ? ORDER BY recorded_at DESC LIMIT 1",
+                HISTORY_MAPPER, imei, new Timestamp(fromMillis), new Timestamp(toMillis));
+        if (!last.isEmpty() && (points.isEmpty()
+                || points.get(points.size() - 1).getTimestamp() != last.get(0).getTimestamp())) {
+            points.add(last.get(0));
+        }
+        return points;
+    }
+}
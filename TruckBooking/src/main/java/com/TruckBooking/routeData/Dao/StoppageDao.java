@@ -0,0 +1,15 @@
+package com.TruckBooking.routeData.Dao;
+
+import com.TruckBooking.routeData.Entities.Stoppage;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+@Repository
+public interface StoppageDao extends JpaRepository<Stoppage, String> {
+    List<Stoppage> findByImeiAndStartedAtBetween(String imei, Timestamp from, Timestamp to, Pageable pageable);
+    List<Stoppage> findByTransporterIdAndStartedAtBetween(String transporterId, Timestamp from, Timestamp to, Pageable pageable);
+}
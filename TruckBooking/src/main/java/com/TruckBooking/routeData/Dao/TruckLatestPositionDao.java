@@ -0,0 +1,15 @@
+package com.TruckBooking.routeData.Dao;
+
+import com.TruckBooking.routeData.Entities.TruckLatestPosition;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface TruckLatestPositionDao extends JpaRepository<TruckLatestPosition, String> {
+    List<TruckLatestPosition> findByImeiIn(Collection<String> imeis);
+    List<TruckLatestPosition> findByTruckIdIn(Collection<String> truckIds);
+    List<TruckLatestPosition> findByTransporterId(String transporterId);
+}
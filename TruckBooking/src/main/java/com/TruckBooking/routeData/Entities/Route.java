@@ -8,10 +8,15 @@ import javax.persistence.Entity;
 import javax.persistence.EnumType;
 import javax.persistence.Enumerated;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.Table;
 
 @Entity
-@Table(name= "routes")
+@Table(name= "routes", indexes = {
+        @Index(name = "idx_routes_imei_timestamp", columnList = "imei, timestamp"),
+        @Index(name = "idx_routes_truck_id", columnList = "truckId"),
+        @Index(name = "idx_routes_truck_no", columnList = "truckNo")
+})
 @Data
 public class Route {
     @Id
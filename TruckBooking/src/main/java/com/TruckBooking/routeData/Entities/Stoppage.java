@@ -0,0 +1,39 @@
+package com.TruckBooking.routeData.Entities;
+
+import lombok.Data;
+
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import java.sql.Timestamp;
+
+// A stop detected from the raw route points: the truck stayed within a small radius for at
+// least the minimum dwell time. Written once the truck moves on.
+@Entity
+@Table(name = "stoppages", indexes = {
+        @Index(name = "idx_stoppages_imei_started_at", columnList = "imei, startedAt"),
+        @Index(name = "idx_stoppages_transporter_id_started_at", columnList = "transporterId, startedAt")
+})
+@Data
+public class Stoppage {
+    @Id
+    private String stoppageId;
+    private String imei;
+    private String truckId;
+    private String truckNo;
+    //Optional
+    private String transporterId;
+    // centre of all points reported during the stop
+    private double latitude;
+    private double longitude;
+    private Timestamp startedAt;
+    private Timestamp endedAt;
+    private long dwellSeconds;
+    private int pointCount;
+    // last status the device reported while stopped, if any
+    @Enumerated(EnumType.STRING)
+    private Route.StopageStatus stopageStatus;
+}
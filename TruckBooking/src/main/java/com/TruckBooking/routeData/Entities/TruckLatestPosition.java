@@ -0,0 +1,34 @@
+package com.TruckBooking.routeData.Entities;
+
+import lombok.Data;
+
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import java.sql.Timestamp;
+
+// Last known position of each truck. One row per imei, only ever moved forward in time.
+@Entity
+@Table(name = "truck_latest_position", indexes = {
+        @Index(name = "idx_truck_latest_position_truck_id", columnList = "truckId"),
+        @Index(name = "idx_truck_latest_position_transporter_id", columnList = "transporterId")
+})
+@Data
+public class TruckLatestPosition {
+    @Id
+    private String imei;
+    private String deviceId;
+    private String truckId;
+    private String truckNo;
+    //Optional
+    private String transporterId;
+    private double latitude;
+    private double longitude;
+    private Timestamp recordedAt;
+    @Enumerated(EnumType.STRING)
+    private Route.StopageStatus stopageStatus;
+    private String duration;
+}
@@ -0,0 +1,185 @@
+package com.TruckBooking.routeData.Geo;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// In-memory spatial index over a fixed lat/lng grid. Every key lives in exactly one cell, so
+// a radius query only has to look at the handful of cells overlapping the search circle
+// instead of every key. Safe for concurrent writers and readers without locking.
+public class GeoGridIndex<K> {
+
+    public static final double EARTH_RADIUS_KM = 6371.0088;
+
+    public static final class Hit<K> {
+        private final K key;
+        private final double latitude;
+        private final double longitude;
+        private final double distanceKm;
+
+        private Hit(K key, double latitude, double longitude, double distanceKm) {
+            this.key = key;
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.distanceKm = distanceKm;
+        }
+
+        public K getKey() {
+            return key;
+        }
+
+        public double getLatitude() {
+            return latitude;
+        }
+
+        public double getLongitude() {
+            return longitude;
+        }
+
+        public double getDistanceKm() {
+            return distanceKm;
+        }
+    }
+
+    private static final class Position {
+        private final double latitude;
+        private final double longitude;
+        private final long cell;
+
+        private Position(double latitude, double longitude, long cell) {
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.cell = cell;
+        }
+    }
+
+    private final double cellDegrees;
+    private final int columns;
+    private final Map<K, Position> positions = new ConcurrentHashMap<>();
+    private final Map<Long, Set<K>> cells = new ConcurrentHashMap<>();
+
+    public GeoGridIndex(double cellDegrees) {
+        if (cellDegrees <= 0 || cellDegrees > 10)
+            throw new IllegalArgumentException("cellDegrees must be in (0, 10]");
+        this.cellDegrees = cellDegrees;
+        this.columns = (int) Math.ceil(360 / cellDegrees);
+    }
+
+    public void put(K key, double latitude, double longitude) {
+        long cell = cell(row(latitude), column(longitude));
+        positions.compute(key, (k, old) -> {
+            if (old == null || old.cell != cell) {
+                if (old != null)
+                    removeFromCell(old.cell, k);
+                // add inside the cell's own compute so a concurrent removeFromCell cannot drop the set
+                // between fetching it and adding to it
+                cells.compute(cell, (c, keys) -> {
+                    keys = keys == null ? ConcurrentHashMap.newKeySet() : keys;
+                    keys.add(k);
+                    return keys;
+                });
+            }
+            return new Position(latitude, longitude, cell);
+        });
+    }
+
+    public void remove(K key) {
+        positions.computeIfPresent(key, (k, old) -> {
+            removeFromCell(old.cell, k);
+            return null;
+        });
+    }
+
+    // Current position of the key, with a distance of 0, or null when it is not indexed.
+    public Hit<K> get(K key) {
+        Position p = positions.get(key);
+        return p == null ? null : new Hit<>(key, p.latitude, p.longitude, 0);
+    }
+
+    // Live, read-only view of the indexed keys.
+    public Set<K> keys() {
+        return Collections.unmodifiableSet(positions.keySet());
+    }
+
+    public boolean contains(K key) {
+        return positions.containsKey(key);
+    }
+
+    public int size() {
+        return positions.size();
+    }
+
+    public void clear() {
+        positions.clear();
+        cells.clear();
+    }
+
+    // Keys within radiusKm of the given point, nearest first, at most limit of them.
+    public List<Hit<K>> within(double latitude, double longitude, double radiusKm, int limit) {
+        double angle = radiusKm / EARTH_RADIUS_KM;
+        double latSpan = Math.toDegrees(angle);
+        // widest longitude spread of the circle; every longitude once it takes in a pole
+        double lngSpan = Math.abs(latitude) + latSpan >= 90 ? 180
+                : Math.toDegrees(Math.asin(Math.min(1, Math.sin(angle) / Math.cos(Math.toRadians(latitude)))));
+
+        int minRow = row(Math.max(-90, latitude - latSpan));
+        int maxRow = row(Math.min(90, latitude + latSpan));
+        int firstColumn = (int) Math.floor((longitude - lngSpan + 180) / cellDegrees);
+        int lastColumn = (int) Math.floor((longitude + lngSpan + 180) / cellDegrees);
+        if (lastColumn - firstColumn >= columns)
+            lastColumn = firstColumn + columns - 1;
+
+        List<Hit<K>> hits = new ArrayList<>();
+        for (int r = minRow; r <= maxRow; r++) {
+            for (int c = firstColumn; c <= lastColumn; c++) {
+                long cell = cell(r, Math.floorMod(c, columns));
+                Set<K> keys = cells.get(cell);
+                if (keys == null)
+                    continue;
+                for (K key : keys) {
+                    Position p = positions.get(key);
+                    // a key moving between cells can briefly show up in both; only count it in its own cell
+                    if (p == null || p.cell != cell)
+                        continue;
+                    double d = distanceKm(latitude, longitude, p.latitude, p.longitude);
+                    if (d <= radiusKm)
+                        hits.add(new Hit<>(key, p.latitude, p.longitude, d));
+                }
+            }
+        }
+        hits.sort(Comparator.comparingDouble(Hit::getDistanceKm));
+        return hits.size() > limit ? new ArrayList<>(hits.subList(0, limit)) : hits;
+    }
+
+    // Great-circle distance using the haversine formula.
+    public static double distanceKm(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    private void removeFromCell(long cell, K key) {
+        cells.computeIfPresent(cell, (c, keys) -> {
+            keys.remove(key);
+            return keys.isEmpty() ? null : keys;
+        });
+    }
+
+    private int row(double latitude) {
+        return (int) Math.floor((Math.max(-90, Math.min(90, latitude)) + 90) / cellDegrees);
+    }
+
+    private int column(double longitude) {
+        return Math.floorMod((int) Math.floor((longitude + 180) / cellDegrees), columns);
+    }
+
+    private long cell(int row, int column) {
+        return (long) row * columns + column;
+    }
+}
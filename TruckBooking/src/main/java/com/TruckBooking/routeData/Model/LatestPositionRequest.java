@@ -0,0 +1,15 @@
+package com.TruckBooking.routeData.Model;
+
+import lombok.Data;
+
+import javax.validation.constraints.Size;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class LatestPositionRequest {
+    @Size(max = 5000, message = "At most 5000 imeis can be requested at once.")
+    private List<String> imeis = new ArrayList<>();
+    @Size(max = 5000, message = "At most 5000 truckIds can be requested at once.")
+    private List<String> truckIds = new ArrayList<>();
+}
@@ -0,0 +1,25 @@
+package com.TruckBooking.routeData.Model;
+
+import com.TruckBooking.routeData.Entities.Route;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.sql.Timestamp;
+
+// A single GPS fix as it flows through the ingestion pipeline; not a JPA entity.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoutePoint {
+    private String imei;
+    private String deviceId;
+    private String truckId;
+    private String truckNo;
+    private String transporterId;
+    private double latitude;
+    private double longitude;
+    private Timestamp recordedAt;
+    private Route.StopageStatus stopageStatus;
+    private String duration;
+}
@@ -0,0 +1,24 @@
+package com.TruckBooking.routeData.Model;
+
+import lombok.Data;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+@Data
+public class RoutePointBatchRequest {
+    @NotBlank(message = "imei can't be left blank.")
+    private String imei;
+    //optional for registered devices, which are resolved to their truck by imei
+    private String deviceId;
+    private String truckId;
+    private String truckNo;
+    //optional
+    private String transporterId;
+    @NotEmpty(message = "points can't be left empty.")
+    @Size(max = 5000, message = "At most 5000 points can be sent in one batch.")
+    private List<@Valid RoutePointRequest> points;
+}
@@ -0,0 +1,19 @@
+package com.TruckBooking.routeData.Model;
+
+import com.TruckBooking.routeData.Entities.Route;
+import lombok.Data;
+
+import javax.validation.constraints.NotNull;
+
+@Data
+public class RoutePointRequest {
+    //epoch milliseconds at which the device recorded the fix
+    @NotNull(message = "timestamp can't be left blank.")
+    private Long timestamp;
+    private double latitude;
+    private double longitude;
+    //optional
+    private Route.StopageStatus stopageStatus;
+    //optional
+    private String duration;
+}
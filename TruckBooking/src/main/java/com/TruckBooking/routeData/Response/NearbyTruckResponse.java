@@ -0,0 +1,15 @@
+package com.TruckBooking.routeData.Response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NearbyTruckResponse {
+    private String imei;
+    private double latitude;
+    private double longitude;
+    private double distanceKm;
+}
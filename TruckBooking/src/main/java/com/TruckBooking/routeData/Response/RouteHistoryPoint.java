@@ -0,0 +1,18 @@
+package com.TruckBooking.routeData.Response;
+
+import com.TruckBooking.routeData.Entities.Route;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RouteHistoryPoint {
+    // epoch millis
+    private long timestamp;
+    private double latitude;
+    private double longitude;
+    private Route.StopageStatus stopageStatus;
+    private String duration;
+}
@@ -0,0 +1,15 @@
+package com.TruckBooking.routeData.Response;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class RouteHistoryResponse {
+    private String imei;
+    private long from;
+    private long to;
+    private List<RouteHistoryPoint> points;
+    // pass as "after" to fetch the next page, null when there is nothing more
+    private Long nextCursor;
+}
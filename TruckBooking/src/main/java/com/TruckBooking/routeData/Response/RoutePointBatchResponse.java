@@ -0,0 +1,11 @@
+package com.TruckBooking.routeData.Response;
+
+import lombok.Data;
+
+@Data
+public class RoutePointBatchResponse {
+    private String imei;
+    private int accepted;
+    private int rejected;
+    private boolean queued;
+}
@@ -0,0 +1,187 @@
+package com.TruckBooking.routeData.Service;
+
+import com.TruckBooking.metrics.MethodMetricsAspect;
+import com.TruckBooking.routeData.Dao.RoutePointDao;
+import com.TruckBooking.routeData.Dao.TruckLatestPositionDao;
+import com.TruckBooking.routeData.Entities.TruckLatestPosition;
+import com.TruckBooking.routeData.Model.RoutePoint;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Last known position of every truck, held in memory and written behind to truck_latest_position.
+// Each update replaces the imei's entry atomically and only when the point is newer, so readers
+// always see a complete position and never one that went back in time. Memory only holds the
+// trucks that report to this node, so lookups also read the table, which every node writes to,
+// and answer with whichever of the two positions is newer.
+@Slf4j
+@Component
+public class LatestPositionStore implements RoutePointListener {
+
+    @Autowired
+    TruckLatestPositionDao truckLatestPositionDao;
+
+    @Autowired
+    RoutePointDao routePointDao;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    private final Map<String, TruckLatestPosition> byImei = new ConcurrentHashMap<>();
+
+    private final Map<String, String> imeiByTruckId = new ConcurrentHashMap<>();
+
+    private final Set<String> dirty = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    public void load() {
+        for (TruckLatestPosition position : truckLatestPositionDao.findAll()) {
+            byImei.put(position.getImei(), position);
+            if (position.getTruckId() != null)
+                imeiByTruckId.put(position.getTruckId(), position.getImei());
+        }
+        Gauge.builder("routedata.latest.trucks", byImei, Map::size).register(meterRegistry);
+        Gauge.builder("routedata.latest.dirty", dirty, Set::size).register(meterRegistry);
+        log.info("loaded " + byImei.size() + " latest truck positions");
+    }
+
+    @Override
+    public void onRoutePoint(RoutePoint point) {
+        TruckLatestPosition next = toPosition(point);
+        TruckLatestPosition stored = byImei.merge(point.getImei(), next,
+                (current, candidate) -> current.getRecordedAt() != null
+                        && !candidate.getRecordedAt().after(current.getRecordedAt()) ? current : candidate);
+        if (stored == next) {
+            imeiByTruckId.put(next.getTruckId(), next.getImei());
+            dirty.add(next.getImei());
+        }
+    }
+
+    public TruckLatestPosition get(String imei) {
+        return byImei.get(imei);
+    }
+
+    public Collection<TruckLatestPosition> all() {
+        return Collections.unmodifiableCollection(byImei.values());
+    }
+
+    // Positions for the given imeis and truckIds, in request order, skipping trucks that never reported.
+    public List<TruckLatestPosition> find(List<String> imeis, List<String> truckIds) {
+        Map<String, TruckLatestPosition> stored = new HashMap<>();
+        // a truck moved to another device keeps the rows of both; the newest one is its position
+        Map<String, TruckLatestPosition> storedByTruckId = new HashMap<>();
+        if (!imeis.isEmpty()) {
+            for (TruckLatestPosition position : truckLatestPositionDao.findByImeiIn(new HashSet<>(imeis))) {
+                stored.put(position.getImei(), position);
+            }
+        }
+        if (!truckIds.isEmpty()) {
+            for (TruckLatestPosition position : truckLatestPositionDao.findByTruckIdIn(new HashSet<>(truckIds))) {
+                storedByTruckId.merge(position.getTruckId(), position, LatestPositionStore::newer);
+            }
+        }
+
+        Map<String, TruckLatestPosition> found = new LinkedHashMap<>();
+        for (String imei : imeis) {
+            TruckLatestPosition position = newer(byImei.get(imei), stored.get(imei));
+            if (position != null)
+                found.putIfAbsent(imei, position);
+        }
+        for (String truckId : truckIds) {
+            String imei = imeiByTruckId.get(truckId);
+            TruckLatestPosition position = onTruck(truckId, imei == null ? null : byImei.get(imei));
+            TruckLatestPosition row = storedByTruckId.get(truckId);
+            if (row != null)
+                position = newer(position, onTruck(truckId, newer(byImei.get(row.getImei()), row)));
+            if (position != null)
+                found.putIfAbsent(position.getImei(), position);
+        }
+        return new ArrayList<>(found.values());
+    }
+
+    public List<TruckLatestPosition> findByTransporterId(String transporterId) {
+        Map<String, TruckLatestPosition> found = new LinkedHashMap<>();
+        for (TruckLatestPosition row : truckLatestPositionDao.findByTransporterId(transporterId)) {
+            // this node may have seen a newer point that moved the truck to another transporter
+            TruckLatestPosition position = newer(byImei.get(row.getImei()), row);
+            if (transporterId.equals(position.getTransporterId()))
+                found.put(position.getImei(), position);
+        }
+        for (TruckLatestPosition position : byImei.values()) {
+            if (transporterId.equals(position.getTransporterId()))
+                found.putIfAbsent(position.getImei(), position);
+        }
+        return new ArrayList<>(found.values());
+    }
+
+    @Scheduled(fixedDelayString = "${routedata.latest.flush-ms:1000}")
+    public void flush() {
+        if (dirty.isEmpty())
+            return;
+        List<TruckLatestPosition> batch = new ArrayList<>(dirty.size());
+        for (Iterator<String> it = dirty.iterator(); it.hasNext(); ) {
+            String imei = it.next();
+            it.remove();
+            batch.add(byImei.get(imei));
+        }
+        MethodMetricsAspect.rows(meterRegistry, "LatestPositionStore.flush", batch.size());
+        try {
+            routePointDao.upsertLatest(batch);
+        } catch (RuntimeException e) {
+            // keep them dirty so the next flush tries again
+            for (TruckLatestPosition position : batch) {
+                dirty.add(position.getImei());
+            }
+            log.error("Could not persist " + batch.size() + " latest truck positions: " + e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private static TruckLatestPosition onTruck(String truckId, TruckLatestPosition position) {
+        return position != null && truckId.equals(position.getTruckId()) ? position : null;
+    }
+
+    private static TruckLatestPosition newer(TruckLatestPosition a, TruckLatestPosition b) {
+        if (a == null || b == null)
+            return a == null ? b : a;
+        if (a.getRecordedAt() == null || b.getRecordedAt() == null)
+            return a.getRecordedAt() == null ? b : a;
+        return b.getRecordedAt().after(a.getRecordedAt()) ? b : a;
+    }
+
+    private static TruckLatestPosition toPosition(RoutePoint point) {
+        TruckLatestPosition position = new TruckLatestPosition();
+        position.setImei(point.getImei());
+        position.setDeviceId(point.getDeviceId());
+        position.setTruckId(point.getTruckId());
+        position.setTruckNo(point.getTruckNo());
+        position.setTransporterId(point.getTransporterId());
+        position.setLatitude(point.getLatitude());
+        position.setLongitude(point.getLongitude());
+        position.setRecordedAt(point.getRecordedAt());
+        position.setStopageStatus(point.getStopageStatus());
+        position.setDuration(point.getDuration());
+        return position;
+    }
+}
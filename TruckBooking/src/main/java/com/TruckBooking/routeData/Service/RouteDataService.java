@@ -1,8 +1,15 @@
 package com.TruckBooking.routeData.Service;
 
 import com.TruckBooking.routeData.Entities.Route;
+import com.TruckBooking.routeData.Entities.Stoppage;
+import com.TruckBooking.routeData.Entities.TruckLatestPosition;
+import com.TruckBooking.routeData.Model.LatestPositionRequest;
 import com.TruckBooking.routeData.Model.RouteDataRequest;
+import com.TruckBooking.routeData.Model.RoutePointBatchRequest;
 import com.TruckBooking.routeData.Response.CreateRouteDataResponse;
+import com.TruckBooking.routeData.Response.NearbyTruckResponse;
+import com.TruckBooking.routeData.Response.RouteHistoryResponse;
+import com.TruckBooking.routeData.Response.RoutePointBatchResponse;
 
 import java.util.List;
 
@@ -10,8 +17,25 @@ public interface RouteDataService {
 
     public CreateRouteDataResponse addRouteData(RouteDataRequest routeDataRequest);
 
+    public RoutePointBatchResponse addRoutePoints(RoutePointBatchRequest routePointBatchRequest);
+
     public Route getRouteData(String routeDataId);
 
-    public List<Route> getRelevantRoutesData(String imei, String truckId, String truckNo, String transporterId, String deviceId);
+    public RouteHistoryResponse getRouteHistory(String imei, Long from, Long to, Long after, Integer limit);
+
+    public RouteHistoryResponse getRouteSummary(String imei, Long from, Long to, Integer maxPoints);
+
+    public List<TruckLatestPosition> getLatestPositions(LatestPositionRequest latestPositionRequest);
+
+    public List<TruckLatestPosition> getLatestPositions(String transporterId);
+
+    public List<Stoppage> getStoppages(Integer pageNo, String imei, String transporterId, Long from, Long to);
+
+    public Stoppage getCurrentStoppage(String imei);
+
+    public List<NearbyTruckResponse> getNearbyTrucks(double latitude, double longitude, double radiusKm, Integer limit);
+
+    public List<Route> getRelevantRoutesData(String imei, String truckId, String truckNo, String transporterId, String deviceId,
+                                             Integer pageNo);
 
 }
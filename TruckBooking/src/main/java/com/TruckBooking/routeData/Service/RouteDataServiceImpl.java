@@ -1,16 +1,42 @@
 package com.TruckBooking.routeData.Service;
 import com.TruckBooking.LoadsApi.Exception.BusinessException;
 import com.TruckBooking.LoadsApi.Exception.EntityNotFoundException;
+import com.TruckBooking.hardwareData.Entities.Hardware;
+import com.TruckBooking.hardwareData.Service.HardwareRegistry;
 import com.TruckBooking.routeData.Dao.RouteDataDao;
+import com.TruckBooking.routeData.Dao.RoutePointDao;
+import com.TruckBooking.routeData.Dao.StoppageDao;
 import com.TruckBooking.routeData.Entities.Route;
+import com.TruckBooking.routeData.Entities.Stoppage;
+import com.TruckBooking.routeData.Entities.TruckLatestPosition;
+import com.TruckBooking.routeData.Geo.GeoGridIndex;
+import com.TruckBooking.routeData.Model.LatestPositionRequest;
 import com.TruckBooking.routeData.Model.RouteDataRequest;
+import com.TruckBooking.routeData.Model.RoutePoint;
+import com.TruckBooking.routeData.Model.RoutePointBatchRequest;
+import com.TruckBooking.routeData.Model.RoutePointRequest;
 import com.TruckBooking.routeData.Response.CreateRouteDataResponse;
+import com.TruckBooking.routeData.Response.NearbyTruckResponse;
+import com.TruckBooking.routeData.Response.RouteHistoryPoint;
+import com.TruckBooking.routeData.Response.RouteHistoryResponse;
+import com.TruckBooking.routeData.Response.RoutePointBatchResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -23,10 +49,72 @@ public class RouteDataServiceImpl implements RouteDataService {
     @Autowired
     RouteDataDao routeDataDao;
 
+    @Autowired
+    RoutePointIngestionPipeline routePointIngestionPipeline;
+
+    @Autowired
+    RoutePointDao routePointDao;
+
+    @Autowired
+    List<RoutePointListener> routePointListeners;
+
+    @Autowired
+    TruckPositionIndex truckPositionIndex;
+
+    @Autowired
+    LatestPositionStore latestPositionStore;
+
+    @Autowired
+    StoppageDetector stoppageDetector;
+
+    @Autowired
+    StoppageDao stoppageDao;
+
+    @Autowired
+    HardwareRegistry hardwareRegistry;
+
+    @Value("${routedata.ingest.require-registered-device:false}")
+    boolean requireRegisteredDevice;
+
+    private final Counter unregisteredPoints;
+
+    @Autowired
+    public RouteDataServiceImpl(MeterRegistry meterRegistry) {
+        unregisteredPoints = meterRegistry.counter("routedata.ingest.unregistered_device");
+    }
+
+    @Value("${routedata.history.default-limit:1000}")
+    int historyDefaultLimit;
+
+    @Value("${routedata.history.max-limit:5000}")
+    int historyMaxLimit;
+
+    @Value("${routedata.summary.default-points:500}")
+    int summaryDefaultPoints;
+
+    @Value("${routedata.summary.max-points:5000}")
+    int summaryMaxPoints;
+
+    @Value("${routedata.stoppage.page-size:50}")
+    int stoppagePageSize;
+
+    @Value("${routedata.list.page-size:50}")
+    int routePageSize;
+
+    @Value("${routedata.nearby.max-radius-km:500}")
+    double nearbyMaxRadiusKm;
+
+    @Value("${routedata.nearby.default-limit:50}")
+    int nearbyDefaultLimit;
+
+    @Value("${routedata.nearby.max-limit:500}")
+    int nearbyMaxLimit;
+
     @Transactional(rollbackFor = Exception.class)
     @Override
     public CreateRouteDataResponse addRouteData(RouteDataRequest routeDataRequest) {
         log.info("addRouteData service is Started");
+        Hardware hardware = checkRegistered(routeDataRequest.getImei().trim());
 
         String temp = "";
         Route route = new Route();
@@ -46,11 +134,11 @@ public class RouteDataServiceImpl implements RouteDataService {
         route.setStopageAddress(temp);
         response.setStopageAddress(temp);
 
-        temp = routeDataRequest.getTruckNo().trim();
+        temp = fromDevice(hardware != null ? hardware.getTruckNo() : null, routeDataRequest.getTruckNo(), "truckNo");
         route.setTruckNo(temp);
         response.setTruckNo(temp);
 
-        temp = routeDataRequest.getTruckId().trim();
+        temp = fromDevice(hardware != null ? hardware.getTruckId() : null, routeDataRequest.getTruckId(), "truckId");
         route.setTruckId(temp);
         response.setTruckId(temp);
 
@@ -58,7 +146,7 @@ public class RouteDataServiceImpl implements RouteDataService {
         route.setDuration(temp);
         response.setDuration(temp);
 
-        temp = routeDataRequest.getDeviceId().trim();
+        temp = fromDevice(hardware != null ? hardware.getDeviceId() : null, routeDataRequest.getDeviceId(), "deviceId");
         route.setDeviceId(temp);
         response.setDeviceId(temp);
 
@@ -108,11 +196,165 @@ public class RouteDataServiceImpl implements RouteDataService {
 
         routeDataDao.save(route);
         log.info("routeData is saved to the database");
+
+        Timestamp recordedAt = route.getTimestamp() != null ? route.getTimestamp() : new Timestamp(System.currentTimeMillis());
+        RoutePoint point = new RoutePoint(route.getImei(), route.getDeviceId(), route.getTruckId(), route.getTruckNo(),
+                route.getTransporterId(), route.getLatitude(), route.getLongitude(), recordedAt,
+                route.getStopageStatus(), route.getDuration());
+        List<RoutePoint> points = Collections.singletonList(point);
+        // listeners only hear about points that will reach route_points, as on the batch path
+        if (routePointIngestionPipeline.offer(points))
+            publish(points);
+        else
+            log.warn("route point for imei " + route.getImei() + " was not queued, ingestion buffer is full");
+
         log.info("addRouteData service response is returned");
         response.setTimestamp(route.getTimestamp());
         return response;
     }
 
+    @Override
+    public RoutePointBatchResponse addRoutePoints(RoutePointBatchRequest request) {
+        log.info("addRoutePoints service is Started");
+
+        // device level fields are trimmed once for the whole batch
+        String imei = request.getImei().trim();
+        Hardware hardware = checkRegistered(imei);
+        String deviceId = fromDevice(hardware != null ? hardware.getDeviceId() : null, request.getDeviceId(), "deviceId");
+        String truckId = fromDevice(hardware != null ? hardware.getTruckId() : null, request.getTruckId(), "truckId");
+        String truckNo = fromDevice(hardware != null ? hardware.getTruckNo() : null, request.getTruckNo(), "truckNo");
+        String transporterId = StringUtils.isNotBlank(request.getTransporterId()) ? request.getTransporterId().trim() : null;
+
+        List<RoutePoint> points = new ArrayList<>(request.getPoints().size());
+        int rejected = 0;
+        for (RoutePointRequest p : request.getPoints()) {
+            if (!isValidCoordinate(p.getLatitude(), p.getLongitude())) {
+                rejected++;
+                continue;
+            }
+            points.add(new RoutePoint(imei, deviceId, truckId, truckNo, transporterId, p.getLatitude(),
+                    p.getLongitude(), new Timestamp(p.getTimestamp()), p.getStopageStatus(), p.getDuration()));
+        }
+
+        // devices can send buffered fixes out of order; listeners expect them in time order
+        points.sort(Comparator.comparing(RoutePoint::getRecordedAt));
+
+        RoutePointBatchResponse response = new RoutePointBatchResponse();
+        response.setImei(imei);
+        response.setRejected(rejected);
+        response.setQueued(points.isEmpty() || routePointIngestionPipeline.offer(points));
+        response.setAccepted(response.isQueued() ? points.size() : 0);
+        if (response.isQueued())
+            publish(points);
+        log.info("addRoutePoints service response is returned");
+        return response;
+    }
+
+    @Override
+    public List<TruckLatestPosition> getLatestPositions(LatestPositionRequest request) {
+        log.info("getLatestPositions service is started");
+        if (request.getImeis().isEmpty() && request.getTruckIds().isEmpty())
+            throw new BusinessException(": imeis or truckIds must be given.");
+        List<TruckLatestPosition> positions = latestPositionStore.find(request.getImeis(), request.getTruckIds());
+        log.info("getLatestPositions service response is returned");
+        return positions;
+    }
+
+    @Override
+    public List<TruckLatestPosition> getLatestPositions(String transporterId) {
+        log.info("getLatestPositions service by transporterId is started");
+        if (StringUtils.isBlank(transporterId))
+            throw new BusinessException(": transporterId can't be left blank.");
+        List<TruckLatestPosition> positions = latestPositionStore.findByTransporterId(transporterId.trim());
+        log.info("getLatestPositions service response is returned");
+        return positions;
+    }
+
+    @Transactional(readOnly = true, rollbackFor = Exception.class)
+    @Override
+    public List<Stoppage> getStoppages(Integer pageNo, String imei, String transporterId, Long from, Long to) {
+        log.info("getStoppages service is started");
+        long end = to == null ? System.currentTimeMillis() : to;
+        long start = from == null ? end - TimeUnit.DAYS.toMillis(7) : from;
+        if (start >= end)
+            throw new BusinessException(": from must be before to.");
+        Pageable page = PageRequest.of(pageNo == null ? 0 : pageNo, stoppagePageSize, Sort.Direction.DESC, "startedAt");
+
+        if (StringUtils.isNotBlank(imei))
+            return stoppageDao.findByImeiAndStartedAtBetween(imei.trim(), new Timestamp(start), new Timestamp(end), page);
+        if (StringUtils.isNotBlank(transporterId))
+            return stoppageDao.findByTransporterIdAndStartedAtBetween(transporterId.trim(), new Timestamp(start), new Timestamp(end), page);
+        throw new BusinessException(": imei or transporterId must be given.");
+    }
+
+    @Override
+    public Stoppage getCurrentStoppage(String imei) {
+        log.info("getCurrentStoppage service is started");
+        Stoppage stoppage = stoppageDetector.current(imei.trim());
+        if (stoppage == null)
+            throw new EntityNotFoundException(Stoppage.class, "imei", imei);
+        log.info("getCurrentStoppage service response is returned");
+        return stoppage;
+    }
+
+    @Override
+    public List<NearbyTruckResponse> getNearbyTrucks(double latitude, double longitude, double radiusKm, Integer limit) {
+        log.info("getNearbyTrucks service is started");
+        if (!isValidCoordinate(latitude, longitude))
+            throw new BusinessException(": latitude/longitude is not a valid position.");
+        if (radiusKm <= 0 || radiusKm > nearbyMaxRadiusKm)
+            throw new BusinessException(": radiusKm must be between 0 and " + nearbyMaxRadiusKm + ".");
+        int max = limit == null ? nearbyDefaultLimit : limit;
+        if (max < 1 || max > nearbyMaxLimit)
+            throw new BusinessException(": limit must be between 1 and " + nearbyMaxLimit + ".");
+
+        List<NearbyTruckResponse> trucks = new ArrayList<>();
+        for (GeoGridIndex.Hit<String> hit : truckPositionIndex.nearby(latitude, longitude, radiusKm, max)) {
+            trucks.add(new NearbyTruckResponse(hit.getKey(), hit.getLatitude(), hit.getLongitude(), hit.getDistanceKm()));
+        }
+        log.info("getNearbyTrucks service response is returned");
+        return trucks;
+    }
+
+    // Resolves the device from the in-memory registry. Unknown devices are only refused when
+    // routedata.ingest.require-registered-device is on.
+    private Hardware checkRegistered(String imei) {
+        Hardware hardware = hardwareRegistry.findByImei(imei);
+        if (hardware == null) {
+            unregisteredPoints.increment();
+            if (requireRegisteredDevice)
+                throw new BusinessException(": imei " + imei + " is not a registered device.");
+        }
+        return hardware;
+    }
+
+    // What the registry has for the device wins over whatever the tracker sent; the tracker's
+    // value is only needed for devices that are unregistered or have no truck assigned yet.
+    private static String fromDevice(String registered, String sent, String field) {
+        if (StringUtils.isNotBlank(registered))
+            return registered;
+        if (StringUtils.isBlank(sent))
+            throw new BusinessException(": " + field + " can't be left blank unless the device is registered with one.");
+        return sent.trim();
+    }
+
+    private void publish(List<RoutePoint> points) {
+        for (RoutePoint point : points) {
+            for (RoutePointListener listener : routePointListeners) {
+                try {
+                    listener.onRoutePoint(point);
+                } catch (RuntimeException e) {
+                    log.error("route point listener " + listener.getClass().getSimpleName() + " failed: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private static boolean isValidCoordinate(double latitude, double longitude) {
+        return latitude >= -90 && latitude <= 90 && longitude >= -180 && longitude <= 180
+                && !(latitude == 0 && longitude == 0);
+    }
+
     @Transactional(readOnly = true, rollbackFor = Exception.class)
     @Override
     public Route getRouteData(String routeDataId) {
@@ -125,9 +367,57 @@ public class RouteDataServiceImpl implements RouteDataService {
 
     }
 
+    @Override
+    public RouteHistoryResponse getRouteHistory(String imei, Long from, Long to, Long after, Integer limit) {
+        log.info("getRouteHistory service is started");
+        RouteHistoryResponse response = historyRange(imei, from, to);
+        int pageSize = limit == null ? historyDefaultLimit : limit;
+        if (pageSize < 1 || pageSize > historyMaxLimit)
+            throw new BusinessException(": limit must be between 1 and " + historyMaxLimit + ".");
+
+        List<RouteHistoryPoint> points = routePointDao.findPage(response.getImei(), response.getFrom(),
+                response.getTo(), after, pageSize);
+        response.setPoints(points);
+        if (points.size() == pageSize)
+            response.setNextCursor(points.get(points.size() - 1).getTimestamp());
+        log.info("getRouteHistory service response is returned");
+        return response;
+    }
+
+    @Override
+    public RouteHistoryResponse getRouteSummary(String imei, Long from, Long to, Integer maxPoints) {
+        log.info("getRouteSummary service is started");
+        RouteHistoryResponse response = historyRange(imei, from, to);
+        int budget = maxPoints == null ? summaryDefaultPoints : maxPoints;
+        if (budget < 2 || budget > summaryMaxPoints)
+            throw new BusinessException(": maxPoints must be between 2 and " + summaryMaxPoints + ".");
+
+        // one slot is kept back for the final position of the trip
+        response.setPoints(routePointDao.findBucketed(response.getImei(), response.getFrom(), response.getTo(), budget - 1));
+        log.info("getRouteSummary service response is returned");
+        return response;
+    }
+
+    // from and to are epoch millis; to defaults to now and from to a day before to
+    private RouteHistoryResponse historyRange(String imei, Long from, Long to) {
+        if (StringUtils.isBlank(imei))
+            throw new BusinessException(": imei can't be left blank.");
+        long end = to == null ? System.currentTimeMillis() : to;
+        long start = from == null ? end - TimeUnit.DAYS.toMillis(1) : from;
+        if (start >= end)
+            throw new BusinessException(": from must be before to.");
+
+        RouteHistoryResponse response = new RouteHistoryResponse();
+        response.setImei(imei.trim());
+        response.setFrom(start);
+        response.setTo(end);
+        return response;
+    }
+
     @Transactional(readOnly = true, rollbackFor = Exception.class)
     @Override
-    public List<Route> getRelevantRoutesData(String imei, String truckId, String truckNo, String transporterId, String deviceId) {
+    public List<Route> getRelevantRoutesData(String imei, String truckId, String truckNo, String transporterId, String deviceId,
+                                             Integer pageNo) {
         log.info("getRouteData service with params started");
         if (imei != null) {
             List<Route> routes = routeDataDao.findByImei(imei);
@@ -154,7 +444,9 @@ public class RouteDataServiceImpl implements RouteDataService {
             return routes;
         }
 
+        // without a filter the table is listed newest first, one page at a time
+        Pageable page = PageRequest.of(pageNo == null ? 0 : pageNo, routePageSize, Sort.Direction.DESC, "timestamp");
         log.info("getRouteData service response is returned");
-        return routeDataDao.findAll();
+        return routeDataDao.findAll(page).getContent();
     }
 }
@@ -0,0 +1,152 @@
+package com.TruckBooking.routeData.Service;
+
+import com.TruckBooking.routeData.Dao.RoutePointDao;
+import com.TruckBooking.routeData.Model.RoutePoint;
+import com.TruckBooking.scheduling.JobLock;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+// Buffers incoming GPS fixes in a bounded queue and writes them to route_points in JDBC
+// batches from a few background writer threads. Callers never wait on the database: when
+// the queue is full the whole submission is refused so the device can retry later. Room is
+// reserved per submission through a semaphore holding one permit per free slot, so concurrent
+// producers cannot leave a submission half queued.
+@Slf4j
+@Component
+public class RoutePointIngestionPipeline {
+
+    @Autowired
+    RoutePointDao routePointDao;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Value("${routedata.ingest.queue-capacity:200000}")
+    int queueCapacity;
+
+    @Value("${routedata.ingest.batch-size:1000}")
+    int batchSize;
+
+    @Value("${routedata.ingest.flush-interval-ms:200}")
+    long flushIntervalMs;
+
+    @Value("${routedata.ingest.writer-threads:2}")
+    int writerThreads;
+
+    private BlockingQueue<RoutePoint> queue;
+
+    private Semaphore freeSlots;
+
+    private final List<Thread> writers = new ArrayList<>();
+
+    private volatile boolean running;
+
+    private Counter writtenPoints;
+    private Counter failedPoints;
+    private Counter refusedPoints;
+    private Timer batchTimer;
+
+    @PostConstruct
+    public void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        freeSlots = new Semaphore(queueCapacity);
+        writtenPoints = meterRegistry.counter("routedata.ingest.points", "result", "written");
+        failedPoints = meterRegistry.counter("routedata.ingest.points", "result", "failed");
+        refusedPoints = meterRegistry.counter("routedata.ingest.points", "result", "refused");
+        batchTimer = meterRegistry.timer("routedata.ingest.batch");
+        Gauge.builder("routedata.ingest.queue.size", queue, BlockingQueue::size).register(meterRegistry);
+
+        running = true;
+        for (int i = 0; i < writerThreads; i++) {
+            Thread writer = new Thread(this::drainLoop, "route-ingest-writer-" + i);
+            writer.setDaemon(true);
+            writer.start();
+            writers.add(writer);
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        for (Thread writer : writers) {
+            writer.interrupt();
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        }
+        // flush whatever is left so a graceful shutdown does not lose points
+        List<RoutePoint> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            freeSlots.release(batch.size());
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    // Enqueues all points or none of them. Returns false when the buffer has no room.
+    public boolean offer(List<RoutePoint> points) {
+        if (!freeSlots.tryAcquire(points.size())) {
+            refusedPoints.increment(points.size());
+            return false;
+        }
+        // the slots are ours, so these cannot fail
+        queue.addAll(points);
+        return true;
+    }
+
+    @JobLock(lockAtLeastFor = "PT23H")
+    @Scheduled(cron = "0 0 1 * * *")
+    public void createPartitions() {
+        routePointDao.createPartitions(LocalDate.now(ZoneOffset.UTC));
+    }
+
+    private void drainLoop() {
+        List<RoutePoint> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                RoutePoint first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                freeSlots.release(batch.size());
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<RoutePoint> batch) {
+        long start = System.nanoTime();
+        try {
+            routePointDao.insertBatch(batch);
+            writtenPoints.increment(batch.size());
+        } catch (RuntimeException e) {
+            failedPoints.increment(batch.size());
+            log.error("Could not write " + batch.size() + " route points: " + e.getMessage());
+        } finally {
+            batchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+}
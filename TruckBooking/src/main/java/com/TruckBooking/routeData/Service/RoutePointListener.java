@@ -0,0 +1,10 @@
+package com.TruckBooking.routeData.Service;
+
+import com.TruckBooking.routeData.Model.RoutePoint;
+
+// Notified synchronously for every accepted route point, before it is written. Implementations
+// must be cheap and thread safe; points for one truck may arrive out of order.
+public interface RoutePointListener {
+
+    void onRoutePoint(RoutePoint point);
+}
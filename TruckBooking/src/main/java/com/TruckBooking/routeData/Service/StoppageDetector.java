@@ -0,0 +1,196 @@
+package com.TruckBooking.routeData.Service;
+
+import com.TruckBooking.metrics.MethodMetricsAspect;
+import com.TruckBooking.routeData.Dao.StoppageDao;
+import com.TruckBooking.routeData.Entities.Route;
+import com.TruckBooking.routeData.Entities.Stoppage;
+import com.TruckBooking.routeData.Geo.GeoGridIndex;
+import com.TruckBooking.routeData.Model.RoutePoint;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+// Detects stops from the live point stream. Each device has a small state machine:
+// a candidate stop is opened at a point, extended while later points stay within the stop
+// radius, becomes a stop once it has lasted the minimum dwell time, and is closed and queued
+// for saving when the truck leaves the radius. Every point costs one distance calculation.
+@Slf4j
+@Component
+public class StoppageDetector implements RoutePointListener {
+
+    private static final class DeviceState {
+        private final RoutePoint first;
+        private double sumLatitude;
+        private double sumLongitude;
+        private int count;
+        private long startMillis;
+        private long lastMillis;
+        private Route.StopageStatus status;
+        private boolean confirmed;
+
+        private DeviceState(RoutePoint point) {
+            this.first = point;
+            this.startMillis = point.getRecordedAt().getTime();
+            add(point);
+        }
+
+        private void add(RoutePoint point) {
+            sumLatitude += point.getLatitude();
+            sumLongitude += point.getLongitude();
+            count++;
+            lastMillis = point.getRecordedAt().getTime();
+            if (point.getStopageStatus() != null)
+                status = point.getStopageStatus();
+        }
+
+        private double centreLatitude() {
+            return sumLatitude / count;
+        }
+
+        private double centreLongitude() {
+            return sumLongitude / count;
+        }
+    }
+
+    @Autowired
+    StoppageDao stoppageDao;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Value("${routedata.stoppage.radius-m:200}")
+    double radiusMeters;
+
+    @Value("${routedata.stoppage.min-dwell-seconds:600}")
+    long minDwellSeconds;
+
+    @Value("${routedata.stoppage.idle-evict-hours:24}")
+    long idleEvictHours;
+
+    private final Map<String, DeviceState> states = new ConcurrentHashMap<>();
+
+    private final Queue<Stoppage> closed = new ConcurrentLinkedQueue<>();
+
+    private Counter detected;
+    private Counter outOfOrder;
+
+    @PostConstruct
+    public void registerMetrics() {
+        detected = meterRegistry.counter("routedata.stoppage.detected");
+        outOfOrder = meterRegistry.counter("routedata.stoppage.points.out_of_order");
+        Gauge.builder("routedata.stoppage.devices", states, Map::size).register(meterRegistry);
+    }
+
+    @Override
+    public void onRoutePoint(RoutePoint point) {
+        long t = point.getRecordedAt().getTime();
+        states.compute(point.getImei(), (imei, state) -> {
+            if (state == null)
+                return new DeviceState(point);
+            if (t < state.lastMillis) {
+                // stop boundaries are decided in arrival order; a late point cannot reopen them
+                outOfOrder.increment();
+                return state;
+            }
+            double meters = 1000 * GeoGridIndex.distanceKm(state.centreLatitude(), state.centreLongitude(),
+                    point.getLatitude(), point.getLongitude());
+            if (meters <= radiusMeters) {
+                state.add(point);
+                if (!state.confirmed && state.lastMillis - state.startMillis >= TimeUnit.SECONDS.toMillis(minDwellSeconds))
+                    state.confirmed = true;
+                return state;
+            }
+            close(state);
+            return new DeviceState(point);
+        });
+    }
+
+    // The stop the truck is in right now, if it has already lasted the minimum dwell time.
+    public Stoppage current(String imei) {
+        Stoppage[] current = new Stoppage[1];
+        // read under the same per-key lock the updates take
+        states.computeIfPresent(imei, (k, state) -> {
+            if (state.confirmed)
+                current[0] = toStoppage(state, null);
+            return state;
+        });
+        return current[0];
+    }
+
+    @Scheduled(fixedDelayString = "${routedata.stoppage.flush-ms:5000}")
+    public void flush() {
+        List<Stoppage> batch = new ArrayList<>();
+        for (Stoppage stoppage; (stoppage = closed.poll()) != null; ) {
+            batch.add(stoppage);
+        }
+        if (batch.isEmpty())
+            return;
+        MethodMetricsAspect.rows(meterRegistry, "StoppageDetector.flush", batch.size());
+        try {
+            stoppageDao.saveAll(batch);
+        } catch (RuntimeException e) {
+            closed.addAll(batch);
+            log.error("Could not save " + batch.size() + " stoppages: " + e.getMessage());
+        }
+    }
+
+    // Devices that went quiet are dropped; a confirmed stop is closed at the last point seen.
+    @Scheduled(fixedDelayString = "${routedata.stoppage.evict-ms:600000}")
+    public void evictIdle() {
+        long cutoff = System.currentTimeMillis() - TimeUnit.HOURS.toMillis(idleEvictHours);
+        for (String imei : states.keySet()) {
+            states.computeIfPresent(imei, (k, state) -> {
+                if (state.lastMillis >= cutoff)
+                    return state;
+                close(state);
+                return null;
+            });
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private void close(DeviceState state) {
+        if (!state.confirmed)
+            return;
+        closed.add(toStoppage(state, "stoppage:" + UUID.randomUUID()));
+        detected.increment();
+    }
+
+    private Stoppage toStoppage(DeviceState state, String stoppageId) {
+        Stoppage stoppage = new Stoppage();
+        stoppage.setStoppageId(stoppageId);
+        stoppage.setImei(state.first.getImei());
+        stoppage.setTruckId(state.first.getTruckId());
+        stoppage.setTruckNo(state.first.getTruckNo());
+        stoppage.setTransporterId(state.first.getTransporterId());
+        stoppage.setLatitude(state.centreLatitude());
+        stoppage.setLongitude(state.centreLongitude());
+        stoppage.setStartedAt(new Timestamp(state.startMillis));
+        stoppage.setEndedAt(new Timestamp(state.lastMillis));
+        stoppage.setDwellSeconds(TimeUnit.MILLISECONDS.toSeconds(state.lastMillis - state.startMillis));
+        stoppage.setPointCount(state.count);
+        stoppage.setStopageStatus(state.status);
+        return stoppage;
+    }
+}
@@ -0,0 +1,86 @@
+package com.TruckBooking.routeData.Service;
+
+import com.TruckBooking.routeData.Dao.RoutePointDao;
+import com.TruckBooking.routeData.Entities.TruckLatestPosition;
+import com.TruckBooking.routeData.Geo.GeoGridIndex;
+import com.TruckBooking.routeData.Model.RoutePoint;
+import com.TruckBooking.routeData.Response.RouteHistoryPoint;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Last known position of every truck, indexed by imei on a lat/lng grid.
+@Slf4j
+@Component
+public class TruckPositionIndex implements RoutePointListener {
+
+    @Autowired
+    RoutePointDao routePointDao;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Autowired
+    LatestPositionStore latestPositionStore;
+
+    // roughly 11 km cells
+    private final GeoGridIndex<String> grid = new GeoGridIndex<>(0.1);
+
+    private final Map<String, Long> recordedAt = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void registerMetrics() {
+        Gauge.builder("routedata.trucks.indexed", grid, GeoGridIndex::size).register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        for (TruckLatestPosition position : latestPositionStore.all()) {
+            if (position.getRecordedAt() != null)
+                update(position.getImei(), position.getRecordedAt().getTime(), position.getLatitude(), position.getLongitude());
+        }
+        log.info("truck position index warmed with " + grid.size() + " trucks");
+    }
+
+    @Override
+    public void onRoutePoint(RoutePoint point) {
+        update(point.getImei(), point.getRecordedAt().getTime(), point.getLatitude(), point.getLongitude());
+    }
+
+    // Latest position of the truck, or null when it has never reported. Trucks missing from the
+    // index, e.g. ones reporting to another instance, are looked up once in route_points.
+    public GeoGridIndex.Hit<String> position(String imei) {
+        GeoGridIndex.Hit<String> position = grid.get(imei);
+        if (position != null)
+            return position;
+        List<RouteHistoryPoint> latest = routePointDao.findLatest(imei);
+        if (latest.isEmpty())
+            return null;
+        RouteHistoryPoint p = latest.get(0);
+        update(imei, p.getTimestamp(), p.getLatitude(), p.getLongitude());
+        return grid.get(imei);
+    }
+
+    public List<GeoGridIndex.Hit<String>> nearby(double latitude, double longitude, double radiusKm, int limit) {
+        return grid.within(latitude, longitude, radiusKm, limit);
+    }
+
+    private void update(String imei, long timestamp, double latitude, double longitude) {
+        // only move the truck forward in time; late points from a batch must not drag it back
+        recordedAt.compute(imei, (k, current) -> {
+            if (current != null && current > timestamp)
+                return current;
+            grid.put(k, latitude, longitude);
+            return timestamp;
+        });
+    }
+}
@@ -0,0 +1,27 @@
+package com.TruckBooking.scheduling;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Marks a @Scheduled method that must run on one node of the cluster at a time. Jobs without it
+// run on every node, which is what node-local work (token refresh, flushing in-memory buffers,
+// rebuilding in-memory indexes) needs.
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface JobLock {
+
+    // ISO-8601 duration after which a lock is given up even if its holder never released it,
+    // e.g. because the node died mid-run. Must be longer than the slowest expected run.
+    String lockAtMostFor() default "PT10M";
+
+    // Minimum time the lock is held, counted from the start of the run. Set it a little under the
+    // job's period (e.g. PT55S for a one-minute job): a short job releases the lock long before the
+    // next period, so with a smaller value a node whose schedule is a few seconds behind runs the
+    // same period again. It has to stay below the period, or the holder itself is locked out of its
+    // next run.
+    String lockAtLeastFor() default "PT5S";
+}
@@ -0,0 +1,40 @@
+package com.TruckBooking.scheduling;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+
+// Plain JDBC access to scheduled_job_lock. Both statements are single-row and atomic, so whichever
+// node's UPDATE or INSERT succeeds first owns the job until lock_until.
+@Repository
+public class JobLockDao {
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    public boolean tryLock(String name, Instant now, Instant lockUntil, String lockedBy) {
+        int updated = jdbcTemplate.update("UPDATE scheduled_job_lock SET lock_until = ?, locked_at = ?, locked_by = ?"
+                        + " WHERE name = ? AND lock_until <= ?",
+                Timestamp.from(lockUntil), Timestamp.from(now), lockedBy, name, Timestamp.from(now));
+        if (updated > 0)
+            return true;
+        try {
+            jdbcTemplate.update("INSERT INTO scheduled_job_lock (name, lock_until, locked_at, locked_by) VALUES (?, ?, ?, ?)",
+                    name, Timestamp.from(lockUntil), Timestamp.from(now), lockedBy);
+            return true;
+        } catch (DuplicateKeyException e) {
+            // another node holds it
+            return false;
+        }
+    }
+
+    // Shortens our own lock to lockUntil; does nothing if it has already expired and been taken over.
+    public void unlock(String name, Instant lockedAt, Instant lockUntil, String lockedBy) {
+        jdbcTemplate.update("UPDATE scheduled_job_lock SET lock_until = ? WHERE name = ? AND locked_by = ? AND locked_at = ?",
+                Timestamp.from(lockUntil), name, lockedBy, Timestamp.from(lockedAt));
+    }
+}
@@ -0,0 +1,182 @@
+package com.TruckBooking.scheduling;
+
+import com.TruckBooking.threads.VirtualThreads;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.Trigger;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.scheduling.support.PeriodicTrigger;
+import org.springframework.scheduling.support.ScheduledMethodRunnable;
+import org.springframework.util.ClassUtils;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+// The TaskScheduler behind @Scheduled. Every job gets its own single-thread scheduler, so a slow
+// SMTP run cannot hold up the ULIP token refresh. Around each run it
+//  - records how late the run started against its schedule ("scheduled.job.lag"),
+//  - skips the run if the previous one is still going ("scheduled.job.skipped", reason=overlap),
+//  - for @JobLock jobs, skips it unless this node wins the job's row in scheduled_job_lock
+//    ("scheduled.job.skipped", reason=locked).
+// Run durations come from MethodMetricsAspect ("scheduled.job").
+@Slf4j
+public class JobScheduler implements TaskScheduler {
+
+    private final class Job {
+        private final String name;
+        private final JobLock lock;
+        private final ThreadPoolTaskScheduler scheduler;
+        private final AtomicBoolean running = new AtomicBoolean();
+        // when the pending run is due, in epoch millis; 0 until the first run is scheduled
+        private final AtomicLong dueAt = new AtomicLong();
+        private final Timer lag;
+
+        private Job(String name, JobLock lock) {
+            this.name = name;
+            this.lock = lock;
+            this.scheduler = new ThreadPoolTaskScheduler();
+            scheduler.setPoolSize(1);
+            scheduler.setThreadNamePrefix("job-" + name + "-");
+            if (virtualThreads)
+                scheduler.setThreadFactory(VirtualThreads.factory("job-" + name + "-"));
+            scheduler.setWaitForTasksToCompleteOnShutdown(true);
+            scheduler.setAwaitTerminationSeconds(30);
+            scheduler.initialize();
+            this.lag = Timer.builder("scheduled.job.lag")
+                    .description("Delay between a job run being due and it starting")
+                    .tag("job", name)
+                    .register(meterRegistry);
+        }
+
+        private Trigger track(Trigger trigger) {
+            return context -> {
+                Date next = trigger.nextExecutionTime(context);
+                if (next != null)
+                    dueAt.set(next.getTime());
+                return next;
+            };
+        }
+
+        private void run(Runnable task) {
+            long due = dueAt.get();
+            if (due > 0)
+                lag.record(Math.max(0, System.currentTimeMillis() - due), TimeUnit.MILLISECONDS);
+
+            if (!running.compareAndSet(false, true)) {
+                skipped("overlap");
+                return;
+            }
+            try {
+                if (lock == null || !lockEnabled) {
+                    task.run();
+                    return;
+                }
+                Instant lockedAt = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+                if (!jobLockDao.tryLock(name, lockedAt, lockedAt.plus(Duration.parse(lock.lockAtMostFor())), nodeName)) {
+                    skipped("locked");
+                    return;
+                }
+                try {
+                    task.run();
+                } finally {
+                    Instant earliest = lockedAt.plus(Duration.parse(lock.lockAtLeastFor()));
+                    Instant now = Instant.now();
+                    jobLockDao.unlock(name, lockedAt, now.isAfter(earliest) ? now : earliest, nodeName);
+                }
+            } finally {
+                running.set(false);
+            }
+        }
+
+        private void skipped(String reason) {
+            meterRegistry.counter("scheduled.job.skipped", "job", name, "reason", reason).increment();
+            log.debug("job " + name + " skipped: " + reason);
+        }
+    }
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+
+    private final JobLockDao jobLockDao;
+    private final MeterRegistry meterRegistry;
+    private final boolean lockEnabled;
+    private final boolean virtualThreads;
+    private final String nodeName = ManagementFactory.getRuntimeMXBean().getName();
+
+    public JobScheduler(JobLockDao jobLockDao, MeterRegistry meterRegistry, boolean lockEnabled, boolean virtualThreads) {
+        this.jobLockDao = jobLockDao;
+        this.meterRegistry = meterRegistry;
+        this.lockEnabled = lockEnabled;
+        this.virtualThreads = virtualThreads;
+    }
+
+    public void shutdown() {
+        for (Job job : jobs.values())
+            job.scheduler.shutdown();
+    }
+
+    @Override
+    public ScheduledFuture<?> schedule(Runnable task, Trigger trigger) {
+        Job job = job(task);
+        return job.scheduler.schedule(() -> job.run(task), job.track(trigger));
+    }
+
+    @Override
+    public ScheduledFuture<?> schedule(Runnable task, Date startTime) {
+        Job job = job(task);
+        job.dueAt.set(startTime.getTime());
+        return job.scheduler.schedule(() -> job.run(task), startTime);
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleAtFixedRate(Runnable task, Date startTime, long period) {
+        return schedule(task, periodic(period, true, startTime.getTime() - System.currentTimeMillis()));
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleAtFixedRate(Runnable task, long period) {
+        return schedule(task, periodic(period, true, 0));
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleWithFixedDelay(Runnable task, Date startTime, long delay) {
+        return schedule(task, periodic(delay, false, startTime.getTime() - System.currentTimeMillis()));
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleWithFixedDelay(Runnable task, long delay) {
+        return schedule(task, periodic(delay, false, 0));
+    }
+
+    private static Trigger periodic(long period, boolean fixedRate, long initialDelay) {
+        PeriodicTrigger trigger = new PeriodicTrigger(period, TimeUnit.MILLISECONDS);
+        trigger.setFixedRate(fixedRate);
+        trigger.setInitialDelay(Math.max(0, initialDelay));
+        return trigger;
+    }
+
+    // @Scheduled methods arrive as ScheduledMethodRunnable; the job is named like the
+    // scheduled.job timer, SimpleClassName.method. Anything else shares one "other" job.
+    private Job job(Runnable task) {
+        if (!(task instanceof ScheduledMethodRunnable))
+            return jobs.computeIfAbsent("other", name -> new Job(name, null));
+        ScheduledMethodRunnable method = (ScheduledMethodRunnable) task;
+        Class<?> type = ClassUtils.getUserClass(AopUtils.getTargetClass(method.getTarget()));
+        String name = type.getSimpleName() + "." + method.getMethod().getName();
+        JobLock lock = AnnotatedElementUtils.findMergedAnnotation(
+                ClassUtils.getMostSpecificMethod(method.getMethod(), type), JobLock.class);
+        return jobs.computeIfAbsent(name, key -> new Job(key, lock));
+    }
+}
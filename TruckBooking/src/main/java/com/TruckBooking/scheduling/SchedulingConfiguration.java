@@ -0,0 +1,40 @@
+package com.TruckBooking.scheduling;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+
+// Routes every @Scheduled method through JobScheduler instead of Spring's default single thread.
+@Configuration
+public class SchedulingConfiguration implements SchedulingConfigurer, DisposableBean {
+
+    @Autowired
+    JobLockDao jobLockDao;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Value("${scheduling.lock.enabled:true}")
+    boolean lockEnabled;
+
+    @Value("${threads.virtual.enabled:false}")
+    boolean virtualThreads;
+
+    private JobScheduler jobScheduler;
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+        jobScheduler = new JobScheduler(jobLockDao, meterRegistry, lockEnabled, virtualThreads);
+        taskRegistrar.setScheduler(jobScheduler);
+    }
+
+    @Override
+    public void destroy() {
+        if (jobScheduler != null)
+            jobScheduler.shutdown();
+    }
+}
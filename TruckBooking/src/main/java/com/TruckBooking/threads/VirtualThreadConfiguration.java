@@ -0,0 +1,42 @@
+package com.TruckBooking.threads;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+import java.util.concurrent.ExecutorService;
+
+// Opt-in (threads.virtual.enabled=true, JDK 21+): Tomcat request handling, the application task
+// executor behind @Async and MVC async/StreamingResponseBody, and the @Scheduled job threads
+// (see JobScheduler) all run on virtual threads. Blocking JDBC, ULIP and SMTP calls then park a virtual thread instead of one of
+// Tomcat's 200 workers, so the number of in-flight requests is bounded by
+// server.tomcat.max-connections and, for database work, by the Hikari pool.
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadConfiguration {
+
+    public VirtualThreadConfiguration() {
+        if (!VirtualThreads.isSupported())
+            throw new IllegalStateException("threads.virtual.enabled is set but JDK "
+                    + System.getProperty("java.version") + " has no virtual threads; use JDK 21 or newer");
+        log.info("virtual thread execution mode is enabled");
+    }
+
+    // Tomcat stops using its own worker pool (and server.tomcat.threads.max) once it is given an executor
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        ExecutorService executor = VirtualThreads.executor("http-vt-");
+        return protocolHandler -> protocolHandler.setExecutor(executor);
+    }
+
+    @Bean(name = {TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME, "taskExecutor"})
+    public AsyncTaskExecutor applicationTaskExecutor() {
+        return new TaskExecutorAdapter(VirtualThreads.executor("task-vt-"));
+    }
+}
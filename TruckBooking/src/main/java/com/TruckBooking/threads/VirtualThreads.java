@@ -0,0 +1,52 @@
+package com.TruckBooking.threads;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+// Access to JDK 21 virtual threads from code compiled for Java 11. Everything goes through
+// reflection so the same jar still starts on an older JDK as long as the mode stays off.
+public final class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    // JDK 19 and 20 already have Thread.ofVirtual() as a preview API, but it throws unless the JVM
+    // runs with --enable-preview, so the method being there is not enough.
+    public static boolean isSupported() {
+        if (Runtime.version().feature() < 21)
+            return false;
+        try {
+            Thread.class.getMethod("ofVirtual");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    // Factory for virtual threads named prefix0, prefix1, ...
+    public static ThreadFactory factory(String prefix) {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, prefix, 0L);
+            return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Virtual threads need JDK 21 or newer, running on "
+                    + System.getProperty("java.version"), e);
+        }
+    }
+
+    // Starts a new virtual thread for every task, like Executors.newVirtualThreadPerTaskExecutor().
+    public static ExecutorService executor(String prefix) {
+        ThreadFactory factory = factory(prefix);
+        try {
+            Method newThreadPerTaskExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            return (ExecutorService) newThreadPerTaskExecutor.invoke(null, factory);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Virtual threads need JDK 21 or newer, running on "
+                    + System.getProperty("java.version"), e);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+-- The node running a batch invoicing job and when it last reported in. A RUNNING job whose
+-- heartbeat has gone stale is taken over by whichever node claims the row first.
+ALTER TABLE invoice_job_checkpoint ADD COLUMN IF NOT EXISTS owner varchar(255);
+ALTER TABLE invoice_job_checkpoint ADD COLUMN IF NOT EXISTS heartbeat_at timestamptz;
+
+-- at most one job runs in the cluster; older RUNNING rows left over from before are given up
+UPDATE invoice_job_checkpoint SET status = 'FAILED'
+    WHERE status = 'RUNNING'
+    AND job_id <> (SELECT job_id FROM invoice_job_checkpoint WHERE status = 'RUNNING' ORDER BY started_at DESC LIMIT 1);
+CREATE UNIQUE INDEX IF NOT EXISTS uk_invoice_job_checkpoint_running ON invoice_job_checkpoint ((true))
+    WHERE status = 'RUNNING';
+
+DO $$
+BEGIN
+    -- a booking is billed on one invoice only. Bookings linked to more than one invoice have to be
+    -- cleaned up before this can be built.
+    IF EXISTS (SELECT 1 FROM information_schema.tables WHERE table_name = 'invoice_booking_id') THEN
+        CREATE UNIQUE INDEX IF NOT EXISTS uk_invoice_booking_id_booking ON invoice_booking_id (booking_id);
+        DROP INDEX IF EXISTS idx_invoice_booking_id_booking;
+    END IF;
+END $$;
@@ -0,0 +1,48 @@
+-- Stoppages and each truck's latest position, derived from route ingestion. Both tables are new,
+-- so they and their indexes are built inside the migration's transaction.
+CREATE TABLE IF NOT EXISTS stoppages (
+    stoppage_id varchar(255) PRIMARY KEY,
+    imei varchar(255),
+    truck_id varchar(255),
+    truck_no varchar(255),
+    transporter_id varchar(255),
+    latitude float8 NOT NULL,
+    longitude float8 NOT NULL,
+    started_at timestamp,
+    ended_at timestamp,
+    dwell_seconds int8 NOT NULL,
+    point_count int4 NOT NULL,
+    stopage_status varchar(255)
+);
+CREATE INDEX IF NOT EXISTS idx_stoppages_imei_started_at ON stoppages (imei, started_at);
+CREATE INDEX IF NOT EXISTS idx_stoppages_transporter_id_started_at ON stoppages (transporter_id, started_at);
+
+CREATE TABLE IF NOT EXISTS truck_latest_position (
+    imei varchar(255) PRIMARY KEY,
+    device_id varchar(255),
+    truck_id varchar(255),
+    truck_no varchar(255),
+    transporter_id varchar(255),
+    latitude float8 NOT NULL,
+    longitude float8 NOT NULL,
+    recorded_at timestamp,
+    stopage_status varchar(255),
+    duration varchar(255)
+);
+CREATE INDEX IF NOT EXISTS idx_truck_latest_position_truck_id ON truck_latest_position (truck_id);
+CREATE INDEX IF NOT EXISTS idx_truck_latest_position_transporter_id ON truck_latest_position (transporter_id);
+
+DO $$
+BEGIN
+    -- one hardware row per tracking device and one installation task per vehicle. Duplicate
+    -- rows have to be cleaned up before these can be added.
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'uk_hardware_imei') THEN
+        ALTER TABLE hardware ADD CONSTRAINT uk_hardware_imei UNIQUE (imei);
+    END IF;
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'uk_hardware_device_id') THEN
+        ALTER TABLE hardware ADD CONSTRAINT uk_hardware_device_id UNIQUE (device_id);
+    END IF;
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'uk_installer_task_vehicle_no') THEN
+        ALTER TABLE installer_task ADD CONSTRAINT uk_installer_task_vehicle_no UNIQUE (vehicle_no);
+    END IF;
+END $$;
@@ -0,0 +1,13 @@
+-- Indexes for the installer task and route finders. routes grows with every tracker ping, so like
+-- V8 these are built concurrently and Flyway runs this migration outside a transaction. If a
+-- build is interrupted, drop the INVALID index and rerun.
+
+-- InstallerTaskDao
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_installer_task_gps_installer_id ON installer_task (gps_installer_id, timestamp);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_installer_task_status_timestamp ON installer_task (installer_task_status, timestamp);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_installer_task_timestamp ON installer_task (timestamp, installer_task_id);
+
+-- RouteDataDao
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_routes_imei_timestamp ON routes (imei, timestamp);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_routes_truck_id ON routes (truck_id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_routes_truck_no ON routes (truck_no);
@@ -0,0 +1,4 @@
+-- Optional pickup coordinates, read by LoadSpatialIndex for GET /load/nearby. Loads posted before
+-- the column existed simply stay out of the index until they are updated with a position.
+ALTER TABLE load ADD COLUMN IF NOT EXISTS loading_point_latitude double precision;
+ALTER TABLE load ADD COLUMN IF NOT EXISTS loading_point_longitude double precision;
@@ -0,0 +1,29 @@
+-- Copies the GPS fixes that only the legacy routes table has into route_points, which route history,
+-- summary and export read. Fixes posted since route_points came in are already in both tables under
+-- the same (imei, recorded_at) and are skipped. The cast to timestamptz uses the session time zone,
+-- which pgjdbc sets to the JVM's, the zone the application writes both tables in.
+
+-- Monthly partitions for the copied fixes, named as RoutePointDao names them. Rows left in the default
+-- partition would stop RoutePointDao from creating their month later. A month whose fixes are in the
+-- default partition already cannot get its own, and its copied rows join them there.
+DO $$
+DECLARE
+    month date;
+BEGIN
+    FOR month IN SELECT DISTINCT date_trunc('month', timestamp)::date FROM routes WHERE timestamp IS NOT NULL LOOP
+        BEGIN
+            EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF route_points FOR VALUES FROM (%L) TO (%L)',
+                    'route_points_' || to_char(month, 'YYYY_MM'), month, (month + interval '1 month')::date);
+        EXCEPTION WHEN others THEN
+            RAISE NOTICE 'no route_points partition for %: %', month, SQLERRM;
+        END;
+    END LOOP;
+END $$;
+
+INSERT INTO route_points (imei, recorded_at, device_id, truck_id, truck_no, transporter_id, latitude, longitude,
+                          stopage_status, duration)
+SELECT imei, timestamp, left(device_id, 64), truck_id, left(truck_no, 64), transporter_id, latitude, longitude,
+       stopage_status, left(duration, 64)
+FROM routes
+WHERE imei IS NOT NULL AND length(imei) <= 64 AND timestamp IS NOT NULL
+ON CONFLICT DO NOTHING;
@@ -0,0 +1,215 @@
+-- The schema as Hibernate's ddl-auto=update had built it when migrations took over, so a fresh
+-- database replays the same history as production. Existing databases are baselined at this
+-- version and skip it, so anything the entities gained later belongs in a later migration, never
+-- here. Columns later reshaped by V2, V5 and V6 appear here in their old form.
+
+CREATE TABLE IF NOT EXISTS load (
+    load_id varchar(255) PRIMARY KEY,
+    loading_point varchar(255),
+    loading_point_city varchar(255),
+    loading_point_state varchar(255),
+    unloading_point varchar(255),
+    unloading_point_city varchar(255),
+    unloading_point_state varchar(255),
+    post_load_id varchar(255),
+    product_type varchar(255),
+    truck_type varchar(255),
+    weight varchar(255),
+    post_load_date varchar(255),
+    company_name varchar(255),
+    timestamp timestamp,
+    loading_point2 varchar(255),
+    loading_point_city2 varchar(255),
+    loading_point_state2 varchar(255),
+    unloading_point2 varchar(255),
+    unloading_point_city2 varchar(255),
+    unloading_point_state2 varchar(255),
+    no_of_trucks varchar(255),
+    no_of_tyres varchar(255),
+    lr varchar(255),
+    comment varchar(255),
+    loading_date varchar(255),
+    publish_method varchar(255),
+    loading_time varchar(255),
+    rate int8,
+    bidding_end_date varchar(255),
+    bidding_end_time varchar(255),
+    unit_value varchar(255),
+    status varchar(255)
+);
+
+CREATE TABLE IF NOT EXISTS load_loading_point_geo_id (
+    load_load_id varchar(255) NOT NULL CONSTRAINT fk_load_loading_point_geo_id_load REFERENCES load,
+    loading_point_geo_id varchar(255)
+);
+
+CREATE TABLE IF NOT EXISTS load_unloading_point_geo_id (
+    load_load_id varchar(255) NOT NULL CONSTRAINT fk_load_unloading_point_geo_id_load REFERENCES load,
+    unloading_point_geo_id varchar(255)
+);
+
+CREATE TABLE IF NOT EXISTS transporter_email (
+    id bigserial PRIMARY KEY,
+    transporter_id varchar(255),
+    email varchar(255),
+    name varchar(255),
+    phone_no varchar(255),
+    status varchar(255),
+    load_id varchar(255) CONSTRAINT fk_transporter_load REFERENCES load,
+    timestamp timestamp
+);
+
+CREATE TABLE IF NOT EXISTS booking_data (
+    booking_id varchar(255) PRIMARY KEY,
+    transporter_id varchar(255),
+    load_id varchar(255),
+    post_load_id varchar(255),
+    loading_point_city varchar(255),
+    unloading_point_city varchar(255),
+    truck_no varchar(255),
+    driver_name varchar(255),
+    driver_phone_num varchar(255),
+    device_id varchar(255),
+    rate int8,
+    unit_value int4,
+    lr varchar(255),
+    remarks varchar(255),
+    damage int4,
+    company_name varchar(255),
+    cancel boolean,
+    completed boolean,
+    booking_date varchar(255),
+    completed_date varchar(255),
+    timestamp timestamp,
+    CONSTRAINT UniqueTransporterAndLoad UNIQUE (transporter_id, load_id)
+);
+
+CREATE TABLE IF NOT EXISTS booking_data_truck_id (
+    booking_data_booking_id varchar(255) NOT NULL CONSTRAINT fk_booking_data_truck_id_booking_data REFERENCES booking_data,
+    truck_ids varchar(255)
+);
+
+CREATE TABLE IF NOT EXISTS bidding_data (
+    bid_id varchar(255) PRIMARY KEY,
+    transporter_id varchar(255),
+    load_id varchar(255),
+    transporter_bid int4,
+    shipper_bid int4,
+    unit_value varchar(255),
+    transporter_approval boolean,
+    shipper_approval boolean,
+    bidding_date varchar(255),
+    timestamp timestamp,
+    CONSTRAINT uk_bidding_data_transporter_load UNIQUE (transporter_id, load_id)
+);
+
+CREATE TABLE IF NOT EXISTS bidding_data_truck_id (
+    bidding_data_bid_id varchar(255) NOT NULL CONSTRAINT fk_bidding_data_truck_id_bidding_data REFERENCES bidding_data,
+    truck_id varchar(255)
+);
+
+CREATE TABLE IF NOT EXISTS bidding_data_rank (
+    bidding_data_bid_id varchar(255) NOT NULL CONSTRAINT fk_bidding_data_rank_bidding_data REFERENCES bidding_data,
+    transporter_id varchar(255)
+);
+
+CREATE TABLE IF NOT EXISTS contract_rates (
+    id bigserial PRIMARY KEY,
+    loading_point_city varchar(255),
+    unloading_point_city varchar(255),
+    weight varchar(255),
+    rate int4,
+    transporter_id varchar(255),
+    shipper_id varchar(255),
+    transporter_name varchar(255),
+    transporter_email varchar(255)
+);
+
+CREATE TABLE IF NOT EXISTS indent (
+    id bigserial PRIMARY KEY,
+    load_id varchar(255),
+    position int4 NOT NULL,
+    assigned_time timestamp,
+    status varchar(255)
+);
+
+CREATE TABLE IF NOT EXISTS transporter_ids (
+    indent_id int8 NOT NULL CONSTRAINT fk_transporter_ids_indent REFERENCES indent,
+    transporter_id varchar(255)
+);
+
+CREATE TABLE IF NOT EXISTS indent_transporter_email (
+    indent_id int8 NOT NULL CONSTRAINT fk_indent_transporter_email_indent REFERENCES indent,
+    email varchar(255)
+);
+
+CREATE TABLE IF NOT EXISTS invoice_services (
+    invoice_id varchar(255) PRIMARY KEY,
+    transporter_id varchar(255),
+    transporter_name varchar(255),
+    invoice_timestamp timestamp,
+    shipper_id varchar(255),
+    invoice_date varchar(255),
+    invoice_no varchar(255),
+    invoice_amount varchar(255),
+    party_name varchar(255),
+    due_date varchar(255),
+    invoice_status varchar(255)
+);
+
+CREATE TABLE IF NOT EXISTS invoice_booking_id (
+    invoice_invoice_id varchar(255) NOT NULL CONSTRAINT fk_invoice_booking_id_invoice REFERENCES invoice_services,
+    booking_id varchar(255)
+);
+
+CREATE TABLE IF NOT EXISTS placement_info (
+    transporter_id varchar(255) PRIMARY KEY,
+    transporter_name varchar(255),
+    shipper_id varchar(255)
+);
+
+CREATE TABLE IF NOT EXISTS placement_map (
+    transporter_id varchar(255) NOT NULL CONSTRAINT fk_placement_map_placement_info REFERENCES placement_info,
+    placement_map_key varchar(255) NOT NULL,
+    placement_map_value varchar(255),
+    PRIMARY KEY (transporter_id, placement_map_key)
+);
+
+CREATE TABLE IF NOT EXISTS hardware (
+    hardware_data_id varchar(255) PRIMARY KEY,
+    timestamp timestamp,
+    imei varchar(255),
+    device_id varchar(255),
+    sim_number varchar(255),
+    phone_no varchar(255)
+);
+
+CREATE TABLE IF NOT EXISTS installer_task (
+    installer_task_id varchar(255) PRIMARY KEY,
+    timestamp timestamp,
+    vehicle_no varchar(255),
+    vehicle_owner_name varchar(255),
+    vehicle_owner_phone_no varchar(255),
+    driver_name varchar(255),
+    driver_phone_no varchar(255),
+    installation_date varchar(255),
+    installation_complete_date varchar(255),
+    installation_location varchar(255),
+    gps_installer_id varchar(255),
+    installer_task_status varchar(255)
+);
+
+CREATE TABLE IF NOT EXISTS routes (
+    route_data_id varchar(255) PRIMARY KEY,
+    transporter_id varchar(255),
+    stopage_address varchar(255),
+    truck_no varchar(255),
+    truck_id varchar(255),
+    duration varchar(255),
+    imei varchar(255),
+    timestamp timestamp,
+    latitude float8 NOT NULL,
+    longitude float8 NOT NULL,
+    device_id varchar(255),
+    stopage_status varchar(255)
+);
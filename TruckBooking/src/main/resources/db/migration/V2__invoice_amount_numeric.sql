@@ -0,0 +1,27 @@
+-- Invoice amounts become numeric so totals can be summed in SQL, and the free-text due date
+-- gets a parsed date column for the overdue totals. The type check leaves an already converted
+-- column alone.
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM information_schema.columns
+               WHERE table_name = 'invoice_services' AND column_name = 'invoice_amount'
+                 AND data_type <> 'numeric') THEN
+        ALTER TABLE invoice_services ALTER COLUMN invoice_amount TYPE numeric(14, 2)
+            USING CASE
+                WHEN replace(replace(trim(invoice_amount::text), ',', ''), ' ', '') ~ '^-?[0-9]+(\.[0-9]+)?$'
+                THEN replace(replace(trim(invoice_amount::text), ',', ''), ' ', '')::numeric
+            END;
+    END IF;
+
+    IF EXISTS (SELECT 1 FROM information_schema.tables WHERE table_name = 'invoice_services') THEN
+        ALTER TABLE invoice_services ADD COLUMN IF NOT EXISTS due_on date;
+        UPDATE invoice_services SET due_on = CASE
+                WHEN trim(due_date) ~ '^[0-9]{4}-[0-9]{2}-[0-9]{2}$' THEN to_date(trim(due_date), 'YYYY-MM-DD')
+                WHEN trim(due_date) ~ '^[0-9]{2}-[0-9]{2}-[0-9]{4}$' THEN to_date(trim(due_date), 'DD-MM-YYYY')
+                WHEN trim(due_date) ~ '^[0-9]{2}/[0-9]{2}/[0-9]{4}$' THEN to_date(trim(due_date), 'DD/MM/YYYY')
+            END
+        WHERE due_on IS NULL AND due_date IS NOT NULL;
+        CREATE INDEX IF NOT EXISTS idx_invoice_transporter_timestamp ON invoice_services (transporter_id, invoice_timestamp);
+        CREATE INDEX IF NOT EXISTS idx_invoice_shipper_timestamp ON invoice_services (shipper_id, invoice_timestamp);
+    END IF;
+END $$;
@@ -0,0 +1,27 @@
+-- Progress of the batch invoicing job, one row per run. last_post_load_id/last_transporter_id is the
+-- last (shipper, transporter) group whose invoices were committed, so a restarted run resumes after it.
+CREATE TABLE IF NOT EXISTS invoice_job_checkpoint (
+    job_id varchar(64) PRIMARY KEY,
+    post_load_id varchar(255),
+    status varchar(16) NOT NULL,
+    last_post_load_id varchar(255),
+    last_transporter_id varchar(255),
+    invoices_created bigint NOT NULL DEFAULT 0,
+    bookings_invoiced bigint NOT NULL DEFAULT 0,
+    bookings_skipped bigint NOT NULL DEFAULT 0,
+    started_at timestamptz NOT NULL,
+    updated_at timestamptz NOT NULL
+);
+
+DO $$
+BEGIN
+    -- walks completed bookings in (shipper, transporter) order without touching the others
+    IF EXISTS (SELECT 1 FROM information_schema.tables WHERE table_name = 'booking_data') THEN
+        CREATE INDEX IF NOT EXISTS idx_booking_data_completed_group
+            ON booking_data (post_load_id, transporter_id, booking_id) WHERE completed;
+    END IF;
+    -- answers "is this booking already invoiced?"
+    IF EXISTS (SELECT 1 FROM information_schema.tables WHERE table_name = 'invoice_booking_id') THEN
+        CREATE INDEX IF NOT EXISTS idx_invoice_booking_id_booking ON invoice_booking_id (booking_id);
+    END IF;
+END $$;
@@ -0,0 +1,8 @@
+-- One row per cluster-wide scheduled job. A node may run the job only while it holds the row,
+-- i.e. after moving lock_until into the future; a crashed holder's lock simply runs out.
+CREATE TABLE IF NOT EXISTS scheduled_job_lock (
+    name varchar(128) PRIMARY KEY,
+    lock_until timestamptz NOT NULL,
+    locked_at timestamptz NOT NULL,
+    locked_by varchar(255) NOT NULL
+);
@@ -0,0 +1,46 @@
+-- Load dates move from free text to typed columns so GET /load can filter loading dates through
+-- an index. Times are Indian local time; a bidding end without a time closes at 23:59 that day.
+-- The old text columns are left in place, unmapped, until the backfill has been checked.
+CREATE FUNCTION pg_temp.load_date(value text) RETURNS date AS $$
+    SELECT CASE
+        WHEN trim(value) ~ '^[A-Za-z]{3}, [A-Za-z]{3} [0-9]{1,2} [0-9]{4}$' THEN to_date(substring(trim(value) FROM 6), 'Mon DD YYYY')
+        WHEN trim(value) ~ '^[0-9]{4}-[0-9]{2}-[0-9]{2}$' THEN to_date(trim(value), 'YYYY-MM-DD')
+        WHEN trim(value) ~ '^[0-9]{2}-[0-9]{2}-[0-9]{4}$' THEN to_date(trim(value), 'DD-MM-YYYY')
+        WHEN trim(value) ~ '^[0-9]{2}/[0-9]{2}/[0-9]{4}$' THEN to_date(trim(value), 'DD/MM/YYYY')
+        WHEN trim(value) ~ '^[0-9]{2}/[0-9]{2}/[0-9]{2}$' THEN to_date(trim(value), 'DD/MM/YY')
+    END
+$$ LANGUAGE sql IMMUTABLE;
+
+CREATE FUNCTION pg_temp.load_time(value text) RETURNS time AS $$
+    SELECT CASE
+        WHEN trim(value) ~ '^[0-9]{1,2}:[0-9]{2}( ?[AaPp][Mm])?$' THEN trim(value)::time
+    END
+$$ LANGUAGE sql IMMUTABLE;
+
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM information_schema.tables WHERE table_name = 'load') THEN
+        ALTER TABLE load ADD COLUMN IF NOT EXISTS loading_on date;
+        ALTER TABLE load ADD COLUMN IF NOT EXISTS loading_at timestamptz;
+        ALTER TABLE load ADD COLUMN IF NOT EXISTS posted_on date;
+        ALTER TABLE load ADD COLUMN IF NOT EXISTS bidding_ends_at timestamptz;
+
+        IF EXISTS (SELECT 1 FROM information_schema.columns
+                   WHERE table_name = 'load' AND column_name = 'loading_date') THEN
+            UPDATE load SET loading_on = pg_temp.load_date(loading_date)
+            WHERE loading_on IS NULL AND loading_date IS NOT NULL;
+            UPDATE load SET loading_at = (loading_on + pg_temp.load_time(loading_time)) AT TIME ZONE 'Asia/Kolkata'
+            WHERE loading_at IS NULL AND loading_on IS NOT NULL AND loading_time IS NOT NULL;
+            -- the creation timestamp is stored without a zone by a JVM running in UTC
+            UPDATE load SET posted_on = coalesce(pg_temp.load_date(post_load_date),
+                    ("timestamp" AT TIME ZONE 'UTC' AT TIME ZONE 'Asia/Kolkata')::date)
+            WHERE posted_on IS NULL;
+            UPDATE load SET bidding_ends_at = (pg_temp.load_date(bidding_end_date)
+                    + coalesce(pg_temp.load_time(bidding_end_time), time '23:59')) AT TIME ZONE 'Asia/Kolkata'
+            WHERE bidding_ends_at IS NULL AND bidding_end_date IS NOT NULL;
+        END IF;
+
+        CREATE INDEX IF NOT EXISTS idx_load_status_loading_on ON load (status, loading_on);
+        CREATE INDEX IF NOT EXISTS idx_load_loading_on ON load (loading_on);
+    END IF;
+END $$;
@@ -0,0 +1,45 @@
+-- Load weights (tonnes), truck and tyre counts and contract rate weights become numbers so
+-- they can be compared by range. Values that are not plain numbers or tonnes, such as
+-- "999kg", become null rather than failing the migration. Each type check leaves an already
+-- converted column alone.
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM information_schema.columns
+               WHERE table_name = 'load' AND column_name = 'weight' AND data_type <> 'numeric') THEN
+        ALTER TABLE load ALTER COLUMN weight TYPE numeric
+            USING CASE
+                WHEN trim(weight) ~* '^[0-9]+(\.[0-9]+)? *(mt|t|ton|tons|tonne|tonnes)?$'
+                THEN substring(trim(weight) FROM '^[0-9]+(\.[0-9]+)?')::numeric
+            END;
+    END IF;
+
+    IF EXISTS (SELECT 1 FROM information_schema.columns
+               WHERE table_name = 'load' AND column_name = 'no_of_trucks' AND data_type <> 'integer') THEN
+        ALTER TABLE load ALTER COLUMN no_of_trucks TYPE integer
+            USING CASE WHEN trim(no_of_trucks) ~ '^[0-9]{1,9}$' THEN trim(no_of_trucks)::integer END;
+    END IF;
+
+    IF EXISTS (SELECT 1 FROM information_schema.columns
+               WHERE table_name = 'load' AND column_name = 'no_of_tyres' AND data_type <> 'integer') THEN
+        ALTER TABLE load ALTER COLUMN no_of_tyres TYPE integer
+            USING CASE WHEN trim(no_of_tyres) ~ '^[0-9]{1,9}$' THEN trim(no_of_tyres)::integer END;
+    END IF;
+
+    IF EXISTS (SELECT 1 FROM information_schema.tables WHERE table_name = 'load') THEN
+        CREATE INDEX IF NOT EXISTS idx_load_status_weight ON load (status, weight);
+        CREATE INDEX IF NOT EXISTS idx_load_status_no_of_tyres ON load (status, no_of_tyres);
+    END IF;
+
+    IF EXISTS (SELECT 1 FROM information_schema.columns
+               WHERE table_name = 'contract_rates' AND column_name = 'weight' AND data_type <> 'numeric') THEN
+        ALTER TABLE contract_rates ALTER COLUMN weight TYPE numeric
+            USING CASE
+                WHEN trim(weight) ~ '^[0-9]+(\.[0-9]+)?$' THEN trim(weight)::numeric
+            END;
+    END IF;
+
+    IF EXISTS (SELECT 1 FROM information_schema.tables WHERE table_name = 'contract_rates') THEN
+        CREATE INDEX IF NOT EXISTS idx_contract_rates_lane_weight
+            ON contract_rates (loading_point_city, unloading_point_city, weight);
+    END IF;
+END $$;
@@ -0,0 +1,19 @@
+-- Raw GPS fixes, range-partitioned by month on recorded_at (Postgres 11+). Monthly partitions
+-- are added by RoutePointDao at startup and by a nightly job; the default partition catches
+-- fixes with clocks far in the past or future. Used to be created by RoutePointDao itself.
+CREATE TABLE IF NOT EXISTS route_points (
+    imei varchar(64) NOT NULL,
+    recorded_at timestamptz NOT NULL,
+    device_id varchar(64),
+    truck_id varchar(255),
+    truck_no varchar(64),
+    transporter_id varchar(255),
+    latitude double precision NOT NULL,
+    longitude double precision NOT NULL,
+    stopage_status varchar(32),
+    duration varchar(64),
+    received_at timestamptz NOT NULL DEFAULT now(),
+    PRIMARY KEY (imei, recorded_at)
+) PARTITION BY RANGE (recorded_at);
+
+CREATE TABLE IF NOT EXISTS route_points_default PARTITION OF route_points DEFAULT;
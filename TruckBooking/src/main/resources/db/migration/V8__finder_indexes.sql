@@ -0,0 +1,65 @@
+-- One index per repository finder that had none, keyed on its equality columns and then on the
+-- column its pages are sorted by. FinderIndexPlanTest checks that none of the finders falls back
+-- to a sequential scan. Built concurrently so production tables stay writable; Flyway runs this
+-- migration outside a transaction. If a build is interrupted, drop the INVALID index and rerun.
+
+-- LoadDao
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_load_status_timestamp ON load (status, timestamp);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_load_timestamp ON load (timestamp);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_load_post_load_id_timestamp ON load (post_load_id, timestamp);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_load_lane_status ON load (loading_point_city, unloading_point_city, status, timestamp);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_load_loading_city_status ON load (loading_point_city, status, timestamp);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_load_unloading_city_status ON load (unloading_point_city, status, timestamp);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_load_loading_state_status ON load (loading_point_state, status);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_load_unloading_state_status ON load (unloading_point_state, status);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_load_truck_type_status ON load (truck_type, status, timestamp);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_load_publish_method_status ON load (publish_method, status);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_load_loading_point_geo_id_load ON load_loading_point_geo_id (load_load_id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_load_unloading_point_geo_id_load ON load_unloading_point_geo_id (load_load_id);
+
+-- TransporterEmailDao
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_transporter_email_transporter_id ON transporter_email (transporter_id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_transporter_email_status ON transporter_email (status);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_transporter_email_load_id ON transporter_email (load_id);
+
+-- BookingDao; (transporter_id, load_id) is covered by the unique constraint
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_booking_data_timestamp ON booking_data (timestamp);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_booking_data_transporter_timestamp ON booking_data (transporter_id, timestamp);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_booking_data_post_load_timestamp ON booking_data (post_load_id, timestamp);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_booking_data_state_timestamp ON booking_data (cancel, completed, timestamp);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_booking_data_driver_name ON booking_data (driver_name, timestamp);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_booking_data_driver_phone_num ON booking_data (driver_phone_num, timestamp);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_booking_data_loading_city ON booking_data (loading_point_city, timestamp);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_booking_data_unloading_city ON booking_data (unloading_point_city, timestamp);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_booking_data_truck_no ON booking_data (truck_no, timestamp);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_booking_data_device_id ON booking_data (device_id, timestamp);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_booking_data_truck_id_booking ON booking_data_truck_id (booking_data_booking_id);
+
+-- BiddingDao; (transporter_id, load_id) is covered by the unique constraint
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_bidding_data_timestamp ON bidding_data (timestamp);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_bidding_data_load_timestamp ON bidding_data (load_id, timestamp);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_bidding_data_truck_id_bid ON bidding_data_truck_id (bidding_data_bid_id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_bidding_data_rank_bid ON bidding_data_rank (bidding_data_bid_id);
+
+-- HardwareDataDao; imei and device_id are covered by their unique constraints
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_hardware_timestamp ON hardware (timestamp);
+
+-- RouteDataDao
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_routes_transporter_id ON routes (transporter_id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_routes_device_id ON routes (device_id);
+
+-- PlacementDao
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_placement_info_shipper_id ON placement_info (shipper_id);
+
+-- IndentDao
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_indent_status ON indent (status);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_indent_load_id ON indent (load_id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_transporter_ids_indent ON transporter_ids (indent_id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_indent_transporter_email_indent ON indent_transporter_email (indent_id);
+
+-- ContractRateRepo; the lane and weight band lookup is indexed by V6
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_contract_rates_shipper_id ON contract_rates (shipper_id);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_contract_rates_transporter_id ON contract_rates (transporter_id);
+
+-- InvoiceDao; the transporter and shipper ranges are indexed by V2
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_invoice_booking_id_invoice ON invoice_booking_id (invoice_invoice_id);
@@ -0,0 +1,4 @@
+-- The truck a tracking device is installed in, so route ingestion can resolve device -> truck
+-- from the hardware registry instead of trusting whatever the tracker sends.
+ALTER TABLE hardware ADD COLUMN IF NOT EXISTS truck_id varchar(255);
+ALTER TABLE hardware ADD COLUMN IF NOT EXISTS truck_no varchar(255);
@@ -0,0 +1,148 @@
+package com.TruckBooking;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.TruckBooking.Booking.Dao.BookingDao;
+import com.TruckBooking.Booking.Entities.BookingData;
+import com.TruckBooking.Booking.Service.BookingService;
+import com.TruckBooking.Booking.Service.BookingServiceImpl;
+import com.TruckBooking.LoadsApi.Dao.LoadDao;
+import com.TruckBooking.LoadsApi.Entities.Load;
+import com.TruckBooking.LoadsApi.Mapper.LoadRequestMapperImpl;
+import com.TruckBooking.LoadsApi.Mapper.LoadResponseMapperImpl;
+import com.TruckBooking.LoadsApi.Model.LoadFilter;
+import com.TruckBooking.LoadsApi.Service.LoadService;
+import com.TruckBooking.LoadsApi.Service.LoadServiceImpl;
+import com.TruckBooking.LoadsApi.Service.LoadSpatialIndex;
+import com.TruckBooking.biddingApi.Dao.BiddingDao;
+import com.TruckBooking.biddingApi.Entities.BiddingData;
+import com.TruckBooking.biddingApi.Service.BiddingService;
+import com.TruckBooking.biddingApi.Service.BiddingServiceImpl;
+import com.TruckBooking.biddingApi.Util.JwtUtil;
+import com.TruckBooking.routeData.Service.TruckPositionIndex;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// With spring.jpa.open-in-view=false, as in the prod profile, the session closes with the
+// service's transaction and the controller serialises the result afterwards. Without a test
+// transaction the services here hand back entities just as detached.
+@DataJpaTest
+@Import({LoadServiceImpl.class, LoadRequestMapperImpl.class, LoadResponseMapperImpl.class, BookingServiceImpl.class,
+		BiddingServiceImpl.class})
+@TestPropertySource(properties = {"LOAD_URL=http://localhost", "LOAD_IP=localhost", "LOAD_PORT=0"})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class DetachedResponsesTest {
+
+	private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+	@Autowired
+	LoadService loadService;
+
+	@Autowired
+	BookingService bookingService;
+
+	@Autowired
+	BiddingService biddingService;
+
+	@Autowired
+	LoadDao loadDao;
+
+	@Autowired
+	BookingDao bookingDao;
+
+	@Autowired
+	BiddingDao biddingDao;
+
+	@MockBean
+	LoadSpatialIndex loadSpatialIndex;
+
+	@MockBean
+	TruckPositionIndex truckPositionIndex;
+
+	@MockBean
+	JwtUtil jwtUtil;
+
+	@AfterEach
+	void tearDown() {
+		loadDao.deleteAll();
+		bookingDao.deleteAll();
+		biddingDao.deleteAll();
+	}
+
+	@Test
+	void loadListingsCarryTheirGeoIds() throws Exception {
+		Load load = new Load();
+		load.setLoadId("load:1");
+		load.setLoadingPoint("Nagpur");
+		load.setLoadingPointCity("Nagpur");
+		load.setLoadingPointState("Maharashtra");
+		load.setUnloadingPoint("Raipur");
+		load.setUnloadingPointCity("Raipur");
+		load.setUnloadingPointState("Chhattisgarh");
+		load.setPostLoadId("shipper:1");
+		load.setTruckType("OPEN_BODY");
+		load.setStatus(Load.Status.PENDING);
+		load.setLoadingPointGeoId(Arrays.asList("geo:loading"));
+		load.setUnloadingPointGeoId(Arrays.asList("geo:unloading"));
+		loadDao.save(load);
+
+		String json = objectMapper.writeValueAsString(
+				loadService.getLoads(0, null, null, null, null, false, null, null, null, new LoadFilter()));
+
+		assertThat(json).contains("geo:loading", "geo:unloading");
+	}
+
+	@Test
+	void bookingsCarryTheirTrucks() throws Exception {
+		BookingData booking = new BookingData();
+		booking.setBookingId("booking:1");
+		booking.setTransporterId("transporter:1");
+		booking.setLoadId("load:1");
+		booking.setPostLoadId("shipper:1");
+		booking.setLoadingPointCity("Nagpur");
+		booking.setUnloadingPointCity("Raipur");
+		booking.setTruckNo("MH31AB1234");
+		booking.setDriverName("driver");
+		booking.setDriverPhoneNum("9999999999");
+		booking.setDeviceId("device:1");
+		booking.setTruckId(Arrays.asList("truck:1"));
+		booking.setCancel(false);
+		booking.setCompleted(false);
+		bookingDao.save(booking);
+
+		assertThat(objectMapper.writeValueAsString(bookingService.getDataById("booking:1"))).contains("truck:1");
+		assertThat(objectMapper.writeValueAsString(bookingService.getDataById(0, false, false, "transporter:1", null, null,
+				null, null, null, null, null))).contains("truck:1");
+	}
+
+	@Test
+	void bidsCarryTheirTrucksAndRank() throws Exception {
+		BiddingData bid = new BiddingData();
+		bid.setBidId("bid:1");
+		bid.setTransporterId("transporter:1");
+		bid.setLoadId("load:1");
+		bid.setTransporterBid(1000);
+		bid.setUnitValue(BiddingData.Unit.PER_TRUCK);
+		bid.setTruckId(Arrays.asList("truck:1"));
+		bid.setRank(Collections.singletonList("transporter:1"));
+		biddingDao.save(bid);
+
+		// a transporter's bids are listed with the rank they were stored with
+		assertThat(objectMapper.writeValueAsString(biddingService.getBid(0, null, "transporter:1", null)))
+				.contains("truck:1", "\"rank\":[\"transporter:1\"]");
+		assertThat(objectMapper.writeValueAsString(biddingService.getBidById("bid:1", null))).contains("truck:1");
+	}
+}
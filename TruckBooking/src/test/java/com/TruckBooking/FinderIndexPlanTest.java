@@ -0,0 +1,351 @@
+package com.TruckBooking;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Proxy;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.repository.support.Repositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.ReflectionUtils;
+
+// Runs every Spring Data finder against a Postgres database that has been migrated and seeded
+// with EXPLAIN_SEED_ROWS rows per table, and fails if any statement it issues plans a sequential
+// scan. Needs a throwaway database: EXPLAIN_DB_URL (plus EXPLAIN_DB_USER/EXPLAIN_DB_PASSWORD),
+// whose tables are truncated before seeding. Skipped when EXPLAIN_DB_URL is not set.
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = {
+        "spring.datasource.url=${EXPLAIN_DB_URL}",
+        "spring.datasource.username=${EXPLAIN_DB_USER:postgres}",
+        "spring.datasource.password=${EXPLAIN_DB_PASSWORD:postgres}",
+        "spring.datasource.driverClassName=org.postgresql.Driver",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.PostgreSQL10Dialect",
+        "spring.jpa.hibernate.ddl-auto=none",
+        "spring.flyway.enabled=true"
+})
+@Import(FinderIndexPlanTest.ExplainConfiguration.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@EnabledIfEnvironmentVariable(named = "EXPLAIN_DB_URL", matches = ".+")
+class FinderIndexPlanTest {
+
+    // the value every seeded text column repeats once per 1000 rows, and what String arguments are set to
+    private static final String SAMPLE = "v1";
+
+    private static final List<String> SORT_PROPERTIES = Arrays.asList("timestamp", "invoiceTimestamp", "startedAt");
+
+    @Autowired
+    ApplicationContext context;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @BeforeAll
+    void seed() {
+        int rows = Integer.parseInt(System.getenv().getOrDefault("EXPLAIN_SEED_ROWS", "20000"));
+        // parents before the collection tables that reference them
+        List<String> tables = jdbcTemplate.queryForList("SELECT c.relname FROM pg_class c"
+                + " JOIN pg_namespace n ON n.oid = c.relnamespace"
+                + " WHERE n.nspname = current_schema() AND c.relkind IN ('r', 'p') AND NOT c.relispartition"
+                + " AND c.relname <> 'flyway_schema_history'"
+                + " ORDER BY EXISTS (SELECT 1 FROM pg_constraint f WHERE f.conrelid = c.oid AND f.contype = 'f'), c.relname",
+                String.class);
+        jdbcTemplate.execute("TRUNCATE " + String.join(", ", tables) + " CASCADE");
+        for (String table : tables) {
+            jdbcTemplate.execute(seedSql(table, rows));
+        }
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @Test
+    void findersUseIndexes() {
+        Repositories repositories = new Repositories(context);
+        Map<String, String> failures = new TreeMap<>();
+        int checked = 0;
+        for (Class<?> domainType : repositories) {
+            Object repository = repositories.getRepositoryFor(domainType).orElseThrow(IllegalStateException::new);
+            for (Method method : repositories.getRepositoryInformationFor(domainType)
+                    .orElseThrow(IllegalStateException::new).getQueryMethods()) {
+                // bulk UPDATEs and DELETEs are not finders and issue no SELECT to plan
+                if (method.isAnnotationPresent(Modifying.class)) {
+                    continue;
+                }
+                String name = method.getDeclaringClass().getSimpleName() + "." + method.getName()
+                        + Arrays.toString(method.getParameterTypes());
+                List<String> plans = explain(repository, method, domainType);
+                checked++;
+                if (plans.isEmpty()) {
+                    failures.put(name, "issued no SELECT");
+                }
+                for (String plan : plans) {
+                    if (plan.contains("Seq Scan")) {
+                        failures.put(name, plan);
+                    }
+                }
+            }
+        }
+        assertThat(checked).isPositive();
+        assertThat(failures).as("finders planned with a sequential scan").isEmpty();
+    }
+
+    // Invokes the finder in a transaction that is rolled back, returning the plans of the SELECTs it issued.
+    // The results themselves do not matter: seeded enum columns do not map back and single-row finders
+    // may match several rows, so failures after the statements ran are ignored.
+    private List<String> explain(Object repository, Method method, Class<?> domainType) {
+        Object[] args = sampleArguments(method, domainType);
+        ExplainingDataSource.start();
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                status.setRollbackOnly();
+                try {
+                    ReflectionUtils.makeAccessible(method);
+                    method.invoke(repository, args);
+                } catch (IllegalAccessException | InvocationTargetException e) {
+                    // see above
+                }
+            });
+        } catch (RuntimeException e) {
+            // see above
+        }
+        return ExplainingDataSource.stop();
+    }
+
+    private static Object[] sampleArguments(Method method, Class<?> domainType) {
+        Class<?>[] types = method.getParameterTypes();
+        Type[] genericTypes = method.getGenericParameterTypes();
+        Object[] args = new Object[types.length];
+        long now = System.currentTimeMillis();
+        int timestamps = 0;
+        int dates = 0;
+        int decimals = 0;
+        for (int i = 0; i < types.length; i++) {
+            Class<?> type = types[i];
+            if (type == String.class) {
+                args[i] = SAMPLE;
+            } else if (type == Timestamp.class) {
+                // the first one opens an hour-long window, the rest close it
+                args[i] = new Timestamp(timestamps++ == 0 ? now - TimeUnit.HOURS.toMillis(1) : now);
+            } else if (type == LocalDate.class) {
+                args[i] = dates++ == 0 ? LocalDate.now().minusDays(1) : LocalDate.now();
+            } else if (type == BigDecimal.class) {
+                args[i] = BigDecimal.valueOf(++decimals);
+            } else if (type == Integer.class || type == int.class) {
+                args[i] = 1;
+            } else if (type == Long.class || type == long.class) {
+                args[i] = 1L;
+            } else if (type == Boolean.class || type == boolean.class) {
+                args[i] = Boolean.TRUE;
+            } else if (type.isEnum()) {
+                args[i] = type.getEnumConstants()[0];
+            } else if (type == List.class || type == Collection.class) {
+                Type element = ((ParameterizedType) genericTypes[i]).getActualTypeArguments()[0];
+                Object[] constants = ((Class<?>) element).getEnumConstants();
+                args[i] = constants == null ? Arrays.asList(SAMPLE) : Arrays.asList(constants[0], constants[1]);
+            } else if (type == Pageable.class) {
+                args[i] = samplePage(domainType);
+            } else {
+                throw new IllegalArgumentException("No sample value for " + type + " in " + method);
+            }
+        }
+        return args;
+    }
+
+    // pages are requested newest first, as the services do
+    private static Pageable samplePage(Class<?> domainType) {
+        for (String property : SORT_PROPERTIES) {
+            if (ReflectionUtils.findField(domainType, property) != null)
+                return PageRequest.of(0, 15, Sort.Direction.DESC, property);
+        }
+        return PageRequest.of(0, 15);
+    }
+
+    // INSERT ... SELECT over generate_series. Text columns repeat 1000 values, so equality lookups are
+    // selective, except key columns, which stay unique. Timestamps go back one minute per row.
+    private String seedSql(String table, int rows) {
+        // unique indexes as well as constraints, e.g. the one V10 puts on invoice_booking_id
+        List<String> keyColumns = jdbcTemplate.queryForList("SELECT a.attname FROM pg_index i"
+                + " JOIN pg_attribute a ON a.attrelid = i.indrelid AND a.attnum = ANY (i.indkey::int2[])"
+                + " WHERE i.indrelid = ?::regclass AND i.indisunique", String.class, table);
+        List<String> columns = new ArrayList<>();
+        List<String> values = new ArrayList<>();
+        for (Map<String, Object> column : jdbcTemplate.queryForList("SELECT column_name, data_type FROM information_schema.columns"
+                + " WHERE table_schema = current_schema() AND table_name = ? ORDER BY ordinal_position", table)) {
+            String name = (String) column.get("column_name");
+            String value = seedValue((String) column.get("data_type"), keyColumns.contains(name) ? "g" : "(g % 1000 + 1)");
+            if (value != null) {
+                columns.add("\"" + name + "\"");
+                values.add(value);
+            }
+        }
+        return "INSERT INTO " + table + " (" + String.join(", ", columns) + ") SELECT " + String.join(", ", values)
+                + " FROM generate_series(1, " + rows + ") g";
+    }
+
+    private static String seedValue(String dataType, String n) {
+        switch (dataType.toLowerCase(Locale.ROOT)) {
+            case "character varying":
+            case "text":
+                return "'v' || " + n;
+            case "smallint":
+            case "integer":
+            case "bigint":
+            case "numeric":
+                return n;
+            case "double precision":
+            case "real":
+                return n + " * 0.001";
+            case "boolean":
+                return "g % 2 = 0";
+            case "date":
+                return "current_date - (g % 365)";
+            case "timestamp without time zone":
+            case "timestamp with time zone":
+                return "now() - g * interval '1 minute'";
+            default:
+                // left to the column default
+                return null;
+        }
+    }
+
+    @TestConfiguration
+    static class ExplainConfiguration {
+
+        @Bean
+        static BeanPostProcessor explainingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource ? ExplainingDataSource.wrap((DataSource) bean) : bean;
+                }
+            };
+        }
+    }
+
+    // While recording, runs EXPLAIN with the same parameters ahead of every SELECT prepared through
+    // the wrapped DataSource and keeps the plan text.
+    static final class ExplainingDataSource {
+
+        private static volatile List<String> plans;
+
+        private ExplainingDataSource() {
+        }
+
+        static void start() {
+            plans = new ArrayList<>();
+        }
+
+        static List<String> stop() {
+            List<String> recorded = plans;
+            plans = null;
+            return recorded;
+        }
+
+        static DataSource wrap(DataSource target) {
+            return proxy(DataSource.class, (proxy, method, args) -> {
+                Object result = invoke(target, method, args);
+                return result instanceof Connection ? connection((Connection) result) : result;
+            });
+        }
+
+        private static Connection connection(Connection target) {
+            return proxy(Connection.class, (proxy, method, args) -> {
+                Object result = invoke(target, method, args);
+                if (result instanceof PreparedStatement && method.getName().equals("prepareStatement"))
+                    return statement(target, (String) args[0], (PreparedStatement) result);
+                return result;
+            });
+        }
+
+        private static PreparedStatement statement(Connection connection, String sql, PreparedStatement target) {
+            List<Object[]> parameters = new ArrayList<>();
+            return proxy(PreparedStatement.class, (proxy, method, args) -> {
+                String name = method.getName();
+                if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                    parameters.add(new Object[] {method, args});
+                } else if (name.equals("clearParameters")) {
+                    parameters.clear();
+                } else if ((name.equals("executeQuery") || name.equals("execute")) && (args == null || args.length == 0)) {
+                    record(connection, sql, parameters);
+                }
+                return invoke(target, method, args);
+            });
+        }
+
+        private static void record(Connection connection, String sql, List<Object[]> parameters) throws Exception {
+            List<String> recording = plans;
+            String trimmed = sql.trim().toLowerCase(Locale.ROOT);
+            if (recording == null || !(trimmed.startsWith("select") || trimmed.startsWith("with")))
+                return;
+            try (PreparedStatement explain = connection.prepareStatement("EXPLAIN " + sql)) {
+                for (Object[] parameter : parameters) {
+                    ((Method) parameter[0]).invoke(explain, (Object[]) parameter[1]);
+                }
+                StringBuilder plan = new StringBuilder(sql).append('\n');
+                try (ResultSet rs = explain.executeQuery()) {
+                    while (rs.next()) {
+                        plan.append(rs.getString(1)).append('\n');
+                    }
+                }
+                recording.add(plan.toString());
+            }
+        }
+
+        private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+            return (T) Proxy.newProxyInstance(ExplainingDataSource.class.getClassLoader(), new Class<?>[] {type}, handler);
+        }
+    }
+}
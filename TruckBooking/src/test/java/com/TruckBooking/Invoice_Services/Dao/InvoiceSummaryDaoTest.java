@@ -0,0 +1,105 @@
+package com.TruckBooking.Invoice_Services.Dao;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.TruckBooking.Invoice_Services.Entity.Invoice;
+import com.TruckBooking.Invoice_Services.Response.InvoiceSummaryResponse;
+
+@DataJpaTest
+@Import(InvoiceSummaryDao.class)
+class InvoiceSummaryDaoTest {
+
+	private static final Timestamp FROM = Timestamp.valueOf("2024-01-01 00:00:00");
+	private static final Timestamp TO = Timestamp.valueOf("2024-01-31 00:00:00");
+	private static final LocalDate TODAY = LocalDate.of(2024, 2, 15);
+
+	@Autowired
+	InvoiceSummaryDao invoiceSummaryDao;
+
+	@Autowired
+	InvoiceDao invoiceDao;
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	@BeforeEach
+	void setUp() {
+		insert("invoice:1", "transporter:1", FROM, "100.00", "paid", null);
+		insert("invoice:2", "transporter:1", Timestamp.valueOf("2024-01-15 10:00:00"), "200.50", "pending", LocalDate.of(2024, 2, 1));
+		insert("invoice:3", "transporter:1", TO, "300.25", "pending", LocalDate.of(2024, 3, 1));
+		insert("invoice:4", "transporter:1", Timestamp.valueOf("2024-01-31 00:00:01"), "999.00", "pending", null);
+		insert("invoice:5", "transporter:2", Timestamp.valueOf("2024-01-10 00:00:00"), "50.00", "Paid", null);
+	}
+
+	@Test
+	void countsInvoicesOnBothEndsOfTheRangeLikeTheListEndpoints() {
+		List<InvoiceSummaryResponse> summary = invoiceSummaryDao.summarize(InvoiceSummaryDao.GroupBy.transporter,
+				"transporter:1", null, FROM, TO, TODAY);
+
+		assertThat(summary).hasSize(1);
+		assertThat(summary.get(0).getInvoiceCount())
+				.isEqualTo(invoiceDao.findByTransporterIdAndInvoiceTimestampBetween("transporter:1", FROM, TO).size())
+				.isEqualTo(3);
+		assertThat(summary.get(0).getTotalAmount()).isEqualByComparingTo("600.75");
+	}
+
+	@Test
+	void splitsOutstandingAndOverdueAmounts() {
+		InvoiceSummaryResponse transporter = invoiceSummaryDao.summarize(InvoiceSummaryDao.GroupBy.transporter,
+				"transporter:1", null, FROM, TO, TODAY).get(0);
+
+		assertThat(transporter.getOutstandingCount()).isEqualTo(2);
+		assertThat(transporter.getOutstandingAmount()).isEqualByComparingTo("500.75");
+		assertThat(transporter.getOverdueCount()).isEqualTo(1);
+		assertThat(transporter.getOverdueAmount()).isEqualByComparingTo("200.50");
+	}
+
+	@Test
+	void groupsEveryPartyLargestTotalFirst() {
+		List<InvoiceSummaryResponse> summary = invoiceSummaryDao.summarize(InvoiceSummaryDao.GroupBy.transporter,
+				null, null, FROM, TO, TODAY);
+
+		assertThat(summary).extracting(InvoiceSummaryResponse::getPartyId).containsExactly("transporter:1", "transporter:2");
+		// status is compared case-insensitively
+		assertThat(summary.get(1).getOutstandingCount()).isZero();
+		assertThat(summary.get(1).getOutstandingAmount()).isEqualByComparingTo("0");
+	}
+
+	@Test
+	void amountsAreStringsInTheJson() throws Exception {
+		ObjectMapper mapper = new ObjectMapper();
+		Invoice invoice = new Invoice();
+		invoice.setInvoiceAmount(new BigDecimal("1234.50"));
+		InvoiceSummaryResponse summary = new InvoiceSummaryResponse("transporter:1", 1, new BigDecimal("1234.50"),
+				1, new BigDecimal("1234.50"), 0, BigDecimal.ZERO);
+
+		JsonNode invoiceJson = mapper.readTree(mapper.writeValueAsString(invoice));
+		JsonNode summaryJson = mapper.readTree(mapper.writeValueAsString(summary));
+
+		assertThat(invoiceJson.get("invoiceAmount").isTextual()).isTrue();
+		assertThat(invoiceJson.get("invoiceAmount").asText()).isEqualTo("1234.50");
+		assertThat(summaryJson.get("totalAmount").asText()).isEqualTo("1234.50");
+		assertThat(summaryJson.get("overdueAmount").isTextual()).isTrue();
+	}
+
+	private void insert(String invoiceId, String transporterId, Timestamp at, String amount, String status, LocalDate dueOn) {
+		jdbcTemplate.update("INSERT INTO invoice_services (invoice_id, transporter_id, invoice_timestamp, invoice_amount,"
+						+ " invoice_status, due_on) VALUES (?, ?, ?, ?, ?, ?)",
+				invoiceId, transporterId, at, new BigDecimal(amount), status, dueOn == null ? null : Date.valueOf(dueOn));
+	}
+}
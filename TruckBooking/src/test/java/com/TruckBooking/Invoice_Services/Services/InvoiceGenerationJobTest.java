@@ -0,0 +1,258 @@
+package com.TruckBooking.Invoice_Services.Services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StreamUtils;
+
+import com.TruckBooking.Booking.Entities.BookingData;
+import com.TruckBooking.Invoice_Services.Constants.InvoiceConstants;
+import com.TruckBooking.Invoice_Services.Dao.InvoiceGenerationDao;
+import com.TruckBooking.Invoice_Services.Response.InvoiceGenerationResponse;
+import com.TruckBooking.LoadsApi.Exception.BusinessException;
+
+// Runs the job end to end against the Postgres database in TEST_POSTGRES_URL (plus
+// TEST_POSTGRES_USER/TEST_POSTGRES_PASSWORD): the cursor, the partial unique index that allows one
+// RUNNING job and the claim of a stale one. Hibernate recreates the entity tables and the
+// checkpoint table comes from the migrations. Each service instance stands for one node.
+// Skipped when TEST_POSTGRES_URL is not set.
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = {
+		"spring.datasource.url=${TEST_POSTGRES_URL}",
+		"spring.datasource.username=${TEST_POSTGRES_USER:postgres}",
+		"spring.datasource.password=${TEST_POSTGRES_PASSWORD:postgres}",
+		"spring.datasource.driverClassName=org.postgresql.Driver",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.PostgreSQL10Dialect"
+})
+@Import(InvoiceGenerationDao.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@EnabledIfEnvironmentVariable(named = "TEST_POSTGRES_URL", matches = ".+")
+class InvoiceGenerationJobTest {
+
+	@Autowired
+	InvoiceGenerationDao invoiceGenerationDao;
+
+	@Autowired
+	PlatformTransactionManager transactionManager;
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	private final List<InvoiceGenerationService> nodes = new ArrayList<>();
+
+	@BeforeEach
+	void setUp() throws Exception {
+		migrate("V3__invoice_generation.sql");
+		migrate("V10__invoice_job_claim.sql");
+		jdbcTemplate.update("DELETE FROM invoice_job_checkpoint");
+		jdbcTemplate.update("DELETE FROM invoice_booking_id");
+		jdbcTemplate.update("DELETE FROM invoice_services");
+		jdbcTemplate.update("DELETE FROM booking_data_truck_id");
+		jdbcTemplate.update("DELETE FROM booking_data");
+		// 3 shippers x 2 transporters, 2 bookings each
+		for (int shipper = 1; shipper <= 3; shipper++) {
+			for (int transporter = 1; transporter <= 2; transporter++) {
+				for (int i = 1; i <= 2; i++) {
+					booking("booking:" + shipper + transporter + i, "shipper:" + shipper, "transporter:" + transporter);
+				}
+			}
+		}
+	}
+
+	@AfterEach
+	void tearDown() {
+		nodes.forEach(InvoiceGenerationService::shutdown);
+	}
+
+	@Test
+	void invoicesEveryGroupOnceAndARerunFindsNothingLeft() throws Exception {
+		InvoiceGenerationService node = node("node-a");
+
+		InvoiceGenerationResponse first = awaitEnd(node.start(null).getJobId());
+		InvoiceGenerationResponse second = awaitEnd(node.start(null).getJobId());
+
+		assertThat(first.getStatus()).isEqualTo(InvoiceGenerationService.COMPLETED);
+		assertThat(first.getInvoicesCreated()).isEqualTo(6);
+		assertThat(first.getBookingsInvoiced()).isEqualTo(12);
+		assertThat(second.getStatus()).isEqualTo(InvoiceGenerationService.COMPLETED);
+		assertThat(second.getInvoicesCreated()).isZero();
+		assertInvoicedOnce(6, 12);
+	}
+
+	@Test
+	void aNodeCannotStartAJobWhileAnotherNodeRunsOne() {
+		checkpoint("invoiceJob:other", "node-b", new Timestamp(System.currentTimeMillis()));
+
+		assertThatThrownBy(() -> node("node-a").start(null))
+				.isInstanceOf(BusinessException.class)
+				.hasMessageEndingWith(InvoiceConstants.jobAlreadyRunning);
+	}
+
+	@Test
+	void aStaleJobIsResumedByExactlyOneNodeAfterItsLastCommittedGroup() throws Exception {
+		// node-c died after committing shipper:1's invoices
+		checkpoint("invoiceJob:stale", "node-c", new Timestamp(System.currentTimeMillis() - 600_000));
+		jdbcTemplate.update("UPDATE invoice_job_checkpoint SET last_post_load_id = 'shipper:1',"
+				+ " last_transporter_id = 'transporter:2', invoices_created = 2, bookings_invoiced = 4");
+		invoice("invoice:1", "booking:111", "booking:112");
+		invoice("invoice:2", "booking:121", "booking:122");
+
+		List<InvoiceGenerationService> racing = new ArrayList<>();
+		for (int i = 0; i < 4; i++) {
+			racing.add(node("node-" + i));
+		}
+		ExecutorService pool = Executors.newFixedThreadPool(racing.size());
+		try {
+			CountDownLatch start = new CountDownLatch(1);
+			List<Future<?>> resumes = new ArrayList<>();
+			for (InvoiceGenerationService node : racing) {
+				resumes.add(pool.submit(() -> {
+					start.await();
+					node.resumeStale();
+					return null;
+				}));
+			}
+			start.countDown();
+			for (Future<?> resume : resumes) {
+				resume.get(30, TimeUnit.SECONDS);
+			}
+		} finally {
+			pool.shutdown();
+		}
+
+		InvoiceGenerationResponse job = awaitEnd("invoiceJob:stale");
+		assertThat(job.getStatus()).isEqualTo(InvoiceGenerationService.COMPLETED);
+		assertThat(job.getOwner()).isIn("node-0", "node-1", "node-2", "node-3");
+		assertThat(job.getInvoicesCreated()).isEqualTo(6);
+		assertThat(job.getBookingsInvoiced()).isEqualTo(12);
+		assertInvoicedOnce(6, 12);
+	}
+
+	@Test
+	void onlyOneOfSeveralNodesClaimsAStaleJob() throws Exception {
+		Timestamp now = new Timestamp(System.currentTimeMillis());
+		Timestamp staleBefore = new Timestamp(now.getTime() - 120_000);
+		checkpoint("invoiceJob:stale", "node-c", new Timestamp(now.getTime() - 600_000));
+
+		ExecutorService pool = Executors.newFixedThreadPool(8);
+		try {
+			CountDownLatch start = new CountDownLatch(1);
+			List<Future<Boolean>> claims = new ArrayList<>();
+			for (int i = 0; i < 8; i++) {
+				String owner = "node-" + i;
+				claims.add(pool.submit(() -> {
+					start.await();
+					return invoiceGenerationDao.claim("invoiceJob:stale", owner, now, staleBefore);
+				}));
+			}
+			start.countDown();
+			int claimed = 0;
+			for (Future<Boolean> claim : claims) {
+				if (claim.get(30, TimeUnit.SECONDS))
+					claimed++;
+			}
+			assertThat(claimed).isEqualTo(1);
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	void aJobWithARecentHeartbeatIsLeftToItsOwner() {
+		checkpoint("invoiceJob:live", "node-b", new Timestamp(System.currentTimeMillis()));
+		InvoiceGenerationService node = node("node-a");
+
+		node.resumeStale();
+
+		InvoiceGenerationResponse job = node.getJob("invoiceJob:live");
+		assertThat(job.getStatus()).isEqualTo(InvoiceGenerationService.RUNNING);
+		assertThat(job.getOwner()).isEqualTo("node-b");
+		// and a node that does not own the job cannot move its checkpoint
+		job.setOwner("node-a");
+		job.setStatus(InvoiceGenerationService.FAILED);
+		assertThat(invoiceGenerationDao.updateCheckpoint(job)).isFalse();
+		assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM invoice_services", Long.class)).isZero();
+	}
+
+	private InvoiceGenerationService node(String name) {
+		InvoiceGenerationService node = new InvoiceGenerationService();
+		node.invoiceGenerationDao = invoiceGenerationDao;
+		node.transactionManager = transactionManager;
+		node.batchSize = 2;
+		node.staleAfterSeconds = 120;
+		node.nodeName = name;
+		nodes.add(node);
+		return node;
+	}
+
+	private InvoiceGenerationResponse awaitEnd(String jobId) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 30_000;
+		InvoiceGenerationResponse job;
+		while ((job = invoiceGenerationDao.findCheckpoint(jobId).get(0)).getStatus().equals(InvoiceGenerationService.RUNNING)) {
+			assertThat(System.currentTimeMillis()).as("job %s still running", jobId).isLessThan(deadline);
+			Thread.sleep(50);
+		}
+		return job;
+	}
+
+	private void assertInvoicedOnce(long invoices, long bookings) {
+		assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM invoice_services", Long.class)).isEqualTo(invoices);
+		assertThat(jdbcTemplate.queryForObject("SELECT count(DISTINCT booking_id) FROM invoice_booking_id", Long.class))
+				.isEqualTo(bookings);
+		assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM invoice_booking_id", Long.class)).isEqualTo(bookings);
+	}
+
+	private void migrate(String script) throws Exception {
+		// run as one statement so the DO blocks are not split up
+		jdbcTemplate.execute(StreamUtils.copyToString(
+				new ClassPathResource("db/migration/" + script).getInputStream(), StandardCharsets.UTF_8));
+	}
+
+	private void booking(String bookingId, String postLoadId, String transporterId) {
+		jdbcTemplate.update("INSERT INTO booking_data (booking_id, post_load_id, transporter_id, load_id,"
+				+ " loading_point_city, unloading_point_city, truck_no, driver_name, driver_phone_num, device_id, rate,"
+				+ " unit_value, completed) VALUES (?, ?, ?, ?, 'Pune', 'Mumbai', 'MH12AB1234', 'driver', '9876543210',"
+				+ " 'device', 1000, ?, true)", bookingId, postLoadId, transporterId, "load:" + bookingId,
+				BookingData.Unit.PER_TRUCK.ordinal());
+		jdbcTemplate.update("INSERT INTO booking_data_truck_id (booking_data_booking_id, truck_ids) VALUES (?, ?)",
+				bookingId, "truck:" + bookingId);
+	}
+
+	private void invoice(String invoiceId, String... bookingIds) {
+		jdbcTemplate.update("INSERT INTO invoice_services (invoice_id, transporter_id) VALUES (?, 'transporter:1')", invoiceId);
+		for (String bookingId : bookingIds) {
+			jdbcTemplate.update("INSERT INTO invoice_booking_id (invoice_invoice_id, booking_id) VALUES (?, ?)",
+					invoiceId, bookingId);
+		}
+	}
+
+	private void checkpoint(String jobId, String owner, Timestamp heartbeatAt) {
+		jdbcTemplate.update("INSERT INTO invoice_job_checkpoint (job_id, status, started_at, updated_at, owner,"
+				+ " heartbeat_at) VALUES (?, 'RUNNING', ?, ?, ?, ?)", jobId, heartbeatAt, heartbeatAt, owner, heartbeatAt);
+	}
+}
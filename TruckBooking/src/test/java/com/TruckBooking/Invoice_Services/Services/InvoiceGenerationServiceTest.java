@@ -0,0 +1,143 @@
+package com.TruckBooking.Invoice_Services.Services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.Collections;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+
+import com.TruckBooking.Booking.Entities.BookingData;
+import com.TruckBooking.Invoice_Services.Constants.InvoiceConstants;
+import com.TruckBooking.Invoice_Services.Dao.InvoiceGenerationDao;
+import com.TruckBooking.Invoice_Services.Model.UninvoicedBooking;
+import com.TruckBooking.Invoice_Services.Response.InvoiceGenerationResponse;
+import com.TruckBooking.LoadsApi.Exception.BusinessException;
+
+class InvoiceGenerationServiceTest {
+
+	private InvoiceGenerationDao invoiceGenerationDao;
+	private InvoiceGenerationService service;
+
+	@BeforeEach
+	void setUp() {
+		invoiceGenerationDao = mock(InvoiceGenerationDao.class);
+		service = new InvoiceGenerationService();
+		service.invoiceGenerationDao = invoiceGenerationDao;
+		service.staleAfterSeconds = 120;
+		service.nodeName = "node-a";
+	}
+
+	@AfterEach
+	void tearDown() {
+		service.shutdown();
+	}
+
+	@Test
+	void perTonBookingsArePricedOnTheLoadWeight() {
+		assertThat(InvoiceGenerationService.price(booking(2500L, BookingData.Unit.PER_TON, "12.5", 3)))
+				.isEqualByComparingTo("31250");
+	}
+
+	@Test
+	void perTonBookingsWithoutAWeightAreNotPriced() {
+		assertThat(InvoiceGenerationService.price(booking(2500L, BookingData.Unit.PER_TON, null, 1))).isNull();
+	}
+
+	@Test
+	void perTruckBookingsArePricedOnTheTruckCountAndAtLeastOneTruck() {
+		assertThat(InvoiceGenerationService.price(booking(40000L, BookingData.Unit.PER_TRUCK, "20", 3)))
+				.isEqualByComparingTo("120000");
+		assertThat(InvoiceGenerationService.price(booking(40000L, BookingData.Unit.PER_TRUCK, null, 0)))
+				.isEqualByComparingTo("40000");
+		// bookings without a unit are billed per truck
+		assertThat(InvoiceGenerationService.price(booking(40000L, null, null, 2)))
+				.isEqualByComparingTo("80000");
+	}
+
+	@Test
+	void bookingsWithoutARateAreNotPriced() {
+		assertThat(InvoiceGenerationService.price(booking(null, BookingData.Unit.PER_TRUCK, null, 1))).isNull();
+	}
+
+	@Test
+	void aJobRunningOnAnotherNodeIsReportedAsAlreadyRunning() {
+		doThrowOnInsert();
+
+		assertThatThrownBy(() -> service.start(null))
+				.isInstanceOf(BusinessException.class)
+				.hasMessageEndingWith(InvoiceConstants.jobAlreadyRunning);
+		// the local guard is released again
+		assertThatThrownBy(() -> service.start(null)).hasMessageEndingWith(InvoiceConstants.jobAlreadyRunning);
+	}
+
+	@Test
+	void aStaleJobIsOnlyResumedOnceClaimed() {
+		InvoiceGenerationResponse stale = checkpoint("invoiceJob:1", "node-b");
+		when(invoiceGenerationDao.findStale(any())).thenReturn(Collections.singletonList(stale));
+		when(invoiceGenerationDao.claim(eq("invoiceJob:1"), eq("node-a"), any(), any())).thenReturn(false);
+
+		service.resumeStale();
+
+		verify(invoiceGenerationDao, never()).findCheckpoint(anyString());
+		// nothing is held locally, so the next stale job can still be claimed
+		when(invoiceGenerationDao.claim(eq("invoiceJob:1"), eq("node-a"), any(), any())).thenReturn(true);
+		when(invoiceGenerationDao.findCheckpoint("invoiceJob:1")).thenReturn(Collections.singletonList(stale));
+		service.resumeStale();
+		verify(invoiceGenerationDao, atLeastOnce()).findCheckpoint("invoiceJob:1");
+	}
+
+	@Test
+	void jobsAreOnlyConsideredStaleAfterTheConfiguredSilence() {
+		when(invoiceGenerationDao.findStale(any())).thenReturn(Collections.emptyList());
+		long before = System.currentTimeMillis();
+
+		service.resumeStale();
+
+		verify(invoiceGenerationDao).findStale(argThat(staleBefore ->
+				staleBefore.getTime() <= System.currentTimeMillis() - 120_000
+						&& staleBefore.getTime() >= before - 120_000));
+	}
+
+	@Test
+	void noHeartbeatIsSentWhileNoJobRuns() {
+		service.heartbeat();
+
+		verify(invoiceGenerationDao, never()).heartbeat(anyString(), anyString(), any());
+	}
+
+	private void doThrowOnInsert() {
+		doThrow(new DuplicateKeyException("uk_invoice_job_checkpoint_running"))
+				.when(invoiceGenerationDao).insertCheckpoint(any());
+	}
+
+	private static InvoiceGenerationResponse checkpoint(String jobId, String owner) {
+		InvoiceGenerationResponse checkpoint = new InvoiceGenerationResponse();
+		checkpoint.setJobId(jobId);
+		checkpoint.setStatus(InvoiceGenerationService.RUNNING);
+		checkpoint.setOwner(owner);
+		checkpoint.setStartedAt(new Timestamp(0));
+		checkpoint.setUpdatedAt(new Timestamp(0));
+		return checkpoint;
+	}
+
+	private static UninvoicedBooking booking(Long rate, BookingData.Unit unit, String weight, int truckCount) {
+		return new UninvoicedBooking("booking:1", "shipper:1", "transporter:1", rate, unit,
+				weight == null ? null : new BigDecimal(weight), truckCount);
+	}
+}
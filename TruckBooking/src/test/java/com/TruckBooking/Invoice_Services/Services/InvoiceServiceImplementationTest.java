@@ -0,0 +1,66 @@
+package com.TruckBooking.Invoice_Services.Services;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import com.TruckBooking.Invoice_Services.Constants.InvoiceConstants;
+import com.TruckBooking.Invoice_Services.Dao.InvoiceSummaryDao;
+import com.TruckBooking.Invoice_Services.Model.InvoiceRequest;
+import com.TruckBooking.Invoice_Services.Response.CreateInvoiceResponse;
+import com.TruckBooking.Invoice_Services.Response.UpdateInvoiceResponse;
+import com.TruckBooking.LoadsApi.Exception.BusinessException;
+
+@DataJpaTest
+@Import({InvoiceServiceImplementation.class, InvoiceSummaryDao.class})
+class InvoiceServiceImplementationTest {
+
+	@Autowired
+	InvoiceServiceImplementation invoiceService;
+
+	@Test
+	void aBookingAlreadyOnAnInvoiceCannotBeInvoicedAgain() {
+		invoiceService.addInvoice(request("booking:1", "booking:2"));
+
+		assertThatThrownBy(() -> invoiceService.addInvoice(request("booking:2", "booking:3")))
+				.isInstanceOf(BusinessException.class)
+				.hasMessageEndingWith(InvoiceConstants.bookingAlreadyInvoiced);
+	}
+
+	@Test
+	void anInvoiceCanKeepItsOwnBookingsWhenUpdated() {
+		CreateInvoiceResponse created = invoiceService.addInvoice(request("booking:1", "booking:2"));
+
+		UpdateInvoiceResponse updated = invoiceService.updateInvoice(created.getInvoiceId(),
+				request("booking:2", "booking:1", "booking:3"));
+
+		assertThat(updated.getBookingId()).containsExactly("booking:2", "booking:1", "booking:3");
+	}
+
+	@Test
+	void anUpdateCannotTakeABookingFromAnotherInvoice() {
+		invoiceService.addInvoice(request("booking:1"));
+		CreateInvoiceResponse other = invoiceService.addInvoice(request("booking:2"));
+
+		assertThatThrownBy(() -> invoiceService.updateInvoice(other.getInvoiceId(), request("booking:1")))
+				.isInstanceOf(BusinessException.class)
+				.hasMessageEndingWith(InvoiceConstants.bookingAlreadyInvoiced);
+	}
+
+	private static InvoiceRequest request(String... bookingIds) {
+		InvoiceRequest request = new InvoiceRequest();
+		request.setTransporterId("transporter:1");
+		request.setInvoiceAmount(new BigDecimal("1000.00"));
+		// mutable, like the list Jackson binds
+		request.setBookingId(new ArrayList<>(Arrays.asList(bookingIds)));
+		return request;
+	}
+}
@@ -0,0 +1,104 @@
+package com.TruckBooking.LoadsApi.Dao;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.TruckBooking.LoadsApi.Entities.Load;
+
+// Postgres has to infer the type of every bind parameter, which fails for a bare "? is null" when
+// the filter is left out, so the GET /load search runs against the database in TEST_POSTGRES_URL
+// (plus TEST_POSTGRES_USER/TEST_POSTGRES_PASSWORD). Hibernate recreates the tables. Skipped when
+// TEST_POSTGRES_URL is not set.
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = {
+		"spring.datasource.url=${TEST_POSTGRES_URL}",
+		"spring.datasource.username=${TEST_POSTGRES_USER:postgres}",
+		"spring.datasource.password=${TEST_POSTGRES_PASSWORD:postgres}",
+		"spring.datasource.driverClassName=org.postgresql.Driver",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.PostgreSQL10Dialect"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@EnabledIfEnvironmentVariable(named = "TEST_POSTGRES_URL", matches = ".+")
+class LoadDaoSearchTest {
+
+	private static final List<Load.Status> PENDING = Collections.singletonList(Load.Status.PENDING);
+	private static final Pageable PAGE = PageRequest.of(0, 15, Sort.Direction.DESC, "timestamp");
+
+	@Autowired
+	LoadDao loadDao;
+
+	@BeforeEach
+	void setUp() {
+		loadDao.deleteAll();
+		save("load:1", Load.Status.PENDING, LocalDate.of(2024, 5, 1), "10", 6);
+		save("load:2", Load.Status.PENDING, LocalDate.of(2024, 5, 10), "25", 10);
+		save("load:3", Load.Status.EXPIRED, LocalDate.of(2024, 5, 10), "25", 10);
+	}
+
+	@Test
+	void everyFilterCanBeLeftOut() {
+		List<Load> loads = loadDao.searchByStatus(PENDING, null, null, null, null, null, null, null, null, null, PAGE);
+
+		assertThat(loads).extracting(Load::getLoadId).containsExactly("load:2", "load:1");
+	}
+
+	@Test
+	void eachFilterNarrowsTheListing() {
+		assertThat(loadDao.searchByStatus(PENDING, null, null, null, null, LocalDate.of(2024, 5, 2), null, null, null,
+				null, PAGE)).extracting(Load::getLoadId).containsExactly("load:2");
+		assertThat(loadDao.searchByStatus(PENDING, null, null, null, null, null, LocalDate.of(2024, 5, 1), null, null,
+				null, PAGE)).extracting(Load::getLoadId).containsExactly("load:1");
+		assertThat(loadDao.searchByStatus(PENDING, null, null, null, null, null, null, new BigDecimal("20"), null,
+				null, PAGE)).extracting(Load::getLoadId).containsExactly("load:2");
+		assertThat(loadDao.searchByStatus(PENDING, null, null, null, null, null, null, null, new BigDecimal("10"),
+				null, PAGE)).extracting(Load::getLoadId).containsExactly("load:1");
+		assertThat(loadDao.searchByStatus(PENDING, null, null, null, null, null, null, null, null, 6, PAGE))
+				.extracting(Load::getLoadId).containsExactly("load:1");
+	}
+
+	@Test
+	void aShippersLoadsCanBeSearchedAcrossStatuses() {
+		List<Load> loads = loadDao.searchByStatus(Arrays.asList(Load.Status.PENDING, Load.Status.EXPIRED), "shipper:1",
+				"OPEN_BODY", "Nagpur", "Raipur", LocalDate.of(2024, 5, 10), LocalDate.of(2024, 5, 10), null, null, null,
+				PAGE);
+
+		assertThat(loads).extracting(Load::getLoadId).containsExactlyInAnyOrder("load:2", "load:3");
+	}
+
+	private void save(String loadId, Load.Status status, LocalDate loadingOn, String weight, int noOfTyres) {
+		Load load = new Load();
+		load.setLoadId(loadId);
+		load.setLoadingPoint("Nagpur");
+		load.setLoadingPointCity("Nagpur");
+		load.setLoadingPointState("Maharashtra");
+		load.setUnloadingPoint("Raipur");
+		load.setUnloadingPointCity("Raipur");
+		load.setUnloadingPointState("Chhattisgarh");
+		load.setPostLoadId("shipper:1");
+		load.setTruckType("OPEN_BODY");
+		load.setStatus(status);
+		load.setLoadingOn(loadingOn);
+		load.setWeight(new BigDecimal(weight));
+		load.setNoOfTyres(noOfTyres);
+		loadDao.save(load);
+	}
+}
@@ -0,0 +1,100 @@
+package com.TruckBooking.LoadsApi.EmailTask;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Properties;
+
+import javax.mail.Session;
+import javax.mail.internet.MimeMessage;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.TruckBooking.LoadsApi.Dao.LoadDao;
+import com.TruckBooking.LoadsApi.Dao.TransporterEmailDao;
+import com.TruckBooking.LoadsApi.Entities.Load;
+import com.TruckBooking.LoadsApi.Entities.TransporterEmail;
+
+// Commits like the scheduled job does, so what a failed run leaves behind is what the next run sees.
+@DataJpaTest
+@Import({EmailSender.class, EmailSenderTest.Metrics.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class EmailSenderTest {
+
+	@TestConfiguration
+	static class Metrics {
+		@Bean
+		MeterRegistry meterRegistry() {
+			return new SimpleMeterRegistry();
+		}
+	}
+
+	@Autowired
+	EmailSender emailSender;
+
+	@Autowired
+	TransporterEmailDao transporterEmailDao;
+
+	@Autowired
+	LoadDao loadDao;
+
+	@MockBean
+	JavaMailSender javaMailSender;
+
+	@AfterEach
+	void tearDown() {
+		transporterEmailDao.deleteAll();
+		loadDao.deleteAll();
+	}
+
+	@Test
+	void aMailAlreadySentStaysSentWhenALaterOneFails() throws Exception {
+		Load load = new Load();
+		load.setLoadId("load:1");
+		load.setLoadingPoint("Nagpur");
+		load.setLoadingPointCity("Nagpur");
+		load.setLoadingPointState("Maharashtra");
+		load.setUnloadingPoint("Raipur");
+		load.setUnloadingPointCity("Raipur");
+		load.setUnloadingPointState("Chhattisgarh");
+		load.setStatus(Load.Status.PENDING);
+		loadDao.save(load);
+		Long first = transporterEmailDao.save(email(load, "first@example.com")).getId();
+		Long second = transporterEmailDao.save(email(load, "second@example.com")).getId();
+		when(javaMailSender.createMimeMessage())
+				.thenReturn(new MimeMessage(Session.getInstance(new Properties())))
+				.thenThrow(new IllegalStateException("mail session closed"));
+
+		assertThatThrownBy(() -> emailSender.sendEmail()).isInstanceOf(IllegalStateException.class);
+
+		verify(javaMailSender, times(1)).send(any(MimeMessage.class));
+		assertThat(transporterEmailDao.findById(first).get().getStatus()).isEqualTo("sent");
+		assertThat(transporterEmailDao.findById(second).get().getStatus()).isEqualTo("not-sent");
+	}
+
+	private static TransporterEmail email(Load load, String address) {
+		TransporterEmail email = new TransporterEmail();
+		email.setTransporterId("transporter:" + address);
+		email.setEmail(address);
+		email.setName("Transporter");
+		email.setPhoneNo("9999999999");
+		email.setLoad(load);
+		return email;
+	}
+}
@@ -0,0 +1,112 @@
+package com.TruckBooking.LoadsApi.Service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+
+import com.TruckBooking.LoadsApi.Dao.LoadDao;
+import com.TruckBooking.LoadsApi.Entities.Load;
+import com.TruckBooking.LoadsApi.Mapper.LoadRequestMapperImpl;
+import com.TruckBooking.LoadsApi.Mapper.LoadResponseMapperImpl;
+import com.TruckBooking.LoadsApi.Model.LoadFilter;
+import com.TruckBooking.routeData.Service.TruckPositionIndex;
+
+@DataJpaTest
+@Import({LoadServiceImpl.class, LoadRequestMapperImpl.class, LoadResponseMapperImpl.class})
+class LoadServiceImplTest {
+
+	private static final LocalDate MAY_1 = LocalDate.of(2024, 5, 1);
+	private static final LocalDate MAY_10 = LocalDate.of(2024, 5, 10);
+
+	@Autowired
+	LoadServiceImpl loadService;
+
+	@Autowired
+	LoadDao loadDao;
+
+	@MockBean
+	LoadSpatialIndex loadSpatialIndex;
+
+	@MockBean
+	TruckPositionIndex truckPositionIndex;
+
+	@BeforeEach
+	void setUp() {
+		save("load:1", "shipper:1", "OPEN_BODY", Load.Status.PENDING, MAY_1, "10");
+		save("load:2", "shipper:1", "OPEN_BODY", Load.Status.PENDING, MAY_10, "25");
+		save("load:3", "shipper:1", "OPEN_BODY", Load.Status.EXPIRED, MAY_10, "25");
+		save("load:4", "shipper:2", "TANKER", Load.Status.PENDING, MAY_10, null);
+	}
+
+	@Test
+	void theTruckTypeListingIsFilteredByLoadingDate() {
+		List<Load> loads = loadService.getLoads(0, null, null, null, "OPEN_BODY", false, null, null, null,
+				filter(MAY_10, null, null));
+
+		assertThat(loads).extracting(Load::getLoadId).containsExactly("load:2");
+	}
+
+	@Test
+	void aShippersListingIsFilteredAndStillIncludesExpiredLoads() {
+		List<Load> loads = loadService.getLoads(0, null, null, "shipper:1", null, false, null, null, null,
+				filter(MAY_10, MAY_10, null));
+
+		assertThat(loads).extracting(Load::getLoadId).containsExactlyInAnyOrder("load:2", "load:3");
+	}
+
+	@Test
+	void theTimestampListingIsFilteredAsItIsRead() {
+		Timestamp from = new Timestamp(System.currentTimeMillis() - 3_600_000);
+		Timestamp to = new Timestamp(System.currentTimeMillis() + 3_600_000);
+
+		List<Load> loads = loadService.getLoads(0, null, null, null, null, false, null, from, to,
+				filter(null, null, new BigDecimal("20")));
+
+		// load:4 has no weight, so a weight bound leaves it out as the query does
+		assertThat(loads).extracting(Load::getLoadId).containsExactlyInAnyOrder("load:2", "load:3");
+	}
+
+	@Test
+	void withoutAFilterTheListingsAreUnchanged() {
+		List<Load> loads = loadService.getLoads(0, null, null, null, "OPEN_BODY", false, null, null, null,
+				new LoadFilter());
+
+		assertThat(loads).extracting(Load::getLoadId).containsExactlyInAnyOrder("load:1", "load:2");
+	}
+
+	private static LoadFilter filter(LocalDate from, LocalDate to, BigDecimal weightMin) {
+		LoadFilter filter = new LoadFilter();
+		filter.setLoadingDateFrom(from);
+		filter.setLoadingDateTo(to);
+		filter.setWeightMin(weightMin);
+		return filter;
+	}
+
+	private void save(String loadId, String postLoadId, String truckType, Load.Status status, LocalDate loadingOn,
+			String weight) {
+		Load load = new Load();
+		load.setLoadId(loadId);
+		load.setLoadingPoint("Nagpur");
+		load.setLoadingPointCity("Nagpur");
+		load.setLoadingPointState("Maharashtra");
+		load.setUnloadingPoint("Raipur");
+		load.setUnloadingPointCity("Raipur");
+		load.setUnloadingPointState("Chhattisgarh");
+		load.setPostLoadId(postLoadId);
+		load.setTruckType(truckType);
+		load.setStatus(status);
+		load.setLoadingOn(loadingOn);
+		load.setWeight(weight == null ? null : new BigDecimal(weight));
+		loadDao.save(load);
+	}
+}
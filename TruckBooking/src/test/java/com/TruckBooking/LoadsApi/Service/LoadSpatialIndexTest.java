@@ -0,0 +1,85 @@
+package com.TruckBooking.LoadsApi.Service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.TruckBooking.LoadsApi.Dao.LoadDao;
+import com.TruckBooking.LoadsApi.Entities.Load;
+import com.TruckBooking.routeData.Geo.GeoGridIndex;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class LoadSpatialIndexTest {
+
+	private LoadDao loadDao;
+	private LoadSpatialIndex index;
+
+	@BeforeEach
+	void setUp() {
+		loadDao = mock(LoadDao.class);
+		index = new LoadSpatialIndex(new SimpleMeterRegistry());
+		index.loadDao = loadDao;
+	}
+
+	@Test
+	void aRebuildDropsLoadsThatAreNoLongerPending() {
+		index.update(load("load:1", 19.07, 72.88));
+		when(loadDao.findCoordinatesByStatus(Load.Status.PENDING)).thenReturn(Collections.emptyList());
+
+		index.rebuild();
+
+		assertThat(nearbyIds()).isEmpty();
+	}
+
+	@Test
+	void aLoadIndexedWhileTheSnapshotIsReadSurvivesTheRebuild() {
+		when(loadDao.findCoordinatesByStatus(Load.Status.PENDING)).thenAnswer(invocation -> {
+			index.update(load("load:new", 19.07, 72.88));
+			return Collections.emptyList();
+		});
+
+		index.rebuild();
+
+		assertThat(nearbyIds()).containsExactly("load:new");
+	}
+
+	@Test
+	void aLoadRemovedWhileTheSnapshotIsReadStaysRemoved() {
+		index.update(load("load:1", 19.07, 72.88));
+		when(loadDao.findCoordinatesByStatus(Load.Status.PENDING)).thenAnswer(invocation -> {
+			index.remove("load:1");
+			List<Object[]> rows = new ArrayList<>();
+			rows.add(new Object[] {"load:1", 19.07, 72.88});
+			return rows;
+		});
+
+		index.rebuild();
+
+		assertThat(nearbyIds()).isEmpty();
+	}
+
+	private List<String> nearbyIds() {
+		List<String> ids = new ArrayList<>();
+		for (GeoGridIndex.Hit<String> hit : index.nearby(19.07, 72.88, 10, 10)) {
+			ids.add(hit.getKey());
+		}
+		return ids;
+	}
+
+	private static Load load(String loadId, double latitude, double longitude) {
+		Load load = new Load();
+		load.setLoadId(loadId);
+		load.setStatus(Load.Status.PENDING);
+		load.setLoadingPointLatitude(latitude);
+		load.setLoadingPointLongitude(longitude);
+		return load;
+	}
+}
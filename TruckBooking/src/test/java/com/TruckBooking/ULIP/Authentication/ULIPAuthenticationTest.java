@@ -0,0 +1,143 @@
+package com.TruckBooking.ULIP.Authentication;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.TruckBooking.ULIP.FakeUlip;
+
+class ULIPAuthenticationTest {
+
+	private FakeUlip ulip;
+	private MeterRegistry meterRegistry;
+	private ULIPAuthentication authentication;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		ulip = new FakeUlip();
+		meterRegistry = new SimpleMeterRegistry();
+		authentication = authentication(ulip, meterRegistry);
+	}
+
+	@AfterEach
+	void tearDown() {
+		ulip.close();
+	}
+
+	static ULIPAuthentication authentication(FakeUlip ulip, MeterRegistry meterRegistry) {
+		ULIPAuthentication authentication = new ULIPAuthentication(meterRegistry);
+		authentication.username = "user";
+		authentication.password = "secret";
+		authentication.loginUrl = ulip.url("/login");
+		authentication.defaultTtlSeconds = 1800;
+		authentication.refreshAheadSeconds = 300;
+		return authentication;
+	}
+
+	@Test
+	void concurrentCallersShareOneLogin() throws Exception {
+		ulip.loginDelay(200);
+		int callers = 16;
+		ExecutorService pool = Executors.newFixedThreadPool(callers);
+		try {
+			CountDownLatch start = new CountDownLatch(1);
+			List<Future<String>> ids = new ArrayList<>();
+			for (int i = 0; i < callers; i++) {
+				Callable<String> call = () -> {
+					start.await();
+					return authentication.getId();
+				};
+				ids.add(pool.submit(call));
+			}
+			start.countDown();
+			for (Future<String> id : ids) {
+				assertThat(id.get(5, TimeUnit.SECONDS)).isEqualTo("token-1");
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+		assertThat(ulip.logins()).isEqualTo(1);
+		assertThat(meterRegistry.get("ulip.token.refresh").timer().count()).isEqualTo(1);
+	}
+
+	@Test
+	void reusesTheTokenUntilItExpires() throws Exception {
+		assertThat(authentication.getId()).isEqualTo(authentication.getId());
+		assertThat(ulip.logins()).isEqualTo(1);
+	}
+
+	@Test
+	void takesTheLifetimeFromTheJwtExpClaim() throws Exception {
+		long exp = System.currentTimeMillis() / 1000 + 600;
+		ulip.expiresAt(exp);
+		authentication.getId();
+		assertThat(meterRegistry.get("ulip.token.ttl.remaining").gauge().value()).isCloseTo(600, within(5.0));
+	}
+
+	@Test
+	void fallsBackToTheConfiguredLifetimeForOpaqueTokens() throws Exception {
+		authentication.getId();
+		assertThat(meterRegistry.get("ulip.token.ttl.remaining").gauge().value()).isCloseTo(1800, within(5.0));
+	}
+
+	@Test
+	void logsInAgainOnceTheJwtHasExpired() throws Exception {
+		ulip.expiresAt(System.currentTimeMillis() / 1000 - 1);
+		String first = authentication.getId();
+		assertThat(authentication.getId()).isNotEqualTo(first);
+		assertThat(ulip.logins()).isEqualTo(2);
+	}
+
+	@Test
+	void scheduledCheckRenewsOnlyInsideTheRefreshAheadWindow() throws Exception {
+		ulip.expiresAt(System.currentTimeMillis() / 1000 + 3600);
+		authentication.generateToken();
+		authentication.generateToken();
+		assertThat(ulip.logins()).isEqualTo(1);
+
+		// inside the five minute window before expiry
+		ulip.expiresAt(System.currentTimeMillis() / 1000 + 120);
+		authentication.refreshAfterUnauthorized(authentication.getId());
+		assertThat(ulip.logins()).isEqualTo(2);
+		authentication.generateToken();
+		assertThat(ulip.logins()).isEqualTo(3);
+	}
+
+	@Test
+	void onlyTheFirstUnauthorizedCallerLogsInAgain() throws Exception {
+		String rejected = authentication.getId();
+		String renewed = authentication.refreshAfterUnauthorized(rejected);
+		assertThat(renewed).isNotEqualTo(rejected);
+		// a caller that was holding the same rejected token picks up the renewed one
+		assertThat(authentication.refreshAfterUnauthorized(rejected)).isEqualTo(renewed);
+		assertThat(ulip.logins()).isEqualTo(2);
+	}
+
+	@Test
+	void failedLoginsAreCountedAndRetriedOnTheNextCall() throws Exception {
+		authentication.loginUrl = ulip.url("/missing");
+		try {
+			authentication.getId();
+		} catch (Exception e) {
+			// expected
+		}
+		assertThat(meterRegistry.get("ulip.token.refresh.failures").counter().count()).isEqualTo(1);
+
+		authentication.loginUrl = ulip.url("/login");
+		assertThat(authentication.getId()).isEqualTo("token-1");
+	}
+}
@@ -0,0 +1,134 @@
+package com.TruckBooking.ULIP;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.json.JSONObject;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+// ULIP stand-in on a random local port. /login hands out a new token per call (optionally a JWT with
+// an exp claim, optionally slowly); /vahan and /fastag answer 401 unless the bearer token is the
+// latest one issued and not revoked, and otherwise echo the vehicle number back.
+public class FakeUlip implements AutoCloseable {
+
+	private final HttpServer server;
+	private final AtomicInteger logins = new AtomicInteger();
+	private final AtomicInteger lookups = new AtomicInteger();
+	private final Set<String> revoked = ConcurrentHashMap.newKeySet();
+	private volatile String latest;
+	private volatile long loginDelayMillis;
+	private volatile Long expSeconds;
+	private volatile long lookupDelayMillis;
+
+	public FakeUlip() throws IOException {
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		server.createContext("/login", this::login);
+		server.createContext("/vahan", this::lookup);
+		server.createContext("/fastag", this::lookup);
+		server.setExecutor(Executors.newCachedThreadPool());
+		server.start();
+	}
+
+	public String url(String path) {
+		return "http://127.0.0.1:" + server.getAddress().getPort() + path;
+	}
+
+	public int logins() {
+		return logins.get();
+	}
+
+	public int lookups() {
+		return lookups.get();
+	}
+
+	public String latestToken() {
+		return latest;
+	}
+
+	// makes ULIP reject the current token as if it had been revoked
+	public void revokeLatest() {
+		revoked.add(latest);
+	}
+
+	public void loginDelay(long millis) {
+		loginDelayMillis = millis;
+	}
+
+	public void lookupDelay(long millis) {
+		lookupDelayMillis = millis;
+	}
+
+	// issue JWTs carrying this exp claim instead of opaque tokens
+	public void expiresAt(long epochSeconds) {
+		expSeconds = epochSeconds;
+	}
+
+	private void login(HttpExchange exchange) throws IOException {
+		drain(exchange.getRequestBody());
+		sleep(loginDelayMillis);
+		int n = logins.incrementAndGet();
+		String token = expSeconds == null ? "token-" + n : jwt(n, expSeconds);
+		latest = token;
+		respond(exchange, 200, new JSONObject().put("response", new JSONObject().put("id", token)));
+	}
+
+	private void lookup(HttpExchange exchange) throws IOException {
+		JSONObject request = new JSONObject(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+		String token = exchange.getRequestHeaders().getFirst("authorization").substring("Bearer ".length());
+		if (!token.equals(latest) || revoked.contains(token)) {
+			respond(exchange, 401, new JSONObject().put("message", "unauthorized"));
+			return;
+		}
+		sleep(lookupDelayMillis);
+		lookups.incrementAndGet();
+		respond(exchange, 200, new JSONObject().put("response", new JSONObject()
+				.put("path", exchange.getRequestURI().getPath())
+				.put("vehiclenumber", request.optString("vehiclenumber"))));
+	}
+
+	private static String jwt(int n, long exp) {
+		Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+		String header = encoder.encodeToString("{\"alg\":\"none\"}".getBytes(StandardCharsets.UTF_8));
+		String claims = encoder.encodeToString(new JSONObject().put("sub", "login-" + n).put("exp", exp)
+				.toString().getBytes(StandardCharsets.UTF_8));
+		return header + "." + claims + ".sig";
+	}
+
+	private static void respond(HttpExchange exchange, int status, JSONObject body) throws IOException {
+		byte[] bytes = body.toString().getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().set("Content-Type", "application/json");
+		exchange.sendResponseHeaders(status, bytes.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(bytes);
+		}
+	}
+
+	private static void drain(InputStream in) throws IOException {
+		in.readAllBytes();
+	}
+
+	private static void sleep(long millis) {
+		if (millis <= 0)
+			return;
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	@Override
+	public void close() {
+		server.stop(0);
+	}
+}
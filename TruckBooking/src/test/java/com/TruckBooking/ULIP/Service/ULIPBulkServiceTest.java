@@ -0,0 +1,110 @@
+package com.TruckBooking.ULIP.Service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.json.JSONObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.TruckBooking.ULIP.FakeUlip;
+
+class ULIPBulkServiceTest {
+
+	private FakeUlip ulip;
+	private ULIPBulkService bulkService;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		ulip = new FakeUlip();
+		bulkService = bulkService(2, 2, 1000);
+	}
+
+	@AfterEach
+	void tearDown() {
+		bulkService.shutdown();
+		ulip.close();
+	}
+
+	private ULIPBulkService bulkService(int parallelism, int queueCapacity, int cacheMaxEntries) {
+		ULIPBulkService service = new ULIPBulkService(parallelism, queueCapacity);
+		service.ulipService = ULIPServiceTest.service(ulip, new SimpleMeterRegistry());
+		service.cacheTtlSeconds = 900;
+		service.cacheMaxEntries = cacheMaxEntries;
+		service.bulkTimeoutSeconds = 30;
+		return service;
+	}
+
+	@Test
+	void answersEveryDistinctVehicleOnceAndCachesRepeats() throws Exception {
+		List<JSONObject> first = verify(Arrays.asList("MH12 AB 1234", "mh12ab1234", "KA01CD5678"));
+		assertThat(first).hasSize(2).allMatch(line -> line.getString("status").equals("OK"));
+		assertThat(first).noneMatch(line -> line.getBoolean("cached"));
+
+		List<JSONObject> second = verify(Arrays.asList("KA01CD5678"));
+		assertThat(second.get(0).getBoolean("cached")).isTrue();
+		assertThat(ulip.lookups()).isEqualTo(2);
+	}
+
+	@Test
+	void moreLookupsThanThePoolAndQueueHoldRunOnTheCallerAndAllComplete() throws Exception {
+		ulip.lookupDelay(50);
+		List<String> vehicles = vehicles(20);
+
+		List<JSONObject> lines = verify(vehicles);
+
+		assertThat(lines).hasSize(20).allMatch(line -> line.getString("status").equals("OK"));
+		ThreadPoolExecutor executor = (ThreadPoolExecutor) ReflectionTestUtils.getField(bulkService, "executor");
+		assertThat(executor.getQueue().remainingCapacity() + executor.getQueue().size()).isEqualTo(2);
+		assertThat(executor.getCompletedTaskCount()).isLessThan(20);
+	}
+
+	@Test
+	void cacheStaysWithinItsLimitWhenNothingHasExpired() throws Exception {
+		bulkService.shutdown();
+		bulkService = bulkService(4, 100, 10);
+
+		verify(vehicles(50));
+
+		Map<?, ?> cache = (Map<?, ?>) ReflectionTestUtils.getField(bulkService, "cache");
+		assertThat(cache.size()).isLessThanOrEqualTo(10);
+	}
+
+	@Test
+	void failedLookupsAreNotCached() throws Exception {
+		bulkService.ulipService.vahanUrl = ulip.url("/missing");
+		assertThat(verify(Arrays.asList("MH12AB1234")).get(0).getString("status")).isEqualTo("ERROR");
+
+		bulkService.ulipService.vahanUrl = ulip.url("/vahan");
+		assertThat(verify(Arrays.asList("MH12AB1234")).get(0).getString("status")).isEqualTo("OK");
+	}
+
+	private List<JSONObject> verify(List<String> vehicles) throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		bulkService.verify(ULIPBulkService.Check.VAHAN, vehicles).writeTo(out);
+		List<JSONObject> lines = new ArrayList<>();
+		for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+			if (!line.isEmpty())
+				lines.add(new JSONObject(line));
+		}
+		return lines;
+	}
+
+	private static List<String> vehicles(int count) {
+		List<String> vehicles = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			vehicles.add(String.format("MH12AB%04d", i));
+		}
+		return vehicles;
+	}
+}
@@ -0,0 +1,71 @@
+package com.TruckBooking.ULIP.Service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.json.JSONObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.TruckBooking.ULIP.FakeUlip;
+import com.TruckBooking.ULIP.Authentication.ULIPAuthentication;
+
+class ULIPServiceTest {
+
+	private FakeUlip ulip;
+	private MeterRegistry meterRegistry;
+	private ULIPService service;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		ulip = new FakeUlip();
+		meterRegistry = new SimpleMeterRegistry();
+		service = service(ulip, meterRegistry);
+	}
+
+	@AfterEach
+	void tearDown() {
+		ulip.close();
+	}
+
+	static ULIPService service(FakeUlip ulip, MeterRegistry meterRegistry) {
+		ULIPAuthentication authentication = new ULIPAuthentication(meterRegistry);
+		ReflectionTestUtils.setField(authentication, "username", "user");
+		ReflectionTestUtils.setField(authentication, "password", "secret");
+		ReflectionTestUtils.setField(authentication, "loginUrl", ulip.url("/login"));
+		ReflectionTestUtils.setField(authentication, "defaultTtlSeconds", 1800L);
+		ReflectionTestUtils.setField(authentication, "refreshAheadSeconds", 300L);
+		ULIPService service = new ULIPService();
+		service.authentication = authentication;
+		service.meterRegistry = meterRegistry;
+		service.vahanUrl = ulip.url("/vahan");
+		service.fastagUrl = ulip.url("/fastag");
+		return service;
+	}
+
+	@Test
+	void retriesOnceWithARenewedTokenAfter401() throws Exception {
+		service.vahanLookup("MH12AB1234");
+		ulip.revokeLatest();
+
+		JSONObject response = service.vahanLookup("MH12AB1234");
+
+		assertThat(response.getJSONObject("response").getString("vehiclenumber")).isEqualTo("MH12AB1234");
+		assertThat(ulip.logins()).isEqualTo(2);
+		assertThat(meterRegistry.get("http.client.requests").tag("clientName", "ulip").tag("status", "401")
+				.timer().count()).isEqualTo(1);
+		assertThat(meterRegistry.get("http.client.requests").tag("clientName", "ulip").tag("status", "200")
+				.timer().count()).isEqualTo(2);
+	}
+
+	@Test
+	void callsShareTheTokenInsteadOfLoggingInEachTime() throws Exception {
+		service.vahanLookup("MH12AB1234");
+		service.fastagLookup("MH12AB1234");
+		assertThat(ulip.logins()).isEqualTo(1);
+		assertThat(ulip.lookups()).isEqualTo(2);
+	}
+}
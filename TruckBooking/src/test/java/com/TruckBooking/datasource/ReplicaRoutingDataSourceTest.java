@@ -0,0 +1,143 @@
+package com.TruckBooking.datasource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import javax.sql.DataSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Two H2 databases stand in for the primary and the replica; each knows its own name, and the
+// replica's lag is whatever replica_lag holds.
+class ReplicaRoutingDataSourceTest {
+
+    private static final long STICKY_MILLIS = 300;
+
+    private JdbcTemplate primary;
+    private JdbcTemplate replica;
+    private MeterRegistry meterRegistry;
+    private ReplicaLagMonitor lagMonitor;
+    private JdbcTemplate routed;
+    private DataSourceTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        primary = new JdbcTemplate(database("primary"));
+        replica = new JdbcTemplate(database("replica"));
+        for (JdbcTemplate database : new JdbcTemplate[] {primary, replica}) {
+            database.execute("CREATE TABLE server (name varchar(20))");
+        }
+        primary.update("INSERT INTO server VALUES ('primary')");
+        replica.update("INSERT INTO server VALUES ('replica')");
+        replica.execute("CREATE TABLE replica_lag (seconds double)");
+        replica.update("INSERT INTO replica_lag VALUES (0)");
+
+        meterRegistry = new SimpleMeterRegistry();
+        lagMonitor = new ReplicaLagMonitor(replica.getDataSource(), "SELECT seconds FROM replica_lag", 2000, meterRegistry);
+        DataSource routing = new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(primary.getDataSource(),
+                replica.getDataSource(), lagMonitor, new ReadYourWrites(STICKY_MILLIS), meterRegistry));
+        routed = new JdbcTemplate(routing);
+        transactionManager = new DataSourceTransactionManager(routing);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReadYourWrites.clearClient();
+        primary.execute("DROP ALL OBJECTS");
+        replica.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    void readOnlyTransactionsUseTheReplica() {
+        lagMonitor.check();
+
+        assertThat(serverFor(true)).isEqualTo("replica");
+        assertThat(serverFor(false)).isEqualTo("primary");
+        assertThat(routed.queryForObject("SELECT name FROM server", String.class)).isEqualTo("primary");
+        assertThat(meterRegistry.counter("datasource.route", "target", "replica", "reason", "read").count()).isEqualTo(1);
+    }
+
+    // a repository read inside a read-modify-write service method joins its transaction
+    @Test
+    void readOnlyCallsInsideAReadWriteTransactionUseThePrimary() {
+        lagMonitor.check();
+
+        String server = new TransactionTemplate(transactionManager).execute(status -> serverFor(true));
+
+        assertThat(server).isEqualTo("primary");
+    }
+
+    @Test
+    void readsStayOnThePrimaryUntilTheReplicaHasBeenChecked() {
+        assertThat(serverFor(true)).isEqualTo("primary");
+    }
+
+    @Test
+    void laggingReplicaFallsBackToThePrimary() {
+        replica.update("UPDATE replica_lag SET seconds = 10");
+        lagMonitor.check();
+        assertThat(lagMonitor.isReplicaUsable()).isFalse();
+        assertThat(serverFor(true)).isEqualTo("primary");
+
+        replica.update("UPDATE replica_lag SET seconds = 1");
+        lagMonitor.check();
+        assertThat(serverFor(true)).isEqualTo("replica");
+    }
+
+    @Test
+    void unreachableReplicaFallsBackToThePrimary() {
+        lagMonitor.check();
+        replica.execute("DROP TABLE replica_lag");
+        lagMonitor.check();
+
+        assertThat(lagMonitor.isReplicaUsable()).isFalse();
+        assertThat(serverFor(true)).isEqualTo("primary");
+    }
+
+    @Test
+    void clientReadsItsOwnWritesFromThePrimary() throws InterruptedException {
+        lagMonitor.check();
+
+        ReadYourWrites.setClient("client:a");
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                routed.update("INSERT INTO server VALUES ('written')"));
+        assertThat(serverFor(true)).isEqualTo("primary");
+
+        ReadYourWrites.setClient("client:b");
+        assertThat(serverFor(true)).isEqualTo("replica");
+
+        Thread.sleep(STICKY_MILLIS + 100);
+        ReadYourWrites.setClient("client:a");
+        assertThat(serverFor(true)).isEqualTo("replica");
+    }
+
+    @Test
+    void rolledBackWriteDoesNotStick() {
+        lagMonitor.check();
+
+        ReadYourWrites.setClient("client:a");
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            routed.update("INSERT INTO server VALUES ('written')");
+            status.setRollbackOnly();
+        });
+        assertThat(serverFor(true)).isEqualTo("replica");
+    }
+
+    private String serverFor(boolean readOnly) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setReadOnly(readOnly);
+        return transaction.execute(status -> routed.queryForObject("SELECT name FROM server WHERE name <> 'written'", String.class));
+    }
+
+    private static DataSource database(String name) {
+        return new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+    }
+}
@@ -0,0 +1,72 @@
+package com.TruckBooking.export.Controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.TruckBooking.export.Constants.ExportFormat;
+import com.TruckBooking.export.Converter.ExportFormatConverter;
+import com.TruckBooking.export.Service.ExportService;
+
+@WebMvcTest(ExportController.class)
+@TestPropertySource(properties = {"spring.mvc.async.request-timeout=180000", "export.request-timeout-ms=1800000"})
+class ExportControllerTest {
+
+	private static final StreamingResponseBody EMPTY = out -> { };
+
+	@Autowired
+	MockMvc mockMvc;
+
+	@MockBean
+	ExportService exportService;
+
+	@Test
+	void theFormatIsAcceptedInAnyCase() throws Exception {
+		when(exportService.exportInvoices(isNull(), isNull(), isNull(), isNull(), eq(ExportFormat.CSV), anyBoolean()))
+				.thenReturn(EMPTY);
+
+		mockMvc.perform(get("/invoice/export").param("format", "csv"))
+				.andExpect(status().isOk())
+				.andExpect(header().string("Content-Disposition", "attachment; filename=\"invoices.csv\""))
+				.andExpect(header().string("Content-Type", "text/csv;charset=UTF-8"));
+		mockMvc.perform(get("/invoice/export").param("format", "CSV")).andExpect(status().isOk());
+	}
+
+	@Test
+	void anUnknownFormatIsABadRequest() throws Exception {
+		mockMvc.perform(get("/invoice/export").param("format", "xml")).andExpect(status().isBadRequest());
+	}
+
+	@Test
+	void exportsGetTheirOwnAsyncTimeout() throws Exception {
+		when(exportService.exportLoads(any(), any(), any(), any(), eq(ExportFormat.NDJSON), eq(true))).thenReturn(EMPTY);
+
+		MvcResult result = mockMvc.perform(get("/load/export").param("gzip", "true"))
+				.andExpect(request().asyncStarted())
+				.andExpect(header().string("Content-Disposition", "attachment; filename=\"loads.ndjson.gz\""))
+				.andReturn();
+
+		assertThat(result.getRequest().getAsyncContext().getTimeout()).isEqualTo(1800000);
+	}
+
+	@Test
+	void theConverterTrimsAndIgnoresCase() {
+		assertThat(new ExportFormatConverter().convert(" NdJson ")).isEqualTo(ExportFormat.NDJSON);
+	}
+}
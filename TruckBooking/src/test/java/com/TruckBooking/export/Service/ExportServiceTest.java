@@ -0,0 +1,149 @@
+package com.TruckBooking.export.Service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.zip.GZIPInputStream;
+
+import org.json.JSONObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.TruckBooking.export.Constants.ExportFormat;
+import com.TruckBooking.export.Dao.ExportDao;
+
+// Runs the export queries on the Hibernate-created test schema, so a listed column that no
+// longer exists in the entities fails here.
+@DataJpaTest
+@Import({ExportDao.class, ExportService.class})
+class ExportServiceTest {
+
+	private static final Timestamp FROM = Timestamp.valueOf("2024-01-01 00:00:00");
+	private static final Timestamp TO = Timestamp.valueOf("2024-01-31 00:00:00");
+
+	@Autowired
+	ExportService exportService;
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	@BeforeEach
+	void setUp() {
+		// route_points comes from the Flyway migrations, which the H2 test schema does not run
+		jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS route_points (imei varchar(64) NOT NULL,"
+				+ " recorded_at timestamp NOT NULL, device_id varchar(64), truck_id varchar(255), truck_no varchar(64),"
+				+ " transporter_id varchar(255), latitude double precision NOT NULL, longitude double precision NOT NULL,"
+				+ " stopage_status varchar(32), duration varchar(64), PRIMARY KEY (imei, recorded_at))");
+		invoice("invoice:1", FROM, "100.00", "booking:1", "booking:2");
+		invoice("invoice:2", TO, "250.50");
+		invoice("invoice:3", Timestamp.valueOf("2024-01-31 00:00:01"), "999.00");
+	}
+
+	@Test
+	void csvHasExactlyTheListedColumnsAsCamelCaseHeaders() throws Exception {
+		String csv = export(exportService.exportInvoices("transporter:1", null, FROM, TO, ExportFormat.CSV, false));
+
+		String[] lines = csv.split("\r\n");
+		assertThat(lines[0]).isEqualTo("invoiceId,invoiceNo,transporterId,transporterName,shipperId,partyName,"
+				+ "invoiceAmount,invoiceStatus,invoiceDate,dueDate,dueOn,invoiceTimestamp,bookingId");
+		// both ends of the range are included, like the list endpoints
+		assertThat(lines).hasSize(3);
+		assertThat(lines[1]).startsWith("invoice:1,,transporter:1,,,\"Sharma, Sons\",100.00,");
+		assertThat(lines[1]).endsWith(",booking:1 booking:2");
+	}
+
+	@Test
+	void ndjsonHasOneObjectPerRow() throws Exception {
+		String ndjson = export(exportService.exportInvoices(null, null, null, null, ExportFormat.NDJSON, false));
+
+		String[] lines = ndjson.split("\n");
+		assertThat(lines).hasSize(3);
+		JSONObject first = new JSONObject(lines[0]);
+		assertThat(first.getString("invoiceId")).isEqualTo("invoice:1");
+		assertThat(first.getBigDecimal("invoiceAmount")).isEqualByComparingTo("100.00");
+		assertThat(first.getString("invoiceTimestamp")).isEqualTo(FROM.toInstant().toString());
+		assertThat(first.isNull("invoiceNo")).isTrue();
+		assertThat(new JSONObject(lines[1]).isNull("bookingId")).isTrue();
+	}
+
+	@Test
+	void gzippedExportsUnzipToTheSameRows() throws Exception {
+		ByteArrayOutputStream zipped = new ByteArrayOutputStream();
+		exportService.exportInvoices(null, null, null, null, ExportFormat.CSV, true).writeTo(zipped);
+
+		String csv = StreamUtils.copyToString(new GZIPInputStream(new ByteArrayInputStream(zipped.toByteArray())),
+				StandardCharsets.UTF_8);
+		assertThat(csv).isEqualTo(export(exportService.exportInvoices(null, null, null, null, ExportFormat.CSV, false)));
+	}
+
+	@Test
+	void everyExportRunsOnTheCurrentSchema() throws Exception {
+		assertThat(export(exportService.exportLoads(null, null, null, null, ExportFormat.CSV, false)))
+				.startsWith("loadId,loadingPoint,").contains("postedOn,loadingOn,loadingAt,biddingEndsAt")
+				.doesNotContain("loadingDate");
+		assertThat(export(exportService.exportBookings(null, null, null, null, null, null, ExportFormat.CSV, false)))
+				.startsWith("bookingId,").endsWith(",truckId\r\n");
+		assertThat(export(exportService.exportRoutes(null, null, null, null, null, null, null, ExportFormat.CSV, false)))
+				.startsWith("routeDataId,imei,");
+	}
+
+	@Test
+	void routesCoverBatchPointsAndLegacyRowsOnce() throws Exception {
+		Timestamp legacy = Timestamp.valueOf("2024-01-02 10:00:00");
+		Timestamp both = Timestamp.valueOf("2024-01-02 11:00:00");
+		Timestamp batch = Timestamp.valueOf("2024-01-02 12:00:00");
+		route("route:legacy", legacy);
+		route("route:both", both);
+		routePoint(both);
+		routePoint(batch);
+
+		String[] lines = export(exportService.exportRoutes("imei:1", null, null, null, null, FROM, TO, ExportFormat.CSV,
+				false)).split("\r\n");
+
+		assertThat(lines).hasSize(4);
+		assertThat(lines[1]).startsWith("route:legacy,imei:1,").contains(",Nagpur,");
+		assertThat(lines[2]).startsWith("route:both,imei:1,").contains(",Nagpur,");
+		// a point sent through the batch endpoint has no routes row, so no id or stopage address
+		assertThat(lines[3]).startsWith(",imei:1,device:1,truck:1,MH31AB1234,transporter:1,");
+		assertThat(lines[3]).endsWith(batch.toInstant().toString());
+	}
+
+	private static String export(StreamingResponseBody body) throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		body.writeTo(out);
+		return out.toString(StandardCharsets.UTF_8.name());
+	}
+
+	private void route(String routeDataId, Timestamp at) {
+		jdbcTemplate.update("INSERT INTO routes (route_data_id, imei, device_id, truck_id, truck_no, transporter_id,"
+				+ " latitude, longitude, stopage_address, stopage_status, duration, timestamp)"
+				+ " VALUES (?, 'imei:1', 'device:1', 'truck:1', 'MH31AB1234', 'transporter:1', 21.1, 79.0, 'Nagpur',"
+				+ " 'Parking', '0', ?)", routeDataId, at);
+	}
+
+	private void routePoint(Timestamp at) {
+		jdbcTemplate.update("INSERT INTO route_points (imei, recorded_at, device_id, truck_id, truck_no, transporter_id,"
+				+ " latitude, longitude, stopage_status, duration)"
+				+ " VALUES ('imei:1', ?, 'device:1', 'truck:1', 'MH31AB1234', 'transporter:1', 21.1, 79.0, 'Parking', '0')",
+				at);
+	}
+
+	private void invoice(String invoiceId, Timestamp at, String amount, String... bookingIds) {
+		jdbcTemplate.update("INSERT INTO invoice_services (invoice_id, transporter_id, party_name, invoice_amount,"
+				+ " invoice_timestamp) VALUES (?, 'transporter:1', 'Sharma, Sons', ?, ?)", invoiceId, new BigDecimal(amount), at);
+		for (String bookingId : bookingIds) {
+			jdbcTemplate.update("INSERT INTO invoice_booking_id (invoice_invoice_id, booking_id) VALUES (?, ?)",
+					invoiceId, bookingId);
+		}
+	}
+}
@@ -0,0 +1,240 @@
+package com.TruckBooking.hardwareData.Service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.io.StringReader;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.TruckBooking.LoadsApi.Exception.BusinessException;
+import com.TruckBooking.cache.CacheRegions;
+import com.TruckBooking.cache.SecondLevelCache;
+import com.TruckBooking.hardwareData.Dao.HardwareBulkDao;
+import com.TruckBooking.hardwareData.Entities.Hardware;
+import com.TruckBooking.hardwareData.Model.HardwareDataRequest;
+import com.TruckBooking.hardwareData.Response.BulkHardwareImportResponse;
+import com.TruckBooking.hardwareData.Response.HardwareImportRowResult;
+import com.TruckBooking.hardwareData.Response.HardwareImportRowResult.Status;
+
+class HardwareBulkImportServiceTest {
+
+	private static final String PHONE = "+919876543210";
+
+	// the hardware table as the fake DAO sees it
+	private final List<Hardware> table = new ArrayList<>();
+	// imeis another node registers between the existence check and the insert
+	private final Set<String> registeredConcurrently = new HashSet<>();
+	private boolean rewrittenBatches;
+	private int insertCalls;
+
+	private HardwareBulkImportService service;
+
+	@BeforeEach
+	void setUp() {
+		service = new HardwareBulkImportService();
+		service.hardwareBulkDao = new HardwareBulkDao() {
+			@Override
+			public List<Hardware> findExisting(Collection<String> imeis, Collection<String> deviceIds) {
+				List<Hardware> found = new ArrayList<>();
+				for (Hardware hardware : table) {
+					if (imeis.contains(hardware.getImei()) || deviceIds.contains(hardware.getDeviceId()))
+						found.add(hardware);
+				}
+				return found;
+			}
+
+			@Override
+			public Set<String> findIds(List<Hardware> hardware) {
+				Set<String> ids = new HashSet<>();
+				for (Hardware row : table) {
+					ids.add(row.getHardwareDataId());
+				}
+				return ids;
+			}
+
+			@Override
+			public int[][] insertBatch(List<Hardware> hardware, int batchSize) {
+				insertCalls++;
+				int[][] counts = new int[(hardware.size() + batchSize - 1) / batchSize][];
+				for (int b = 0; b < counts.length; b++) {
+					counts[b] = new int[Math.min(batchSize, hardware.size() - b * batchSize)];
+					for (int i = 0; i < counts[b].length; i++) {
+						Hardware row = hardware.get(b * batchSize + i);
+						boolean inserted = !registeredConcurrently.contains(row.getImei());
+						if (inserted)
+							table.add(row);
+						counts[b][i] = rewrittenBatches ? Statement.SUCCESS_NO_INFO : inserted ? 1 : 0;
+					}
+				}
+				return counts;
+			}
+		};
+		service.hardwareRegistry = mock(HardwareRegistry.class);
+		service.secondLevelCache = mock(SecondLevelCache.class);
+		service.maxRows = 5;
+		service.batchSize = 2;
+	}
+
+	@Test
+	void sortsEveryRowIntoCreatedInvalidOrDuplicate() {
+		table.add(hardware("imei-old", "device-old"));
+
+		BulkHardwareImportResponse response = service.importRows(Arrays.asList(
+				request("imei-1", "device-1", PHONE),
+				request("imei-2", "device-2", "12345"),
+				request("imei-1", "device-3", PHONE),
+				request("imei-old", "device-4", PHONE),
+				request("imei-5", "device-old", PHONE)));
+
+		assertThat(response.getTotal()).isEqualTo(5);
+		assertThat(response.getCreated()).isEqualTo(1);
+		assertThat(response.getInvalid()).isEqualTo(1);
+		assertThat(response.getDuplicate()).isEqualTo(3);
+		assertThat(response.getRows()).extracting(HardwareImportRowResult::getStatus)
+				.containsExactly(Status.CREATED, Status.INVALID, Status.DUPLICATE, Status.DUPLICATE, Status.DUPLICATE);
+		assertThat(response.getRows()).extracting(HardwareImportRowResult::getMessage).containsExactly(
+				null,
+				"The Phone No. must be of 13 digits.",
+				"imei appears more than once in the upload",
+				"This imei already exists.",
+				"This deviceId already exists.");
+		assertThat(response.getRows().get(0).getHardwareDataId()).startsWith("hardwareDataID:");
+		verify(service.hardwareRegistry, times(1)).putAfterCommit(any());
+		verify(service.secondLevelCache).evictAfterCommit(CacheRegions.HARDWARE_QUERIES);
+	}
+
+	@Test
+	void aRowRegisteredConcurrentlyIsReportedAsDuplicate() {
+		registeredConcurrently.add("imei-2");
+
+		BulkHardwareImportResponse response = service.importRows(Arrays.asList(
+				request("imei-1", "device-1", PHONE),
+				request("imei-2", "device-2", PHONE),
+				request("imei-3", "device-3", PHONE)));
+
+		assertThat(response.getRows()).extracting(HardwareImportRowResult::getStatus)
+				.containsExactly(Status.CREATED, Status.DUPLICATE, Status.CREATED);
+		assertThat(response.getRows().get(1).getMessage()).isEqualTo("imei or deviceId was registered concurrently");
+		assertThat(response.getRows().get(1).getHardwareDataId()).isNull();
+	}
+
+	@Test
+	void rewrittenBatchesWithoutRowCountsAreCheckedAgainstTheTable() {
+		rewrittenBatches = true;
+		registeredConcurrently.add("imei-1");
+
+		BulkHardwareImportResponse response = service.importRows(Arrays.asList(
+				request("imei-1", "device-1", PHONE),
+				request("imei-2", "device-2", PHONE),
+				request("imei-3", "device-3", PHONE)));
+
+		assertThat(response.getRows()).extracting(HardwareImportRowResult::getStatus)
+				.containsExactly(Status.DUPLICATE, Status.CREATED, Status.CREATED);
+	}
+
+	@Test
+	void nothingIsInsertedWhenEveryRowIsRejected() {
+		BulkHardwareImportResponse response = service.importRows(Arrays.asList(request(" ", "device-1", PHONE)));
+
+		assertThat(response.getInvalid()).isEqualTo(1);
+		assertThat(insertCalls).isZero();
+		verify(service.secondLevelCache, never()).evictAfterCommit(any());
+	}
+
+	@Test
+	void readsCsvColumnsInHeaderOrderWithQuotedValues() throws Exception {
+		String csv = "phoneNo,imei,simNumber,deviceId\n"
+				+ PHONE + ",imei-1,\"sim, one\",device-1\n"
+				+ "\n"
+				+ PHONE + ",imei-2,sim-2\n";
+
+		BulkHardwareImportResponse response = service.importCsv(new StringReader(csv));
+
+		assertThat(response.getRows()).extracting(HardwareImportRowResult::getStatus)
+				.containsExactly(Status.CREATED, Status.INVALID);
+		assertThat(response.getRows().get(1).getMessage()).isEqualTo("expected 4 columns but found 3");
+		assertThat(table).singleElement().satisfies(row -> {
+			assertThat(row.getImei()).isEqualTo("imei-1");
+			assertThat(row.getDeviceId()).isEqualTo("device-1");
+			assertThat(row.getSimNumber()).isEqualTo("sim, one");
+		});
+	}
+
+	@Test
+	void csvWithoutAHeaderIsReadInTheDefaultOrder() throws Exception {
+		BulkHardwareImportResponse response = service.importCsv(new StringReader("imei-1,device-1,sim-1," + PHONE));
+
+		assertThat(response.getCreated()).isEqualTo(1);
+		assertThat(table.get(0).getPhoneNo()).isEqualTo(PHONE);
+	}
+
+	@Test
+	void csvRowsMayNameTheTruckTheDeviceIsFittedTo() throws Exception {
+		String csv = "imei,truckNo,deviceId,simNumber,phoneNo,truckId\n"
+				+ "imei-1,MH12AB1234,device-1,sim-1," + PHONE + ",truck:1\n"
+				+ "imei-2,,device-2,sim-2," + PHONE + ",\n";
+
+		assertThat(service.importCsv(new StringReader(csv)).getCreated()).isEqualTo(2);
+		assertThat(table).extracting(Hardware::getTruckId, Hardware::getTruckNo)
+				.containsExactly(tuple("truck:1", "MH12AB1234"), tuple(null, null));
+
+		BulkHardwareImportResponse headerless = service.importCsv(new StringReader(
+				"imei-3,device-3,sim-3," + PHONE + ",truck:3,KA01CD5678\n"
+				+ "imei-4,device-4,sim-4," + PHONE + ",truck:4\n"));
+
+		assertThat(headerless.getCreated()).isEqualTo(1);
+		assertThat(headerless.getRows().get(1).getMessage()).isEqualTo("expected 4 or 6 columns but found 5");
+		assertThat(table.get(2).getTruckNo()).isEqualTo("KA01CD5678");
+	}
+
+	@Test
+	void refusesAHeaderMissingAColumnAndUploadsOverTheRowLimit() {
+		assertThatThrownBy(() -> service.importCsv(new StringReader("imei,deviceId,simNumber\n")))
+				.isInstanceOf(BusinessException.class)
+				.hasMessageContaining("missing the phoneNo column");
+		assertThatThrownBy(() -> service.importCsv(new StringReader("imei,deviceId,simNumber,phoneNo,vehicle\n")))
+				.isInstanceOf(BusinessException.class)
+				.hasMessageContaining("may only have the columns");
+
+		List<HardwareDataRequest> tooMany = new ArrayList<>();
+		for (int i = 0; i < 6; i++) {
+			tooMany.add(request("imei-" + i, "device-" + i, PHONE));
+		}
+		assertThatThrownBy(() -> service.importRows(tooMany))
+				.isInstanceOf(BusinessException.class)
+				.hasMessageContaining("At most 5 devices");
+		assertThat(insertCalls).isZero();
+	}
+
+	private static HardwareDataRequest request(String imei, String deviceId, String phoneNo) {
+		HardwareDataRequest request = new HardwareDataRequest();
+		request.setImei(imei);
+		request.setDeviceId(deviceId);
+		request.setSimNumber("sim-" + imei);
+		request.setPhoneNo(phoneNo);
+		return request;
+	}
+
+	private static Hardware hardware(String imei, String deviceId) {
+		Hardware hardware = new Hardware();
+		hardware.setHardwareDataId("hardwareDataID:" + imei);
+		hardware.setImei(imei);
+		hardware.setDeviceId(deviceId);
+		return hardware;
+	}
+}
@@ -0,0 +1,107 @@
+package com.TruckBooking.hardwareData.Service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.UUID;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.TruckBooking.LoadsApi.Exception.BusinessException;
+import com.TruckBooking.hardwareData.Constants.HardwareConstants;
+import com.TruckBooking.hardwareData.Dao.HardwareDataDao;
+import com.TruckBooking.hardwareData.Entities.Hardware;
+import com.TruckBooking.hardwareData.Model.HardwareDataRequest;
+import com.TruckBooking.hardwareData.Response.CreateHardwareDataResponse;
+
+// Runs on the test H2 database by default; pass -Dspring.datasource.url=jdbc:postgresql://...
+// (with driverClassName, username and the PostgreSQL dialect) to check the same mapping on Postgres.
+// The registry outlives each test's rolled back transaction, so every test uses its own imeis.
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({HardwareDataServiceImpl.class, HardwareRegistry.class, HardwareDataServiceImplTest.Metrics.class})
+class HardwareDataServiceImplTest {
+
+	@TestConfiguration
+	static class Metrics {
+		@Bean
+		MeterRegistry meterRegistry() {
+			return new SimpleMeterRegistry();
+		}
+	}
+
+	@Autowired
+	HardwareDataServiceImpl hardwareDataService;
+
+	@Autowired
+	HardwareRegistry hardwareRegistry;
+
+	@Autowired
+	HardwareDataDao hardwareDataDao;
+
+	// commits, so the registry picks the device up the way it does in production
+	@Test
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	void registersTheTruckTheDeviceIsInstalledIn() {
+		HardwareDataRequest request = request("imei-1", "device-1");
+		request.setTruckId(" truck:1 ");
+		request.setTruckNo("MH12AB1234");
+
+		CreateHardwareDataResponse response = hardwareDataService.addHardwareData(request);
+
+		assertThat(response.getTruckId()).isEqualTo("truck:1");
+		Hardware hardware = hardwareRegistry.findByImei("imei-1");
+		assertThat(hardware.getTruckId()).isEqualTo("truck:1");
+		assertThat(hardware.getTruckNo()).isEqualTo("MH12AB1234");
+	}
+
+	@Test
+	void aDuplicateImeiThatGotPastTheCacheIsRefusedByTheConstraint() {
+		// remembered as unknown, so the pre-check no longer sees the row inserted next
+		assertThat(hardwareRegistry.findByImei("imei-2")).isNull();
+		hardwareDataDao.saveAndFlush(hardware("imei-2", "device-3"));
+
+		assertThatThrownBy(() -> hardwareDataService.addHardwareData(request("imei-2", "device-4")))
+				.isInstanceOf(BusinessException.class)
+				.hasMessageEndingWith(HardwareConstants.imeiExists);
+	}
+
+	@Test
+	void movingADeviceIdOntoAnotherDeviceIsRefusedByTheConstraint() {
+		hardwareDataDao.saveAndFlush(hardware("imei-3", "device-5"));
+		hardwareDataDao.saveAndFlush(hardware("imei-4", "device-6"));
+
+		assertThatThrownBy(() -> hardwareDataService.updateHardwareDataResponse("imei-4", request("imei-4", "device-5")))
+				.isInstanceOf(BusinessException.class)
+				.hasMessageEndingWith(HardwareConstants.deviceIdExists);
+	}
+
+	private static HardwareDataRequest request(String imei, String deviceId) {
+		HardwareDataRequest request = new HardwareDataRequest();
+		request.setImei(imei);
+		request.setDeviceId(deviceId);
+		request.setSimNumber("sim-" + imei);
+		request.setPhoneNo("+919876543210");
+		return request;
+	}
+
+	private static Hardware hardware(String imei, String deviceId) {
+		Hardware hardware = new Hardware();
+		hardware.setHardwareDataId("hardwareDataID:" + UUID.randomUUID());
+		hardware.setImei(imei);
+		hardware.setDeviceId(deviceId);
+		hardware.setSimNumber("sim-" + imei);
+		hardware.setPhoneNo("+919876543210");
+		return hardware;
+	}
+}
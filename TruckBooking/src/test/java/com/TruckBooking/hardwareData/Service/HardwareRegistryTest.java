@@ -0,0 +1,73 @@
+package com.TruckBooking.hardwareData.Service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.TruckBooking.hardwareData.Dao.HardwareDataDao;
+import com.TruckBooking.hardwareData.Entities.Hardware;
+
+class HardwareRegistryTest {
+
+    private HardwareDataDao hardwareDataDao;
+    private HardwareRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        hardwareDataDao = mock(HardwareDataDao.class);
+        registry = new HardwareRegistry(new SimpleMeterRegistry());
+        registry.hardwareDataDao = hardwareDataDao;
+        registry.ttlSeconds = 300;
+        registry.negativeTtlSeconds = 60;
+    }
+
+    @Test
+    void aKnownDeviceIsAnsweredFromMemoryWithinItsTtl() {
+        registry.putAfterCommit(hardware("truck:1"));
+
+        assertThat(registry.findByImei("imei-1").getTruckId()).isEqualTo("truck:1");
+        assertThat(registry.findByDeviceId("device-1").getTruckId()).isEqualTo("truck:1");
+        verify(hardwareDataDao, never()).findCurrentByImei("imei-1");
+        verify(hardwareDataDao, never()).findCurrentByDeviceId("device-1");
+    }
+
+    // another node reassigned the device; this node only learns of it once its entry expires
+    @Test
+    void anExpiredDeviceIsReadAgainAndPicksUpAReassignment() {
+        registry.ttlSeconds = 0;
+        registry.putAfterCommit(hardware("truck:1"));
+        when(hardwareDataDao.findCurrentByImei("imei-1")).thenReturn(Collections.singletonList(hardware("truck:2")));
+        when(hardwareDataDao.findCurrentByDeviceId("device-1")).thenReturn(Collections.singletonList(hardware("truck:2")));
+
+        assertThat(registry.findByImei("imei-1").getTruckId()).isEqualTo("truck:2");
+        assertThat(registry.findByDeviceId("device-1").getTruckId()).isEqualTo("truck:2");
+    }
+
+    @Test
+    void anExpiredDeviceDeletedElsewhereIsForgotten() {
+        registry.ttlSeconds = 0;
+        registry.putAfterCommit(hardware("truck:1"));
+        when(hardwareDataDao.findCurrentByImei("imei-1")).thenReturn(Collections.emptyList());
+        when(hardwareDataDao.findCurrentByDeviceId("device-1")).thenReturn(Collections.emptyList());
+
+        assertThat(registry.findByImei("imei-1")).isNull();
+        assertThat(registry.findByDeviceId("device-1")).isNull();
+    }
+
+    private static Hardware hardware(String truckId) {
+        Hardware hardware = new Hardware();
+        hardware.setHardwareDataId("hardware:1");
+        hardware.setImei("imei-1");
+        hardware.setDeviceId("device-1");
+        hardware.setTruckId(truckId);
+        return hardware;
+    }
+}
@@ -0,0 +1,165 @@
+package com.TruckBooking.installerTask.Service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.TruckBooking.LoadsApi.Exception.BusinessException;
+import com.TruckBooking.installerTask.Dao.InstallerTaskDao;
+import com.TruckBooking.installerTask.Entities.InstallerTask;
+import com.TruckBooking.installerTask.Model.InstallerTaskRequest;
+
+// Claims rely on FOR UPDATE SKIP LOCKED, which H2 does not have, so this runs against the Postgres
+// database in TEST_POSTGRES_URL (plus TEST_POSTGRES_USER/TEST_POSTGRES_PASSWORD). Hibernate
+// recreates the tables. Skipped when TEST_POSTGRES_URL is not set.
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = {
+		"spring.datasource.url=${TEST_POSTGRES_URL}",
+		"spring.datasource.username=${TEST_POSTGRES_USER:postgres}",
+		"spring.datasource.password=${TEST_POSTGRES_PASSWORD:postgres}",
+		"spring.datasource.driverClassName=org.postgresql.Driver",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.PostgreSQL10Dialect"
+})
+@Import(InstallerTaskServiceImpl.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@EnabledIfEnvironmentVariable(named = "TEST_POSTGRES_URL", matches = ".+")
+class InstallerTaskClaimTest {
+
+	@Autowired
+	InstallerTaskServiceImpl installerTaskService;
+
+	@Autowired
+	InstallerTaskDao installerTaskDao;
+
+	@BeforeEach
+	void setUp() {
+		installerTaskDao.deleteAll();
+	}
+
+	@Test
+	void concurrentInstallersNeverClaimTheSameTask() throws Exception {
+		int tasks = 40;
+		for (int i = 0; i < tasks; i++) {
+			installerTaskService.addInstallerTask(request("MH12AB" + (1000 + i), null));
+		}
+
+		int installers = 8;
+		List<Future<List<String>>> claims = run(installers, installer -> {
+			List<String> claimed = new ArrayList<>();
+			for (Optional<InstallerTask> task; (task = installerTaskService.claimNextInstallerTask("installer-" + installer)).isPresent(); ) {
+				claimed.add(task.get().getInstallerTaskId());
+			}
+			return claimed;
+		});
+
+		Set<String> distinct = new HashSet<>();
+		int total = 0;
+		for (Future<List<String>> claim : claims) {
+			List<String> claimed = claim.get(30, TimeUnit.SECONDS);
+			total += claimed.size();
+			distinct.addAll(claimed);
+		}
+		assertThat(total).isEqualTo(tasks);
+		assertThat(distinct).hasSize(tasks);
+		assertThat(installerTaskDao.findAll()).allSatisfy(task -> {
+			assertThat(task.getInstallerTaskStatus()).isEqualTo(InstallerTask.InstallerTaskStatus.Assigned);
+			assertThat(task.getGpsInstallerId()).startsWith("installer-");
+		});
+	}
+
+	@Test
+	void aTaskMeantForOneInstallerIsOnlyClaimedByThatInstaller() {
+		installerTaskService.addInstallerTask(request("MH12AB0001", "installer-a"));
+		installerTaskService.addInstallerTask(request("MH12AB0002", null));
+
+		assertThat(installerTaskService.claimNextInstallerTask("installer-b").get().getVehicleNo()).isEqualTo("MH12AB0002");
+		assertThat(installerTaskService.claimNextInstallerTask("installer-b")).isEmpty();
+		assertThat(installerTaskService.claimNextInstallerTask(" installer-a ").get().getVehicleNo()).isEqualTo("MH12AB0001");
+	}
+
+	@Test
+	void claimsTheOldestPendingTaskFirst() {
+		installerTaskService.addInstallerTask(request("MH12AB0001", null));
+		installerTaskService.addInstallerTask(request("MH12AB0002", null));
+
+		assertThat(installerTaskService.claimNextInstallerTask("installer-a").get().getVehicleNo()).isEqualTo("MH12AB0001");
+	}
+
+	@Test
+	void onlyOneOfTwoConcurrentTasksForTheSameVehicleIsCreated() throws Exception {
+		List<Future<Boolean>> adds = run(2, i -> {
+			try {
+				installerTaskService.addInstallerTask(request(" MH12AB0001 ", null));
+				return true;
+			} catch (BusinessException e) {
+				assertThat(e.getMessage()).endsWith("This vehicleNo already exists.");
+				return false;
+			}
+		});
+
+		int created = 0;
+		for (Future<Boolean> add : adds) {
+			if (add.get(30, TimeUnit.SECONDS))
+				created++;
+		}
+		assertThat(created).isEqualTo(1);
+		assertThat(installerTaskDao.findByVehicleNo("MH12AB0001")).hasSize(1);
+	}
+
+	private interface Task<T> {
+		T call(int i) throws Exception;
+	}
+
+	private static <T> List<Future<T>> run(int threads, Task<T> task) throws InterruptedException, ExecutionException {
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		try {
+			CountDownLatch start = new CountDownLatch(1);
+			List<Future<T>> futures = new ArrayList<>();
+			for (int i = 0; i < threads; i++) {
+				int n = i;
+				Callable<T> call = () -> {
+					start.await();
+					return task.call(n);
+				};
+				futures.add(pool.submit(call));
+			}
+			start.countDown();
+			for (Future<T> future : futures) {
+				future.get();
+			}
+			return futures;
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	private static InstallerTaskRequest request(String vehicleNo, String gpsInstallerId) {
+		InstallerTaskRequest request = new InstallerTaskRequest();
+		request.setVehicleNo(vehicleNo);
+		request.setGpsInstallerId(gpsInstallerId);
+		return request;
+	}
+}
@@ -0,0 +1,81 @@
+package com.TruckBooking.routeData.Geo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+class GeoGridIndexTest {
+
+    @Test
+    void radiusQueriesMatchABruteForceScan() {
+        Random random = new Random(42);
+        GeoGridIndex<Integer> index = new GeoGridIndex<>(0.1);
+        double[][] points = new double[5000][];
+        for (int i = 0; i < points.length; i++) {
+            // spread over India, with a few points around the poles and the antimeridian
+            double latitude = i % 50 == 0 ? 89.9 - random.nextDouble() : 8 + random.nextDouble() * 28;
+            double longitude = i % 70 == 0 ? 179.95 + random.nextDouble() * 0.1 - 0.1 : 68 + random.nextDouble() * 29;
+            points[i] = new double[] {latitude, longitude};
+            index.put(i, latitude, longitude);
+        }
+
+        double[][] centres = {{19.07, 72.88}, {28.61, 77.21}, {89.95, 0}, {10, 179.99}, {-45, 0}};
+        for (double[] centre : centres) {
+            for (double radiusKm : new double[] {1, 25, 150, 500}) {
+                List<Integer> expected = new ArrayList<>();
+                for (int i = 0; i < points.length; i++) {
+                    if (GeoGridIndex.distanceKm(centre[0], centre[1], points[i][0], points[i][1]) <= radiusKm)
+                        expected.add(i);
+                }
+                List<GeoGridIndex.Hit<Integer>> hits = index.within(centre[0], centre[1], radiusKm, Integer.MAX_VALUE);
+                assertThat(hits.stream().map(GeoGridIndex.Hit::getKey).collect(Collectors.toList()))
+                        .as("within %s km of %s, %s", radiusKm, centre[0], centre[1])
+                        .containsExactlyInAnyOrderElementsOf(expected);
+            }
+        }
+    }
+
+    @Test
+    void returnsTheNearestFirstUpToTheLimit() {
+        GeoGridIndex<String> index = new GeoGridIndex<>(0.1);
+        index.put("far", 19.30, 72.88);
+        index.put("near", 19.08, 72.88);
+        index.put("middle", 19.15, 72.88);
+
+        List<GeoGridIndex.Hit<String>> hits = index.within(19.07, 72.88, 50, 2);
+
+        assertThat(hits).extracting(GeoGridIndex.Hit::getKey).containsExactly("near", "middle");
+        assertThat(hits.get(0).getDistanceKm()).isCloseTo(1.11, within(0.01));
+    }
+
+    @Test
+    void findsKeysAcrossTheAntimeridian() {
+        GeoGridIndex<String> index = new GeoGridIndex<>(0.5);
+        index.put("east", 0, 179.99);
+        index.put("west", 0, -179.99);
+
+        assertThat(index.within(0, 179.999, 5, 10)).extracting(GeoGridIndex.Hit::getKey)
+                .containsExactlyInAnyOrder("east", "west");
+    }
+
+    @Test
+    void movingAKeyLeavesItInOnlyItsNewCell() {
+        GeoGridIndex<String> index = new GeoGridIndex<>(0.1);
+        index.put("truck", 19.07, 72.88);
+        index.put("truck", 28.61, 77.21);
+
+        assertThat(index.within(19.07, 72.88, 10, 10)).isEmpty();
+        assertThat(index.within(28.61, 77.21, 10, 10)).extracting(GeoGridIndex.Hit::getKey).containsExactly("truck");
+        assertThat(index.size()).isEqualTo(1);
+
+        index.remove("truck");
+        assertThat(index.within(28.61, 77.21, 10, 10)).isEmpty();
+        assertThat(index.get("truck")).isNull();
+    }
+}
@@ -0,0 +1,138 @@
+package com.TruckBooking.routeData.Service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.TruckBooking.LoadsApi.Exception.BusinessException;
+import com.TruckBooking.hardwareData.Entities.Hardware;
+import com.TruckBooking.hardwareData.Service.HardwareRegistry;
+import com.TruckBooking.routeData.Dao.RouteDataDao;
+import com.TruckBooking.routeData.Model.RouteDataRequest;
+import com.TruckBooking.routeData.Model.RoutePoint;
+import com.TruckBooking.routeData.Model.RoutePointBatchRequest;
+import com.TruckBooking.routeData.Model.RoutePointRequest;
+
+class DeviceTruckResolutionTest {
+
+    private final List<RoutePoint> published = new ArrayList<>();
+    private HardwareRegistry hardwareRegistry;
+    private RoutePointIngestionPipeline pipeline;
+    private RouteDataServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        hardwareRegistry = mock(HardwareRegistry.class);
+        pipeline = mock(RoutePointIngestionPipeline.class);
+        when(pipeline.offer(anyList())).thenReturn(true);
+        service = new RouteDataServiceImpl(new SimpleMeterRegistry());
+        service.hardwareRegistry = hardwareRegistry;
+        service.routePointIngestionPipeline = pipeline;
+        service.routePointListeners = Collections.singletonList(published::add);
+        service.routeDataDao = mock(RouteDataDao.class);
+    }
+
+    @Test
+    void theRegisteredTruckWinsOverWhatTheTrackerSent() {
+        when(hardwareRegistry.findByImei("imei-1")).thenReturn(hardware("imei-1", "device-1", "truck:1", "MH12AB1234"));
+
+        service.addRoutePoints(batch("imei-1", "stale-device", "truck:old", "MH01XX0000"));
+
+        assertThat(published).hasSize(2).allSatisfy(point -> {
+            assertThat(point.getDeviceId()).isEqualTo("device-1");
+            assertThat(point.getTruckId()).isEqualTo("truck:1");
+            assertThat(point.getTruckNo()).isEqualTo("MH12AB1234");
+        });
+    }
+
+    @Test
+    void aRegisteredDeviceNeedsNoTruckInTheBatch() {
+        when(hardwareRegistry.findByImei("imei-1")).thenReturn(hardware("imei-1", "device-1", "truck:1", "MH12AB1234"));
+
+        service.addRoutePoints(batch("imei-1", null, null, null));
+
+        assertThat(published).extracting(RoutePoint::getTruckId).containsOnly("truck:1");
+    }
+
+    @Test
+    void aDeviceWithoutARegisteredTruckFallsBackToTheBatch() {
+        when(hardwareRegistry.findByImei("imei-1")).thenReturn(hardware("imei-1", "device-1", null, null));
+
+        service.addRoutePoints(batch("imei-1", null, " truck:2 ", "KA01CD5678"));
+
+        assertThat(published).extracting(RoutePoint::getTruckId).containsOnly("truck:2");
+        assertThat(published).extracting(RoutePoint::getDeviceId).containsOnly("device-1");
+    }
+
+    @Test
+    void anUnregisteredDeviceMustSendItsTruck() {
+        when(hardwareRegistry.findByImei(anyString())).thenReturn(null);
+
+        assertThatThrownBy(() -> service.addRoutePoints(batch("imei-9", "device-9", null, "KA01CD5678")))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("truckId");
+        assertThat(published).isEmpty();
+    }
+
+    @Test
+    void aSinglePointIsOnlyPublishedOnceQueued() {
+        when(hardwareRegistry.findByImei("imei-1")).thenReturn(hardware("imei-1", "device-1", "truck:1", "MH12AB1234"));
+
+        service.addRouteData(routeData("imei-1"));
+        assertThat(published).extracting(RoutePoint::getTruckId).containsExactly("truck:1");
+
+        // the buffer is full: the point never reaches route_points, so listeners do not hear of it
+        when(pipeline.offer(anyList())).thenReturn(false);
+        service.addRouteData(routeData("imei-1"));
+        assertThat(published).hasSize(1);
+    }
+
+    private static Hardware hardware(String imei, String deviceId, String truckId, String truckNo) {
+        Hardware hardware = new Hardware();
+        hardware.setImei(imei);
+        hardware.setDeviceId(deviceId);
+        hardware.setTruckId(truckId);
+        hardware.setTruckNo(truckNo);
+        return hardware;
+    }
+
+    private static RouteDataRequest routeData(String imei) {
+        RouteDataRequest request = new RouteDataRequest();
+        request.setImei(imei);
+        request.setStopageAddress("Pune");
+        request.setDuration("0");
+        request.setLatitude(18.52);
+        request.setLongitude(73.85);
+        request.setStopageStatus(RouteDataRequest.StopageStatus.Parking);
+        return request;
+    }
+
+    private static RoutePointBatchRequest batch(String imei, String deviceId, String truckId, String truckNo) {
+        RoutePointBatchRequest request = new RoutePointBatchRequest();
+        request.setImei(imei);
+        request.setDeviceId(deviceId);
+        request.setTruckId(truckId);
+        request.setTruckNo(truckNo);
+        List<RoutePointRequest> points = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            RoutePointRequest point = new RoutePointRequest();
+            point.setTimestamp(1_700_000_000_000L + i * 60_000L);
+            point.setLatitude(18.52);
+            point.setLongitude(73.85);
+            points.add(point);
+        }
+        request.setPoints(points);
+        return request;
+    }
+}
@@ -0,0 +1,87 @@
+package com.TruckBooking.routeData.Service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.TruckBooking.routeData.Dao.TruckLatestPositionDao;
+import com.TruckBooking.routeData.Entities.TruckLatestPosition;
+import com.TruckBooking.routeData.Model.RoutePoint;
+
+// imei-1 reports to this node; imei-2 reports to another node and is only in the table.
+class LatestPositionStoreTest {
+
+    private TruckLatestPositionDao truckLatestPositionDao;
+    private LatestPositionStore store;
+
+    @BeforeEach
+    void setUp() {
+        truckLatestPositionDao = mock(TruckLatestPositionDao.class);
+        store = new LatestPositionStore();
+        store.truckLatestPositionDao = truckLatestPositionDao;
+        store.onRoutePoint(point("imei-1", "truck:1", "transporter:1", 2000));
+    }
+
+    @Test
+    void trucksReportingToAnotherNodeAreReadFromTheTable() {
+        when(truckLatestPositionDao.findByImeiIn(anyCollection())).thenReturn(Arrays.asList(
+                row("imei-1", "truck:1", "transporter:1", 1000), row("imei-2", "truck:2", "transporter:1", 1500)));
+
+        assertThat(store.find(Arrays.asList("imei-2", "imei-1", "imei-3"), Collections.emptyList()))
+                .extracting(TruckLatestPosition::getImei, p -> p.getRecordedAt().getTime())
+                .containsExactly(tuple("imei-2", 1500L),
+                        tuple("imei-1", 2000L));
+    }
+
+    @Test
+    void aNewerPositionFromAnotherNodeWinsOverThisNodesMemory() {
+        when(truckLatestPositionDao.findByTruckIdIn(anyCollection()))
+                .thenReturn(Collections.singletonList(row("imei-1", "truck:1", "transporter:1", 3000)));
+
+        assertThat(store.find(Collections.emptyList(), Collections.singletonList("truck:1")))
+                .extracting(p -> p.getRecordedAt().getTime()).containsExactly(3000L);
+    }
+
+    @Test
+    void aTransportersTrucksComeFromTheTableAndThisNode() {
+        store.onRoutePoint(point("imei-3", "truck:3", "transporter:2", 2000));
+        when(truckLatestPositionDao.findByTransporterId("transporter:1")).thenReturn(Arrays.asList(
+                row("imei-2", "truck:2", "transporter:1", 1500),
+                // this node has since seen imei-3 for another transporter
+                row("imei-3", "truck:3", "transporter:1", 1000)));
+
+        assertThat(store.findByTransporterId("transporter:1")).extracting(TruckLatestPosition::getImei)
+                .containsExactlyInAnyOrder("imei-1", "imei-2");
+    }
+
+    private static RoutePoint point(String imei, String truckId, String transporterId, long recordedAt) {
+        RoutePoint point = new RoutePoint();
+        point.setImei(imei);
+        point.setTruckId(truckId);
+        point.setTransporterId(transporterId);
+        point.setLatitude(19.07);
+        point.setLongitude(72.88);
+        point.setRecordedAt(new Timestamp(recordedAt));
+        return point;
+    }
+
+    private static TruckLatestPosition row(String imei, String truckId, String transporterId, long recordedAt) {
+        TruckLatestPosition position = new TruckLatestPosition();
+        position.setImei(imei);
+        position.setTruckId(truckId);
+        position.setTransporterId(transporterId);
+        position.setLatitude(19.07);
+        position.setLongitude(72.88);
+        position.setRecordedAt(new Timestamp(recordedAt));
+        return position;
+    }
+}
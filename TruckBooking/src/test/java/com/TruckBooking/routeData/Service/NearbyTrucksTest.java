@@ -0,0 +1,57 @@
+package com.TruckBooking.routeData.Service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.sql.Timestamp;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.TruckBooking.LoadsApi.Exception.BusinessException;
+import com.TruckBooking.routeData.Model.RoutePoint;
+import com.TruckBooking.routeData.Response.NearbyTruckResponse;
+
+class NearbyTrucksTest {
+
+    private RouteDataServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        service = new RouteDataServiceImpl(new SimpleMeterRegistry());
+        service.truckPositionIndex = new TruckPositionIndex();
+        service.nearbyMaxRadiusKm = 500;
+        service.nearbyDefaultLimit = 50;
+        service.nearbyMaxLimit = 200;
+        service.historyMaxLimit = 5000;
+        for (int i = 0; i < 300; i++) {
+            service.truckPositionIndex.onRoutePoint(point("imei-" + i, 19.0 + i * 0.001, 72.88, 1000));
+        }
+    }
+
+    @Test
+    void limitIsCheckedAgainstTheNearbyLimitNotTheHistoryLimit() {
+        assertThatThrownBy(() -> service.getNearbyTrucks(19.0, 72.88, 100, 1000))
+                .isInstanceOf(BusinessException.class)
+                .hasMessageContaining("between 1 and 200");
+        assertThat(service.getNearbyTrucks(19.0, 72.88, 100, 200)).hasSize(200);
+        assertThat(service.getNearbyTrucks(19.0, 72.88, 100, null)).hasSize(50);
+    }
+
+    @Test
+    void returnsTheNearestTrucksFirst() {
+        assertThat(service.getNearbyTrucks(19.0, 72.88, 1, 3)).extracting(NearbyTruckResponse::getImei)
+                .containsExactly("imei-0", "imei-1", "imei-2");
+    }
+
+    @Test
+    void aLatePointDoesNotMoveTheTruckBack() {
+        service.truckPositionIndex.onRoutePoint(point("imei-0", 28.61, 77.21, 500));
+        assertThat(service.truckPositionIndex.position("imei-0").getLatitude()).isEqualTo(19.0);
+    }
+
+    private static RoutePoint point(String imei, double latitude, double longitude, long recordedAt) {
+        return new RoutePoint(imei, null, null, null, null, latitude, longitude, new Timestamp(recordedAt), null, null);
+    }
+}
@@ -0,0 +1,115 @@
+package com.TruckBooking.routeData.Service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.TruckBooking.routeData.Dao.RoutePointDao;
+import com.TruckBooking.routeData.Model.RoutePoint;
+
+class RoutePointIngestionPipelineTest {
+
+	private final List<RoutePoint> written = Collections.synchronizedList(new ArrayList<>());
+	private RoutePointIngestionPipeline pipeline;
+
+	@AfterEach
+	void tearDown() throws InterruptedException {
+		if (pipeline != null)
+			pipeline.stop();
+	}
+
+	private RoutePointIngestionPipeline pipeline(int capacity, int writerThreads) {
+		pipeline = new RoutePointIngestionPipeline();
+		pipeline.routePointDao = new RoutePointDao() {
+			@Override
+			public int[][] insertBatch(List<RoutePoint> points) {
+				written.addAll(points);
+				return new int[0][];
+			}
+		};
+		pipeline.meterRegistry = new SimpleMeterRegistry();
+		pipeline.queueCapacity = capacity;
+		pipeline.batchSize = 50;
+		pipeline.flushIntervalMs = 20;
+		pipeline.writerThreads = writerThreads;
+		pipeline.start();
+		return pipeline;
+	}
+
+	@Test
+	void concurrentProducersNeverLeaveASubmissionHalfQueued() throws Exception {
+		// no writers, so whatever was accepted is still in the queue when the producers are done
+		pipeline(100, 0);
+		int producers = 16;
+		int batch = 30;
+		ExecutorService pool = Executors.newFixedThreadPool(producers);
+		AtomicInteger accepted = new AtomicInteger();
+		try {
+			CountDownLatch start = new CountDownLatch(1);
+			List<Future<?>> submissions = new ArrayList<>();
+			for (int i = 0; i < producers; i++) {
+				submissions.add(pool.submit(() -> {
+					start.await();
+					if (pipeline.offer(points(batch)))
+						accepted.incrementAndGet();
+					return null;
+				}));
+			}
+			start.countDown();
+			for (Future<?> submission : submissions) {
+				submission.get(5, TimeUnit.SECONDS);
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+
+		assertThat(accepted.get()).isEqualTo(3);
+		assertThat(pipeline.meterRegistry.get("routedata.ingest.queue.size").gauge().value()).isEqualTo(90);
+		assertThat(pipeline.meterRegistry.get("routedata.ingest.points").tag("result", "refused").counter().count())
+				.isEqualTo(13 * batch);
+	}
+
+	@Test
+	void drainedPointsFreeTheirSlots() throws Exception {
+		pipeline(100, 1);
+		for (int i = 0; i < 10; i++) {
+			long deadline = System.currentTimeMillis() + 2000;
+			while (!pipeline.offer(points(60))) {
+				assertThat(System.currentTimeMillis()).isLessThan(deadline);
+				Thread.sleep(5);
+			}
+		}
+		pipeline.stop();
+		pipeline = null;
+		assertThat(written).hasSize(600);
+	}
+
+	@Test
+	void aSubmissionLargerThanTheBufferIsRefusedWhole() {
+		pipeline(100, 0);
+		assertThat(pipeline.offer(points(101))).isFalse();
+		assertThat(pipeline.offer(points(100))).isTrue();
+	}
+
+	private static List<RoutePoint> points(int count) {
+		List<RoutePoint> points = new ArrayList<>(count);
+		Timestamp now = new Timestamp(System.currentTimeMillis());
+		for (int i = 0; i < count; i++) {
+			points.add(new RoutePoint("imei-" + i, null, null, null, null, 18.5, 73.8, now, null, null));
+		}
+		return points;
+	}
+}
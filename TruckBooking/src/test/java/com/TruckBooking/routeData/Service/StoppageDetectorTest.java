@@ -0,0 +1,176 @@
+package com.TruckBooking.routeData.Service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.TruckBooking.routeData.Dao.StoppageDao;
+import com.TruckBooking.routeData.Entities.Route;
+import com.TruckBooking.routeData.Entities.Stoppage;
+import com.TruckBooking.routeData.Model.RoutePoint;
+
+class StoppageDetectorTest {
+
+	private static final long T0 = 1_700_000_000_000L;
+	private static final double LAT = 18.5204;
+	private static final double LNG = 73.8567;
+	// roughly 100 m and 1 km north of the stop
+	private static final double NEAR = 0.0009;
+	private static final double FAR = 0.009;
+
+	private final List<Stoppage> saved = new ArrayList<>();
+	private StoppageDetector detector;
+
+	@BeforeEach
+	void setUp() {
+		StoppageDao stoppageDao = mock(StoppageDao.class);
+		when(stoppageDao.saveAll(anyList())).thenAnswer(invocation -> {
+			saved.addAll(invocation.getArgument(0));
+			return invocation.getArgument(0);
+		});
+		detector = detector(stoppageDao);
+	}
+
+	private static StoppageDetector detector(StoppageDao stoppageDao) {
+		StoppageDetector detector = new StoppageDetector();
+		detector.stoppageDao = stoppageDao;
+		detector.meterRegistry = new SimpleMeterRegistry();
+		detector.radiusMeters = 200;
+		detector.minDwellSeconds = 600;
+		detector.idleEvictHours = 24;
+		detector.registerMetrics();
+		return detector;
+	}
+
+	@Test
+	void aStopIsSavedOnceTheTruckLeavesTheRadius() {
+		detector.onRoutePoint(point("imei-1", 0, LAT, LNG, null));
+		detector.onRoutePoint(point("imei-1", 5, LAT + NEAR, LNG, Route.StopageStatus.Parking));
+		detector.onRoutePoint(point("imei-1", 12, LAT, LNG, null));
+		detector.flush();
+		assertThat(saved).isEmpty();
+
+		detector.onRoutePoint(point("imei-1", 13, LAT + FAR, LNG, null));
+		detector.flush();
+
+		assertThat(saved).hasSize(1);
+		Stoppage stoppage = saved.get(0);
+		assertThat(stoppage.getStoppageId()).startsWith("stoppage:");
+		assertThat(stoppage.getImei()).isEqualTo("imei-1");
+		assertThat(stoppage.getTruckId()).isEqualTo("truck:imei-1");
+		assertThat(stoppage.getStartedAt().getTime()).isEqualTo(T0);
+		assertThat(stoppage.getEndedAt().getTime()).isEqualTo(T0 + 12 * 60_000);
+		assertThat(stoppage.getDwellSeconds()).isEqualTo(720);
+		assertThat(stoppage.getPointCount()).isEqualTo(3);
+		assertThat(stoppage.getLatitude()).isCloseTo(LAT + NEAR / 3, within(1e-9));
+		assertThat(stoppage.getStopageStatus()).isEqualTo(Route.StopageStatus.Parking);
+		assertThat(detector.meterRegistry.get("routedata.stoppage.detected").counter().count()).isEqualTo(1);
+	}
+
+	@Test
+	void aPauseShorterThanTheDwellTimeIsNotAStop() {
+		detector.onRoutePoint(point("imei-1", 0, LAT, LNG, null));
+		detector.onRoutePoint(point("imei-1", 9, LAT, LNG, null));
+		detector.onRoutePoint(point("imei-1", 10, LAT + FAR, LNG, null));
+		detector.flush();
+
+		assertThat(saved).isEmpty();
+	}
+
+	@Test
+	void currentReportsOnlyAConfirmedStop() {
+		detector.onRoutePoint(point("imei-1", 0, LAT, LNG, null));
+		detector.onRoutePoint(point("imei-1", 5, LAT, LNG, null));
+		assertThat(detector.current("imei-1")).isNull();
+
+		detector.onRoutePoint(point("imei-1", 10, LAT, LNG, null));
+		Stoppage current = detector.current("imei-1");
+		assertThat(current.getStoppageId()).isNull();
+		assertThat(current.getDwellSeconds()).isEqualTo(600);
+		assertThat(detector.current("unknown")).isNull();
+	}
+
+	@Test
+	void aLatePointIsCountedAndCannotReopenAStop() {
+		detector.onRoutePoint(point("imei-1", 0, LAT, LNG, null));
+		detector.onRoutePoint(point("imei-1", 10, LAT, LNG, null));
+		detector.onRoutePoint(point("imei-1", 20, LAT + FAR, LNG, null));
+		detector.onRoutePoint(point("imei-1", 15, LAT, LNG, null));
+		detector.flush();
+
+		assertThat(saved).hasSize(1);
+		assertThat(detector.meterRegistry.get("routedata.stoppage.points.out_of_order").counter().count()).isEqualTo(1);
+		assertThat(detector.current("imei-1")).isNull();
+	}
+
+	@Test
+	void devicesAreTrackedIndependently() {
+		detector.onRoutePoint(point("imei-1", 0, LAT, LNG, null));
+		detector.onRoutePoint(point("imei-2", 0, LAT + FAR, LNG, null));
+		detector.onRoutePoint(point("imei-1", 10, LAT, LNG, null));
+		detector.onRoutePoint(point("imei-2", 10, LAT + FAR, LNG, null));
+
+		assertThat(detector.current("imei-1").getLatitude()).isCloseTo(LAT, within(1e-9));
+		assertThat(detector.current("imei-2").getLatitude()).isCloseTo(LAT + FAR, within(1e-9));
+		assertThat(detector.meterRegistry.get("routedata.stoppage.devices").gauge().value()).isEqualTo(2);
+	}
+
+	@Test
+	void anIdleDeviceIsDroppedAndItsConfirmedStopClosed() {
+		// T0 is long past the 24 hour idle window
+		detector.onRoutePoint(point("imei-1", 0, LAT, LNG, null));
+		detector.onRoutePoint(point("imei-1", 10, LAT, LNG, null));
+		detector.onRoutePoint(point("imei-2", 0, LAT, LNG, null));
+
+		detector.evictIdle();
+		detector.flush();
+
+		assertThat(saved).extracting(Stoppage::getImei).containsExactly("imei-1");
+		assertThat(detector.meterRegistry.get("routedata.stoppage.devices").gauge().value()).isEqualTo(0);
+	}
+
+	@Test
+	void aFailedSaveIsRetriedOnTheNextFlush() {
+		StoppageDao failing = mock(StoppageDao.class);
+		when(failing.saveAll(anyList())).thenThrow(new IllegalStateException("database down"))
+				.thenAnswer(invocation -> {
+					saved.addAll(invocation.getArgument(0));
+					return invocation.getArgument(0);
+				});
+		detector = detector(failing);
+		detector.onRoutePoint(point("imei-1", 0, LAT, LNG, null));
+		detector.onRoutePoint(point("imei-1", 10, LAT, LNG, null));
+		detector.onRoutePoint(point("imei-1", 11, LAT + FAR, LNG, null));
+
+		detector.flush();
+		assertThat(saved).isEmpty();
+		detector.flush();
+		assertThat(saved).hasSize(1);
+	}
+
+	@Test
+	void anEmptyFlushDoesNotTouchTheDatabase() {
+		StoppageDao stoppageDao = mock(StoppageDao.class);
+		detector = detector(stoppageDao);
+		detector.flush();
+		verify(stoppageDao, never()).saveAll(anyList());
+	}
+
+	private static RoutePoint point(String imei, int minute, double latitude, double longitude,
+			Route.StopageStatus status) {
+		return new RoutePoint(imei, null, "truck:" + imei, null, null, latitude, longitude,
+				new Timestamp(T0 + minute * 60_000L), status, null);
+	}
+}
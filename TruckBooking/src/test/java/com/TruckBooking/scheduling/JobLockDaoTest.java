@@ -0,0 +1,88 @@
+package com.TruckBooking.scheduling;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+// scheduled_job_lock uses timestamptz, which H2 does not have, so this runs against the Postgres
+// database in TEST_POSTGRES_URL with the table from the migration. Like the scheduler, it runs
+// without a surrounding transaction; a lost INSERT race would otherwise abort it. Skipped when TEST_POSTGRES_URL is not set.
+@JdbcTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@TestPropertySource(properties = {
+		"spring.datasource.url=${TEST_POSTGRES_URL}",
+		"spring.datasource.username=${TEST_POSTGRES_USER:postgres}",
+		"spring.datasource.password=${TEST_POSTGRES_PASSWORD:postgres}",
+		"spring.datasource.driverClassName=org.postgresql.Driver"
+})
+@Import(JobLockDao.class)
+@Sql("classpath:db/migration/V4__scheduled_job_lock.sql")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@EnabledIfEnvironmentVariable(named = "TEST_POSTGRES_URL", matches = ".+")
+class JobLockDaoTest {
+
+	private static final String JOB = "ContractRateService.findRank";
+	private static final Instant T0 = Instant.parse("2024-01-01T10:00:00Z");
+
+	@Autowired
+	JobLockDao jobLockDao;
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	@BeforeEach
+	void setUp() {
+		jdbcTemplate.update("DELETE FROM scheduled_job_lock");
+	}
+
+	@Test
+	void otherNodesAreTurnedAwayUntilTheLockRunsOut() {
+		assertThat(jobLockDao.tryLock(JOB, T0, T0.plus(Duration.ofMinutes(10)), "node-a")).isTrue();
+
+		assertThat(jobLockDao.tryLock(JOB, T0.plusSeconds(60), T0.plus(Duration.ofMinutes(11)), "node-b")).isFalse();
+		// a holder that died mid-run is taken over once lockAtMostFor has passed
+		assertThat(jobLockDao.tryLock(JOB, T0.plus(Duration.ofMinutes(10)), T0.plus(Duration.ofMinutes(20)), "node-b")).isTrue();
+	}
+
+	@Test
+	void anUnlockedJobStaysLockedForItsMinimumTime() {
+		jobLockDao.tryLock(JOB, T0, T0.plus(Duration.ofMinutes(10)), "node-a");
+
+		jobLockDao.unlock(JOB, T0, T0.plusSeconds(55), "node-a");
+
+		// a node whose schedule runs a few seconds behind does not repeat the same period
+		assertThat(jobLockDao.tryLock(JOB, T0.plusSeconds(5), T0.plus(Duration.ofMinutes(11)), "node-b")).isFalse();
+		assertThat(jobLockDao.tryLock(JOB, T0.plusSeconds(55), T0.plus(Duration.ofMinutes(11)), "node-b")).isTrue();
+	}
+
+	@Test
+	void aLateUnlockDoesNotReleaseTheNextHoldersLock() {
+		jobLockDao.tryLock(JOB, T0, T0.plusSeconds(60), "node-a");
+		jobLockDao.tryLock(JOB, T0.plusSeconds(60), T0.plus(Duration.ofMinutes(11)), "node-b");
+
+		jobLockDao.unlock(JOB, T0, T0.plusSeconds(90), "node-a");
+
+		assertThat(jobLockDao.tryLock(JOB, T0.plus(Duration.ofMinutes(5)), T0.plus(Duration.ofMinutes(15)), "node-c")).isFalse();
+	}
+
+	@Test
+	void jobsAreLockedIndependently() {
+		jobLockDao.tryLock(JOB, T0, T0.plus(Duration.ofMinutes(10)), "node-a");
+
+		assertThat(jobLockDao.tryLock("ContractRateService.checkRejected", T0, T0.plus(Duration.ofMinutes(10)), "node-b")).isTrue();
+	}
+}
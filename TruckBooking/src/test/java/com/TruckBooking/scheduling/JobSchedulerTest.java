@@ -0,0 +1,150 @@
+package com.TruckBooking.scheduling;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.support.CronExpression;
+import org.springframework.scheduling.support.ScheduledMethodRunnable;
+
+class JobSchedulerTest {
+
+	static class Jobs {
+		final AtomicInteger runs = new AtomicInteger();
+
+		@JobLock(lockAtLeastFor = "PT55S")
+		@Scheduled(fixedRate = 60000)
+		public void locked() {
+			runs.incrementAndGet();
+		}
+
+		public void unlocked() {
+			runs.incrementAndGet();
+		}
+	}
+
+	private final Jobs jobs = new Jobs();
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private JobLockDao jobLockDao;
+	private JobScheduler scheduler;
+
+	@BeforeEach
+	void setUp() {
+		jobLockDao = mock(JobLockDao.class);
+		scheduler = new JobScheduler(jobLockDao, meterRegistry, true, false);
+	}
+
+	@AfterEach
+	void tearDown() {
+		scheduler.shutdown();
+	}
+
+	@Test
+	void aLockedJobHoldsItsLockForAtLeastLockAtLeastFor() throws Exception {
+		when(jobLockDao.tryLock(anyString(), any(), any(), anyString())).thenReturn(true);
+
+		runOnce("locked");
+
+		ArgumentCaptor<Instant> lockedAt = ArgumentCaptor.forClass(Instant.class);
+		ArgumentCaptor<Instant> lockUntil = ArgumentCaptor.forClass(Instant.class);
+		verify(jobLockDao).tryLock(eq("Jobs.locked"), lockedAt.capture(), lockUntil.capture(), anyString());
+		assertThat(Duration.between(lockedAt.getValue(), lockUntil.getValue())).isEqualTo(Duration.ofMinutes(10));
+		// the run took far less than a period, so the lock is kept until lockAtLeastFor has passed
+		verify(jobLockDao).unlock(eq("Jobs.locked"), eq(lockedAt.getValue()),
+				eq(lockedAt.getValue().plusSeconds(55)), anyString());
+		assertThat(jobs.runs).hasValue(1);
+	}
+
+	@Test
+	void aJobLockedByAnotherNodeIsSkipped() throws Exception {
+		when(jobLockDao.tryLock(anyString(), any(), any(), anyString())).thenReturn(false);
+
+		runOnce("locked");
+
+		assertThat(jobs.runs).hasValue(0);
+		verify(jobLockDao, never()).unlock(anyString(), any(), any(), anyString());
+		assertThat(meterRegistry.counter("scheduled.job.skipped", "job", "Jobs.locked", "reason", "locked").count())
+				.isEqualTo(1);
+	}
+
+	@Test
+	void jobsWithoutJobLockRunOnEveryNode() throws Exception {
+		runOnce("unlocked");
+
+		assertThat(jobs.runs).hasValue(1);
+		verifyNoInteractions(jobLockDao);
+	}
+
+	@Test
+	void lockingCanBeSwitchedOff() throws Exception {
+		scheduler.shutdown();
+		scheduler = new JobScheduler(jobLockDao, meterRegistry, false, false);
+
+		runOnce("locked");
+
+		assertThat(jobs.runs).hasValue(1);
+		verifyNoInteractions(jobLockDao);
+	}
+
+	// Holding the lock for less than most of the period lets a node a few seconds behind run the
+	// same period again; holding it for a whole period locks the holder out of its own next run.
+	@Test
+	void everyJobLockIsHeldForMostOfItsPeriod() throws Exception {
+		ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false);
+		scanner.addIncludeFilter((reader, factory) -> reader.getAnnotationMetadata().hasAnnotatedMethods(JobLock.class.getName()));
+
+		int checked = 0;
+		for (BeanDefinition candidate : scanner.findCandidateComponents("com.TruckBooking")) {
+			for (Method method : Class.forName(candidate.getBeanClassName()).getDeclaredMethods()) {
+				JobLock lock = method.getAnnotation(JobLock.class);
+				Scheduled scheduled = method.getAnnotation(Scheduled.class);
+				if (lock == null || scheduled == null)
+					continue;
+				Duration period = period(scheduled);
+				Duration atLeast = Duration.parse(lock.lockAtLeastFor());
+				assertThat(atLeast).as(method.toString())
+						.isLessThan(period)
+						.isGreaterThanOrEqualTo(period.multipliedBy(9).dividedBy(10));
+				checked++;
+			}
+		}
+		assertThat(checked).isGreaterThanOrEqualTo(7);
+	}
+
+	private void runOnce(String method) throws Exception {
+		ScheduledMethodRunnable task = new ScheduledMethodRunnable(jobs, Jobs.class.getMethod(method));
+		scheduler.schedule(task, new Date()).get(10, TimeUnit.SECONDS);
+	}
+
+	private static Duration period(Scheduled scheduled) {
+		if (scheduled.fixedRate() > 0)
+			return Duration.ofMillis(scheduled.fixedRate());
+		if (scheduled.fixedDelay() > 0)
+			return Duration.ofMillis(scheduled.fixedDelay());
+		CronExpression cron = CronExpression.parse(scheduled.cron());
+		LocalDateTime next = cron.next(LocalDateTime.of(2024, 1, 1, 0, 0));
+		return Duration.between(next, cron.next(next));
+	}
+}